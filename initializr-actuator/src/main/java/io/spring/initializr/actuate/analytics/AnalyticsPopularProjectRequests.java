@@ -0,0 +1,51 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.analytics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import io.spring.initializr.actuate.analytics.DependencyAnalytics.Combination;
+import io.spring.initializr.web.project.PopularProjectRequests;
+
+/**
+ * {@link PopularProjectRequests} based on the most popular combinations of dependencies
+ * tracked by {@link DependencyAnalytics}. Other attributes use the defaults.
+ *
+ * @author Stephane Nicoll
+ */
+public class AnalyticsPopularProjectRequests implements PopularProjectRequests {
+
+	private final DependencyAnalytics analytics;
+
+	public AnalyticsPopularProjectRequests(DependencyAnalytics analytics) {
+		this.analytics = analytics;
+	}
+
+	@Override
+	public List<Map<String, Object>> getPopularRequests(int limit) {
+		List<Map<String, Object>> requests = new ArrayList<>();
+		for (Combination combination : this.analytics.getTopCombinations(limit)) {
+			requests.add(
+					Collections.singletonMap("style", combination.getDependencies()));
+		}
+		return requests;
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.analytics;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the in-process {@link DependencyAnalytics}.
+ *
+ * @author Stephane Nicoll
+ */
+@ConfigurationProperties("initializr.analytics")
+public class AnalyticsProperties {
+
+	/**
+	 * Whether to track the popularity of dependencies.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Duration of a bucket of dependency counts.
+	 */
+	private Duration bucketDuration = Duration.ofMinutes(1);
+
+	/**
+	 * Number of buckets of dependency counts. Counts cover the last "bucket-count" times
+	 * "bucket-duration".
+	 */
+	private int bucketCount = 60;
+
+	/**
+	 * Number of counters per row of the sketch of dependency combinations.
+	 */
+	private int sketchWidth = 4096;
+
+	/**
+	 * Number of rows of the sketch of dependency combinations.
+	 */
+	private int sketchDepth = 4;
+
+	/**
+	 * Number of most popular dependency combinations to track.
+	 */
+	private int topCombinations = 50;
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getBucketDuration() {
+		return this.bucketDuration;
+	}
+
+	public void setBucketDuration(Duration bucketDuration) {
+		this.bucketDuration = bucketDuration;
+	}
+
+	public int getBucketCount() {
+		return this.bucketCount;
+	}
+
+	public void setBucketCount(int bucketCount) {
+		this.bucketCount = bucketCount;
+	}
+
+	public int getSketchWidth() {
+		return this.sketchWidth;
+	}
+
+	public void setSketchWidth(int sketchWidth) {
+		this.sketchWidth = sketchWidth;
+	}
+
+	public int getSketchDepth() {
+		return this.sketchDepth;
+	}
+
+	public void setSketchDepth(int sketchDepth) {
+		this.sketchDepth = sketchDepth;
+	}
+
+	public int getTopCombinations() {
+		return this.topCombinations;
+	}
+
+	public void setTopCombinations(int topCombinations) {
+		this.topCombinations = topCombinations;
+	}
+
+}
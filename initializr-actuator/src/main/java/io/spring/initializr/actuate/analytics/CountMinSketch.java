@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Count-Min sketch of 64-bit keys. Estimates never underestimate the actual count and
+ * overestimate it by at most {@code 2N/width} with a probability of {@code 1 - 2^-depth},
+ * {@code N} being the total of the counts. Updates are lock-free.
+ *
+ * @author Stephane Nicoll
+ */
+class CountMinSketch {
+
+	private final int depth;
+
+	private final int mask;
+
+	private final AtomicLongArray counters;
+
+	/**
+	 * Create a sketch.
+	 * @param width the number of counters per row, rounded up to the next power of two
+	 * @param depth the number of rows
+	 */
+	CountMinSketch(int width, int depth) {
+		int size = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+		this.depth = depth;
+		this.mask = size - 1;
+		this.counters = new AtomicLongArray(size * depth);
+	}
+
+	/**
+	 * Increment the count of the specified key.
+	 * @param key the key
+	 * @return the estimated count of the key, including this increment
+	 */
+	long add(long key) {
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < this.depth; row++) {
+			estimate = Math.min(estimate, this.counters.incrementAndGet(index(key, row)));
+		}
+		return estimate;
+	}
+
+	/**
+	 * Return the estimated count of the specified key.
+	 * @param key the key
+	 * @return the estimated count
+	 */
+	long estimate(long key) {
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < this.depth; row++) {
+			estimate = Math.min(estimate, this.counters.get(index(key, row)));
+		}
+		return estimate;
+	}
+
+	// Derive one hash per row from the two halves of the key
+	private int index(long key, int row) {
+		int hash = (int) key + row * (int) (key >>> 32);
+		return row * (this.mask + 1) + (hash & this.mask);
+	}
+
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.analytics;
+
+import java.time.Clock;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.spring.initializr.actuate.event.ProjectRequestSnapshot;
+import io.spring.initializr.actuate.event.ProjectRequestSnapshotListener;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+
+/**
+ * A {@link ProjectRequestSnapshotListener} that keeps track of the popularity of the
+ * dependencies of the generated projects in memory. Maintains:
+ * <ul>
+ * <li>The number of requests and of each dependency over a sliding window of time
+ * buckets.</li>
+ * <li>A Count-Min sketch of the sets of dependencies that have been requested, and the
+ * most popular of those sets.</li>
+ * <li>How many times each pair of dependencies has been requested together.</li>
+ * </ul>
+ * Dependencies are indexed using the current metadata, so that memory is bounded by the
+ * number of dependencies and the configuration of the sketch. Dependencies are indexed
+ * again when the metadata is refreshed: the counts of the dependencies that are still
+ * available are retained while those of the dependencies that have been removed are
+ * discarded. Dependencies that are not part of the metadata are ignored. Updates are
+ * lock-free, although an update that races with the rotation of a time bucket or with a
+ * refresh of the metadata may be lost.
+ *
+ * @author Stephane Nicoll
+ */
+public class DependencyAnalytics implements ProjectRequestSnapshotListener {
+
+	private final InitializrMetadataProvider metadataProvider;
+
+	private final Clock clock;
+
+	private final long bucketDuration;
+
+	private final int bucketCount;
+
+	private final CountMinSketch sketch;
+
+	private final int topCombinationsSize;
+
+	private final AtomicReference<List<Combination>> topCombinations = new AtomicReference<>(
+			Collections.emptyList());
+
+	private volatile DependencyIndex index;
+
+	private volatile InitializrMetadata metadata;
+
+	private volatile long revision;
+
+	public DependencyAnalytics(InitializrMetadata metadata,
+			AnalyticsProperties properties) {
+		this(metadata, properties, Clock.systemUTC());
+	}
+
+	public DependencyAnalytics(InitializrMetadata metadata,
+			AnalyticsProperties properties, Clock clock) {
+		this(() -> metadata, properties, clock);
+	}
+
+	public DependencyAnalytics(InitializrMetadataProvider metadataProvider,
+			AnalyticsProperties properties) {
+		this(metadataProvider, properties, Clock.systemUTC());
+	}
+
+	public DependencyAnalytics(InitializrMetadataProvider metadataProvider,
+			AnalyticsProperties properties, Clock clock) {
+		this.metadataProvider = metadataProvider;
+		this.clock = clock;
+		this.bucketDuration = properties.getBucketDuration().toMillis();
+		this.bucketCount = properties.getBucketCount();
+		this.sketch = new CountMinSketch(properties.getSketchWidth(),
+				properties.getSketchDepth());
+		this.topCombinationsSize = properties.getTopCombinations();
+		this.index = new DependencyIndex(Collections.emptyList(), this.bucketCount);
+		getIndex();
+	}
+
+	// Return the index of the current metadata, indexing it again if it has changed
+	private DependencyIndex getIndex() {
+		InitializrMetadata current = this.metadataProvider.get();
+		if (this.metadata != current || this.revision != current.getRevision()) {
+			refresh(current);
+		}
+		return this.index;
+	}
+
+	private synchronized void refresh(InitializrMetadata metadata) {
+		long currentRevision = metadata.getRevision();
+		if (this.metadata == metadata && this.revision == currentRevision) {
+			return;
+		}
+		this.index = this.index
+				.migrate(new ArrayList<>(metadata.getDependencies().getAll()));
+		this.metadata = metadata;
+		this.revision = currentRevision;
+	}
+
+	@Override
+	public void onProjectRequest(ProjectRequestSnapshot snapshot) {
+		if (snapshot.isFailed()) {
+			return;
+		}
+		DependencyIndex index = getIndex();
+		int[] dependencies = index.indexDependencies(snapshot.getResolvedDependencies());
+		recordBucket(index, snapshot.getTimestamp(), dependencies);
+		index.recordCooccurrences(dependencies);
+		recordCombination(index, dependencies);
+	}
+
+	private void recordBucket(DependencyIndex index, long timestamp, int[] dependencies) {
+		long epoch = timestamp / this.bucketDuration;
+		int bucket = (int) (epoch % this.bucketCount);
+		int size = index.ids.length;
+		long bucketEpoch = index.bucketEpochs.get(bucket);
+		while (bucketEpoch < epoch) {
+			if (index.bucketEpochs.compareAndSet(bucket, bucketEpoch, epoch)) {
+				int offset = bucket * (size + 1);
+				for (int i = 0; i <= size; i++) {
+					index.bucketCounters.set(offset + i, 0);
+				}
+			}
+			bucketEpoch = index.bucketEpochs.get(bucket);
+		}
+		if (bucketEpoch != epoch) {
+			return; // Too old for the window
+		}
+		int offset = bucket * (size + 1);
+		index.bucketCounters.incrementAndGet(offset + size);
+		for (int dependency : dependencies) {
+			index.bucketCounters.incrementAndGet(offset + dependency);
+		}
+	}
+
+	private void recordCombination(DependencyIndex index, int[] dependencies) {
+		long key = index.hash(dependencies);
+		long count = this.sketch.add(key);
+		List<Combination> current;
+		List<Combination> updated;
+		do {
+			current = this.topCombinations.get();
+			updated = updateTopCombinations(current, key, index.toIds(dependencies),
+					count);
+		}
+		while (updated != current
+				&& !this.topCombinations.compareAndSet(current, updated));
+	}
+
+	// Return the current list if the combination is not popular enough
+	private List<Combination> updateTopCombinations(List<Combination> current, long key,
+			List<String> dependencies, long count) {
+		if (this.topCombinationsSize <= 0) {
+			return current;
+		}
+		List<Combination> updated = new ArrayList<>(current.size() + 1);
+		boolean found = false;
+		for (Combination combination : current) {
+			if (combination.key == key) {
+				if (combination.count >= count) {
+					return current;
+				}
+				found = true;
+			}
+			else {
+				updated.add(combination);
+			}
+		}
+		if (!found && current.size() >= this.topCombinationsSize
+				&& current.get(current.size() - 1).count >= count) {
+			return current;
+		}
+		updated.add(new Combination(key, dependencies, count));
+		updated.sort(Comparator.comparingLong(Combination::getCount).reversed());
+		if (updated.size() > this.topCombinationsSize) {
+			updated.remove(updated.size() - 1);
+		}
+		return Collections.unmodifiableList(updated);
+	}
+
+	/**
+	 * Return the number of successful requests over the current window.
+	 * @return the number of requests
+	 * @see #getWindowStart()
+	 */
+	public long getRequests() {
+		DependencyIndex index = getIndex();
+		return sumBucketCounters(index, index.ids.length);
+	}
+
+	/**
+	 * Return the number of times each dependency has been requested over the current
+	 * window, from the most to the least requested. Dependencies that have not been
+	 * requested are omitted.
+	 * @return the count of each dependency
+	 * @see #getWindowStart()
+	 */
+	public Map<String, Long> getDependencyCounts() {
+		DependencyIndex index = getIndex();
+		List<Map.Entry<String, Long>> counts = new ArrayList<>();
+		for (int i = 0; i < index.ids.length; i++) {
+			long count = sumBucketCounters(index, i);
+			if (count > 0) {
+				counts.add(new SimpleImmutableEntry<>(index.ids[i], count));
+			}
+		}
+		return sortByCount(counts);
+	}
+
+	private long sumBucketCounters(DependencyIndex index, int counter) {
+		long currentEpoch = currentEpoch();
+		long total = 0;
+		for (int bucket = 0; bucket < this.bucketCount; bucket++) {
+			long epoch = index.bucketEpochs.get(bucket);
+			if (epoch > currentEpoch - this.bucketCount && epoch <= currentEpoch) {
+				total += index.bucketCounters
+						.get(bucket * (index.ids.length + 1) + counter);
+			}
+		}
+		return total;
+	}
+
+	private long currentEpoch() {
+		return this.clock.millis() / this.bucketDuration;
+	}
+
+	/**
+	 * Return the start of the current window, in milliseconds since the epoch.
+	 * @return the start of the window
+	 */
+	public long getWindowStart() {
+		return (currentEpoch() - this.bucketCount + 1) * this.bucketDuration;
+	}
+
+	/**
+	 * Return the end of the current window, in milliseconds since the epoch.
+	 * @return the end of the window
+	 */
+	public long getWindowEnd() {
+		return (currentEpoch() + 1) * this.bucketDuration;
+	}
+
+	/**
+	 * Return the most popular sets of dependencies since this instance was created, from
+	 * the most to the least requested. Counts are estimates that may be higher than the
+	 * actual count.
+	 * @param limit the maximum number of combinations to return
+	 * @return the most popular combinations
+	 */
+	public List<Combination> getTopCombinations(int limit) {
+		List<Combination> combinations = this.topCombinations.get();
+		return (combinations.size() > limit) ? combinations.subList(0, limit)
+				: combinations;
+	}
+
+	/**
+	 * Return the number of times the specified dependency has been requested with each
+	 * other dependency since this instance was created, from the most to the least
+	 * requested. Dependencies that have never been requested with it are omitted.
+	 * @param id the id of a dependency
+	 * @return the count of each dependency requested with the specified one or
+	 * {@code null} if the dependency is unknown
+	 */
+	public Map<String, Long> getCooccurrences(String id) {
+		DependencyIndex index = getIndex();
+		Integer dependency = index.indices.get(id);
+		if (dependency == null) {
+			return null;
+		}
+		List<Map.Entry<String, Long>> counts = new ArrayList<>();
+		for (int other = 0; other < index.ids.length; other++) {
+			if (other != dependency) {
+				long count = index.getCooccurrences(dependency, other);
+				if (count > 0) {
+					counts.add(new SimpleImmutableEntry<>(index.ids[other], count));
+				}
+			}
+		}
+		return sortByCount(counts);
+	}
+
+	private static Map<String, Long> sortByCount(List<Map.Entry<String, Long>> counts) {
+		counts.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+		Map<String, Long> sorted = new LinkedHashMap<>();
+		counts.forEach((entry) -> sorted.put(entry.getKey(), entry.getValue()));
+		return sorted;
+	}
+
+	/**
+	 * The counters of the dependencies of a given metadata, each dependency being
+	 * identified by its position in the metadata.
+	 */
+	private static final class DependencyIndex {
+
+		private final String[] ids;
+
+		private final Map<String, Integer> indices;
+
+		private final long[] hashes;
+
+		private final AtomicLongArray bucketEpochs;
+
+		private final AtomicLongArray bucketCounters;
+
+		private final AtomicLongArray cooccurrences;
+
+		private DependencyIndex(List<Dependency> dependencies, int bucketCount) {
+			this.ids = new String[dependencies.size()];
+			this.indices = new HashMap<>();
+			this.hashes = new long[this.ids.length];
+			for (int i = 0; i < this.ids.length; i++) {
+				this.ids[i] = dependencies.get(i).getId();
+				this.indices.put(this.ids[i], i);
+				this.hashes[i] = hash(this.ids[i]);
+			}
+			this.bucketEpochs = new AtomicLongArray(bucketCount);
+			for (int i = 0; i < bucketCount; i++) {
+				this.bucketEpochs.set(i, -1);
+			}
+			// Each bucket has a counter per dependency and a counter of requests
+			this.bucketCounters = new AtomicLongArray(
+					bucketCount * (this.ids.length + 1));
+			this.cooccurrences = new AtomicLongArray(
+					this.ids.length * (this.ids.length + 1) / 2);
+		}
+
+		// Create an index of the specified dependencies with the counters of this one
+		private DependencyIndex migrate(List<Dependency> dependencies) {
+			int bucketCount = this.bucketEpochs.length();
+			DependencyIndex migrated = new DependencyIndex(dependencies, bucketCount);
+			int[] previous = new int[migrated.ids.length];
+			for (int i = 0; i < migrated.ids.length; i++) {
+				Integer index = this.indices.get(migrated.ids[i]);
+				previous[i] = (index != null) ? index : -1;
+			}
+			int size = this.ids.length;
+			int migratedSize = migrated.ids.length;
+			for (int bucket = 0; bucket < bucketCount; bucket++) {
+				migrated.bucketEpochs.set(bucket, this.bucketEpochs.get(bucket));
+				migrated.bucketCounters.set(bucket * (migratedSize + 1) + migratedSize,
+						this.bucketCounters.get(bucket * (size + 1) + size));
+				for (int i = 0; i < migratedSize; i++) {
+					if (previous[i] != -1) {
+						migrated.bucketCounters.set(bucket * (migratedSize + 1) + i,
+								this.bucketCounters
+										.get(bucket * (size + 1) + previous[i]));
+					}
+				}
+			}
+			for (int i = 0; i < migratedSize; i++) {
+				for (int j = i; j < migratedSize; j++) {
+					if (previous[i] != -1 && previous[j] != -1) {
+						migrated.cooccurrences.set(migrated.cooccurrenceIndex(i, j),
+								getCooccurrences(previous[i], previous[j]));
+					}
+				}
+			}
+			return migrated;
+		}
+
+		// Return the sorted, unique indices of the specified dependencies
+		private int[] indexDependencies(List<Dependency> dependencies) {
+			int[] indices = new int[dependencies.size()];
+			int size = 0;
+			for (Dependency dependency : dependencies) {
+				Integer index = this.indices.get(dependency.getId());
+				if (index != null
+						&& !ProjectRequest.DEFAULT_STARTER.equals(dependency.getId())) {
+					indices[size++] = index;
+				}
+			}
+			Arrays.sort(indices, 0, size);
+			int unique = 0;
+			for (int i = 0; i < size; i++) {
+				if (unique == 0 || indices[unique - 1] != indices[i]) {
+					indices[unique++] = indices[i];
+				}
+			}
+			return Arrays.copyOf(indices, unique);
+		}
+
+		private void recordCooccurrences(int[] dependencies) {
+			for (int i = 0; i < dependencies.length; i++) {
+				for (int j = i; j < dependencies.length; j++) {
+					this.cooccurrences.incrementAndGet(
+							cooccurrenceIndex(dependencies[i], dependencies[j]));
+				}
+			}
+		}
+
+		private long getCooccurrences(int i, int j) {
+			return this.cooccurrences
+					.get(cooccurrenceIndex(Math.min(i, j), Math.max(i, j)));
+		}
+
+		// Index in the upper triangle of the matrix, including its diagonal, with i <= j
+		private int cooccurrenceIndex(int i, int j) {
+			return i * this.ids.length - i * (i - 1) / 2 + (j - i);
+		}
+
+		private List<String> toIds(int[] dependencies) {
+			List<String> ids = new ArrayList<>(dependencies.length);
+			for (int dependency : dependencies) {
+				ids.add(this.ids[dependency]);
+			}
+			return Collections.unmodifiableList(ids);
+		}
+
+		// 64-bit hash of a set of dependencies that does not depend on their indices so
+		// that it is stable when the metadata is refreshed
+		private long hash(int[] dependencies) {
+			long hash = dependencies.length;
+			for (int dependency : dependencies) {
+				hash += this.hashes[dependency];
+			}
+			return mix(hash);
+		}
+
+		// 64-bit FNV-1a hash of the id of a dependency
+		private static long hash(String id) {
+			long hash = 0xCBF29CE484222325L;
+			for (int i = 0; i < id.length(); i++) {
+				hash ^= id.charAt(i);
+				hash *= 0x100000001B3L;
+			}
+			return mix(hash);
+		}
+
+		private static long mix(long hash) {
+			hash ^= (hash >>> 33);
+			hash *= 0xFF51AFD7ED558CCDL;
+			hash ^= (hash >>> 33);
+			hash *= 0xC4CEB9FE1A85EC53L;
+			return hash ^ (hash >>> 33);
+		}
+
+	}
+
+	/**
+	 * A set of dependencies and the estimated number of times it has been requested.
+	 */
+	public static final class Combination {
+
+		private final long key;
+
+		private final List<String> dependencies;
+
+		private final long count;
+
+		private Combination(long key, List<String> dependencies, long count) {
+			this.key = key;
+			this.dependencies = dependencies;
+			this.count = count;
+		}
+
+		/**
+		 * Return the ids of the dependencies, in the order of the metadata.
+		 * @return the dependency ids
+		 */
+		public List<String> getDependencies() {
+			return this.dependencies;
+		}
+
+		public long getCount() {
+			return this.count;
+		}
+
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.analytics;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import io.spring.initializr.actuate.analytics.DependencyAnalytics.Combination;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+/**
+ * An {@link Endpoint} that exposes the popularity of dependencies tracked by
+ * {@link DependencyAnalytics}.
+ *
+ * @author Stephane Nicoll
+ */
+@Endpoint(id = "analytics")
+public class DependencyAnalyticsEndpoint {
+
+	private final DependencyAnalytics analytics;
+
+	private final int topCombinations;
+
+	public DependencyAnalyticsEndpoint(DependencyAnalytics analytics,
+			int topCombinations) {
+		this.analytics = analytics;
+		this.topCombinations = topCombinations;
+	}
+
+	@ReadOperation
+	public AnalyticsDescriptor analytics() {
+		return new AnalyticsDescriptor(
+				Instant.ofEpochMilli(this.analytics.getWindowStart()),
+				Instant.ofEpochMilli(this.analytics.getWindowEnd()),
+				this.analytics.getRequests(), this.analytics.getDependencyCounts(),
+				this.analytics.getTopCombinations(this.topCombinations));
+	}
+
+	@ReadOperation
+	public Map<String, Long> cooccurrences(@Selector String dependency) {
+		return this.analytics.getCooccurrences(dependency);
+	}
+
+	/**
+	 * Description of the popularity of dependencies.
+	 */
+	public static final class AnalyticsDescriptor {
+
+		private final Instant windowStart;
+
+		private final Instant windowEnd;
+
+		private final long requests;
+
+		private final Map<String, Long> dependencies;
+
+		private final List<Combination> combinations;
+
+		private AnalyticsDescriptor(Instant windowStart, Instant windowEnd, long requests,
+				Map<String, Long> dependencies, List<Combination> combinations) {
+			this.windowStart = windowStart;
+			this.windowEnd = windowEnd;
+			this.requests = requests;
+			this.dependencies = dependencies;
+			this.combinations = combinations;
+		}
+
+		public Instant getWindowStart() {
+			return this.windowStart;
+		}
+
+		public Instant getWindowEnd() {
+			return this.windowEnd;
+		}
+
+		public long getRequests() {
+			return this.requests;
+		}
+
+		public Map<String, Long> getDependencies() {
+			return this.dependencies;
+		}
+
+		public List<Combination> getCombinations() {
+			return this.combinations;
+		}
+
+	}
+
+}
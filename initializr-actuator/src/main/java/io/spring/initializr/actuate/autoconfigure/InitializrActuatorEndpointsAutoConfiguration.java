@@ -16,10 +16,28 @@
 
 package io.spring.initializr.actuate.autoconfigure;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.spring.initializr.actuate.event.ProjectRequestEventBus;
+import io.spring.initializr.actuate.generation.GenerationEndpoint;
 import io.spring.initializr.actuate.info.BomRangesInfoContributor;
 import io.spring.initializr.actuate.info.DependencyRangesInfoContributor;
+import io.spring.initializr.generator.ProjectGenerator;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.util.TemplateRenderer;
+import io.spring.initializr.web.project.MainController;
+import io.spring.initializr.web.project.ProjectArchiveGenerator;
+import io.spring.initializr.web.support.MetadataDocumentCache;
+import io.spring.initializr.web.ui.UiController;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnEnabledEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -30,6 +48,7 @@ import org.springframework.context.annotation.Configuration;
  * @author Stephane Nicoll
  */
 @Configuration
+@AutoConfigureAfter(name = "io.spring.initializr.web.autoconfigure.InitializrAutoConfiguration")
 public class InitializrActuatorEndpointsAutoConfiguration {
 
 	@Bean
@@ -44,4 +63,34 @@ public class InitializrActuatorEndpointsAutoConfiguration {
 		return new DependencyRangesInfoContributor(metadataProvider);
 	}
 
+	/**
+	 * Expose the runtime state of the project generation.
+	 */
+	@Configuration
+	@ConditionalOnClass(ProjectArchiveGenerator.class)
+	static class GenerationEndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnBean(ProjectArchiveGenerator.class)
+		@ConditionalOnEnabledEndpoint
+		public GenerationEndpoint generationEndpoint(ProjectGenerator projectGenerator,
+				TemplateRenderer templateRenderer,
+				ProjectArchiveGenerator archiveGenerator,
+				ObjectProvider<MainController> mainController,
+				ObjectProvider<UiController> uiController,
+				ObjectProvider<ProjectRequestEventBus> eventBus,
+				ObjectProvider<CacheManager> cacheManager) {
+			Map<String, MetadataDocumentCache> documentCaches = new LinkedHashMap<>();
+			mainController.ifAvailable((controller) -> documentCaches
+					.put("metadata-documents", controller.getDocumentCache()));
+			uiController.ifAvailable((controller) -> documentCaches.put("ui-documents",
+					controller.getDocumentCache()));
+			return new GenerationEndpoint(projectGenerator, templateRenderer,
+					archiveGenerator, documentCaches, eventBus.getIfAvailable(),
+					cacheManager.getIfAvailable());
+		}
+
+	}
+
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.autoconfigure;
+
+import io.spring.initializr.actuate.analytics.AnalyticsPopularProjectRequests;
+import io.spring.initializr.actuate.analytics.AnalyticsProperties;
+import io.spring.initializr.actuate.analytics.DependencyAnalytics;
+import io.spring.initializr.actuate.analytics.DependencyAnalyticsEndpoint;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.web.project.PopularProjectRequests;
+
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnEnabledEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
+ * Auto-configuration} to track the popularity of dependencies in memory.
+ *
+ * @author Stephane Nicoll
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "initializr.analytics", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(AnalyticsProperties.class)
+@AutoConfigureAfter(name = "io.spring.initializr.web.autoconfigure.InitializrAutoConfiguration")
+public class InitializrAnalyticsAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnBean(InitializrMetadataProvider.class)
+	public DependencyAnalytics dependencyAnalytics(
+			InitializrMetadataProvider metadataProvider, AnalyticsProperties properties) {
+		return new DependencyAnalytics(metadataProvider, properties);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnBean(DependencyAnalytics.class)
+	@ConditionalOnEnabledEndpoint
+	public DependencyAnalyticsEndpoint dependencyAnalyticsEndpoint(
+			DependencyAnalytics analytics, AnalyticsProperties properties) {
+		return new DependencyAnalyticsEndpoint(analytics,
+				properties.getTopCombinations());
+	}
+
+	/**
+	 * Prewarm the archives of the most popular combinations of dependencies.
+	 */
+	@Configuration
+	@ConditionalOnClass(PopularProjectRequests.class)
+	@ConditionalOnBean(InitializrMetadataProvider.class)
+	static class PopularProjectRequestsConfiguration {
+
+		@Bean
+		public AnalyticsPopularProjectRequests analyticsPopularProjectRequests(
+				DependencyAnalytics analytics) {
+			return new AnalyticsPopularProjectRequests(analytics);
+		}
+
+	}
+
+}
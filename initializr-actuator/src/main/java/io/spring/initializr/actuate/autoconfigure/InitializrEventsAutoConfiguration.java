@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.autoconfigure;
+
+import java.util.stream.Collectors;
+
+import io.spring.initializr.actuate.event.EventBusProperties;
+import io.spring.initializr.actuate.event.ProjectRequestEventBus;
+import io.spring.initializr.actuate.event.ProjectRequestSnapshotListener;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
+ * Auto-configuration} to dispatch project request events to listeners off the request
+ * thread.
+ *
+ * @author Stephane Nicoll
+ */
+@Configuration
+@EnableConfigurationProperties(EventBusProperties.class)
+class InitializrEventsAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ProjectRequestEventBus projectRequestEventBus(EventBusProperties properties,
+			ObjectProvider<ProjectRequestSnapshotListener> listeners) {
+		return new ProjectRequestEventBus(properties,
+				listeners.orderedStream().collect(Collectors.toList()));
+	}
+
+}
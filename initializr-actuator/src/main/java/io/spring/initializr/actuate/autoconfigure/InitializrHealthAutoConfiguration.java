@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.autoconfigure;
+
+import io.spring.initializr.actuate.health.ProjectArchivePrewarmHealthIndicator;
+import io.spring.initializr.actuate.health.WarmupHealthIndicator;
+import io.spring.initializr.web.project.ProjectArchivePrewarmer;
+import io.spring.initializr.web.support.InitializrWarmup;
+
+import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
+import org.springframework.boot.actuate.autoconfigure.health.HealthIndicatorAutoConfiguration;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
+ * Auto-configuration} for the health indicators that gate the readiness of an initializr
+ * instance.
+ *
+ * @author Stephane Nicoll
+ */
+@Configuration
+@ConditionalOnClass({ HealthIndicator.class, ProjectArchivePrewarmer.class })
+@AutoConfigureBefore(HealthIndicatorAutoConfiguration.class)
+@AutoConfigureAfter(name = "io.spring.initializr.web.autoconfigure.InitializrAutoConfiguration")
+public class InitializrHealthAutoConfiguration {
+
+	@Bean
+	@ConditionalOnBean(ProjectArchivePrewarmer.class)
+	@ConditionalOnMissingBean(name = "prewarmHealthIndicator")
+	@ConditionalOnEnabledHealthIndicator("prewarm")
+	public ProjectArchivePrewarmHealthIndicator prewarmHealthIndicator(
+			ProjectArchivePrewarmer prewarmer) {
+		return new ProjectArchivePrewarmHealthIndicator(prewarmer);
+	}
+
+	@Bean
+	@ConditionalOnBean(InitializrWarmup.class)
+	@ConditionalOnMissingBean(name = "warmupHealthIndicator")
+	@ConditionalOnEnabledHealthIndicator("warmup")
+	public WarmupHealthIndicator warmupHealthIndicator(InitializrWarmup warmup) {
+		return new WarmupHealthIndicator(warmup);
+	}
+
+}
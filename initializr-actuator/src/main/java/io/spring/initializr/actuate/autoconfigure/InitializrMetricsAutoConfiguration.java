@@ -17,12 +17,22 @@
 package io.spring.initializr.actuate.autoconfigure;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.spring.initializr.actuate.event.ProjectRequestEventBus;
+import io.spring.initializr.actuate.event.ProjectRequestEventBusMetrics;
 import io.spring.initializr.actuate.metric.ProjectGenerationMetricsListener;
+import io.spring.initializr.actuate.metric.RequestResourceUsageMetrics;
+import io.spring.initializr.actuate.stat.ProjectGenerationStatPublisher;
+import io.spring.initializr.actuate.stat.ProjectGenerationStatPublisherMetrics;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.web.project.RequestResourceUsageListener;
 
 import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -34,13 +44,48 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 @ConditionalOnClass(MeterRegistry.class)
-@AutoConfigureAfter(CompositeMeterRegistryAutoConfiguration.class)
+@AutoConfigureAfter(value = { CompositeMeterRegistryAutoConfiguration.class,
+		InitializrEventsAutoConfiguration.class,
+		InitializrStatsAutoConfiguration.class }, name = "io.spring.initializr.web.autoconfigure.InitializrAutoConfiguration")
 public class InitializrMetricsAutoConfiguration {
 
 	@Bean
 	@ConditionalOnSingleCandidate(MeterRegistry.class)
-	public ProjectGenerationMetricsListener metricsListener(MeterRegistry meterRegistry) {
-		return new ProjectGenerationMetricsListener(meterRegistry);
+	@ConditionalOnBean(InitializrMetadataProvider.class)
+	public ProjectGenerationMetricsListener metricsListener(MeterRegistry meterRegistry,
+			InitializrMetadataProvider metadataProvider) {
+		return new ProjectGenerationMetricsListener(meterRegistry, metadataProvider);
+	}
+
+	@Bean
+	@ConditionalOnBean(ProjectGenerationStatPublisher.class)
+	public ProjectGenerationStatPublisherMetrics projectGenerationStatPublisherMetrics(
+			ProjectGenerationStatPublisher publisher) {
+		return new ProjectGenerationStatPublisherMetrics(publisher);
+	}
+
+	@Bean
+	@ConditionalOnBean(ProjectRequestEventBus.class)
+	public ProjectRequestEventBusMetrics projectRequestEventBusMetrics(
+			ProjectRequestEventBus eventBus) {
+		return new ProjectRequestEventBusMetrics(eventBus);
+	}
+
+	/**
+	 * Record the resources used by each request.
+	 */
+	@Configuration
+	@ConditionalOnClass(RequestResourceUsageListener.class)
+	@ConditionalOnWebApplication(type = Type.SERVLET)
+	static class RequestResourceUsageMetricsConfiguration {
+
+		@Bean
+		@ConditionalOnSingleCandidate(MeterRegistry.class)
+		public RequestResourceUsageMetrics requestResourceUsageMetrics(
+				MeterRegistry meterRegistry) {
+			return new RequestResourceUsageMetrics(meterRegistry);
+		}
+
 	}
 
 }
@@ -16,35 +16,30 @@
 
 package io.spring.initializr.actuate.autoconfigure;
 
-import java.util.Collections;
-
 import io.spring.initializr.actuate.stat.ProjectGenerationStatPublisher;
 import io.spring.initializr.actuate.stat.ProjectRequestDocumentFactory;
 import io.spring.initializr.actuate.stat.StatsProperties;
+import io.spring.initializr.actuate.stat.StatsSink;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.retry.backoff.ExponentialBackOffPolicy;
-import org.springframework.retry.policy.SimpleRetryPolicy;
-import org.springframework.retry.support.RetryTemplate;
+import org.springframework.context.annotation.Import;
 
 /**
  * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
- * Auto-configuration} to publish statistics of each generated project.
+ * Auto-configuration} to publish statistics of each generated project. Statistics are
+ * sent to Elasticsearch or written to local files, depending on the configuration.
  *
  * @author Stephane Nicoll
  */
 @Configuration
 @EnableConfigurationProperties(StatsProperties.class)
-@ConditionalOnProperty("initializr.stats.elastic.uri")
+@Import({ StatsSinkConfigurations.Elastic.class, StatsSinkConfigurations.Local.class })
 @AutoConfigureAfter(value = RestTemplateAutoConfiguration.class, name = "io.spring.initializr.web.autoconfigure.InitializrAutoConfiguration")
 class InitializrStatsAutoConfiguration {
 
@@ -55,28 +50,12 @@ class InitializrStatsAutoConfiguration {
 	}
 
 	@Bean
-	@ConditionalOnBean(InitializrMetadataProvider.class)
+	@ConditionalOnBean({ InitializrMetadataProvider.class, StatsSink.class })
 	public ProjectGenerationStatPublisher projectRequestStatHandler(
-			InitializrMetadataProvider provider,
-			RestTemplateBuilder restTemplateBuilder) {
+			InitializrMetadataProvider provider, StatsSink statsSink) {
 		return new ProjectGenerationStatPublisher(
 				new ProjectRequestDocumentFactory(provider), this.statsProperties,
-				restTemplateBuilder, statsRetryTemplate());
-	}
-
-	@Bean
-	@ConditionalOnMissingBean(name = "statsRetryTemplate")
-	public RetryTemplate statsRetryTemplate() {
-		RetryTemplate retryTemplate = new RetryTemplate();
-		ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
-		backOffPolicy.setInitialInterval(3000L);
-		backOffPolicy.setMultiplier(3);
-		SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(
-				this.statsProperties.getElastic().getMaxAttempts(),
-				Collections.singletonMap(Exception.class, true));
-		retryTemplate.setBackOffPolicy(backOffPolicy);
-		retryTemplate.setRetryPolicy(retryPolicy);
-		return retryTemplate;
+				statsSink);
 	}
 
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.autoconfigure;
+
+import java.util.Collections;
+
+import io.spring.initializr.actuate.stat.ElasticStatsSink;
+import io.spring.initializr.actuate.stat.LocalStatsSink;
+import io.spring.initializr.actuate.stat.StatsProperties;
+import io.spring.initializr.actuate.stat.StatsSink;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * {@link StatsSink} configurations, imported by {@link InitializrStatsAutoConfiguration}
+ * in order of precedence.
+ *
+ * @author Stephane Nicoll
+ */
+abstract class StatsSinkConfigurations {
+
+	/**
+	 * Publish statistics to Elasticsearch.
+	 */
+	@Configuration
+	@ConditionalOnProperty("initializr.stats.elastic.uri")
+	static class Elastic {
+
+		private final StatsProperties statsProperties;
+
+		Elastic(StatsProperties statsProperties) {
+			this.statsProperties = statsProperties;
+		}
+
+		@Bean
+		@ConditionalOnMissingBean(StatsSink.class)
+		public ElasticStatsSink elasticStatsSink(
+				RestTemplateBuilder restTemplateBuilder) {
+			return new ElasticStatsSink(this.statsProperties.getElastic(),
+					restTemplateBuilder, statsRetryTemplate());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean(name = "statsRetryTemplate")
+		public RetryTemplate statsRetryTemplate() {
+			RetryTemplate retryTemplate = new RetryTemplate();
+			ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+			backOffPolicy.setInitialInterval(3000L);
+			backOffPolicy.setMultiplier(3);
+			SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(
+					this.statsProperties.getElastic().getMaxAttempts(),
+					Collections.singletonMap(Exception.class, true));
+			retryTemplate.setBackOffPolicy(backOffPolicy);
+			retryTemplate.setRetryPolicy(retryPolicy);
+			return retryTemplate;
+		}
+
+	}
+
+	/**
+	 * Write statistics to local files.
+	 */
+	@Configuration
+	@ConditionalOnProperty("initializr.stats.local.directory")
+	static class Local {
+
+		@Bean
+		@ConditionalOnMissingBean(StatsSink.class)
+		public LocalStatsSink localStatsSink(StatsProperties statsProperties) {
+			StatsProperties.Local local = statsProperties.getLocal();
+			return new LocalStatsSink(local.getDirectory().toPath(),
+					local.getRollInterval());
+		}
+
+	}
+
+}
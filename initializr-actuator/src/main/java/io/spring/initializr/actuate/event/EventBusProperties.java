@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.event;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the {@link ProjectRequestEventBus}.
+ *
+ * @author Stephane Nicoll
+ */
+@ConfigurationProperties("initializr.events")
+public class EventBusProperties {
+
+	/**
+	 * Maximum number of events waiting to be dispatched. Rounded up to the next power of
+	 * two.
+	 */
+	private int capacity = 8192;
+
+	/**
+	 * Policy to apply when an event is published while the buffer is full.
+	 */
+	private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+	/**
+	 * Maximum time to wait for the buffer to have room for a new event when using the
+	 * "block" overflow policy. The new event is dropped after that time.
+	 */
+	private Duration blockTimeout = Duration.ofMillis(100);
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	public Duration getBlockTimeout() {
+		return this.blockTimeout;
+	}
+
+	public void setBlockTimeout(Duration blockTimeout) {
+		this.blockTimeout = blockTimeout;
+	}
+
+	/**
+	 * Policy to apply when the buffer is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Drop the new event so that the request thread is never held.
+		 */
+		DROP,
+
+		/**
+		 * Block the request thread until there is room for the new event.
+		 */
+		BLOCK
+
+	}
+
+}
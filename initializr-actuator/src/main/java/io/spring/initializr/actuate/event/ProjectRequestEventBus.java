@@ -0,0 +1,254 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import io.spring.initializr.actuate.event.EventBusProperties.OverflowPolicy;
+import io.spring.initializr.generator.ProjectRequestEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Dispatch {@link ProjectRequestEvent project request events} to
+ * {@link ProjectRequestSnapshotListener listeners} off the request thread. An immutable
+ * {@link ProjectRequestSnapshot} of each event is added to a bounded ring buffer that a
+ * single background thread drains, invoking every listener in order.
+ *
+ * @author Stephane Nicoll
+ */
+public class ProjectRequestEventBus implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(ProjectRequestEventBus.class);
+
+	private static final long MAX_IDLE = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private static final long BLOCK_PAUSE = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final RingBuffer<ProjectRequestSnapshot> buffer;
+
+	private final OverflowPolicy overflowPolicy;
+
+	private final long blockTimeout;
+
+	private final List<ProjectRequestSnapshotListener> listeners;
+
+	private final AtomicLong droppedEvents = new AtomicLong();
+
+	private final AtomicLong failedDispatches = new AtomicLong();
+
+	private volatile long dispatchedEvents;
+
+	private volatile boolean running;
+
+	private volatile boolean idle;
+
+	private volatile Thread dispatcher;
+
+	public ProjectRequestEventBus(EventBusProperties properties,
+			List<ProjectRequestSnapshotListener> listeners) {
+		this.buffer = new RingBuffer<>(properties.getCapacity());
+		this.overflowPolicy = properties.getOverflowPolicy();
+		this.blockTimeout = properties.getBlockTimeout().toNanos();
+		this.listeners = new ArrayList<>(listeners);
+	}
+
+	@EventListener
+	public void onProjectRequestEvent(ProjectRequestEvent event) {
+		publish(ProjectRequestSnapshot.of(event));
+	}
+
+	/**
+	 * Publish the specified snapshot to the listeners, applying the overflow policy if
+	 * the buffer is full.
+	 * @param snapshot the snapshot to publish
+	 * @return {@code true} if the snapshot will be dispatched, {@code false} if it has
+	 * been dropped
+	 */
+	public boolean publish(ProjectRequestSnapshot snapshot) {
+		if (this.buffer.offer(snapshot) || (this.overflowPolicy == OverflowPolicy.BLOCK
+				&& offerUntilTimeout(snapshot))) {
+			Thread thread = this.dispatcher;
+			if (this.idle && thread != null) {
+				LockSupport.unpark(thread);
+			}
+			return true;
+		}
+		this.droppedEvents.incrementAndGet();
+		return false;
+	}
+
+	private boolean offerUntilTimeout(ProjectRequestSnapshot snapshot) {
+		long deadline = System.nanoTime() + this.blockTimeout;
+		while (deadline - System.nanoTime() > 0) {
+			LockSupport.parkNanos(BLOCK_PAUSE);
+			if (Thread.currentThread().isInterrupted()) {
+				return false;
+			}
+			if (this.buffer.offer(snapshot)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Wait for the events that have been published so far to be dispatched.
+	 * @param timeout the maximum time to wait
+	 * @return {@code true} if the events have been dispatched, {@code false} if the
+	 * timeout elapsed first
+	 */
+	public boolean awaitDispatch(Duration timeout) {
+		long target = this.buffer.getProducerPosition();
+		long deadline = System.nanoTime() + timeout.toNanos();
+		while (this.dispatchedEvents < target) {
+			if (deadline - System.nanoTime() <= 0
+					|| Thread.currentThread().isInterrupted()) {
+				return false;
+			}
+			LockSupport.parkNanos(BLOCK_PAUSE);
+		}
+		return true;
+	}
+
+	@Override
+	public void start() {
+		Thread thread = new Thread(this::dispatchEvents, "initializr-events");
+		thread.setDaemon(true);
+		this.running = true;
+		this.dispatcher = thread;
+		thread.start();
+	}
+
+	@Override
+	public void stop() {
+		Thread thread = this.dispatcher;
+		this.running = false;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+			try {
+				thread.join(TimeUnit.NANOSECONDS.toMillis(MAX_IDLE) * 10);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			if (thread.isAlive()) {
+				log.warn("Event dispatcher did not stop, pending events are lost");
+				return;
+			}
+		}
+		this.dispatcher = null;
+		// The dispatcher is gone so this thread can safely consume the buffer
+		dispatchPendingEvents();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	private void dispatchEvents() {
+		while (this.running) {
+			if (!dispatchPendingEvents()) {
+				this.idle = true;
+				// Check again so that an event published meanwhile is not missed
+				if (isEmpty() && this.running) {
+					LockSupport.parkNanos(this, MAX_IDLE);
+				}
+				this.idle = false;
+			}
+		}
+	}
+
+	// Dispatch the events that are available and return whether there was any
+	private boolean dispatchPendingEvents() {
+		boolean dispatched = false;
+		ProjectRequestSnapshot snapshot;
+		while ((snapshot = this.buffer.poll()) != null) {
+			dispatch(snapshot);
+			dispatched = true;
+		}
+		return dispatched;
+	}
+
+	private void dispatch(ProjectRequestSnapshot snapshot) {
+		for (ProjectRequestSnapshotListener listener : this.listeners) {
+			try {
+				listener.onProjectRequest(snapshot);
+			}
+			catch (Exception ex) {
+				this.failedDispatches.incrementAndGet();
+				log.warn("Failed to dispatch project request to " + listener, ex);
+			}
+		}
+		this.dispatchedEvents++;
+	}
+
+	private boolean isEmpty() {
+		return this.buffer.getProducerPosition() == this.buffer.getConsumerPosition();
+	}
+
+	/**
+	 * Return the number of events that have been published but not dispatched yet.
+	 * @return the lag of the listeners, in number of events
+	 */
+	public long getLag() {
+		return this.buffer.getProducerPosition() - this.dispatchedEvents;
+	}
+
+	/**
+	 * Return the maximum number of events waiting to be dispatched.
+	 * @return the capacity of the buffer
+	 */
+	public int getCapacity() {
+		return this.buffer.getCapacity();
+	}
+
+	/**
+	 * Return the number of events that have been dispatched to the listeners.
+	 * @return the number of dispatched events
+	 */
+	public long getDispatchedEvents() {
+		return this.dispatchedEvents;
+	}
+
+	/**
+	 * Return the number of events that have been dropped as the buffer was full.
+	 * @return the number of dropped events
+	 */
+	public long getDroppedEvents() {
+		return this.droppedEvents.get();
+	}
+
+	/**
+	 * Return the number of times a listener failed to handle an event.
+	 * @return the number of failed dispatches
+	 */
+	public long getFailedDispatches() {
+		return this.failedDispatches.get();
+	}
+
+}
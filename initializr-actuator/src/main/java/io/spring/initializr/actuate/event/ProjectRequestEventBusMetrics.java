@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.event;
+
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A {@link MeterBinder} that exposes the state of a {@link ProjectRequestEventBus}.
+ *
+ * @author Stephane Nicoll
+ */
+public class ProjectRequestEventBusMetrics implements MeterBinder {
+
+	private final ProjectRequestEventBus eventBus;
+
+	public ProjectRequestEventBusMetrics(ProjectRequestEventBus eventBus) {
+		this.eventBus = eventBus;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("initializr.events.lag", this.eventBus,
+				ProjectRequestEventBus::getLag)
+				.description("Number of project request events waiting to be dispatched")
+				.register(registry);
+		Gauge.builder("initializr.events.capacity", this.eventBus,
+				ProjectRequestEventBus::getCapacity)
+				.description("Maximum number of project request events waiting to be "
+						+ "dispatched")
+				.register(registry);
+		registerEvents(registry, "dispatched",
+				ProjectRequestEventBus::getDispatchedEvents);
+		registerEvents(registry, "dropped", ProjectRequestEventBus::getDroppedEvents);
+		FunctionCounter
+				.builder("initializr.events.failures", this.eventBus,
+						ProjectRequestEventBus::getFailedDispatches)
+				.description("Project request events that a listener failed to handle")
+				.register(registry);
+	}
+
+	private void registerEvents(MeterRegistry registry, String result,
+			ToDoubleFunction<ProjectRequestEventBus> count) {
+		FunctionCounter.builder("initializr.events", this.eventBus, count)
+				.description("Project request events handled by the event bus")
+				.tag("result", result).register(registry);
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.spring.initializr.generator.ProjectFailedEvent;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.generator.ProjectRequestEvent;
+import io.spring.initializr.metadata.Dependency;
+
+/**
+ * An immutable snapshot of a {@link ProjectRequestEvent}. Only keeps the state that
+ * listeners need so that the {@link ProjectRequest}, and the headers it holds, can be
+ * garbage collected as soon as the project has been generated.
+ *
+ * @author Stephane Nicoll
+ */
+public final class ProjectRequestSnapshot {
+
+	/**
+	 * The request parameters that are kept in a snapshot.
+	 */
+	public static final List<String> CLIENT_PARAMETERS = Collections
+			.unmodifiableList(Arrays.asList("user-agent", "cf-connecting-ip",
+					"x-forwarded-for", "cf-ipcountry"));
+
+	private final long timestamp;
+
+	private final boolean failed;
+
+	private final String failureMessage;
+
+	private final String groupId;
+
+	private final String artifactId;
+
+	private final String packageName;
+
+	private final String type;
+
+	private final String packaging;
+
+	private final String javaVersion;
+
+	private final String language;
+
+	private final String bootVersion;
+
+	private final List<String> dependencies;
+
+	private final List<Dependency> resolvedDependencies;
+
+	private final Map<String, String> parameters;
+
+	private ProjectRequestSnapshot(ProjectRequestEvent event) {
+		ProjectRequest request = event.getProjectRequest();
+		this.timestamp = event.getTimestamp();
+		this.failed = event instanceof ProjectFailedEvent;
+		Exception cause = (this.failed) ? ((ProjectFailedEvent) event).getCause() : null;
+		this.failureMessage = (cause != null) ? cause.getMessage() : null;
+		this.groupId = request.getGroupId();
+		this.artifactId = request.getArtifactId();
+		this.packageName = request.getPackageName();
+		this.type = request.getType();
+		this.packaging = request.getPackaging();
+		this.javaVersion = request.getJavaVersion();
+		this.language = request.getLanguage();
+		this.bootVersion = request.getBootVersion();
+		List<String> dependencies = new ArrayList<>(request.getStyle());
+		dependencies.addAll(request.getDependencies());
+		this.dependencies = Collections.unmodifiableList(dependencies);
+		this.resolvedDependencies = (request.getResolvedDependencies() != null)
+				? Collections.unmodifiableList(
+						new ArrayList<>(request.getResolvedDependencies()))
+				: Collections.emptyList();
+		Map<String, String> parameters = new LinkedHashMap<>();
+		for (String name : CLIENT_PARAMETERS) {
+			Object value = request.getParameters().get(name);
+			if (value != null) {
+				parameters.put(name, value.toString());
+			}
+		}
+		this.parameters = Collections.unmodifiableMap(parameters);
+	}
+
+	/**
+	 * Create a snapshot of the specified {@link ProjectRequestEvent}.
+	 * @param event the event to capture
+	 * @return a snapshot of the event
+	 */
+	public static ProjectRequestSnapshot of(ProjectRequestEvent event) {
+		return new ProjectRequestSnapshot(event);
+	}
+
+	/**
+	 * Return the timestamp at which the request was processed.
+	 * @return the timestamp that the request was processed
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * Return whether the generation of the project failed.
+	 * @return {@code true} if the snapshot was taken from a {@link ProjectFailedEvent}
+	 */
+	public boolean isFailed() {
+		return this.failed;
+	}
+
+	/**
+	 * Return the message of the cause of the failure, if any.
+	 * @return the failure message or {@code null}
+	 */
+	public String getFailureMessage() {
+		return this.failureMessage;
+	}
+
+	public String getGroupId() {
+		return this.groupId;
+	}
+
+	public String getArtifactId() {
+		return this.artifactId;
+	}
+
+	public String getPackageName() {
+		return this.packageName;
+	}
+
+	public String getType() {
+		return this.type;
+	}
+
+	public String getPackaging() {
+		return this.packaging;
+	}
+
+	public String getJavaVersion() {
+		return this.javaVersion;
+	}
+
+	public String getLanguage() {
+		return this.language;
+	}
+
+	public String getBootVersion() {
+		return this.bootVersion;
+	}
+
+	/**
+	 * Return the ids of the dependencies as they were requested, including the ones that
+	 * are not valid.
+	 * @return the requested dependency ids
+	 */
+	public List<String> getDependencies() {
+		return this.dependencies;
+	}
+
+	/**
+	 * Return the dependencies that have been resolved against the metadata.
+	 * @return the resolved dependencies
+	 */
+	public List<Dependency> getResolvedDependencies() {
+		return this.resolvedDependencies;
+	}
+
+	/**
+	 * Return the {@link #CLIENT_PARAMETERS client parameters} of the request.
+	 * @return the client parameters
+	 */
+	public Map<String, String> getParameters() {
+		return this.parameters;
+	}
+
+}
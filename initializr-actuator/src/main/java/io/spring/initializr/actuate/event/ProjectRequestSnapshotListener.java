@@ -0,0 +1,35 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.event;
+
+/**
+ * Listener of the {@link ProjectRequestSnapshot snapshots} dispatched by the
+ * {@link ProjectRequestEventBus}. Invoked by a single background thread, so
+ * implementations should not block for long.
+ *
+ * @author Stephane Nicoll
+ */
+@FunctionalInterface
+public interface ProjectRequestSnapshotListener {
+
+	/**
+	 * Handle a project request.
+	 * @param snapshot the snapshot of the project request
+	 */
+	void onProjectRequest(ProjectRequestSnapshot snapshot);
+
+}
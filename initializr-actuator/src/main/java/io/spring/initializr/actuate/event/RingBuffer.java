@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring buffer that accepts elements from any number of threads and
+ * hands them over to a single consumer thread. Each slot carries a sequence number that
+ * tells producers and the consumer whether it is free or ready to be read.
+ *
+ * @param <E> the type of the elements
+ * @author Stephane Nicoll
+ */
+class RingBuffer<E> {
+
+	private final int mask;
+
+	private final AtomicReferenceArray<E> elements;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicLong producerPosition = new AtomicLong();
+
+	private volatile long consumerPosition;
+
+	/**
+	 * Create a ring buffer that holds at least the specified number of elements. The
+	 * capacity is rounded up to the next power of two.
+	 * @param capacity the minimum capacity
+	 */
+	RingBuffer(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		this.mask = size - 1;
+		this.elements = new AtomicReferenceArray<>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			this.sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Add an element if the buffer has room for it. Safe to call from any thread.
+	 * @param element the element to add
+	 * @return {@code true} if the element was added, {@code false} if the buffer is full
+	 */
+	boolean offer(E element) {
+		long position = this.producerPosition.get();
+		while (true) {
+			int index = (int) position & this.mask;
+			long difference = this.sequences.get(index) - position;
+			if (difference == 0) {
+				if (this.producerPosition.compareAndSet(position, position + 1)) {
+					this.elements.lazySet(index, element);
+					// Publish the element to the consumer
+					this.sequences.set(index, position + 1);
+					return true;
+				}
+				position = this.producerPosition.get();
+			}
+			else if (difference < 0) {
+				return false;
+			}
+			else {
+				position = this.producerPosition.get();
+			}
+		}
+	}
+
+	/**
+	 * Remove the oldest element. Must only be called by the consumer thread.
+	 * @return the oldest element or {@code null} if the buffer is empty
+	 */
+	E poll() {
+		long position = this.consumerPosition;
+		int index = (int) position & this.mask;
+		if (this.sequences.get(index) != position + 1) {
+			return null;
+		}
+		E element = this.elements.get(index);
+		this.elements.lazySet(index, null);
+		this.consumerPosition = position + 1;
+		// Hand the slot back to producers for the next lap
+		this.sequences.set(index, position + this.mask + 1);
+		return element;
+	}
+
+	/**
+	 * Return the number of elements that have been added so far.
+	 * @return the producer position
+	 */
+	long getProducerPosition() {
+		return this.producerPosition.get();
+	}
+
+	/**
+	 * Return the number of elements that have been removed so far.
+	 * @return the consumer position
+	 */
+	long getConsumerPosition() {
+		return this.consumerPosition;
+	}
+
+	/**
+	 * Return the number of slots of this buffer.
+	 * @return the capacity
+	 */
+	int getCapacity() {
+		return this.mask + 1;
+	}
+
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.generation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.spring.initializr.actuate.event.ProjectRequestEventBus;
+import io.spring.initializr.generator.ProjectGenerator;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.util.TemplateRenderer;
+import io.spring.initializr.web.project.ProjectArchiveCache;
+import io.spring.initializr.web.project.ProjectArchiveGenerator;
+import io.spring.initializr.web.project.ProjectGenerationMonitor;
+import io.spring.initializr.web.project.ProjectGenerationMonitor.SlowGeneration;
+import io.spring.initializr.web.support.MetadataDocumentCache;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * An {@link Endpoint} that exposes what the project generation is doing at runtime and
+ * that allows to invalidate its caches selectively.
+ *
+ * @author Stephane Nicoll
+ */
+@Endpoint(id = "generation")
+public class GenerationEndpoint {
+
+	/**
+	 * The name of the cache of compiled templates.
+	 */
+	public static final String TEMPLATES = "templates";
+
+	/**
+	 * The name of the cache of generated archives.
+	 */
+	public static final String ARCHIVES = "archives";
+
+	/**
+	 * The name of the cache of the metadata, invalidating it forces the metadata to be
+	 * refreshed.
+	 */
+	public static final String METADATA = "metadata";
+
+	/**
+	 * The name to use to invalidate all caches.
+	 */
+	public static final String ALL = "all";
+
+	private static final String METADATA_CACHE_NAME = "initializr.metadata";
+
+	private final ProjectGenerator projectGenerator;
+
+	private final TemplateRenderer templateRenderer;
+
+	private final ProjectArchiveGenerator archiveGenerator;
+
+	private final Map<String, MetadataDocumentCache> documentCaches;
+
+	private final ProjectRequestEventBus eventBus;
+
+	private final CacheManager cacheManager;
+
+	/**
+	 * Create an instance.
+	 * @param projectGenerator the project generator
+	 * @param templateRenderer the template renderer
+	 * @param archiveGenerator the archive generator
+	 * @param documentCaches the caches of metadata documents, by name
+	 * @param eventBus the event bus or {@code null}
+	 * @param cacheManager the cache manager holding the metadata or {@code null}
+	 */
+	public GenerationEndpoint(ProjectGenerator projectGenerator,
+			TemplateRenderer templateRenderer, ProjectArchiveGenerator archiveGenerator,
+			Map<String, MetadataDocumentCache> documentCaches,
+			ProjectRequestEventBus eventBus, CacheManager cacheManager) {
+		this.projectGenerator = projectGenerator;
+		this.templateRenderer = templateRenderer;
+		this.archiveGenerator = archiveGenerator;
+		this.documentCaches = new LinkedHashMap<>(documentCaches);
+		this.eventBus = eventBus;
+		this.cacheManager = cacheManager;
+	}
+
+	@ReadOperation
+	public GenerationDescriptor generation() {
+		ProjectGenerationMonitor monitor = this.archiveGenerator.getMonitor();
+		long queueDepth = (this.eventBus != null) ? this.eventBus.getLag() : 0;
+		return new GenerationDescriptor(
+				new GenerationsDescriptor(monitor.getInFlight(), monitor.getCompleted(),
+						queueDepth),
+				describeTemporaryDirectory(), describeCaches(), describeMetadata(),
+				monitor.getSlowGenerations());
+	}
+
+	@WriteOperation
+	public void invalidate(@Selector String cache) {
+		boolean all = ALL.equals(cache);
+		boolean invalidated = false;
+		if (all || TEMPLATES.equals(cache)) {
+			this.templateRenderer.clearCache();
+			invalidated = true;
+		}
+		if (all || ARCHIVES.equals(cache)) {
+			this.archiveGenerator.getCache().clear();
+			invalidated = true;
+		}
+		for (Map.Entry<String, MetadataDocumentCache> entry : this.documentCaches
+				.entrySet()) {
+			if (all || entry.getKey().equals(cache)) {
+				entry.getValue().clear();
+				invalidated = true;
+			}
+		}
+		Cache metadataCache = getMetadataCache();
+		if (metadataCache != null && (all || METADATA.equals(cache))) {
+			metadataCache.clear();
+			invalidated = true;
+		}
+		if (!invalidated) {
+			throw new InvalidEndpointRequestException("Unknown cache '" + cache + "'",
+					"Unknown cache");
+		}
+	}
+
+	private TemporaryDirectoryDescriptor describeTemporaryDirectory() {
+		File directory = this.projectGenerator.getTemporaryDirectory();
+		String[] entries = directory.list();
+		AtomicLong size = new AtomicLong();
+		try {
+			Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					size.addAndGet(attrs.size());
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException ex) {
+					// Generated files are removed concurrently
+					return FileVisitResult.CONTINUE;
+				}
+
+			});
+		}
+		catch (IOException ex) {
+			// Best effort, report what has been visited so far
+		}
+		return new TemporaryDirectoryDescriptor(directory.getAbsolutePath(),
+				(entries != null) ? entries.length : 0, size.get());
+	}
+
+	private Map<String, CacheDescriptor> describeCaches() {
+		Map<String, CacheDescriptor> caches = new LinkedHashMap<>();
+		caches.put(TEMPLATES,
+				new CacheDescriptor(this.templateRenderer.getCacheSize(), null,
+						this.templateRenderer.getCacheHits(),
+						this.templateRenderer.getCacheMisses()));
+		ProjectArchiveCache archiveCache = this.archiveGenerator.getCache();
+		caches.put(ARCHIVES,
+				new CacheDescriptor(archiveCache.getEntries(), archiveCache.getSize(),
+						archiveCache.getHits(), archiveCache.getMisses()));
+		this.documentCaches.forEach(
+				(name, cache) -> caches.put(name, new CacheDescriptor(cache.size(), null,
+						cache.getHits(), cache.getMisses())));
+		return caches;
+	}
+
+	private MetadataDescriptor describeMetadata() {
+		InitializrMetadata metadata = this.projectGenerator.getMetadataProvider().get();
+		Instant lastModified = Instant.ofEpochMilli(metadata.getRevisionTimestamp());
+		return new MetadataDescriptor(metadata.getRevision(), lastModified,
+				Duration.between(lastModified, Instant.now()));
+	}
+
+	private Cache getMetadataCache() {
+		return (this.cacheManager != null)
+				? this.cacheManager.getCache(METADATA_CACHE_NAME) : null;
+	}
+
+	/**
+	 * Description of the runtime state of the project generation.
+	 */
+	public static final class GenerationDescriptor {
+
+		private final GenerationsDescriptor generations;
+
+		private final TemporaryDirectoryDescriptor temporaryDirectory;
+
+		private final Map<String, CacheDescriptor> caches;
+
+		private final MetadataDescriptor metadata;
+
+		private final List<SlowGeneration> slowGenerations;
+
+		private GenerationDescriptor(GenerationsDescriptor generations,
+				TemporaryDirectoryDescriptor temporaryDirectory,
+				Map<String, CacheDescriptor> caches, MetadataDescriptor metadata,
+				List<SlowGeneration> slowGenerations) {
+			this.generations = generations;
+			this.temporaryDirectory = temporaryDirectory;
+			this.caches = caches;
+			this.metadata = metadata;
+			this.slowGenerations = slowGenerations;
+		}
+
+		public GenerationsDescriptor getGenerations() {
+			return this.generations;
+		}
+
+		public TemporaryDirectoryDescriptor getTemporaryDirectory() {
+			return this.temporaryDirectory;
+		}
+
+		public Map<String, CacheDescriptor> getCaches() {
+			return this.caches;
+		}
+
+		public MetadataDescriptor getMetadata() {
+			return this.metadata;
+		}
+
+		public List<SlowGeneration> getSlowGenerations() {
+			return this.slowGenerations;
+		}
+
+	}
+
+	/**
+	 * Description of the generations that are being processed.
+	 */
+	public static final class GenerationsDescriptor {
+
+		private final int inFlight;
+
+		private final long completed;
+
+		private final long queueDepth;
+
+		private GenerationsDescriptor(int inFlight, long completed, long queueDepth) {
+			this.inFlight = inFlight;
+			this.completed = completed;
+			this.queueDepth = queueDepth;
+		}
+
+		public int getInFlight() {
+			return this.inFlight;
+		}
+
+		public long getCompleted() {
+			return this.completed;
+		}
+
+		/**
+		 * Return the number of project request events that are waiting to be dispatched.
+		 * @return the queue depth
+		 */
+		public long getQueueDepth() {
+			return this.queueDepth;
+		}
+
+	}
+
+	/**
+	 * Description of the directory in which projects are generated.
+	 */
+	public static final class TemporaryDirectoryDescriptor {
+
+		private final String path;
+
+		private final int entries;
+
+		private final long size;
+
+		private TemporaryDirectoryDescriptor(String path, int entries, long size) {
+			this.path = path;
+			this.entries = entries;
+			this.size = size;
+		}
+
+		public String getPath() {
+			return this.path;
+		}
+
+		public int getEntries() {
+			return this.entries;
+		}
+
+		public long getSize() {
+			return this.size;
+		}
+
+	}
+
+	/**
+	 * Description of a cache.
+	 */
+	public static final class CacheDescriptor {
+
+		private final int entries;
+
+		private final Long size;
+
+		private final long hits;
+
+		private final long misses;
+
+		private CacheDescriptor(int entries, Long size, long hits, long misses) {
+			this.entries = entries;
+			this.size = size;
+			this.hits = hits;
+			this.misses = misses;
+		}
+
+		public int getEntries() {
+			return this.entries;
+		}
+
+		/**
+		 * Return the size of the cached entries, if known.
+		 * @return the size in bytes or {@code null}
+		 */
+		public Long getSize() {
+			return this.size;
+		}
+
+		public long getHits() {
+			return this.hits;
+		}
+
+		public long getMisses() {
+			return this.misses;
+		}
+
+		/**
+		 * Return the ratio of lookups that were served from the cache.
+		 * @return the hit ratio or {@code 0} if the cache has not been used
+		 */
+		public double getHitRatio() {
+			long lookups = this.hits + this.misses;
+			return (lookups > 0) ? (double) this.hits / lookups : 0;
+		}
+
+	}
+
+	/**
+	 * Description of the current snapshot of the metadata.
+	 */
+	public static final class MetadataDescriptor {
+
+		private final long revision;
+
+		private final Instant lastModified;
+
+		private final Duration age;
+
+		private MetadataDescriptor(long revision, Instant lastModified, Duration age) {
+			this.revision = revision;
+			this.lastModified = lastModified;
+			this.age = age;
+		}
+
+		public long getRevision() {
+			return this.revision;
+		}
+
+		public Instant getLastModified() {
+			return this.lastModified;
+		}
+
+		public Duration getAge() {
+			return this.age;
+		}
+
+	}
+
+}
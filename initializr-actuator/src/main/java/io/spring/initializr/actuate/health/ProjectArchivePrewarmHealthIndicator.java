@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.health;
+
+import io.spring.initializr.web.project.ProjectArchivePrewarmer;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health.Builder;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * A {@link HealthIndicator} that reports the instance out of service until the archive
+ * cache has been prewarmed, so that it does not receive traffic with a cold cache.
+ *
+ * @author Stephane Nicoll
+ */
+public class ProjectArchivePrewarmHealthIndicator extends AbstractHealthIndicator {
+
+	private final ProjectArchivePrewarmer prewarmer;
+
+	public ProjectArchivePrewarmHealthIndicator(ProjectArchivePrewarmer prewarmer) {
+		super("Archive cache prewarm check failed");
+		this.prewarmer = prewarmer;
+	}
+
+	@Override
+	protected void doHealthCheck(Builder builder) {
+		if (this.prewarmer.isWarm()) {
+			builder.up();
+		}
+		else {
+			builder.outOfService();
+		}
+		builder.withDetail("processed", this.prewarmer.getProcessed())
+				.withDetail("total", this.prewarmer.getTotal())
+				.withDetail("warmFraction", this.prewarmer.getWarmFraction());
+	}
+
+}
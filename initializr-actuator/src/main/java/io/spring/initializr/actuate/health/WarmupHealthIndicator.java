@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.health;
+
+import io.spring.initializr.web.support.InitializrWarmup;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health.Builder;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * A {@link HealthIndicator} that reports the instance out of service until the
+ * {@link InitializrWarmup warmup} has completed.
+ *
+ * @author Stephane Nicoll
+ */
+public class WarmupHealthIndicator extends AbstractHealthIndicator {
+
+	private final InitializrWarmup warmup;
+
+	public WarmupHealthIndicator(InitializrWarmup warmup) {
+		super("Warmup check failed");
+		this.warmup = warmup;
+	}
+
+	@Override
+	protected void doHealthCheck(Builder builder) {
+		if (this.warmup.isComplete()) {
+			builder.up();
+		}
+		else {
+			builder.outOfService();
+		}
+		builder.withDetail("iterations", this.warmup.getIterations()).withDetail("stable",
+				this.warmup.isStable());
+	}
+
+}
@@ -16,45 +16,175 @@
 
 package io.spring.initializr.actuate.metric;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.spring.initializr.actuate.event.ProjectRequestSnapshot;
+import io.spring.initializr.actuate.event.ProjectRequestSnapshotListener;
 import io.spring.initializr.generator.ProjectFailedEvent;
 import io.spring.initializr.generator.ProjectGeneratedEvent;
 import io.spring.initializr.generator.ProjectRequest;
 import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.metadata.MetadataElement;
 import io.spring.initializr.util.Agent;
+import io.spring.initializr.util.Agent.AgentId;
 
-import org.springframework.context.event.EventListener;
 import org.springframework.util.StringUtils;
 
 /**
- * A {@link ProjectGeneratedEvent} listener that uses a {@link MeterRegistry} to update
+ * A {@link ProjectRequestSnapshotListener} that uses a {@link MeterRegistry} to update
  * various project related metrics.
+ * <p>
+ * Each metric has an {@code id} tag. Counters are registered for the elements of the
+ * metadata when it is first used and again every time it is refreshed, so that handling a
+ * request does not involve the registry. Values that are not part of the metadata are
+ * counted with the {@value #OTHER} tag value to keep the number of meters bounded.
+ * <p>
+ * Requests are handled from a {@link ProjectRequestSnapshot}, off the request thread.
+ * Subclasses should override the {@code handle*} methods that take a snapshot: the
+ * deprecated variants that take a {@link ProjectRequest} are kept for callers but are no
+ * longer invoked when a request is handled.
  *
  * @author Stephane Nicoll
  */
-public class ProjectGenerationMetricsListener {
+public class ProjectGenerationMetricsListener implements ProjectRequestSnapshotListener {
+
+	/**
+	 * Tag value of the counters of values that are not part of the metadata.
+	 */
+	public static final String OTHER = "other";
+
+	private static final String ID_TAG = "id";
 
 	private final MeterRegistry meterRegistry;
 
+	private final InitializrMetadataProvider metadataProvider;
+
+	private final Counter requests;
+
+	private final Counter failures;
+
+	private final TaggedCounters dependencies;
+
+	private final TaggedCounters types;
+
+	private final TaggedCounters javaVersions;
+
+	private final TaggedCounters packagings;
+
+	private final TaggedCounters languages;
+
+	private final TaggedCounters bootVersions;
+
+	private final Map<AgentId, Counter> clients = new EnumMap<>(AgentId.class);
+
+	private volatile Map<Dependency, Counter> dependencyCounters = Collections.emptyMap();
+
+	private volatile InitializrMetadata metadata;
+
+	private volatile long revision;
+
+	/**
+	 * Create an instance that counts any value with its own tag.
+	 * @param meterRegistry the registry to use
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #ProjectGenerationMetricsListener(MeterRegistry, InitializrMetadataProvider)}
+	 * that bounds the number of meters to the elements of the metadata
+	 */
+	@Deprecated
 	public ProjectGenerationMetricsListener(MeterRegistry meterRegistry) {
+		this(meterRegistry, null);
+	}
+
+	public ProjectGenerationMetricsListener(MeterRegistry meterRegistry,
+			InitializrMetadataProvider metadataProvider) {
 		this.meterRegistry = meterRegistry;
+		this.metadataProvider = metadataProvider;
+		this.requests = meterRegistry.counter(key("requests"));
+		this.failures = meterRegistry.counter(key("failures"));
+		this.dependencies = new TaggedCounters(key("dependency"));
+		this.types = new TaggedCounters(key("type"));
+		this.javaVersions = new TaggedCounters(key("java_version"));
+		this.packagings = new TaggedCounters(key("packaging"));
+		this.languages = new TaggedCounters(key("language"));
+		this.bootVersions = new TaggedCounters(key("boot_version"));
+		for (AgentId agentId : AgentId.values()) {
+			this.clients.put(agentId,
+					meterRegistry.counter(key("client_id"), ID_TAG, agentId.getId()));
+		}
+		refreshIfNecessary();
 	}
 
-	@EventListener
+	private void refreshIfNecessary() {
+		if (this.metadataProvider != null) {
+			InitializrMetadata current = this.metadataProvider.get();
+			if (this.metadata != current || this.revision != current.getRevision()) {
+				refresh(current);
+			}
+		}
+	}
+
+	// Register the counters of the elements of the metadata if it has changed
+	private synchronized void refresh(InitializrMetadata metadata) {
+		long currentRevision = metadata.getRevision();
+		if (this.metadata == metadata && this.revision == currentRevision) {
+			return;
+		}
+		this.dependencies.register(metadata.getDependencies().getAll());
+		this.types.register(metadata.getTypes().getContent());
+		this.javaVersions.register(metadata.getJavaVersions().getContent());
+		this.packagings.register(metadata.getPackagings().getContent());
+		this.languages.register(metadata.getLanguages().getContent());
+		this.bootVersions.register(metadata.getBootVersions().getContent());
+		// Resolved dependencies are the instances of the metadata
+		Map<Dependency, Counter> counters = new IdentityHashMap<>();
+		for (Dependency dependency : metadata.getDependencies().getAll()) {
+			counters.put(dependency, this.dependencies.get(dependency.getId()));
+		}
+		this.dependencyCounters = Collections.unmodifiableMap(counters);
+		this.metadata = metadata;
+		this.revision = currentRevision;
+	}
+
+	/**
+	 * Handle the specified {@link ProjectGeneratedEvent} on the calling thread. This
+	 * listener is registered with the project request event bus so that this method is
+	 * not invoked for application events.
+	 * @param event the event to handle
+	 */
 	public void onGeneratedProject(ProjectGeneratedEvent event) {
-		handleProjectRequest(event.getProjectRequest());
+		onProjectRequest(ProjectRequestSnapshot.of(event));
 	}
 
-	@EventListener
+	/**
+	 * Handle the specified {@link ProjectFailedEvent} on the calling thread. This
+	 * listener is registered with the project request event bus so that this method is
+	 * not invoked for application events.
+	 * @param event the event to handle
+	 */
 	public void onFailedProject(ProjectFailedEvent event) {
-		handleProjectRequest(event.getProjectRequest());
-		increment(key("failures"));
+		onProjectRequest(ProjectRequestSnapshot.of(event));
 	}
 
-	protected void handleProjectRequest(ProjectRequest request) {
-		increment(key("requests")); // Total number of requests
+	@Override
+	public void onProjectRequest(ProjectRequestSnapshot snapshot) {
+		refreshIfNecessary();
+		handleProjectRequest(snapshot);
+		if (snapshot.isFailed()) {
+			this.failures.increment();
+		}
+	}
+
+	protected void handleProjectRequest(ProjectRequestSnapshot request) {
+		this.requests.increment(); // Total number of requests
 		handleDependencies(request);
 		handleType(request);
 		handleJavaVersion(request);
@@ -64,73 +194,222 @@ public class ProjectGenerationMetricsListener {
 		handleUserAgent(request);
 	}
 
-	protected void handleDependencies(ProjectRequest request) {
-		List<Dependency> dependencies = request.getResolvedDependencies();
-		if (dependencies != null) {
-			dependencies.forEach((it) -> {
-				if (!ProjectRequest.DEFAULT_STARTER.equals(it.getId())) {
-					String id = sanitize(it.getId());
-					increment(key("dependency." + id));
+	protected void handleDependencies(ProjectRequestSnapshot request) {
+		Map<Dependency, Counter> counters = this.dependencyCounters;
+		for (Dependency dependency : request.getResolvedDependencies()) {
+			if (!ProjectRequest.DEFAULT_STARTER.equals(dependency.getId())) {
+				Counter counter = counters.get(dependency);
+				if (counter == null) {
+					counter = this.dependencies.get(dependency.getId());
 				}
-			});
+				counter.increment();
+			}
 		}
 	}
 
-	protected void handleType(ProjectRequest request) {
+	protected void handleType(ProjectRequestSnapshot request) {
 		if (StringUtils.hasText(request.getType())) {
-			String type = sanitize(request.getType());
-			increment(key("type." + type));
+			this.types.get(request.getType()).increment();
 		}
 	}
 
-	protected void handleJavaVersion(ProjectRequest request) {
+	protected void handleJavaVersion(ProjectRequestSnapshot request) {
 		if (StringUtils.hasText(request.getJavaVersion())) {
-			String javaVersion = sanitize(request.getJavaVersion());
-			increment(key("java_version." + javaVersion));
+			this.javaVersions.get(request.getJavaVersion()).increment();
 		}
 	}
 
-	protected void handlePackaging(ProjectRequest request) {
+	protected void handlePackaging(ProjectRequestSnapshot request) {
 		if (StringUtils.hasText(request.getPackaging())) {
-			String packaging = sanitize(request.getPackaging());
-			increment(key("packaging." + packaging));
+			this.packagings.get(request.getPackaging()).increment();
 		}
 	}
 
-	protected void handleLanguage(ProjectRequest request) {
+	protected void handleLanguage(ProjectRequestSnapshot request) {
 		if (StringUtils.hasText(request.getLanguage())) {
-			String language = sanitize(request.getLanguage());
-			increment(key("language." + language));
+			this.languages.get(request.getLanguage()).increment();
 		}
 	}
 
-	protected void handleBootVersion(ProjectRequest request) {
+	protected void handleBootVersion(ProjectRequestSnapshot request) {
 		if (StringUtils.hasText(request.getBootVersion())) {
-			String bootVersion = sanitize(request.getBootVersion());
-			increment(key("boot_version." + bootVersion));
+			this.bootVersions.get(request.getBootVersion()).increment();
 		}
 	}
 
-	protected void handleUserAgent(ProjectRequest request) {
-		String userAgent = (String) request.getParameters().get("user-agent");
+	protected void handleUserAgent(ProjectRequestSnapshot request) {
+		String userAgent = request.getParameters().get("user-agent");
 		if (userAgent != null) {
 			Agent agent = Agent.fromUserAgent(userAgent);
 			if (agent != null) {
-				increment(key("client_id." + agent.getId().getId()));
+				this.clients.get(agent.getId()).increment();
 			}
 		}
 	}
 
+	/**
+	 * Update the metrics of the specified {@link ProjectRequest}.
+	 * @param request the request to handle
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #handleProjectRequest(ProjectRequestSnapshot)}, this method is no longer
+	 * invoked when a request is handled
+	 */
+	@Deprecated
+	protected void handleProjectRequest(ProjectRequest request) {
+		handleProjectRequest(snapshot(request));
+	}
+
+	/**
+	 * Count the resolved dependencies of the specified request.
+	 * @param request the request to handle
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #handleDependencies(ProjectRequestSnapshot)}, this method is no longer
+	 * invoked when a request is handled
+	 */
+	@Deprecated
+	protected void handleDependencies(ProjectRequest request) {
+		handleDependencies(snapshot(request));
+	}
+
+	/**
+	 * Count the type of the specified request.
+	 * @param request the request to handle
+	 * @deprecated as of 0.7.1 in favour of {@link #handleType(ProjectRequestSnapshot)},
+	 * this method is no longer invoked when a request is handled
+	 */
+	@Deprecated
+	protected void handleType(ProjectRequest request) {
+		handleType(snapshot(request));
+	}
+
+	/**
+	 * Count the Java version of the specified request.
+	 * @param request the request to handle
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #handleJavaVersion(ProjectRequestSnapshot)}, this method is no longer
+	 * invoked when a request is handled
+	 */
+	@Deprecated
+	protected void handleJavaVersion(ProjectRequest request) {
+		handleJavaVersion(snapshot(request));
+	}
+
+	/**
+	 * Count the packaging of the specified request.
+	 * @param request the request to handle
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #handlePackaging(ProjectRequestSnapshot)}, this method is no longer invoked
+	 * when a request is handled
+	 */
+	@Deprecated
+	protected void handlePackaging(ProjectRequest request) {
+		handlePackaging(snapshot(request));
+	}
+
+	/**
+	 * Count the language of the specified request.
+	 * @param request the request to handle
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #handleLanguage(ProjectRequestSnapshot)}, this method is no longer invoked
+	 * when a request is handled
+	 */
+	@Deprecated
+	protected void handleLanguage(ProjectRequest request) {
+		handleLanguage(snapshot(request));
+	}
+
+	/**
+	 * Count the Spring Boot version of the specified request.
+	 * @param request the request to handle
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #handleBootVersion(ProjectRequestSnapshot)}, this method is no longer
+	 * invoked when a request is handled
+	 */
+	@Deprecated
+	protected void handleBootVersion(ProjectRequest request) {
+		handleBootVersion(snapshot(request));
+	}
+
+	/**
+	 * Count the client of the specified request, based on its user agent.
+	 * @param request the request to handle
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #handleUserAgent(ProjectRequestSnapshot)}, this method is no longer invoked
+	 * when a request is handled
+	 */
+	@Deprecated
+	protected void handleUserAgent(ProjectRequest request) {
+		handleUserAgent(snapshot(request));
+	}
+
+	private static ProjectRequestSnapshot snapshot(ProjectRequest request) {
+		return ProjectRequestSnapshot.of(new ProjectGeneratedEvent(request));
+	}
+
+	/**
+	 * Increment the untagged counter with the specified name.
+	 * @param key the name of the counter
+	 * @deprecated as of 0.7.1 as metrics are tagged with the id of the element they count
+	 */
+	@Deprecated
 	protected void increment(String key) {
 		this.meterRegistry.counter(key).increment();
 	}
 
+	/**
+	 * Sanitize the specified value so that it can be used as part of a metric name.
+	 * @param s the value to sanitize
+	 * @return the sanitized value
+	 * @deprecated as of 0.7.1 as values are used as tag values rather than in the name of
+	 * a metric
+	 */
+	@Deprecated
+	protected String sanitize(String s) {
+		return s.replace(".", "_");
+	}
+
 	protected String key(String part) {
 		return "initializr." + part;
 	}
 
-	protected String sanitize(String s) {
-		return s.replace(".", "_");
+	/**
+	 * Counters of a metric tagged with the id of a metadata element.
+	 */
+	private final class TaggedCounters {
+
+		private final String name;
+
+		private final Counter other;
+
+		private volatile Map<String, Counter> counters = Collections.emptyMap();
+
+		TaggedCounters(String name) {
+			this.name = name;
+			this.other = ProjectGenerationMetricsListener.this.meterRegistry.counter(name,
+					ID_TAG, OTHER);
+		}
+
+		void register(Collection<? extends MetadataElement> elements) {
+			Map<String, Counter> counters = new HashMap<>();
+			elements.forEach((element) -> counters.put(element.getId(),
+					ProjectGenerationMetricsListener.this.meterRegistry.counter(this.name,
+							ID_TAG, element.getId())));
+			this.counters = Collections.unmodifiableMap(counters);
+		}
+
+		Counter get(String id) {
+			Counter counter = this.counters.get(id);
+			if (counter != null) {
+				return counter;
+			}
+			// Without metadata, any value is counted with its own tag
+			if (ProjectGenerationMetricsListener.this.metadataProvider == null) {
+				return ProjectGenerationMetricsListener.this.meterRegistry
+						.counter(this.name, ID_TAG, id);
+			}
+			return this.other;
+		}
+
 	}
 
 }
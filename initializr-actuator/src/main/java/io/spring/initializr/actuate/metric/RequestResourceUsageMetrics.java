@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.metric;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.spring.initializr.web.project.RequestResourceUsage;
+import io.spring.initializr.web.project.RequestResourceUsageListener;
+
+/**
+ * A {@link RequestResourceUsageListener} that records the CPU time and the heap
+ * allocations of each request as distribution summaries, tagged with the endpoint, the
+ * build system, the language and a bucket of the number of dependencies.
+ * <p>
+ * Summaries are registered the first time a combination of tags is used and are cached so
+ * that recording a request does not involve the registry.
+ *
+ * @author Stephane Nicoll
+ */
+public class RequestResourceUsageMetrics implements RequestResourceUsageListener {
+
+	private static final String CPU_METRIC = "initializr.requests.cpu";
+
+	private static final String ALLOCATION_METRIC = "initializr.requests.allocation";
+
+	private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+	private final MeterRegistry meterRegistry;
+
+	private final ConcurrentMap<List<String>, Summaries> summaries = new ConcurrentHashMap<>();
+
+	public RequestResourceUsageMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void onRequestResourceUsage(RequestResourceUsage usage) {
+		List<String> key = Arrays.asList(usage.getEndpoint(), usage.getBuild(),
+				usage.getLanguage(), dependenciesBucket(usage.getDependencies()));
+		Summaries summaries = this.summaries.computeIfAbsent(key, this::register);
+		if (usage.getCpuTime() >= 0) {
+			summaries.cpuTime.record(usage.getCpuTime());
+		}
+		if (usage.getAllocatedBytes() >= 0) {
+			summaries.allocatedBytes.record(usage.getAllocatedBytes());
+		}
+	}
+
+	private Summaries register(List<String> key) {
+		Tags tags = Tags.of("endpoint", key.get(0), "build", key.get(1), "language",
+				key.get(2), "dependencies", key.get(3));
+		DistributionSummary cpuTime = DistributionSummary.builder(CPU_METRIC)
+				.description("CPU time used to handle a request").baseUnit("seconds")
+				.scale(1 / NANOS_PER_SECOND).tags(tags).register(this.meterRegistry);
+		DistributionSummary allocatedBytes = DistributionSummary
+				.builder(ALLOCATION_METRIC)
+				.description("Heap memory allocated to handle a request")
+				.baseUnit("bytes").tags(tags).register(this.meterRegistry);
+		return new Summaries(cpuTime, allocatedBytes);
+	}
+
+	/**
+	 * Return the bucket of the specified number of dependencies, to keep the number of
+	 * tag values bounded.
+	 * @param dependencies the number of dependencies
+	 * @return the bucket
+	 */
+	static String dependenciesBucket(int dependencies) {
+		if (dependencies <= 0) {
+			return "0";
+		}
+		if (dependencies <= 3) {
+			return "1-3";
+		}
+		if (dependencies <= 7) {
+			return "4-7";
+		}
+		if (dependencies <= 15) {
+			return "8-15";
+		}
+		return "16+";
+	}
+
+	/**
+	 * The summaries of a combination of tags.
+	 */
+	private static final class Summaries {
+
+		private final DistributionSummary cpuTime;
+
+		private final DistributionSummary allocatedBytes;
+
+		private Summaries(DistributionSummary cpuTime,
+				DistributionSummary allocatedBytes) {
+			this.cpuTime = cpuTime;
+			this.allocatedBytes = allocatedBytes;
+		}
+
+	}
+
+}
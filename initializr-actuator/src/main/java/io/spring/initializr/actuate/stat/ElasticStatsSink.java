@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.spring.initializr.actuate.stat.StatsProperties.Elastic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * A {@link StatsSink} that sends documents to an Elastic index using the bulk API.
+ * Documents rejected with an error that may be transient are reported as retryable.
+ *
+ * @author Stephane Nicoll
+ */
+public class ElasticStatsSink implements StatsSink {
+
+	private static final Logger log = LoggerFactory.getLogger(ElasticStatsSink.class);
+
+	private static final MediaType NDJSON = MediaType
+			.parseMediaType("application/x-ndjson");
+
+	private static final String BULK_INDEX_ACTION = "{\"index\":{}}";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final RestTemplate restTemplate;
+
+	private URI requestUrl;
+
+	private final RetryTemplate retryTemplate;
+
+	public ElasticStatsSink(Elastic elastic, RestTemplateBuilder restTemplateBuilder,
+			RetryTemplate retryTemplate) {
+		UriComponentsBuilder uriBuilder = UriComponentsBuilder
+				.fromUri(determineBulkUrl(elastic));
+		this.restTemplate = configureAuthorization(restTemplateBuilder, elastic,
+				uriBuilder).build();
+		this.requestUrl = uriBuilder.userInfo(null).build().toUri();
+		this.retryTemplate = retryTemplate;
+	}
+
+	@Override
+	public Result publish(List<String> documents) throws IOException {
+		StringBuilder body = new StringBuilder();
+		for (String json : documents) {
+			body.append(BULK_INDEX_ACTION).append('\n').append(json).append('\n');
+		}
+		RequestEntity<String> request = RequestEntity.post(this.requestUrl)
+				.contentType(NDJSON).body(body.toString());
+		String response = this.retryTemplate.execute(
+				(context) -> this.restTemplate.exchange(request, String.class).getBody());
+		JsonNode node = StringUtils.hasText(response)
+				? this.objectMapper.readTree(response) : null;
+		if (node == null || !node.path("errors").asBoolean()) {
+			return Result.success();
+		}
+		// The bulk API reports the status of each item when some of them failed
+		List<String> retryable = new ArrayList<>();
+		int failed = 0;
+		JsonNode items = node.path("items");
+		for (int i = 0; i < items.size() && i < documents.size(); i++) {
+			int status = items.get(i).elements().next().path("status").asInt();
+			if (status == 429 || status >= 500) {
+				retryable.add(documents.get(i));
+			}
+			else if (status >= 300) {
+				failed++;
+			}
+		}
+		if (failed > 0) {
+			log.warn(String.format("Failed to index %d of %d stat documents", failed,
+					documents.size()));
+		}
+		return Result.of(failed, retryable);
+	}
+
+	// For testing purposes only
+	protected RestTemplate getRestTemplate() {
+		return this.restTemplate;
+	}
+
+	protected void updateRequestUrl(URI requestUrl) {
+		this.requestUrl = requestUrl;
+	}
+
+	private static RestTemplateBuilder configureAuthorization(
+			RestTemplateBuilder restTemplateBuilder, Elastic elastic,
+			UriComponentsBuilder uriComponentsBuilder) {
+		String userInfo = uriComponentsBuilder.build().getUserInfo();
+		if (StringUtils.hasText(userInfo)) {
+			String[] credentials = userInfo.split(":");
+			return restTemplateBuilder.basicAuthentication(credentials[0],
+					credentials[1]);
+		}
+		else if (StringUtils.hasText(elastic.getUsername())) {
+			return restTemplateBuilder.basicAuthentication(elastic.getUsername(),
+					elastic.getPassword());
+		}
+		return restTemplateBuilder;
+	}
+
+	private static URI determineBulkUrl(Elastic elastic) {
+		String bulkUrl = elastic.getUri() + "/" + elastic.getIndexName() + "/"
+				+ elastic.getEntityName() + "/_bulk";
+		try {
+			return new URI(bulkUrl);
+		}
+		catch (URISyntaxException ex) {
+			throw new IllegalStateException("Cannot create bulk URL: " + bulkUrl, ex);
+		}
+	}
+
+}
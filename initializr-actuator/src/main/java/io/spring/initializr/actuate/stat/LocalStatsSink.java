@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@link StatsSink} that writes documents to gzipped NDJSON files in a local directory.
+ * A new file is started for each period of the configured roll interval. A file is only
+ * ever written by the sink that created it: restarting within a period starts a new file
+ * with a sequence suffix, as a file that has not been closed properly lacks the gzip
+ * trailer.
+ *
+ * @author Stephane Nicoll
+ */
+public class LocalStatsSink implements StatsSink, Closeable {
+
+	private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter
+			.ofPattern("'stats-'yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+	private static final String FILE_EXTENSION = ".ndjson.gz";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Path directory;
+
+	private final long rollInterval;
+
+	private final Clock clock;
+
+	private long period = -1;
+
+	private OutputStream out;
+
+	public LocalStatsSink(Path directory, Duration rollInterval) {
+		this(directory, rollInterval, Clock.systemUTC());
+	}
+
+	LocalStatsSink(Path directory, Duration rollInterval, Clock clock) {
+		this.directory = directory;
+		this.rollInterval = rollInterval.toMillis();
+		this.clock = clock;
+	}
+
+	@Override
+	public synchronized Result publish(List<String> documents) throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (String document : documents) {
+			content.append(document).append('\n');
+		}
+		OutputStream output = getOutputStream();
+		output.write(content.toString().getBytes(StandardCharsets.UTF_8));
+		// Sync flush so that, if the file cannot be closed, the documents written so far
+		// can still be decompressed up to the missing trailer
+		output.flush();
+		return Result.success();
+	}
+
+	private OutputStream getOutputStream() throws IOException {
+		long now = this.clock.millis();
+		long current = now - Math.floorMod(now, this.rollInterval);
+		if (this.out == null || current != this.period) {
+			close();
+			Files.createDirectories(this.directory);
+			FileChannel channel = createFile(
+					FILE_NAME_FORMATTER.format(Instant.ofEpochMilli(current)));
+			this.out = new GZIPOutputStream(Channels.newOutputStream(channel),
+					BUFFER_SIZE, true);
+			this.period = current;
+		}
+		return this.out;
+	}
+
+	// A file of the same period may exist, e.g. from a previous run
+	private FileChannel createFile(String baseName) throws IOException {
+		for (int sequence = 1;; sequence++) {
+			Path file = this.directory.resolve(
+					baseName + ((sequence > 1) ? "-" + sequence : "") + FILE_EXTENSION);
+			try {
+				return FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+						StandardOpenOption.WRITE);
+			}
+			catch (FileAlreadyExistsException ex) {
+				// Try the next sequence
+			}
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.out != null) {
+			OutputStream output = this.out;
+			this.out = null;
+			output.close();
+		}
+	}
+
+}
@@ -16,33 +16,40 @@
 
 package io.spring.initializr.actuate.stat;
 
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.spring.initializr.actuate.stat.StatsProperties.Elastic;
+import io.spring.initializr.actuate.event.ProjectRequestSnapshot;
+import io.spring.initializr.actuate.event.ProjectRequestSnapshotListener;
+import io.spring.initializr.actuate.stat.StatsProperties.Queue.OverflowPolicy;
 import io.spring.initializr.generator.ProjectRequestEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.context.event.EventListener;
-import org.springframework.http.MediaType;
-import org.springframework.http.RequestEntity;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.retry.support.RetryTemplate;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 /**
- * Publish stats for each project generated to an Elastic index.
+ * Publish stats for each project generated to a {@link StatsSink}. Documents are queued
+ * and handed over in batches by a single background thread so that a slow sink never
+ * holds the thread that generated the project. Documents that could not be published can
+ * be kept in a {@link StatsSpool} and replayed once the sink is available again.
  *
  * @author Stephane Nicoll
  */
-public class ProjectGenerationStatPublisher {
+public class ProjectGenerationStatPublisher
+		implements ProjectRequestSnapshotListener, SmartLifecycle {
 
 	private static final Logger log = LoggerFactory
 			.getLogger(ProjectGenerationStatPublisher.class);
@@ -51,101 +58,390 @@ public class ProjectGenerationStatPublisher {
 
 	private final ObjectMapper objectMapper;
 
-	private final RestTemplate restTemplate;
+	private final StatsSink sink;
 
-	private URI requestUrl;
+	private final BlockingQueue<String> queue;
 
-	private final RetryTemplate retryTemplate;
+	private final OverflowPolicy overflowPolicy;
+
+	private final long blockTimeout;
+
+	private final int batchSize;
+
+	private final long flushInterval;
+
+	// Fair so that a flush does not wait for more than the batch being collected
+	private final Lock publishLock = new ReentrantLock(true);
+
+	private final AtomicLong publishedDocuments = new AtomicLong();
+
+	private final AtomicLong failedDocuments = new AtomicLong();
+
+	private final AtomicLong droppedDocuments = new AtomicLong();
+
+	private final AtomicLong spooledDocuments = new AtomicLong();
+
+	private final AtomicLong batches = new AtomicLong();
+
+	private final AtomicLong batchesTime = new AtomicLong();
+
+	private final StatsSpool spool;
+
+	private final long spoolRetryInterval;
+
+	private long nextReplay = System.nanoTime();
+
+	private volatile Thread flusher;
 
 	public ProjectGenerationStatPublisher(ProjectRequestDocumentFactory documentFactory,
 			StatsProperties statsProperties, RestTemplateBuilder restTemplateBuilder,
 			RetryTemplate retryTemplate) {
+		this(documentFactory, statsProperties, new ElasticStatsSink(
+				statsProperties.getElastic(), restTemplateBuilder, retryTemplate));
+	}
+
+	public ProjectGenerationStatPublisher(ProjectRequestDocumentFactory documentFactory,
+			StatsProperties statsProperties, StatsSink sink) {
 		this.documentFactory = documentFactory;
 		this.objectMapper = createObjectMapper();
-		StatsProperties.Elastic elastic = statsProperties.getElastic();
-		UriComponentsBuilder uriBuilder = UriComponentsBuilder
-				.fromUri(determineEntityUrl(elastic));
-		this.restTemplate = configureAuthorization(restTemplateBuilder, elastic,
-				uriBuilder).build();
-		this.requestUrl = uriBuilder.userInfo(null).build().toUri();
-		this.retryTemplate = retryTemplate;
+		this.sink = sink;
+		StatsProperties.Queue queue = statsProperties.getQueue();
+		this.queue = new ArrayBlockingQueue<>(queue.getCapacity());
+		this.overflowPolicy = queue.getOverflowPolicy();
+		this.blockTimeout = queue.getBlockTimeout().toMillis();
+		this.batchSize = queue.getBatchSize();
+		this.flushInterval = queue.getFlushInterval().toMillis();
+		this.spool = createSpool(statsProperties.getSpool());
+		this.spoolRetryInterval = statsProperties.getSpool().getRetryInterval().toNanos();
+	}
+
+	private static StatsSpool createSpool(StatsProperties.Spool spool) {
+		if (spool.getDirectory() == null) {
+			return null;
+		}
+		try {
+			return new StatsSpool(spool.getDirectory().toPath(),
+					spool.getSegmentSize().toBytes(), spool.getMaxSize().toBytes());
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(
+					"Failed to create stats spool in " + spool.getDirectory(), ex);
+		}
 	}
 
-	@EventListener
-	@Async
 	public void handleEvent(ProjectRequestEvent event) {
-		String json = null;
+		onProjectRequest(ProjectRequestSnapshot.of(event));
+	}
+
+	@Override
+	public void onProjectRequest(ProjectRequestSnapshot snapshot) {
 		try {
-			ProjectRequestDocument document = this.documentFactory.createDocument(event);
+			ProjectRequestDocument document = this.documentFactory
+					.createDocument(snapshot);
 			if (log.isDebugEnabled()) {
-				log.debug("Publishing " + document);
+				log.debug("Queuing " + document);
 			}
-			json = toJson(document);
+			if (!enqueue(toJson(document))) {
+				this.droppedDocuments.incrementAndGet();
+				log.debug("Stats queue is full, dropping " + document);
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			this.droppedDocuments.incrementAndGet();
+		}
+		catch (Exception ex) {
+			log.warn("Failed to create stat document", ex);
+		}
+	}
 
-			RequestEntity<String> request = RequestEntity.post(this.requestUrl)
-					.contentType(MediaType.APPLICATION_JSON).body(json);
+	private boolean enqueue(String json) throws InterruptedException {
+		if (this.overflowPolicy == OverflowPolicy.BLOCK) {
+			return this.queue.offer(json, this.blockTimeout, TimeUnit.MILLISECONDS);
+		}
+		while (!this.queue.offer(json)) {
+			if (this.queue.poll() != null) {
+				this.droppedDocuments.incrementAndGet();
+			}
+		}
+		return true;
+	}
 
-			this.retryTemplate.execute((context) -> {
-				this.restTemplate.exchange(request, String.class);
-				return null;
-			});
+	/**
+	 * Publish all the documents that are currently queued. If a batch is being collected
+	 * or published by the background thread, wait for it to complete first.
+	 */
+	public void flush() {
+		this.publishLock.lock();
+		try {
+			List<String> batch = new ArrayList<>(this.batchSize);
+			while (this.queue.drainTo(batch, this.batchSize) > 0) {
+				publish(batch);
+				batch.clear();
+			}
 		}
-		catch (Exception ex) {
-			log.warn(String.format(
-					"Failed to publish stat to index, document follows %n%n%s%n", json),
-					ex);
+		finally {
+			this.publishLock.unlock();
 		}
 	}
 
-	private String toJson(ProjectRequestDocument stats) {
+	@Override
+	public void start() {
+		Thread thread = new Thread(this::processQueue, "initializr-stats-publisher");
+		thread.setDaemon(true);
+		this.flusher = thread;
+		thread.start();
+	}
+
+	@Override
+	public void stop() {
+		Thread thread = this.flusher;
+		this.flusher = null;
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				thread.join(this.flushInterval);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		flush();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.flusher != null;
+	}
+
+	@Override
+	public int getPhase() {
+		// Stop after the event bus so that the events it still holds are published
+		return Integer.MAX_VALUE - 1;
+	}
+
+	private void processQueue() {
+		List<String> batch = new ArrayList<>(this.batchSize);
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				this.publishLock.lockInterruptibly();
+			}
+			catch (InterruptedException ex) {
+				return;
+			}
+			try {
+				collect(batch, isReplayDue() ? 0 : this.flushInterval);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				if (!batch.isEmpty()) {
+					publish(batch);
+					batch.clear();
+				}
+				replaySpool();
+				this.publishLock.unlock();
+			}
+		}
+	}
+
+	// Wait for a first document, then until the batch is full or the flush interval
+	// has elapsed
+	private void collect(List<String> batch, long timeout) throws InterruptedException {
+		String first = this.queue.poll(timeout, TimeUnit.MILLISECONDS);
+		if (first == null) {
+			return;
+		}
+		batch.add(first);
+		long deadline = System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(this.flushInterval);
+		while (batch.size() < this.batchSize) {
+			if (this.queue.drainTo(batch, this.batchSize - batch.size()) == 0) {
+				long remaining = deadline - System.nanoTime();
+				String next = (remaining > 0)
+						? this.queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+				if (next == null) {
+					return;
+				}
+				batch.add(next);
+			}
+		}
+	}
+
+	private void publish(List<String> batch) {
 		try {
-			return this.objectMapper.writeValueAsString(stats);
+			spool(send(batch));
 		}
-		catch (JsonProcessingException ex) {
-			throw new IllegalStateException("Cannot convert to JSON", ex);
+		catch (Exception ex) {
+			if (this.spool != null) {
+				log.warn(String.format(
+						"Failed to publish stats, spooling %d " + "documents",
+						batch.size()), ex);
+			}
+			else {
+				log.warn(String.format(
+						"Failed to publish stats, documents follow %n%n%s%n",
+						String.join("\n", batch)), ex);
+			}
+			spool(batch);
 		}
 	}
 
-	private static ObjectMapper createObjectMapper() {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-		return mapper;
+	/**
+	 * Replay the oldest documents of the spool, if any, unless publishing documents
+	 * failed recently.
+	 */
+	void replaySpool() {
+		if (!isReplayDue()) {
+			return;
+		}
+		this.publishLock.lock();
+		try {
+			List<String> unpublished = new ArrayList<>();
+			this.spool.replay(this.batchSize, (documents) -> {
+				try {
+					unpublished.addAll(send(documents));
+					return true;
+				}
+				catch (Exception ex) {
+					log.debug("Failed to replay spooled stats", ex);
+					this.nextReplay = System.nanoTime() + this.spoolRetryInterval;
+					return false;
+				}
+			});
+			spool(unpublished);
+		}
+		catch (IOException ex) {
+			log.warn("Failed to replay spooled stats", ex);
+			this.nextReplay = System.nanoTime() + this.spoolRetryInterval;
+		}
+		finally {
+			this.publishLock.unlock();
+		}
 	}
 
-	// For testing purposes only
-	protected RestTemplate getRestTemplate() {
-		return this.restTemplate;
+	private boolean isReplayDue() {
+		return this.spool != null && !this.spool.isEmpty()
+				&& System.nanoTime() - this.nextReplay >= 0;
 	}
 
-	protected void updateRequestUrl(URI requestUrl) {
-		this.requestUrl = requestUrl;
+	// Keep documents that could not be published for a later attempt, if possible
+	private void spool(List<String> documents) {
+		if (documents.isEmpty()) {
+			return;
+		}
+		this.nextReplay = System.nanoTime() + this.spoolRetryInterval;
+		if (this.spool == null) {
+			this.failedDocuments.addAndGet(documents.size());
+			return;
+		}
+		try {
+			this.droppedDocuments.addAndGet(this.spool.append(documents));
+			this.spooledDocuments.addAndGet(documents.size());
+		}
+		catch (IOException ex) {
+			this.failedDocuments.addAndGet(documents.size());
+			log.warn(String.format("Failed to spool stats, documents follow %n%n%s%n",
+					String.join("\n", documents)), ex);
+		}
 	}
 
-	private static RestTemplateBuilder configureAuthorization(
-			RestTemplateBuilder restTemplateBuilder, Elastic elastic,
-			UriComponentsBuilder uriComponentsBuilder) {
-		String userInfo = uriComponentsBuilder.build().getUserInfo();
-		if (StringUtils.hasText(userInfo)) {
-			String[] credentials = userInfo.split(":");
-			return restTemplateBuilder.basicAuthentication(credentials[0],
-					credentials[1]);
+	// Publish the documents and return those that are worth retrying later
+	private List<String> send(List<String> documents) throws IOException {
+		long start = System.nanoTime();
+		try {
+			StatsSink.Result result = this.sink.publish(documents);
+			this.publishedDocuments.addAndGet(
+					documents.size() - result.getFailed() - result.getRetryable().size());
+			this.failedDocuments.addAndGet(result.getFailed());
+			return result.getRetryable();
 		}
-		else if (StringUtils.hasText(elastic.getUsername())) {
-			return restTemplateBuilder.basicAuthentication(elastic.getUsername(),
-					elastic.getPassword());
+		finally {
+			this.batches.incrementAndGet();
+			this.batchesTime.addAndGet(System.nanoTime() - start);
 		}
-		return restTemplateBuilder;
 	}
 
-	private static URI determineEntityUrl(Elastic elastic) {
-		String entityUrl = elastic.getUri() + "/" + elastic.getIndexName() + "/"
-				+ elastic.getEntityName();
+	/**
+	 * Return the number of documents waiting to be published.
+	 * @return the size of the queue
+	 */
+	public int getQueueSize() {
+		return this.queue.size();
+	}
+
+	/**
+	 * Return the number of documents that have been published.
+	 * @return the number of published documents
+	 */
+	public long getPublishedDocuments() {
+		return this.publishedDocuments.get();
+	}
+
+	/**
+	 * Return the number of documents that could not be published.
+	 * @return the number of failed documents
+	 */
+	public long getFailedDocuments() {
+		return this.failedDocuments.get();
+	}
+
+	/**
+	 * Return the number of documents that have been written to the spool.
+	 * @return the number of spooled documents
+	 */
+	public long getSpooledDocuments() {
+		return this.spooledDocuments.get();
+	}
+
+	/**
+	 * Return the size of the spool.
+	 * @return the size of the spool in bytes
+	 */
+	public long getSpoolSize() {
+		return (this.spool != null) ? this.spool.getSize() : 0;
+	}
+
+	/**
+	 * Return the number of documents that have been dropped as the queue or the spool was
+	 * full.
+	 * @return the number of dropped documents
+	 */
+	public long getDroppedDocuments() {
+		return this.droppedDocuments.get();
+	}
+
+	/**
+	 * Return the number of batches that have been handed over to the sink.
+	 * @return the number of batches
+	 */
+	public long getBatches() {
+		return this.batches.get();
+	}
+
+	/**
+	 * Return the total time spent publishing batches.
+	 * @param unit the unit to use
+	 * @return the total time of batches
+	 */
+	public double getBatchesTime(TimeUnit unit) {
+		return (double) this.batchesTime.get() / unit.toNanos(1);
+	}
+
+	private String toJson(ProjectRequestDocument stats) {
 		try {
-			return new URI(entityUrl);
+			return this.objectMapper.writeValueAsString(stats);
 		}
-		catch (URISyntaxException ex) {
-			throw new IllegalStateException("Cannot create entity URL: " + entityUrl, ex);
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Cannot convert to JSON", ex);
 		}
 	}
 
+	private static ObjectMapper createObjectMapper() {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+		return mapper;
+	}
+
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A {@link MeterBinder} that exposes the state of a
+ * {@link ProjectGenerationStatPublisher}.
+ *
+ * @author Stephane Nicoll
+ */
+public class ProjectGenerationStatPublisherMetrics implements MeterBinder {
+
+	private final ProjectGenerationStatPublisher publisher;
+
+	public ProjectGenerationStatPublisherMetrics(
+			ProjectGenerationStatPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("initializr.stats.queue.size", this.publisher,
+				ProjectGenerationStatPublisher::getQueueSize)
+				.description("Number of stat documents waiting to be published")
+				.register(registry);
+		registerDocuments(registry, "published",
+				ProjectGenerationStatPublisher::getPublishedDocuments);
+		registerDocuments(registry, "failed",
+				ProjectGenerationStatPublisher::getFailedDocuments);
+		registerDocuments(registry, "dropped",
+				ProjectGenerationStatPublisher::getDroppedDocuments);
+		registerDocuments(registry, "spooled",
+				ProjectGenerationStatPublisher::getSpooledDocuments);
+		Gauge.builder("initializr.stats.spool.size", this.publisher,
+				ProjectGenerationStatPublisher::getSpoolSize)
+				.description("Size of the spool of stat documents").baseUnit("bytes")
+				.register(registry);
+		FunctionTimer
+				.builder("initializr.stats.batches", this.publisher,
+						ProjectGenerationStatPublisher::getBatches,
+						(publisher) -> publisher.getBatchesTime(TimeUnit.NANOSECONDS),
+						TimeUnit.NANOSECONDS)
+				.description("Batches of stat documents handed over to the sink")
+				.register(registry);
+	}
+
+	private void registerDocuments(MeterRegistry registry, String result,
+			ToDoubleFunction<ProjectGenerationStatPublisher> count) {
+		FunctionCounter.builder("initializr.stats.documents", this.publisher, count)
+				.description("Stat documents handled by the publisher")
+				.tag("result", result).register(registry);
+	}
+
+}
@@ -16,16 +16,14 @@
 
 package io.spring.initializr.actuate.stat;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import io.spring.initializr.actuate.event.ProjectRequestSnapshot;
 import io.spring.initializr.actuate.stat.ProjectRequestDocument.ClientInformation;
 import io.spring.initializr.actuate.stat.ProjectRequestDocument.DependencyInformation;
 import io.spring.initializr.actuate.stat.ProjectRequestDocument.ErrorStateInformation;
 import io.spring.initializr.actuate.stat.ProjectRequestDocument.VersionInformation;
-import io.spring.initializr.generator.ProjectFailedEvent;
-import io.spring.initializr.generator.ProjectRequest;
 import io.spring.initializr.generator.ProjectRequestEvent;
 import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
@@ -48,11 +46,14 @@ public class ProjectRequestDocumentFactory {
 	}
 
 	public ProjectRequestDocument createDocument(ProjectRequestEvent event) {
+		return createDocument(ProjectRequestSnapshot.of(event));
+	}
+
+	public ProjectRequestDocument createDocument(ProjectRequestSnapshot request) {
 		InitializrMetadata metadata = this.metadataProvider.get();
-		ProjectRequest request = event.getProjectRequest();
 
 		ProjectRequestDocument document = new ProjectRequestDocument();
-		document.setGenerationTimestamp(event.getTimestamp());
+		document.setGenerationTimestamp(request.getTimestamp());
 		document.setGroupId(request.getGroupId());
 		document.setArtifactId(request.getArtifactId());
 		document.setPackageName(request.getPackageName());
@@ -85,9 +86,7 @@ public class ProjectRequestDocumentFactory {
 		}
 
 		// Let's not rely on the resolved dependencies here
-		List<String> dependencies = new ArrayList<>();
-		dependencies.addAll(request.getStyle());
-		dependencies.addAll(request.getDependencies());
+		List<String> dependencies = request.getDependencies();
 		List<String> validDependencies = dependencies.stream()
 				.filter((id) -> metadata.getDependencies().get(id) != null)
 				.collect(Collectors.toList());
@@ -100,23 +99,23 @@ public class ProjectRequestDocumentFactory {
 		}
 
 		// Let's make sure that the document is flagged as invalid no matter what
-		if (event instanceof ProjectFailedEvent) {
+		if (request.isFailed()) {
 			ErrorStateInformation errorState = document.triggerError();
-			ProjectFailedEvent failed = (ProjectFailedEvent) event;
-			if (failed.getCause() != null) {
-				errorState.setMessage(failed.getCause().getMessage());
+			if (request.getFailureMessage() != null) {
+				errorState.setMessage(request.getFailureMessage());
 			}
 		}
 		return document;
 	}
 
-	private String determineBuildSystem(ProjectRequest request) {
+	private String determineBuildSystem(ProjectRequestSnapshot request) {
 		String type = request.getType();
 		String[] elements = type.split("-");
 		return (elements.length == 2) ? elements[0] : null;
 	}
 
-	private VersionInformation determineVersionInformation(ProjectRequest request) {
+	private VersionInformation determineVersionInformation(
+			ProjectRequestSnapshot request) {
 		Version version = Version.safeParse(request.getBootVersion());
 		if (version != null && version.getMajor() != null) {
 			return new VersionInformation(version);
@@ -124,7 +123,7 @@ public class ProjectRequestDocumentFactory {
 		return null;
 	}
 
-	private ClientInformation determineClientInformation(ProjectRequest request) {
+	private ClientInformation determineClientInformation(ProjectRequestSnapshot request) {
 		Agent agent = determineAgent(request);
 		String ip = determineIp(request);
 		String country = determineCountry(request);
@@ -134,22 +133,22 @@ public class ProjectRequestDocumentFactory {
 		return null;
 	}
 
-	private Agent determineAgent(ProjectRequest request) {
-		String userAgent = (String) request.getParameters().get("user-agent");
+	private Agent determineAgent(ProjectRequestSnapshot request) {
+		String userAgent = request.getParameters().get("user-agent");
 		if (StringUtils.hasText(userAgent)) {
 			return Agent.fromUserAgent(userAgent);
 		}
 		return null;
 	}
 
-	private String determineIp(ProjectRequest request) {
-		String candidate = (String) request.getParameters().get("cf-connecting-ip");
+	private String determineIp(ProjectRequestSnapshot request) {
+		String candidate = request.getParameters().get("cf-connecting-ip");
 		return (StringUtils.hasText(candidate)) ? candidate
-				: (String) request.getParameters().get("x-forwarded-for");
+				: request.getParameters().get("x-forwarded-for");
 	}
 
-	private String determineCountry(ProjectRequest request) {
-		String candidate = (String) request.getParameters().get("cf-ipcountry");
+	private String determineCountry(ProjectRequestSnapshot request) {
+		String candidate = request.getParameters().get("cf-ipcountry");
 		if (StringUtils.hasText(candidate) && !"xx".equalsIgnoreCase(candidate)) {
 			return candidate;
 		}
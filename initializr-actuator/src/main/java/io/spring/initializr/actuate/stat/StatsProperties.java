@@ -16,9 +16,14 @@
 
 package io.spring.initializr.actuate.stat;
 
+import java.io.File;
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.DeprecatedConfigurationProperty;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Statistics-related properties.
@@ -29,12 +34,217 @@ import org.springframework.util.StringUtils;
 public class StatsProperties {
 
 	@NestedConfigurationProperty
-	private final Elastic elastic = new Elastic();
+	private final Queue queue = new Queue();
+
+	@NestedConfigurationProperty
+	private final Elastic elastic = new Elastic(this.queue);
+
+	@NestedConfigurationProperty
+	private final Local local = new Local();
+
+	@NestedConfigurationProperty
+	private final Spool spool = new Spool();
 
 	public Elastic getElastic() {
 		return this.elastic;
 	}
 
+	public Local getLocal() {
+		return this.local;
+	}
+
+	public Queue getQueue() {
+		return this.queue;
+	}
+
+	public Spool getSpool() {
+		return this.spool;
+	}
+
+	/**
+	 * Queue of documents waiting to be published.
+	 */
+	public static final class Queue {
+
+		/**
+		 * Maximum number of documents waiting to be published.
+		 */
+		private int capacity = 10000;
+
+		/**
+		 * Policy to apply when a document is published while the queue is full.
+		 */
+		private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+		/**
+		 * Maximum time to wait for the queue to have room for a new document when using
+		 * the "block" overflow policy. The new document is dropped after that time.
+		 */
+		private Duration blockTimeout = Duration.ofMillis(100);
+
+		/**
+		 * Maximum number of documents to hand over to the sink at once.
+		 */
+		private int batchSize = 500;
+
+		/**
+		 * Maximum time a document waits for a batch to be full before being published.
+		 */
+		private Duration flushInterval = Duration.ofSeconds(5);
+
+		public int getCapacity() {
+			return this.capacity;
+		}
+
+		public void setCapacity(int capacity) {
+			this.capacity = capacity;
+		}
+
+		public OverflowPolicy getOverflowPolicy() {
+			return this.overflowPolicy;
+		}
+
+		public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+			this.overflowPolicy = overflowPolicy;
+		}
+
+		public Duration getBlockTimeout() {
+			return this.blockTimeout;
+		}
+
+		public void setBlockTimeout(Duration blockTimeout) {
+			this.blockTimeout = blockTimeout;
+		}
+
+		public int getBatchSize() {
+			return this.batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		public Duration getFlushInterval() {
+			return this.flushInterval;
+		}
+
+		public void setFlushInterval(Duration flushInterval) {
+			this.flushInterval = flushInterval;
+		}
+
+		/**
+		 * Policy to apply when the queue is full.
+		 */
+		public enum OverflowPolicy {
+
+			/**
+			 * Drop the oldest document of the queue to make room for the new one.
+			 */
+			DROP_OLDEST,
+
+			/**
+			 * Block the publishing thread until there is room for the new document.
+			 */
+			BLOCK
+
+		}
+
+	}
+
+	/**
+	 * Local spool of documents that could not be published.
+	 */
+	public static final class Spool {
+
+		/**
+		 * Directory of the spool. Documents that could not be published are only logged
+		 * if not set.
+		 */
+		private File directory;
+
+		/**
+		 * Size from which a new segment file is started.
+		 */
+		private DataSize segmentSize = DataSize.ofMegabytes(1);
+
+		/**
+		 * Maximum size of the spool. Oldest documents are dropped when this size is
+		 * exceeded.
+		 */
+		private DataSize maxSize = DataSize.ofMegabytes(100);
+
+		/**
+		 * Time to wait before replaying the spool once publishing documents failed.
+		 */
+		private Duration retryInterval = Duration.ofSeconds(30);
+
+		public File getDirectory() {
+			return this.directory;
+		}
+
+		public void setDirectory(File directory) {
+			this.directory = directory;
+		}
+
+		public DataSize getSegmentSize() {
+			return this.segmentSize;
+		}
+
+		public void setSegmentSize(DataSize segmentSize) {
+			this.segmentSize = segmentSize;
+		}
+
+		public DataSize getMaxSize() {
+			return this.maxSize;
+		}
+
+		public void setMaxSize(DataSize maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public Duration getRetryInterval() {
+			return this.retryInterval;
+		}
+
+		public void setRetryInterval(Duration retryInterval) {
+			this.retryInterval = retryInterval;
+		}
+
+	}
+
+	/**
+	 * Local files configuration, as an alternative to Elasticsearch.
+	 */
+	public static final class Local {
+
+		/**
+		 * Directory in which gzipped NDJSON files of documents are written.
+		 */
+		private File directory;
+
+		/**
+		 * Time after which a new file is started.
+		 */
+		private Duration rollInterval = Duration.ofHours(1);
+
+		public File getDirectory() {
+			return this.directory;
+		}
+
+		public void setDirectory(File directory) {
+			this.directory = directory;
+		}
+
+		public Duration getRollInterval() {
+			return this.rollInterval;
+		}
+
+		public void setRollInterval(Duration rollInterval) {
+			this.rollInterval = rollInterval;
+		}
+
+	}
+
 	/**
 	 * Elasticsearch configuration.
 	 */
@@ -70,6 +280,16 @@ public class StatsProperties {
 		 */
 		private int maxAttempts = 3;
 
+		private final Queue queue;
+
+		public Elastic() {
+			this(new Queue());
+		}
+
+		Elastic(Queue queue) {
+			this.queue = queue;
+		}
+
 		public String getUsername() {
 			return this.username;
 		}
@@ -110,6 +330,41 @@ public class StatsProperties {
 			this.maxAttempts = maxAttempts;
 		}
 
+		/**
+		 * Return the maximum number of documents to send in a single bulk request.
+		 * @return the batch size
+		 * @deprecated in favour of {@link Queue#getBatchSize()} as batches apply to any
+		 * sink
+		 */
+		@Deprecated
+		@DeprecatedConfigurationProperty(replacement = "initializr.stats.queue.batch-size")
+		public int getBatchSize() {
+			return this.queue.getBatchSize();
+		}
+
+		@Deprecated
+		public void setBatchSize(int batchSize) {
+			this.queue.setBatchSize(batchSize);
+		}
+
+		/**
+		 * Return the maximum time a document waits for a batch to be full before being
+		 * sent.
+		 * @return the flush interval
+		 * @deprecated in favour of {@link Queue#getFlushInterval()} as batches apply to
+		 * any sink
+		 */
+		@Deprecated
+		@DeprecatedConfigurationProperty(replacement = "initializr.stats.queue.flush-interval")
+		public Duration getFlushInterval() {
+			return this.queue.getFlushInterval();
+		}
+
+		@Deprecated
+		public void setFlushInterval(Duration flushInterval) {
+			this.queue.setFlushInterval(flushInterval);
+		}
+
 		public String getUri() {
 			return this.uri;
 		}
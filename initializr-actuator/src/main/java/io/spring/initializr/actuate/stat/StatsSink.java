@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A destination for stat documents. Documents are handed over in batches by a single
+ * thread of the {@link ProjectGenerationStatPublisher}.
+ *
+ * @author Stephane Nicoll
+ */
+@FunctionalInterface
+public interface StatsSink {
+
+	/**
+	 * Publish the specified documents.
+	 * @param documents the documents to publish, as JSON
+	 * @return the outcome of the publication
+	 * @throws IOException if the documents could not be published
+	 */
+	Result publish(List<String> documents) throws IOException;
+
+	/**
+	 * The outcome of the publication of a batch of documents.
+	 */
+	final class Result {
+
+		private static final Result SUCCESS = new Result(0, Collections.emptyList());
+
+		private final int failed;
+
+		private final List<String> retryable;
+
+		private Result(int failed, List<String> retryable) {
+			this.failed = failed;
+			this.retryable = retryable;
+		}
+
+		/**
+		 * Return a result for a batch whose documents have all been published.
+		 * @return a successful result
+		 */
+		public static Result success() {
+			return SUCCESS;
+		}
+
+		/**
+		 * Return a result for a batch whose documents have only partially been published.
+		 * @param failed the number of documents that have been rejected
+		 * @param retryable the documents that could not be published but are worth
+		 * retrying later
+		 * @return a partial result
+		 */
+		public static Result of(int failed, List<String> retryable) {
+			return new Result(failed, Collections.unmodifiableList(retryable));
+		}
+
+		/**
+		 * Return the number of documents that have been rejected.
+		 * @return the number of failed documents
+		 */
+		public int getFailed() {
+			return this.failed;
+		}
+
+		/**
+		 * Return the documents that should be published again later.
+		 * @return the retryable documents
+		 */
+		public List<String> getRetryable() {
+			return this.retryable;
+		}
+
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An append-only spool of JSON documents that could not be published. Documents are
+ * stored one per line in segment files that are replayed, oldest first, once the index is
+ * available again. Each {@link #append(List) append} is written and synced to disk in a
+ * single operation. When the spool exceeds its maximum size, the oldest segments are
+ * evicted, including the current one if it is the only segment left.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Stephane Nicoll
+ */
+public class StatsSpool {
+
+	private static final String SEGMENT_PREFIX = "segment-";
+
+	private static final String SEGMENT_SUFFIX = ".ndjson";
+
+	private final Path directory;
+
+	private final long segmentSize;
+
+	private final long maxSize;
+
+	private final Deque<Path> segments = new ArrayDeque<>();
+
+	private Path currentSegment;
+
+	private long sequence;
+
+	private volatile long size;
+
+	/**
+	 * Create a spool in the specified directory. Segments that already exist, typically
+	 * from a previous run, are replayed first. They are never appended to as their last
+	 * line may be incomplete: new documents go to a new segment. Files whose name does
+	 * not hold a valid sequence number are ignored.
+	 * @param directory the directory of the spool
+	 * @param segmentSize the size from which a new segment is started
+	 * @param maxSize the maximum size of the spool
+	 * @throws IOException if the directory cannot be created or read
+	 */
+	public StatsSpool(Path directory, long segmentSize, long maxSize) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.segmentSize = segmentSize;
+		this.maxSize = maxSize;
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path segment : files.filter(StatsSpool::isSegment)
+					.sorted(Comparator.comparingLong(StatsSpool::sequence))
+					.collect(Collectors.toList())) {
+				this.segments.add(segment);
+				this.size += Files.size(segment);
+				this.sequence = Math.max(this.sequence, sequence(segment));
+			}
+		}
+	}
+
+	/**
+	 * Append the specified documents to the spool.
+	 * @param documents the documents to append
+	 * @return the number of documents that have been evicted to keep the spool under its
+	 * maximum size
+	 * @throws IOException if the documents cannot be written
+	 */
+	public long append(List<String> documents) throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (String document : documents) {
+			content.append(document).append('\n');
+		}
+		ByteBuffer buffer = ByteBuffer
+				.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+		Path segment = getSegmentForAppend();
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+		this.size += buffer.limit();
+		return evict();
+	}
+
+	private Path getSegmentForAppend() throws IOException {
+		if (this.currentSegment == null
+				|| Files.size(this.currentSegment) >= this.segmentSize) {
+			this.sequence++;
+			this.currentSegment = this.directory.resolve(String.format("%s%020d%s",
+					SEGMENT_PREFIX, this.sequence, SEGMENT_SUFFIX));
+			this.segments.add(this.currentSegment);
+		}
+		return this.currentSegment;
+	}
+
+	private long evict() throws IOException {
+		long evicted = 0;
+		while (this.size > this.maxSize && !this.segments.isEmpty()) {
+			Path segment = this.segments.removeFirst();
+			if (segment.equals(this.currentSegment)) {
+				this.currentSegment = null;
+			}
+			evicted += readDocuments(segment).size();
+			this.size -= Files.size(segment);
+			Files.delete(segment);
+		}
+		return evicted;
+	}
+
+	/**
+	 * Replay the documents of the oldest segment, in batches of the specified size. If
+	 * the publisher fails to handle a batch, the documents that have not been replayed
+	 * are kept for a later attempt.
+	 * @param batchSize the maximum number of documents to hand over at once
+	 * @param publisher the publisher of the documents, returning whether they could be
+	 * published
+	 * @return {@code true} if a whole segment has been replayed, {@code false} if the
+	 * spool is empty or the publisher failed
+	 * @throws IOException if the segment cannot be read or updated
+	 */
+	public boolean replay(int batchSize, Predicate<List<String>> publisher)
+			throws IOException {
+		Path segment = this.segments.peekFirst();
+		if (segment == null) {
+			return false;
+		}
+		if (segment.equals(this.currentSegment)) {
+			// Documents appended while replaying must not end up in this segment
+			this.currentSegment = null;
+		}
+		List<String> documents = readDocuments(segment);
+		long segmentSize = Files.size(segment);
+		int replayed = 0;
+		while (replayed < documents.size()) {
+			List<String> batch = documents.subList(replayed,
+					Math.min(documents.size(), replayed + batchSize));
+			if (!publisher.test(new ArrayList<>(batch))) {
+				break;
+			}
+			replayed += batch.size();
+		}
+		if (replayed < documents.size()) {
+			if (replayed > 0) {
+				Path remainder = this.directory.resolve(segment.getFileName() + ".tmp");
+				Files.write(remainder, documents.subList(replayed, documents.size()),
+						StandardCharsets.UTF_8);
+				Files.move(remainder, segment, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+				this.size += Files.size(segment) - segmentSize;
+			}
+			return false;
+		}
+		this.segments.removeFirst();
+		this.size -= segmentSize;
+		Files.delete(segment);
+		return true;
+	}
+
+	/**
+	 * Return whether the spool holds documents.
+	 * @return {@code true} if there is no document to replay
+	 */
+	public boolean isEmpty() {
+		return this.segments.isEmpty();
+	}
+
+	/**
+	 * Return the size of the spool.
+	 * @return the size of the spool in bytes
+	 */
+	public long getSize() {
+		return this.size;
+	}
+
+	// A partial line at the end of a segment is a write that did not complete
+	private static List<String> readDocuments(Path segment) throws IOException {
+		String content = new String(Files.readAllBytes(segment), StandardCharsets.UTF_8);
+		List<String> documents = new ArrayList<>();
+		int start = 0;
+		int end = content.indexOf('\n');
+		while (end != -1) {
+			if (end > start) {
+				documents.add(content.substring(start, end));
+			}
+			start = end + 1;
+			end = content.indexOf('\n', start);
+		}
+		return documents;
+	}
+
+	private static boolean isSegment(Path path) {
+		return sequence(path) >= 0;
+	}
+
+	// -1 if the path is not a segment
+	private static long sequence(Path path) {
+		String name = path.getFileName().toString();
+		if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)
+				|| name.length() <= SEGMENT_PREFIX.length() + SEGMENT_SUFFIX.length()) {
+			return -1;
+		}
+		String sequence = name.substring(SEGMENT_PREFIX.length(),
+				name.length() - SEGMENT_SUFFIX.length());
+		for (int i = 0; i < sequence.length(); i++) {
+			if (sequence.charAt(i) < '0' || sequence.charAt(i) > '9') {
+				return -1;
+			}
+		}
+		try {
+			return Long.parseLong(sequence);
+		}
+		catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+}
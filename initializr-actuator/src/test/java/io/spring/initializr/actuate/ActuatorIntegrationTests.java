@@ -16,14 +16,17 @@
 
 package io.spring.initializr.actuate;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.spring.initializr.actuate.event.ProjectRequestEventBus;
 import io.spring.initializr.web.AbstractFullStackInitializrIntegrationTests;
 import io.spring.initializr.web.AbstractInitializrIntegrationTests.Config;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.test.context.ActiveProfiles;
@@ -39,6 +42,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 @SpringBootTest(classes = Config.class, webEnvironment = WebEnvironment.RANDOM_PORT, properties = "management.endpoints.web.exposure.include=info,metrics")
 class ActuatorIntegrationTests extends AbstractFullStackInitializrIntegrationTests {
 
+	@Autowired
+	private ProjectRequestEventBus eventBus;
+
 	@Test
 	void infoHasExternalProperties() {
 		String body = getRestTemplate().getForObject(createUrl("/actuator/info"),
@@ -50,37 +56,37 @@ class ActuatorIntegrationTests extends AbstractFullStackInitializrIntegrationTes
 	@Test
 	void metricsAreRegistered() {
 		downloadZip("/starter.zip?packaging=jar&javaVersion=1.8&style=web&style=jpa");
+		assertThat(this.eventBus.awaitDispatch(Duration.ofSeconds(5))).isTrue();
 		JsonNode result = metricsEndpoint();
 		JsonNode names = result.get("names");
 		List<String> metrics = new ArrayList<>();
 		for (JsonNode name : names) {
 			metrics.add(name.textValue());
 		}
-		assertThat(metrics).contains("initializr.requests", "initializr.packaging.jar",
-				"initializr.java_version.1_8", "initializr.dependency.web",
-				"initializr.dependency.data-jpa");
+		assertThat(metrics).contains("initializr.requests", "initializr.packaging",
+				"initializr.java_version", "initializr.dependency");
 
 		int requests = metricValue("initializr.requests");
-		int packaging = metricValue("initializr.packaging.jar");
-		int javaVersion = metricValue("initializr.java_version.1_8");
-		int webDependency = metricValue("initializr.dependency.web");
-		int jpaDependency = metricValue("initializr.dependency.data-jpa");
+		int packaging = metricValue("initializr.packaging?tag=id:jar");
+		int javaVersion = metricValue("initializr.java_version?tag=id:1.8");
+		int webDependency = metricValue("initializr.dependency?tag=id:web");
+		int jpaDependency = metricValue("initializr.dependency?tag=id:data-jpa");
 
 		// No jpa dep this time
 		downloadZip("/starter.zip?packaging=jar&javaVersion=1.8&style=web");
 
 		assertThat(metricValue("initializr.requests"))
 				.as("Number of request should have increased").isEqualTo(requests + 1);
-		assertThat(metricValue("initializr.packaging.jar"))
+		assertThat(metricValue("initializr.packaging?tag=id:jar"))
 				.as("jar packaging metric should have increased")
 				.isEqualTo(packaging + 1);
-		assertThat(metricValue("initializr.java_version.1_8"))
+		assertThat(metricValue("initializr.java_version?tag=id:1.8"))
 				.as("java version metric should have increased")
 				.isEqualTo(javaVersion + 1);
-		assertThat(metricValue("initializr.dependency.web"))
+		assertThat(metricValue("initializr.dependency?tag=id:web"))
 				.as("web dependency metric should have increased")
 				.isEqualTo(webDependency + 1);
-		assertThat(metricValue("initializr.dependency.data-jpa"))
+		assertThat(metricValue("initializr.dependency?tag=id:data-jpa"))
 				.as("jpa dependency metric should not have increased")
 				.isEqualTo(jpaDependency);
 	}
@@ -91,6 +97,7 @@ class ActuatorIntegrationTests extends AbstractFullStackInitializrIntegrationTes
 	}
 
 	private int metricValue(String metric) {
+		assertThat(this.eventBus.awaitDispatch(Duration.ofSeconds(5))).isTrue();
 		JsonNode root = parseJson(getRestTemplate()
 				.getForObject(createUrl("/actuator/metrics/" + metric), String.class));
 		JsonNode measurements = root.get("measurements");
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.analytics;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import io.spring.initializr.actuate.event.ProjectRequestSnapshot;
+import io.spring.initializr.generator.ProjectGeneratedEvent;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AnalyticsPopularProjectRequests}.
+ *
+ * @author Stephane Nicoll
+ */
+class AnalyticsPopularProjectRequestsTests {
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().addDependencyGroup("core", "web", "security", "data-jpa")
+			.build();
+
+	private final DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+			new AnalyticsProperties());
+
+	private final AnalyticsPopularProjectRequests popularRequests = new AnalyticsPopularProjectRequests(
+			this.analytics);
+
+	@Test
+	void popularRequestsUseTopCombinations() {
+		generated("security", "web");
+		generated("web", "security");
+		generated("data-jpa");
+		assertThat(this.popularRequests.getPopularRequests(10)).containsExactly(
+				Collections.singletonMap("style", Arrays.asList("web", "security")),
+				Collections.singletonMap("style", Collections.singletonList("data-jpa")));
+	}
+
+	@Test
+	void popularRequestsAreLimited() {
+		generated("web");
+		generated("web");
+		generated("security");
+		assertThat(this.popularRequests.getPopularRequests(1)).containsExactly(
+				Collections.singletonMap("style", Collections.singletonList("web")));
+	}
+
+	private void generated(String... dependencies) {
+		ProjectRequest request = new ProjectRequest();
+		request.initialize(this.metadata);
+		request.getStyle().addAll(Arrays.asList(dependencies));
+		request.resolve(this.metadata);
+		this.analytics.onProjectRequest(
+				ProjectRequestSnapshot.of(new ProjectGeneratedEvent(request)));
+	}
+
+}
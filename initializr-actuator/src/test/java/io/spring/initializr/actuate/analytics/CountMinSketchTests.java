@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CountMinSketch}.
+ *
+ * @author Stephane Nicoll
+ */
+class CountMinSketchTests {
+
+	@Test
+	void addReturnsEstimate() {
+		CountMinSketch sketch = new CountMinSketch(64, 4);
+		assertThat(sketch.add(42L)).isEqualTo(1);
+		assertThat(sketch.add(42L)).isEqualTo(2);
+		assertThat(sketch.estimate(42L)).isEqualTo(2);
+	}
+
+	@Test
+	void estimateOfUnknownKey() {
+		CountMinSketch sketch = new CountMinSketch(64, 4);
+		sketch.add(42L);
+		assertThat(sketch.estimate(43L)).isLessThanOrEqualTo(1);
+	}
+
+	@Test
+	void estimateNeverUnderestimates() {
+		CountMinSketch sketch = new CountMinSketch(16, 2);
+		for (long key = 0; key < 100; key++) {
+			for (int i = 0; i <= key % 5; i++) {
+				sketch.add(key * 0x9E3779B97F4A7C15L);
+			}
+		}
+		for (long key = 0; key < 100; key++) {
+			assertThat(sketch.estimate(key * 0x9E3779B97F4A7C15L))
+					.isGreaterThanOrEqualTo(key % 5 + 1);
+		}
+	}
+
+}
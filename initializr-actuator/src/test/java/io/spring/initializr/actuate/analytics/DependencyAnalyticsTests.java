@@ -0,0 +1,221 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.analytics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.spring.initializr.actuate.analytics.DependencyAnalytics.Combination;
+import io.spring.initializr.actuate.event.ProjectRequestSnapshot;
+import io.spring.initializr.generator.ProjectFailedEvent;
+import io.spring.initializr.generator.ProjectGeneratedEvent;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link DependencyAnalytics}.
+ *
+ * @author Stephane Nicoll
+ */
+class DependencyAnalyticsTests {
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().addDependencyGroup("core", "web", "security", "data-jpa")
+			.build();
+
+	private final AnalyticsProperties properties = createProperties();
+
+	@Test
+	void dependencyCounts() {
+		DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+				this.properties);
+		analytics.onProjectRequest(generated("web", "security"));
+		analytics.onProjectRequest(generated("web"));
+		analytics.onProjectRequest(generated());
+		assertThat(analytics.getRequests()).isEqualTo(3);
+		assertThat(analytics.getDependencyCounts()).containsExactly(entry("web", 2L),
+				entry("security", 1L));
+	}
+
+	@Test
+	void failedRequestIsIgnored() {
+		DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+				this.properties);
+		ProjectRequest request = createRequest("web");
+		analytics.onProjectRequest(ProjectRequestSnapshot
+				.of(new ProjectFailedEvent(request, new IllegalStateException("test"))));
+		assertThat(analytics.getRequests()).isEqualTo(0);
+		assertThat(analytics.getDependencyCounts()).isEmpty();
+		assertThat(analytics.getTopCombinations(10)).isEmpty();
+	}
+
+	@Test
+	void dependencyCountsOutsideOfWindowAreIgnored() {
+		DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+				this.properties, Clock.offset(Clock.systemUTC(), Duration.ofDays(2)));
+		analytics.onProjectRequest(generated("web"));
+		assertThat(analytics.getRequests()).isEqualTo(0);
+		assertThat(analytics.getDependencyCounts()).isEmpty();
+		assertThat(analytics.getCooccurrences("web")).isEmpty();
+	}
+
+	@Test
+	void topCombinations() {
+		DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+				this.properties);
+		for (int i = 0; i < 3; i++) {
+			analytics.onProjectRequest(generated("web", "data-jpa"));
+		}
+		analytics.onProjectRequest(generated("data-jpa", "web", "web"));
+		analytics.onProjectRequest(generated("security"));
+		analytics.onProjectRequest(generated("web"));
+		analytics.onProjectRequest(generated("web"));
+		assertThat(analytics.getTopCombinations(10)).hasSize(3);
+		Combination first = analytics.getTopCombinations(10).get(0);
+		assertThat(first.getDependencies()).containsExactly("web", "data-jpa");
+		assertThat(first.getCount()).isEqualTo(4);
+		Combination second = analytics.getTopCombinations(10).get(1);
+		assertThat(second.getDependencies()).containsExactly("web");
+		assertThat(second.getCount()).isEqualTo(2);
+		assertThat(analytics.getTopCombinations(1)).containsExactly(first);
+	}
+
+	@Test
+	void topCombinationsAreBounded() {
+		this.properties.setTopCombinations(2);
+		DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+				this.properties);
+		analytics.onProjectRequest(generated("web"));
+		analytics.onProjectRequest(generated("web"));
+		analytics.onProjectRequest(generated("security"));
+		analytics.onProjectRequest(generated("security"));
+		analytics.onProjectRequest(generated("data-jpa"));
+		assertThat(analytics.getTopCombinations(10))
+				.extracting(Combination::getDependencies)
+				.containsExactly(Arrays.asList("web"), Arrays.asList("security"));
+		analytics.onProjectRequest(generated("data-jpa"));
+		analytics.onProjectRequest(generated("data-jpa"));
+		assertThat(analytics.getTopCombinations(10).get(0).getDependencies())
+				.containsExactly("data-jpa");
+		assertThat(analytics.getTopCombinations(10)).hasSize(2);
+	}
+
+	@Test
+	void topCombinationsIncludeEmptySet() {
+		DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+				this.properties);
+		analytics.onProjectRequest(generated());
+		assertThat(analytics.getTopCombinations(10)).hasSize(1);
+		assertThat(analytics.getTopCombinations(10).get(0).getDependencies()).isEmpty();
+	}
+
+	@Test
+	void cooccurrences() {
+		DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+				this.properties);
+		analytics.onProjectRequest(generated("web", "security", "data-jpa"));
+		analytics.onProjectRequest(generated("web", "data-jpa"));
+		analytics.onProjectRequest(generated("security"));
+		assertThat(analytics.getCooccurrences("web"))
+				.containsExactly(entry("data-jpa", 2L), entry("security", 1L));
+		assertThat(analytics.getCooccurrences("security")).containsOnly(entry("web", 1L),
+				entry("data-jpa", 1L));
+	}
+
+	@Test
+	void cooccurrencesOfUnknownDependency() {
+		DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+				this.properties);
+		assertThat(analytics.getCooccurrences("does-not-exist")).isNull();
+	}
+
+	@Test
+	void countsAreRetainedWhenMetadataIsRefreshed() {
+		AtomicReference<InitializrMetadata> metadata = new AtomicReference<>(
+				this.metadata);
+		DependencyAnalytics analytics = new DependencyAnalytics(metadata::get,
+				this.properties);
+		analytics.onProjectRequest(generated("web", "security", "data-jpa"));
+		analytics.onProjectRequest(generated("web", "data-jpa"));
+		InitializrMetadata refreshed = InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("core", "data-jpa", "actuator", "web").build();
+		metadata.set(refreshed);
+		analytics.onProjectRequest(generated(refreshed, "web", "actuator"));
+		analytics.onProjectRequest(generated(refreshed, "data-jpa", "web"));
+		assertThat(analytics.getRequests()).isEqualTo(4);
+		assertThat(analytics.getDependencyCounts()).containsExactly(entry("web", 4L),
+				entry("data-jpa", 3L), entry("actuator", 1L));
+		assertThat(analytics.getCooccurrences("web"))
+				.containsExactly(entry("data-jpa", 3L), entry("actuator", 1L));
+		assertThat(analytics.getCooccurrences("security")).isNull();
+		Combination first = analytics.getTopCombinations(10).get(0);
+		assertThat(first.getDependencies()).containsExactly("data-jpa", "web");
+		assertThat(first.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	void metadataIsIndexedAgainWhenRevisionChanges() {
+		DependencyAnalytics analytics = new DependencyAnalytics(this.metadata,
+				this.properties);
+		analytics.onProjectRequest(generated("web"));
+		this.metadata.getDependencies().getContent().get(0).getContent()
+				.add(Dependency.withId("actuator", "org.acme", "actuator"));
+		this.metadata.validate();
+		analytics.onProjectRequest(generated("web", "actuator"));
+		assertThat(analytics.getDependencyCounts()).containsExactly(entry("web", 2L),
+				entry("actuator", 1L));
+	}
+
+	private static AnalyticsProperties createProperties() {
+		AnalyticsProperties properties = new AnalyticsProperties();
+		properties.setBucketDuration(Duration.ofDays(1));
+		properties.setBucketCount(2);
+		return properties;
+	}
+
+	private ProjectRequestSnapshot generated(String... dependencies) {
+		return generated(this.metadata, dependencies);
+	}
+
+	private ProjectRequestSnapshot generated(InitializrMetadata metadata,
+			String... dependencies) {
+		return ProjectRequestSnapshot
+				.of(new ProjectGeneratedEvent(createRequest(metadata, dependencies)));
+	}
+
+	private ProjectRequest createRequest(String... dependencies) {
+		return createRequest(this.metadata, dependencies);
+	}
+
+	private ProjectRequest createRequest(InitializrMetadata metadata,
+			String... dependencies) {
+		ProjectRequest request = new ProjectRequest();
+		request.initialize(metadata);
+		request.getStyle().addAll(Arrays.asList(dependencies));
+		request.resolve(metadata);
+		return request;
+	}
+
+}
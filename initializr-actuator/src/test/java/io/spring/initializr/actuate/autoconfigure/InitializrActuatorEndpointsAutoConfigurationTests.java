@@ -16,15 +16,20 @@
 
 package io.spring.initializr.actuate.autoconfigure;
 
+import io.spring.initializr.actuate.generation.GenerationEndpoint;
+import io.spring.initializr.actuate.generation.GenerationEndpoint.GenerationDescriptor;
 import io.spring.initializr.actuate.info.BomRangesInfoContributor;
 import io.spring.initializr.actuate.info.DependencyRangesInfoContributor;
 import io.spring.initializr.web.autoconfigure.InitializrAutoConfiguration;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
 import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -53,4 +58,37 @@ class InitializrActuatorEndpointsAutoConfigurationTests {
 				.hasSingleBean(DependencyRangesInfoContributor.class));
 	}
 
+	@Test
+	void autoConfigDoesNotRegisterGenerationEndpointWithoutArchiveGenerator() {
+		this.contextRunner.run((context) -> assertThat(context)
+				.doesNotHaveBean(GenerationEndpoint.class));
+	}
+
+	@Test
+	void autoConfigRegistersGenerationEndpoint() {
+		webContextRunner().run((context) -> {
+			assertThat(context).hasSingleBean(GenerationEndpoint.class);
+			GenerationDescriptor descriptor = context.getBean(GenerationEndpoint.class)
+					.generation();
+			assertThat(descriptor.getCaches()).containsOnlyKeys("templates", "archives",
+					"metadata-documents", "ui-documents");
+		});
+	}
+
+	@Test
+	void autoConfigWithGenerationEndpointDisabled() {
+		webContextRunner()
+				.withPropertyValues("management.endpoint.generation.enabled=false")
+				.run((context) -> assertThat(context)
+						.doesNotHaveBean(GenerationEndpoint.class));
+	}
+
+	private WebApplicationContextRunner webContextRunner() {
+		return new WebApplicationContextRunner().withConfiguration(AutoConfigurations.of(
+				RestTemplateAutoConfiguration.class, JacksonAutoConfiguration.class,
+				HttpMessageConvertersAutoConfiguration.class,
+				WebMvcAutoConfiguration.class, InitializrAutoConfiguration.class,
+				InitializrActuatorEndpointsAutoConfiguration.class));
+	}
+
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.autoconfigure;
+
+import java.time.Duration;
+
+import io.spring.initializr.actuate.analytics.AnalyticsPopularProjectRequests;
+import io.spring.initializr.actuate.analytics.DependencyAnalytics;
+import io.spring.initializr.actuate.analytics.DependencyAnalyticsEndpoint;
+import io.spring.initializr.actuate.event.ProjectRequestEventBus;
+import io.spring.initializr.generator.ProjectGeneratedEvent;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link InitializrAnalyticsAutoConfiguration}.
+ *
+ * @author Stephane Nicoll
+ */
+class InitializrAnalyticsAutoConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(
+					AutoConfigurations.of(InitializrAnalyticsAutoConfiguration.class));
+
+	@Test
+	void autoConfigRegistersDependencyAnalytics() {
+		this.contextRunner.withUserConfiguration(MetadataConfiguration.class)
+				.run((context) -> {
+					assertThat(context).hasSingleBean(DependencyAnalytics.class);
+					assertThat(context).hasSingleBean(DependencyAnalyticsEndpoint.class);
+					assertThat(context)
+							.hasSingleBean(AnalyticsPopularProjectRequests.class);
+				});
+	}
+
+	@Test
+	void autoConfigWithoutMetadataProviderDoesNotRegisterDependencyAnalytics() {
+		this.contextRunner.run((context) -> {
+			assertThat(context).doesNotHaveBean(DependencyAnalytics.class);
+			assertThat(context).doesNotHaveBean(DependencyAnalyticsEndpoint.class);
+		});
+	}
+
+	@Test
+	void autoConfigWhenDisabledDoesNotRegisterDependencyAnalytics() {
+		this.contextRunner.withUserConfiguration(MetadataConfiguration.class)
+				.withPropertyValues("initializr.analytics.enabled=false")
+				.run((context) -> assertThat(context)
+						.doesNotHaveBean(DependencyAnalytics.class));
+	}
+
+	@Test
+	void autoConfigWithEndpointDisabledDoesNotRegisterEndpoint() {
+		this.contextRunner.withUserConfiguration(MetadataConfiguration.class)
+				.withPropertyValues("management.endpoint.analytics.enabled=false")
+				.run((context) -> {
+					assertThat(context).hasSingleBean(DependencyAnalytics.class);
+					assertThat(context)
+							.doesNotHaveBean(DependencyAnalyticsEndpoint.class);
+				});
+	}
+
+	@Test
+	void dependencyAnalyticsIsFedByEventBus() {
+		this.contextRunner.withUserConfiguration(MetadataConfiguration.class)
+				.withConfiguration(
+						AutoConfigurations.of(InitializrEventsAutoConfiguration.class))
+				.run((context) -> {
+					context.publishEvent(new ProjectGeneratedEvent(new ProjectRequest()));
+					assertThat(context.getBean(ProjectRequestEventBus.class)
+							.awaitDispatch(Duration.ofSeconds(5))).isTrue();
+					assertThat(context.getBean(DependencyAnalytics.class).getRequests())
+							.isEqualTo(1);
+				});
+	}
+
+	@Configuration
+	static class MetadataConfiguration {
+
+		@Bean
+		public InitializrMetadataProvider initializrMetadataProvider() {
+			InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+					.build();
+			return () -> metadata;
+		}
+
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.autoconfigure;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.spring.initializr.actuate.event.ProjectRequestEventBus;
+import io.spring.initializr.actuate.event.ProjectRequestSnapshot;
+import io.spring.initializr.actuate.event.ProjectRequestSnapshotListener;
+import io.spring.initializr.generator.ProjectGeneratedEvent;
+import io.spring.initializr.generator.ProjectRequest;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link InitializrEventsAutoConfiguration}.
+ *
+ * @author Stephane Nicoll
+ */
+class InitializrEventsAutoConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(
+					AutoConfigurations.of(InitializrEventsAutoConfiguration.class));
+
+	@Test
+	void autoConfigRegistersProjectRequestEventBus() {
+		this.contextRunner.run((context) -> {
+			assertThat(context).hasSingleBean(ProjectRequestEventBus.class);
+			assertThat(context.getBean(ProjectRequestEventBus.class).getCapacity())
+					.isEqualTo(8192);
+		});
+	}
+
+	@Test
+	void autoConfigWithCustomCapacity() {
+		this.contextRunner.withPropertyValues("initializr.events.capacity=100")
+				.run((context) -> assertThat(
+						context.getBean(ProjectRequestEventBus.class).getCapacity())
+								.isEqualTo(128));
+	}
+
+	@Test
+	void projectRequestEventIsDispatchedToListeners() {
+		this.contextRunner.withUserConfiguration(ListenerConfiguration.class)
+				.run((context) -> {
+					context.publishEvent(new ProjectGeneratedEvent(new ProjectRequest()));
+					assertThat(context.getBean(ProjectRequestEventBus.class)
+							.awaitDispatch(Duration.ofSeconds(5))).isTrue();
+					assertThat(context.getBean(ListenerConfiguration.class).snapshots)
+							.hasSize(1);
+				});
+	}
+
+	@Configuration
+	static class ListenerConfiguration {
+
+		private final List<ProjectRequestSnapshot> snapshots = new CopyOnWriteArrayList<>();
+
+		@Bean
+		public ProjectRequestSnapshotListener testListener() {
+			return this.snapshots::add;
+		}
+
+	}
+
+}
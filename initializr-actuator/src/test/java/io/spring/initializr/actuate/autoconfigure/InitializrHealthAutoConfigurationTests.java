@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.autoconfigure;
+
+import io.spring.initializr.actuate.health.ProjectArchivePrewarmHealthIndicator;
+import io.spring.initializr.actuate.health.WarmupHealthIndicator;
+import io.spring.initializr.web.project.ProjectArchivePrewarmer;
+import io.spring.initializr.web.support.InitializrWarmup;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link InitializrHealthAutoConfiguration}.
+ *
+ * @author Stephane Nicoll
+ */
+class InitializrHealthAutoConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(
+					AutoConfigurations.of(InitializrHealthAutoConfiguration.class));
+
+	@Test
+	void autoConfigRegistersPrewarmHealthIndicator() {
+		this.contextRunner.withUserConfiguration(PrewarmerConfiguration.class)
+				.run((context) -> assertThat(context)
+						.hasSingleBean(ProjectArchivePrewarmHealthIndicator.class));
+	}
+
+	@Test
+	void autoConfigWithoutPrewarmerDoesNotRegisterPrewarmHealthIndicator() {
+		this.contextRunner.run((context) -> assertThat(context)
+				.doesNotHaveBean(ProjectArchivePrewarmHealthIndicator.class));
+	}
+
+	@Test
+	void autoConfigWithPrewarmHealthIndicatorDisabled() {
+		this.contextRunner.withUserConfiguration(PrewarmerConfiguration.class)
+				.withPropertyValues("management.health.prewarm.enabled=false")
+				.run((context) -> assertThat(context)
+						.doesNotHaveBean(ProjectArchivePrewarmHealthIndicator.class));
+	}
+
+	@Test
+	void autoConfigConditionalOnWebClasses() {
+		this.contextRunner.withUserConfiguration(PrewarmerConfiguration.class)
+				.withClassLoader(new FilteredClassLoader(ProjectArchivePrewarmer.class))
+				.run((context) -> assertThat(context)
+						.doesNotHaveBean(ProjectArchivePrewarmHealthIndicator.class));
+	}
+
+	@Test
+	void autoConfigRegistersWarmupHealthIndicator() {
+		this.contextRunner.withUserConfiguration(WarmupConfiguration.class)
+				.run((context) -> {
+					assertThat(context).hasSingleBean(WarmupHealthIndicator.class);
+					assertThat(context)
+							.doesNotHaveBean(ProjectArchivePrewarmHealthIndicator.class);
+				});
+	}
+
+	@Test
+	void autoConfigWithWarmupHealthIndicatorDisabled() {
+		this.contextRunner.withUserConfiguration(WarmupConfiguration.class)
+				.withPropertyValues("management.health.warmup.enabled=false")
+				.run((context) -> assertThat(context)
+						.doesNotHaveBean(WarmupHealthIndicator.class));
+	}
+
+	@Configuration
+	static class PrewarmerConfiguration {
+
+		@Bean
+		public ProjectArchivePrewarmer projectArchivePrewarmer() {
+			return mock(ProjectArchivePrewarmer.class);
+		}
+
+	}
+
+	@Configuration
+	static class WarmupConfiguration {
+
+		@Bean
+		public InitializrWarmup initializrWarmup() {
+			return mock(InitializrWarmup.class);
+		}
+
+	}
+
+}
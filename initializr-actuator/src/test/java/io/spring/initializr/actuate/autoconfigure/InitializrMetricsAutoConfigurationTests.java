@@ -17,7 +17,14 @@
 package io.spring.initializr.actuate.autoconfigure;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.spring.initializr.actuate.event.ProjectRequestEventBusMetrics;
 import io.spring.initializr.actuate.metric.ProjectGenerationMetricsListener;
+import io.spring.initializr.actuate.metric.RequestResourceUsageMetrics;
+import io.spring.initializr.actuate.stat.ProjectGenerationStatPublisher;
+import io.spring.initializr.actuate.stat.ProjectGenerationStatPublisherMetrics;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
@@ -25,8 +32,12 @@ import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfigu
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.FilteredClassLoader;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 /**
  * Tests for {@link InitializrMetricsAutoConfiguration}.
@@ -42,15 +53,83 @@ class InitializrMetricsAutoConfigurationTests {
 
 	@Test
 	void autoConfigRegistersProjectGenerationMetricsListenerBean() {
+		this.contextRunner.withUserConfiguration(MetadataConfiguration.class)
+				.run((context) -> assertThat(context)
+						.hasSingleBean(ProjectGenerationMetricsListener.class));
+	}
+
+	@Test
+	void autoConfigWithoutMetadataProviderDoesNotRegisterProjectGenerationMetricsListener() {
+		this.contextRunner.run((context) -> assertThat(context)
+				.doesNotHaveBean(ProjectGenerationMetricsListener.class));
+	}
+
+	@Test
+	void autoConfigRegistersProjectGenerationStatPublisherMetricsBean() {
+		this.contextRunner.withUserConfiguration(StatPublisherConfiguration.class)
+				.run((context) -> assertThat(context)
+						.hasSingleBean(ProjectGenerationStatPublisherMetrics.class));
+	}
+
+	@Test
+	void autoConfigWithoutStatPublisherDoesNotRegisterStatPublisherMetrics() {
+		this.contextRunner.run((context) -> assertThat(context)
+				.doesNotHaveBean(ProjectGenerationStatPublisherMetrics.class));
+	}
+
+	@Test
+	void autoConfigRegistersProjectRequestEventBusMetricsBean() {
+		this.contextRunner
+				.withConfiguration(
+						AutoConfigurations.of(InitializrEventsAutoConfiguration.class))
+				.run((context) -> assertThat(context)
+						.hasSingleBean(ProjectRequestEventBusMetrics.class));
+	}
+
+	@Test
+	void autoConfigRegistersRequestResourceUsageMetricsInServletWebApplication() {
+		new WebApplicationContextRunner()
+				.withConfiguration(AutoConfigurations.of(MetricsAutoConfiguration.class,
+						CompositeMeterRegistryAutoConfiguration.class,
+						InitializrMetricsAutoConfiguration.class))
+				.run((context) -> assertThat(context)
+						.hasSingleBean(RequestResourceUsageMetrics.class));
+	}
+
+	@Test
+	void autoConfigDoesNotRegisterRequestResourceUsageMetricsWithoutWebApplication() {
 		this.contextRunner.run((context) -> assertThat(context)
-				.hasSingleBean(ProjectGenerationMetricsListener.class));
+				.doesNotHaveBean(RequestResourceUsageMetrics.class));
 	}
 
 	@Test
 	void autoConfigConditionalOnMeterRegistryClass() {
-		this.contextRunner.withClassLoader(new FilteredClassLoader(MeterRegistry.class))
+		this.contextRunner.withUserConfiguration(MetadataConfiguration.class)
+				.withClassLoader(new FilteredClassLoader(MeterRegistry.class))
 				.run((context) -> assertThat(context)
 						.doesNotHaveBean(ProjectGenerationMetricsListener.class));
 	}
 
+	@Configuration
+	static class MetadataConfiguration {
+
+		@Bean
+		public InitializrMetadataProvider initializrMetadataProvider() {
+			InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+					.build();
+			return () -> metadata;
+		}
+
+	}
+
+	@Configuration
+	static class StatPublisherConfiguration {
+
+		@Bean
+		public ProjectGenerationStatPublisher projectGenerationStatPublisher() {
+			return mock(ProjectGenerationStatPublisher.class);
+		}
+
+	}
+
 }
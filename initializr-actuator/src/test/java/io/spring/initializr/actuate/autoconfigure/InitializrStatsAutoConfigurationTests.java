@@ -16,10 +16,19 @@
 
 package io.spring.initializr.actuate.autoconfigure;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
+import io.spring.initializr.actuate.stat.ElasticStatsSink;
+import io.spring.initializr.actuate.stat.LocalStatsSink;
 import io.spring.initializr.actuate.stat.ProjectGenerationStatPublisher;
+import io.spring.initializr.actuate.stat.StatsProperties;
+import io.spring.initializr.actuate.stat.StatsSink;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 import io.spring.initializr.web.autoconfigure.InitializrAutoConfiguration;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
 
 import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -45,6 +54,7 @@ import static org.mockito.Mockito.mock;
  * @author Stephane Nicoll
  * @author Madhura Bhave
  */
+@ExtendWith(TempDirectory.class)
 class InitializrStatsAutoConfigurationTests {
 
 	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
@@ -61,6 +71,63 @@ class InitializrStatsAutoConfigurationTests {
 						.hasSingleBean(ProjectGenerationStatPublisher.class));
 	}
 
+	@Test
+	void autoConfigBindsDeprecatedElasticBatchSettingsToQueue() {
+		this.contextRunner
+				.withPropertyValues("initializr.stats.elastic.uri=http://localhost:9200",
+						"initializr.stats.elastic.batch-size=42",
+						"initializr.stats.elastic.flush-interval=2s")
+				.run((context) -> {
+					StatsProperties.Queue queue = context.getBean(StatsProperties.class)
+							.getQueue();
+					assertThat(queue.getBatchSize()).isEqualTo(42);
+					assertThat(queue.getFlushInterval()).isEqualTo(Duration.ofSeconds(2));
+				});
+	}
+
+	@Test
+	void autoConfigWithLocalDirectoryRegistersLocalStatsSink(
+			@TempDirectory.TempDir Path directory) {
+		this.contextRunner
+				.withPropertyValues("initializr.stats.local.directory=" + directory)
+				.run((context) -> {
+					assertThat(context)
+							.hasSingleBean(ProjectGenerationStatPublisher.class);
+					assertThat(context).getBean(StatsSink.class)
+							.isInstanceOf(LocalStatsSink.class);
+					assertThat(context).doesNotHaveBean(RetryTemplate.class);
+				});
+	}
+
+	@Test
+	void autoConfigWithElasticAndLocalConfigurationFavorsElastic(
+			@TempDirectory.TempDir Path directory) {
+		this.contextRunner
+				.withPropertyValues("initializr.stats.elastic.uri=http://localhost:9200",
+						"initializr.stats.local.directory=" + directory)
+				.run((context) -> assertThat(context).getBean(StatsSink.class)
+						.isInstanceOf(ElasticStatsSink.class));
+	}
+
+	@Test
+	void autoConfigWithCustomStatsSinkUsesIt() {
+		this.contextRunner.withUserConfiguration(CustomStatsSinkConfiguration.class)
+				.run((context) -> {
+					assertThat(context).getBean(StatsSink.class)
+							.isSameAs(CustomStatsSinkConfiguration.sink);
+					assertThat(context)
+							.hasSingleBean(ProjectGenerationStatPublisher.class);
+				});
+	}
+
+	@Test
+	void autoConfigWithoutStatsSinkDoesNotRegisterProjectGenerationStatPublisher() {
+		this.contextRunner.run((context) -> {
+			assertThat(context).doesNotHaveBean(StatsSink.class);
+			assertThat(context).doesNotHaveBean(ProjectGenerationStatPublisher.class);
+		});
+	}
+
 	@Test
 	void autoConfigRegistersRetryTemplate() {
 		this.contextRunner
@@ -90,7 +157,7 @@ class InitializrStatsAutoConfigurationTests {
 					assertThat(context)
 							.hasSingleBean(ProjectGenerationStatPublisher.class);
 					RestTemplate restTemplate = (RestTemplate) new DirectFieldAccessor(
-							context.getBean(ProjectGenerationStatPublisher.class))
+							context.getBean(ElasticStatsSink.class))
 									.getPropertyValue("restTemplate");
 					assertThat(restTemplate.getErrorHandler())
 							.isSameAs(CustomRestTemplateConfiguration.errorHandler);
@@ -121,6 +188,18 @@ class InitializrStatsAutoConfigurationTests {
 
 	}
 
+	@Configuration
+	static class CustomStatsSinkConfiguration {
+
+		private static final StatsSink sink = mock(StatsSink.class);
+
+		@Bean
+		public StatsSink customStatsSink() {
+			return sink;
+		}
+
+	}
+
 	@Configuration
 	@Import(InfrastructureConfiguration.class)
 	static class CustomRestTemplateConfiguration {
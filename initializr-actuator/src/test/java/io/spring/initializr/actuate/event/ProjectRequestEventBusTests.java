@@ -0,0 +1,177 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.event;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.spring.initializr.actuate.event.EventBusProperties.OverflowPolicy;
+import io.spring.initializr.generator.ProjectGeneratedEvent;
+import io.spring.initializr.generator.ProjectRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectRequestEventBus}.
+ *
+ * @author Stephane Nicoll
+ */
+class ProjectRequestEventBusTests {
+
+	private ProjectRequestEventBus eventBus;
+
+	@AfterEach
+	void stopEventBus() {
+		if (this.eventBus != null && this.eventBus.isRunning()) {
+			this.eventBus.stop();
+		}
+	}
+
+	@Test
+	void eventsAreDispatchedOffTheCallerThread() {
+		List<String> threads = new CopyOnWriteArrayList<>();
+		List<ProjectRequestSnapshot> snapshots = new CopyOnWriteArrayList<>();
+		this.eventBus = createEventBus(new EventBusProperties(), (snapshot) -> {
+			threads.add(Thread.currentThread().getName());
+			snapshots.add(snapshot);
+		});
+		this.eventBus.start();
+		this.eventBus.onProjectRequestEvent(createEvent("first"));
+		this.eventBus.onProjectRequestEvent(createEvent("second"));
+		assertThat(this.eventBus.awaitDispatch(Duration.ofSeconds(5))).isTrue();
+		assertThat(snapshots).extracting(ProjectRequestSnapshot::getArtifactId)
+				.containsExactly("first", "second");
+		assertThat(threads).containsOnly("initializr-events");
+		assertThat(this.eventBus.getDispatchedEvents()).isEqualTo(2);
+		assertThat(this.eventBus.getLag()).isZero();
+	}
+
+	@Test
+	void eventsAreDispatchedToAllListenersInOrder() {
+		List<String> calls = new CopyOnWriteArrayList<>();
+		this.eventBus = createEventBus(new EventBusProperties(),
+				(snapshot) -> calls.add("first"), (snapshot) -> calls.add("second"));
+		this.eventBus.start();
+		this.eventBus.onProjectRequestEvent(createEvent("demo"));
+		assertThat(this.eventBus.awaitDispatch(Duration.ofSeconds(5))).isTrue();
+		assertThat(calls).containsExactly("first", "second");
+	}
+
+	@Test
+	void failingListenerDoesNotPreventOtherListeners() {
+		List<ProjectRequestSnapshot> snapshots = new CopyOnWriteArrayList<>();
+		this.eventBus = createEventBus(new EventBusProperties(), (snapshot) -> {
+			throw new IllegalStateException("test");
+		}, snapshots::add);
+		this.eventBus.start();
+		this.eventBus.onProjectRequestEvent(createEvent("demo"));
+		assertThat(this.eventBus.awaitDispatch(Duration.ofSeconds(5))).isTrue();
+		assertThat(snapshots).hasSize(1);
+		assertThat(this.eventBus.getFailedDispatches()).isEqualTo(1);
+	}
+
+	@Test
+	void lagIsNumberOfEventsWaitingToBeDispatched() {
+		List<ProjectRequestSnapshot> snapshots = new CopyOnWriteArrayList<>();
+		this.eventBus = createEventBus(new EventBusProperties(), snapshots::add);
+		this.eventBus.onProjectRequestEvent(createEvent("first"));
+		this.eventBus.onProjectRequestEvent(createEvent("second"));
+		assertThat(this.eventBus.getLag()).isEqualTo(2);
+		assertThat(snapshots).isEmpty();
+		this.eventBus.start();
+		assertThat(this.eventBus.awaitDispatch(Duration.ofSeconds(5))).isTrue();
+		assertThat(this.eventBus.getLag()).isZero();
+		assertThat(snapshots).hasSize(2);
+	}
+
+	@Test
+	void eventIsDroppedWhenBufferIsFull() {
+		EventBusProperties properties = new EventBusProperties();
+		properties.setCapacity(2);
+		this.eventBus = createEventBus(properties);
+		assertThat(this.eventBus.publish(createSnapshot("first"))).isTrue();
+		assertThat(this.eventBus.publish(createSnapshot("second"))).isTrue();
+		assertThat(this.eventBus.publish(createSnapshot("third"))).isFalse();
+		assertThat(this.eventBus.getDroppedEvents()).isEqualTo(1);
+		assertThat(this.eventBus.getLag()).isEqualTo(2);
+	}
+
+	@Test
+	void eventIsDroppedWhenBufferIsStillFullAfterBlockTimeout() {
+		EventBusProperties properties = new EventBusProperties();
+		properties.setCapacity(2);
+		properties.setOverflowPolicy(OverflowPolicy.BLOCK);
+		properties.setBlockTimeout(Duration.ofMillis(50));
+		this.eventBus = createEventBus(properties);
+		this.eventBus.publish(createSnapshot("first"));
+		this.eventBus.publish(createSnapshot("second"));
+		long start = System.nanoTime();
+		assertThat(this.eventBus.publish(createSnapshot("third"))).isFalse();
+		assertThat(Duration.ofNanos(System.nanoTime() - start))
+				.isGreaterThanOrEqualTo(Duration.ofMillis(50));
+		assertThat(this.eventBus.getDroppedEvents()).isEqualTo(1);
+	}
+
+	@Test
+	void blockedEventIsAddedOnceBufferHasRoom() {
+		EventBusProperties properties = new EventBusProperties();
+		properties.setCapacity(2);
+		properties.setOverflowPolicy(OverflowPolicy.BLOCK);
+		properties.setBlockTimeout(Duration.ofSeconds(5));
+		List<ProjectRequestSnapshot> snapshots = new CopyOnWriteArrayList<>();
+		this.eventBus = createEventBus(properties, snapshots::add);
+		this.eventBus.publish(createSnapshot("first"));
+		this.eventBus.publish(createSnapshot("second"));
+		this.eventBus.start();
+		assertThat(this.eventBus.publish(createSnapshot("third"))).isTrue();
+		assertThat(this.eventBus.awaitDispatch(Duration.ofSeconds(5))).isTrue();
+		assertThat(snapshots).hasSize(3);
+		assertThat(this.eventBus.getDroppedEvents()).isZero();
+	}
+
+	@Test
+	void stopDispatchesPendingEvents() {
+		List<ProjectRequestSnapshot> snapshots = new CopyOnWriteArrayList<>();
+		this.eventBus = createEventBus(new EventBusProperties(), snapshots::add);
+		this.eventBus.publish(createSnapshot("first"));
+		this.eventBus.stop();
+		assertThat(snapshots).hasSize(1);
+		assertThat(this.eventBus.isRunning()).isFalse();
+	}
+
+	private static ProjectRequestEventBus createEventBus(EventBusProperties properties,
+			ProjectRequestSnapshotListener... listeners) {
+		return new ProjectRequestEventBus(properties, (listeners.length > 0)
+				? Arrays.asList(listeners) : Collections.emptyList());
+	}
+
+	private static ProjectRequestSnapshot createSnapshot(String artifactId) {
+		return ProjectRequestSnapshot.of(createEvent(artifactId));
+	}
+
+	private static ProjectGeneratedEvent createEvent(String artifactId) {
+		ProjectRequest request = new ProjectRequest();
+		request.setArtifactId(artifactId);
+		return new ProjectGeneratedEvent(request);
+	}
+
+}
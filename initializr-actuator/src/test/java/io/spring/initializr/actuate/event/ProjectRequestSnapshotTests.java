@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.event;
+
+import io.spring.initializr.generator.ProjectFailedEvent;
+import io.spring.initializr.generator.ProjectGeneratedEvent;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link ProjectRequestSnapshot}.
+ *
+ * @author Stephane Nicoll
+ */
+class ProjectRequestSnapshotTests {
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().addDependencyGroup("core", "web", "security").build();
+
+	@Test
+	void snapshotCapturesRequest() {
+		ProjectRequest request = createProjectRequest();
+		request.setGroupId("com.example.acme");
+		request.setBootVersion("1.5.17.RELEASE");
+		request.getStyle().add("web");
+		request.getDependencies().add("invalid");
+		ProjectGeneratedEvent event = new ProjectGeneratedEvent(request);
+		ProjectRequestSnapshot snapshot = ProjectRequestSnapshot.of(event);
+		assertThat(snapshot.getTimestamp()).isEqualTo(event.getTimestamp());
+		assertThat(snapshot.isFailed()).isFalse();
+		assertThat(snapshot.getFailureMessage()).isNull();
+		assertThat(snapshot.getGroupId()).isEqualTo("com.example.acme");
+		assertThat(snapshot.getBootVersion()).isEqualTo("1.5.17.RELEASE");
+		assertThat(snapshot.getType()).isEqualTo("maven-project");
+		assertThat(snapshot.getDependencies()).containsExactly("web", "invalid");
+	}
+
+	@Test
+	void snapshotIsNotAffectedByLaterChangesToRequest() {
+		ProjectRequest request = createProjectRequest();
+		request.getStyle().add("web");
+		request.resolve(this.metadata);
+		ProjectRequestSnapshot snapshot = ProjectRequestSnapshot
+				.of(new ProjectGeneratedEvent(request));
+		request.getStyle().add("security");
+		request.getResolvedDependencies().clear();
+		request.setGroupId("org.acme");
+		assertThat(snapshot.getDependencies()).containsExactly("web");
+		assertThat(snapshot.getResolvedDependencies()).extracting("id")
+				.containsExactly("web");
+		assertThat(snapshot.getGroupId()).isEqualTo("com.example");
+		assertThatThrownBy(() -> snapshot.getDependencies().add("security"))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	void snapshotOnlyKeepsClientParameters() {
+		ProjectRequest request = createProjectRequest();
+		request.getParameters().put("user-agent", "HTTPie/0.9.2");
+		request.getParameters().put("cf-ipcountry", "BE");
+		request.getParameters().put("cookie", "secret");
+		ProjectRequestSnapshot snapshot = ProjectRequestSnapshot
+				.of(new ProjectGeneratedEvent(request));
+		assertThat(snapshot.getParameters()).containsOnly(
+				entry("user-agent", "HTTPie/0.9.2"), entry("cf-ipcountry", "BE"));
+	}
+
+	@Test
+	void snapshotOfFailedEventKeepsMessage() {
+		ProjectRequestSnapshot snapshot = ProjectRequestSnapshot
+				.of(new ProjectFailedEvent(createProjectRequest(),
+						new IllegalStateException("test failure")));
+		assertThat(snapshot.isFailed()).isTrue();
+		assertThat(snapshot.getFailureMessage()).isEqualTo("test failure");
+	}
+
+	@Test
+	void snapshotOfUnresolvedRequestHasNoResolvedDependencies() {
+		ProjectRequestSnapshot snapshot = ProjectRequestSnapshot
+				.of(new ProjectGeneratedEvent(new ProjectRequest()));
+		assertThat(snapshot.getResolvedDependencies()).isEmpty();
+	}
+
+	private ProjectRequest createProjectRequest() {
+		ProjectRequest request = new ProjectRequest();
+		request.initialize(this.metadata);
+		return request;
+	}
+
+}
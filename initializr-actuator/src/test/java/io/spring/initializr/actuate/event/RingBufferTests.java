@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.event;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RingBuffer}.
+ *
+ * @author Stephane Nicoll
+ */
+class RingBufferTests {
+
+	@Test
+	void capacityIsRoundedToPowerOfTwo() {
+		assertThat(new RingBuffer<String>(1).getCapacity()).isEqualTo(2);
+		assertThat(new RingBuffer<String>(4).getCapacity()).isEqualTo(4);
+		assertThat(new RingBuffer<String>(5).getCapacity()).isEqualTo(8);
+		assertThat(new RingBuffer<String>(1000).getCapacity()).isEqualTo(1024);
+	}
+
+	@Test
+	void pollReturnsElementsInOrder() {
+		RingBuffer<String> buffer = new RingBuffer<>(4);
+		assertThat(buffer.offer("a")).isTrue();
+		assertThat(buffer.offer("b")).isTrue();
+		assertThat(buffer.poll()).isEqualTo("a");
+		assertThat(buffer.poll()).isEqualTo("b");
+		assertThat(buffer.poll()).isNull();
+	}
+
+	@Test
+	void offerWhenFullIsRejected() {
+		RingBuffer<String> buffer = new RingBuffer<>(2);
+		assertThat(buffer.offer("a")).isTrue();
+		assertThat(buffer.offer("b")).isTrue();
+		assertThat(buffer.offer("c")).isFalse();
+		assertThat(buffer.poll()).isEqualTo("a");
+		assertThat(buffer.offer("c")).isTrue();
+		assertThat(buffer.poll()).isEqualTo("b");
+		assertThat(buffer.poll()).isEqualTo("c");
+		assertThat(buffer.getProducerPosition()).isEqualTo(3);
+		assertThat(buffer.getConsumerPosition()).isEqualTo(3);
+	}
+
+	@Test
+	void concurrentProducersDoNotLoseElements() throws InterruptedException {
+		RingBuffer<Integer> buffer = new RingBuffer<>(64);
+		int producers = 4;
+		int elements = 10000;
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch latch = new CountDownLatch(producers);
+		for (int i = 0; i < producers; i++) {
+			int offset = i * elements;
+			executor.execute(() -> {
+				for (int j = 0; j < elements; j++) {
+					while (!buffer.offer(offset + j)) {
+						Thread.yield();
+					}
+				}
+				latch.countDown();
+			});
+		}
+		List<Integer> consumed = new ArrayList<>();
+		while (consumed.size() < producers * elements) {
+			Integer element = buffer.poll();
+			if (element != null) {
+				consumed.add(element);
+			}
+		}
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		executor.shutdown();
+		Set<Integer> unique = new HashSet<>(consumed);
+		assertThat(unique).hasSize(producers * elements);
+		assertThat(buffer.poll()).isNull();
+	}
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.generation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import io.spring.initializr.actuate.generation.GenerationEndpoint.GenerationDescriptor;
+import io.spring.initializr.generator.ProjectGenerator;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.SimpleInitializrMetadataProvider;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import io.spring.initializr.util.TemplateRenderer;
+import io.spring.initializr.web.project.ProjectArchiveCache;
+import io.spring.initializr.web.project.ProjectArchiveGenerator;
+import io.spring.initializr.web.support.MetadataDocumentCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link GenerationEndpoint}.
+ *
+ * @author Stephane Nicoll
+ */
+@ExtendWith(TempDirectory.class)
+class GenerationEndpointTests {
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().build();
+
+	private final ProjectGenerator projectGenerator = new ProjectGenerator();
+
+	private final TemplateRenderer templateRenderer = new TemplateRenderer();
+
+	private final ProjectArchiveCache archiveCache = new ProjectArchiveCache(1024);
+
+	private final MetadataDocumentCache documentCache = new MetadataDocumentCache();
+
+	private final CacheManager cacheManager = new ConcurrentMapCacheManager(
+			"initializr.metadata");
+
+	private GenerationEndpoint endpoint;
+
+	@BeforeEach
+	void setup(@TempDirectory.TempDir Path directory) {
+		this.projectGenerator
+				.setMetadataProvider(new SimpleInitializrMetadataProvider(this.metadata));
+		this.projectGenerator.setTemporaryDirectory(directory.toFile());
+		this.endpoint = createEndpoint(this.cacheManager);
+	}
+
+	@Test
+	void generationDescribesTemporaryDirectory(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		Files.write(directory.resolve("test.zip"), new byte[42]);
+		Path project = Files.createDirectory(directory.resolve("project"));
+		Files.write(project.resolve("pom.xml"), new byte[8]);
+		GenerationDescriptor descriptor = this.endpoint.generation();
+		assertThat(descriptor.getTemporaryDirectory().getEntries()).isEqualTo(2);
+		assertThat(descriptor.getTemporaryDirectory().getSize()).isEqualTo(50);
+	}
+
+	@Test
+	void generationDescribesCaches() {
+		this.templateRenderer.process("gitignore.tmpl", Collections.emptyMap());
+		this.templateRenderer.process("gitignore.tmpl", Collections.emptyMap());
+		this.archiveCache.put(this.metadata, "test", new byte[16]);
+		this.archiveCache.get(this.metadata, "test");
+		this.archiveCache.get(this.metadata, "another");
+		this.documentCache.get(this.metadata, "test", () -> "test");
+		GenerationDescriptor descriptor = this.endpoint.generation();
+		assertThat(descriptor.getCaches()).containsOnlyKeys("templates", "archives",
+				"documents");
+		assertThat(descriptor.getCaches().get("templates").getEntries()).isEqualTo(1);
+		assertThat(descriptor.getCaches().get("templates").getHitRatio()).isEqualTo(0.5);
+		assertThat(descriptor.getCaches().get("archives").getEntries()).isEqualTo(1);
+		assertThat(descriptor.getCaches().get("archives").getSize()).isEqualTo(16);
+		assertThat(descriptor.getCaches().get("archives").getHits()).isEqualTo(1);
+		assertThat(descriptor.getCaches().get("archives").getMisses()).isEqualTo(1);
+		assertThat(descriptor.getCaches().get("documents").getEntries()).isEqualTo(1);
+		assertThat(descriptor.getCaches().get("documents").getHitRatio()).isEqualTo(0);
+	}
+
+	@Test
+	void generationDescribesMetadata() {
+		GenerationDescriptor descriptor = this.endpoint.generation();
+		assertThat(descriptor.getMetadata().getRevision())
+				.isEqualTo(this.metadata.getRevision());
+		assertThat(descriptor.getMetadata().getLastModified().toEpochMilli())
+				.isEqualTo(this.metadata.getRevisionTimestamp());
+		assertThat(descriptor.getMetadata().getAge().isNegative()).isFalse();
+	}
+
+	@Test
+	void generationDescribesGenerations() {
+		GenerationDescriptor descriptor = this.endpoint.generation();
+		assertThat(descriptor.getGenerations().getInFlight()).isEqualTo(0);
+		assertThat(descriptor.getGenerations().getQueueDepth()).isEqualTo(0);
+		assertThat(descriptor.getSlowGenerations()).isEmpty();
+	}
+
+	@Test
+	void invalidateTemplates() {
+		this.templateRenderer.process("gitignore.tmpl", Collections.emptyMap());
+		this.archiveCache.put(this.metadata, "test", new byte[16]);
+		this.endpoint.invalidate("templates");
+		assertThat(this.templateRenderer.getCacheSize()).isEqualTo(0);
+		assertThat(this.archiveCache.getEntries()).isEqualTo(1);
+	}
+
+	@Test
+	void invalidateArchives() {
+		this.archiveCache.put(this.metadata, "test", new byte[16]);
+		this.documentCache.get(this.metadata, "test", () -> "test");
+		this.endpoint.invalidate("archives");
+		assertThat(this.archiveCache.getEntries()).isEqualTo(0);
+		assertThat(this.documentCache.size()).isEqualTo(1);
+	}
+
+	@Test
+	void invalidateDocuments() {
+		this.documentCache.get(this.metadata, "test", () -> "test");
+		this.endpoint.invalidate("documents");
+		assertThat(this.documentCache.size()).isEqualTo(0);
+	}
+
+	@Test
+	void invalidateMetadata() {
+		this.cacheManager.getCache("initializr.metadata").put("metadata", this.metadata);
+		this.endpoint.invalidate("metadata");
+		assertThat(this.cacheManager.getCache("initializr.metadata").get("metadata"))
+				.isNull();
+	}
+
+	@Test
+	void invalidateAll() {
+		this.templateRenderer.process("gitignore.tmpl", Collections.emptyMap());
+		this.archiveCache.put(this.metadata, "test", new byte[16]);
+		this.documentCache.get(this.metadata, "test", () -> "test");
+		this.cacheManager.getCache("initializr.metadata").put("metadata", this.metadata);
+		this.endpoint.invalidate("all");
+		assertThat(this.templateRenderer.getCacheSize()).isEqualTo(0);
+		assertThat(this.archiveCache.getEntries()).isEqualTo(0);
+		assertThat(this.documentCache.size()).isEqualTo(0);
+		assertThat(this.cacheManager.getCache("initializr.metadata").get("metadata"))
+				.isNull();
+	}
+
+	@Test
+	void invalidateUnknownCache() {
+		assertThatExceptionOfType(InvalidEndpointRequestException.class)
+				.isThrownBy(() -> this.endpoint.invalidate("unknown"))
+				.withMessageContaining("unknown");
+	}
+
+	@Test
+	void invalidateMetadataWithoutCacheManager() {
+		assertThatExceptionOfType(InvalidEndpointRequestException.class)
+				.isThrownBy(() -> createEndpoint(null).invalidate("metadata"));
+	}
+
+	private GenerationEndpoint createEndpoint(CacheManager cacheManager) {
+		return new GenerationEndpoint(this.projectGenerator, this.templateRenderer,
+				new ProjectArchiveGenerator(this.projectGenerator, this.archiveCache),
+				Collections.singletonMap("documents", this.documentCache), null,
+				cacheManager);
+	}
+
+}
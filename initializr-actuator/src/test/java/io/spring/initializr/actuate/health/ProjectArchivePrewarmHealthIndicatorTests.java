@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.health;
+
+import io.spring.initializr.web.project.ProjectArchivePrewarmer;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link ProjectArchivePrewarmHealthIndicator}.
+ *
+ * @author Stephane Nicoll
+ */
+class ProjectArchivePrewarmHealthIndicatorTests {
+
+	private final ProjectArchivePrewarmer prewarmer = mock(ProjectArchivePrewarmer.class);
+
+	private final ProjectArchivePrewarmHealthIndicator healthIndicator = new ProjectArchivePrewarmHealthIndicator(
+			this.prewarmer);
+
+	@Test
+	void healthWhenWarm() {
+		given(this.prewarmer.isWarm()).willReturn(true);
+		given(this.prewarmer.getProcessed()).willReturn(20);
+		given(this.prewarmer.getTotal()).willReturn(20);
+		Health health = this.healthIndicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails()).containsEntry("processed", 20)
+				.containsEntry("total", 20);
+	}
+
+	@Test
+	void healthWhenNotWarm() {
+		given(this.prewarmer.isWarm()).willReturn(false);
+		given(this.prewarmer.getProcessed()).willReturn(5);
+		given(this.prewarmer.getTotal()).willReturn(20);
+		given(this.prewarmer.getWarmFraction()).willReturn(0.8);
+		Health health = this.healthIndicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+		assertThat(health.getDetails()).containsEntry("processed", 5)
+				.containsEntry("warmFraction", 0.8);
+	}
+
+}
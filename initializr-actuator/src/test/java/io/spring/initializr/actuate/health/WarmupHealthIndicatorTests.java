@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.health;
+
+import io.spring.initializr.web.support.InitializrWarmup;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link WarmupHealthIndicator}.
+ *
+ * @author Stephane Nicoll
+ */
+class WarmupHealthIndicatorTests {
+
+	private final InitializrWarmup warmup = mock(InitializrWarmup.class);
+
+	private final WarmupHealthIndicator healthIndicator = new WarmupHealthIndicator(
+			this.warmup);
+
+	@Test
+	void healthWhenComplete() {
+		given(this.warmup.isComplete()).willReturn(true);
+		given(this.warmup.isStable()).willReturn(true);
+		given(this.warmup.getIterations()).willReturn(42);
+		Health health = this.healthIndicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails()).containsEntry("iterations", 42)
+				.containsEntry("stable", true);
+	}
+
+	@Test
+	void healthWhenInProgress() {
+		given(this.warmup.isComplete()).willReturn(false);
+		given(this.warmup.getIterations()).willReturn(3);
+		Health health = this.healthIndicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+		assertThat(health.getDetails()).containsEntry("iterations", 3);
+	}
+
+}
@@ -17,19 +17,25 @@
 package io.spring.initializr.actuate.metric;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.spring.initializr.actuate.test.MetricsAssert;
 import io.spring.initializr.generator.ProjectFailedEvent;
 import io.spring.initializr.generator.ProjectGeneratedEvent;
 import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.DefaultMetadataElement;
 import io.spring.initializr.metadata.Dependency;
 import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
+ * Tests for {@link ProjectGenerationMetricsListener}.
+ *
  * @author Stephane Nicoll
  */
 class ProjectGenerationMetricsListenerTests {
@@ -41,11 +47,14 @@ class ProjectGenerationMetricsListenerTests {
 
 	private MetricsAssert metricsAssert;
 
+	private SimpleMeterRegistry meterRegistry;
+
 	@BeforeEach
 	public void setup() {
-		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
-		this.listener = new ProjectGenerationMetricsListener(meterRegistry);
-		this.metricsAssert = new MetricsAssert(meterRegistry);
+		this.meterRegistry = new SimpleMeterRegistry();
+		this.listener = new ProjectGenerationMetricsListener(this.meterRegistry,
+				() -> this.metadata);
+		this.metricsAssert = new MetricsAssert(this.meterRegistry);
 	}
 
 	@Test
@@ -71,8 +80,8 @@ class ProjectGenerationMetricsListenerTests {
 		request.getStyle().addAll(Arrays.asList("security", "spring-data"));
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.dependency.security",
-				"initializr.dependency.spring-data");
+		this.metricsAssert.hasTaggedValue(1, "initializr.dependency", "id", "security",
+				"spring-data");
 	}
 
 	@Test
@@ -80,7 +89,7 @@ class ProjectGenerationMetricsListenerTests {
 		ProjectRequest request = initialize();
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasNoValue("initializr.dependency.");
+		this.metricsAssert.hasTotal(0, "initializr.dependency");
 	}
 
 	@Test
@@ -90,8 +99,8 @@ class ProjectGenerationMetricsListenerTests {
 		request.setPackaging("war");
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.dependency.web",
-				"initializr.dependency.spring-data");
+		this.metricsAssert.hasTaggedValue(1, "initializr.dependency", "id", "web",
+				"spring-data");
 	}
 
 	@Test
@@ -105,9 +114,11 @@ class ProjectGenerationMetricsListenerTests {
 		request.initialize(metadata);
 		request.getStyle().add("foo-old");
 		request.resolve(metadata);
+		this.listener = new ProjectGenerationMetricsListener(this.meterRegistry,
+				() -> metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.dependency.foo"); // standard id is
-																		// used
+		// standard id is used
+		this.metricsAssert.hasTaggedValue(1, "initializr.dependency", "id", "foo");
 	}
 
 	@Test
@@ -115,7 +126,7 @@ class ProjectGenerationMetricsListenerTests {
 		ProjectRequest request = initialize();
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.type.maven-project");
+		this.metricsAssert.hasTaggedValue(1, "initializr.type", "id", "maven-project");
 	}
 
 	@Test
@@ -124,7 +135,7 @@ class ProjectGenerationMetricsListenerTests {
 		request.setType("gradle-build");
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.type.gradle-build");
+		this.metricsAssert.hasTaggedValue(1, "initializr.type", "id", "gradle-build");
 	}
 
 	@Test
@@ -132,7 +143,7 @@ class ProjectGenerationMetricsListenerTests {
 		ProjectRequest request = initialize();
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.packaging.jar");
+		this.metricsAssert.hasTaggedValue(1, "initializr.packaging", "id", "jar");
 	}
 
 	@Test
@@ -141,7 +152,7 @@ class ProjectGenerationMetricsListenerTests {
 		request.setPackaging("war");
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.packaging.war");
+		this.metricsAssert.hasTaggedValue(1, "initializr.packaging", "id", "war");
 	}
 
 	@Test
@@ -149,7 +160,7 @@ class ProjectGenerationMetricsListenerTests {
 		ProjectRequest request = initialize();
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.java_version.1_8");
+		this.metricsAssert.hasTaggedValue(1, "initializr.java_version", "id", "1.8");
 	}
 
 	@Test
@@ -158,7 +169,7 @@ class ProjectGenerationMetricsListenerTests {
 		request.setJavaVersion("1.7");
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.java_version.1_7");
+		this.metricsAssert.hasTaggedValue(1, "initializr.java_version", "id", "1.7");
 	}
 
 	@Test
@@ -166,7 +177,7 @@ class ProjectGenerationMetricsListenerTests {
 		ProjectRequest request = initialize();
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.language.java");
+		this.metricsAssert.hasTaggedValue(1, "initializr.language", "id", "java");
 	}
 
 	@Test
@@ -175,7 +186,7 @@ class ProjectGenerationMetricsListenerTests {
 		request.setLanguage("groovy");
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.language.groovy");
+		this.metricsAssert.hasTaggedValue(1, "initializr.language", "id", "groovy");
 	}
 
 	@Test
@@ -184,7 +195,7 @@ class ProjectGenerationMetricsListenerTests {
 		request.setLanguage("kotlin");
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.language.kotlin");
+		this.metricsAssert.hasTaggedValue(1, "initializr.language", "id", "kotlin");
 	}
 
 	@Test
@@ -192,7 +203,8 @@ class ProjectGenerationMetricsListenerTests {
 		ProjectRequest request = initialize();
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.boot_version.2_1_1_RELEASE");
+		this.metricsAssert.hasTaggedValue(1, "initializr.boot_version", "id",
+				"2.1.1.RELEASE");
 	}
 
 	@Test
@@ -201,7 +213,8 @@ class ProjectGenerationMetricsListenerTests {
 		request.setBootVersion("1.5.17.RELEASE");
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.boot_version.1_5_17_RELEASE");
+		this.metricsAssert.hasTaggedValue(1, "initializr.boot_version", "id",
+				"1.5.17.RELEASE");
 	}
 
 	@Test
@@ -210,7 +223,7 @@ class ProjectGenerationMetricsListenerTests {
 		request.getParameters().put("user-agent", "HTTPie/0.9.2");
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.client_id.httpie");
+		this.metricsAssert.hasTaggedValue(1, "initializr.client_id", "id", "httpie");
 	}
 
 	@Test
@@ -226,11 +239,18 @@ class ProjectGenerationMetricsListenerTests {
 
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.requests", "initializr.dependency.web",
-				"initializr.dependency.security", "initializr.type.gradle-project",
-				"initializr.packaging.jar", "initializr.java_version.1_6",
-				"initializr.language.groovy", "initializr.boot_version.1_5_17_RELEASE",
-				"initializr.client_id.spring").metricsCount(9);
+		this.metricsAssert.hasValue(1, "initializr.requests")
+				.hasTaggedValue(1, "initializr.dependency", "id", "web", "security")
+				.hasTaggedValue(1, "initializr.type", "id", "gradle-project")
+				.hasTaggedValue(1, "initializr.packaging", "id", "jar")
+				.hasTaggedValue(1, "initializr.java_version", "id", "1.6")
+				.hasTaggedValue(1, "initializr.language", "id", "groovy")
+				.hasTaggedValue(1, "initializr.boot_version", "id", "1.5.17.RELEASE")
+				.hasTaggedValue(1, "initializr.client_id", "id", "spring")
+				.hasTotal(2, "initializr.dependency").hasTotal(1, "initializr.type",
+						"initializr.packaging", "initializr.java_version",
+						"initializr.language", "initializr.boot_version",
+						"initializr.client_id");
 	}
 
 	@Test
@@ -239,17 +259,96 @@ class ProjectGenerationMetricsListenerTests {
 		request.getStyle().addAll(Arrays.asList("security", "spring-data"));
 		request.resolve(this.metadata);
 		fireProjectGeneratedEvent(request);
-		this.metricsAssert.hasValue(1, "initializr.requests",
-				"initializr.dependency.security", "initializr.dependency.spring-data");
+		this.metricsAssert.hasValue(1, "initializr.requests").hasTaggedValue(1,
+				"initializr.dependency", "id", "security", "spring-data");
 
 		ProjectRequest anotherRequest = initialize();
 		anotherRequest.getStyle().addAll(Arrays.asList("web", "spring-data"));
 		anotherRequest.resolve(this.metadata);
 		fireProjectGeneratedEvent(anotherRequest);
-		this.metricsAssert.hasValue(2, "initializr.dependency.spring-data",
-				"initializr.dependency.spring-data");
-		this.metricsAssert.hasValue(1, "initializr.dependency.web",
-				"initializr.dependency.security");
+		this.metricsAssert.hasTaggedValue(2, "initializr.dependency", "id",
+				"spring-data");
+		this.metricsAssert.hasTaggedValue(1, "initializr.dependency", "id", "web",
+				"security");
+	}
+
+	@Test
+	void countersAreRegisteredForMetadataElements() {
+		this.metricsAssert
+				.hasTaggedValue(0, "initializr.dependency", "id", "web", "security",
+						"spring-data", "other")
+				.hasTaggedValue(0, "initializr.boot_version", "id", "1.5.17.RELEASE",
+						"2.0.3.RELEASE", "2.1.1.RELEASE", "2.2.0.BUILD-SNAPSHOT", "other")
+				.hasTaggedValue(0, "initializr.client_id", "id", "curl", "browser");
+	}
+
+	@Test
+	void unknownBootVersionUsesOtherTag() {
+		ProjectRequest request = initialize();
+		request.setBootVersion("0.0.1.INVALID");
+		request.resolve(this.metadata);
+		fireProjectGeneratedEvent(request);
+		fireProjectGeneratedEvent(request);
+		this.metricsAssert.hasTaggedValue(2, "initializr.boot_version", "id", "other");
+		assertThat(this.meterRegistry.find("initializr.boot_version")
+				.tag("id", "0.0.1.INVALID").counter()).isNull();
+	}
+
+	@Test
+	void unknownJavaVersionUsesOtherTag() {
+		ProjectRequest request = initialize();
+		request.setJavaVersion("42");
+		request.resolve(this.metadata);
+		fireProjectGeneratedEvent(request);
+		this.metricsAssert.hasTaggedValue(1, "initializr.java_version", "id", "other");
+		assertThat(this.meterRegistry.find("initializr.java_version").tag("id", "42")
+				.counter()).isNull();
+	}
+
+	@Test
+	void refreshedBootVersionIsRegistered() {
+		this.metadata.updateSpringBootVersions(Collections
+				.singletonList(DefaultMetadataElement.create("2.1.2.RELEASE", true)));
+		ProjectRequest request = initialize();
+		request.setBootVersion("2.1.2.RELEASE");
+		request.resolve(this.metadata);
+		fireProjectGeneratedEvent(request);
+		this.metricsAssert.hasTaggedValue(1, "initializr.boot_version", "id",
+				"2.1.2.RELEASE");
+	}
+
+	@Test
+	void removedBootVersionUsesOtherTag() {
+		this.metadata.updateSpringBootVersions(Collections
+				.singletonList(DefaultMetadataElement.create("2.1.2.RELEASE", true)));
+		ProjectRequest request = initialize();
+		request.setBootVersion("1.5.17.RELEASE");
+		fireProjectGeneratedEvent(request);
+		this.metricsAssert.hasTaggedValue(1, "initializr.boot_version", "id", "other");
+		this.metricsAssert.hasTaggedValue(0, "initializr.boot_version", "id",
+				"1.5.17.RELEASE");
+	}
+
+	@Test
+	@Deprecated
+	void listenerWithoutMetadataCountsAnyValue() {
+		this.listener = new ProjectGenerationMetricsListener(this.meterRegistry);
+		ProjectRequest request = initialize();
+		request.setJavaVersion("42");
+		request.resolve(this.metadata);
+		fireProjectGeneratedEvent(request);
+		this.metricsAssert.hasTaggedValue(1, "initializr.java_version", "id", "42");
+	}
+
+	@Test
+	@Deprecated
+	void handleProjectRequestDelegatesToSnapshot() {
+		ProjectRequest request = initialize();
+		request.setType("gradle-project");
+		request.resolve(this.metadata);
+		this.listener.handleProjectRequest(request);
+		this.metricsAssert.hasValue(1, "initializr.requests").hasTaggedValue(1,
+				"initializr.type", "id", "gradle-project");
 	}
 
 	private void fireProjectGeneratedEvent(ProjectRequest projectRequest) {
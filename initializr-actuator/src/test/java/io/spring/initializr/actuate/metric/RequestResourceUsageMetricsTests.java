@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.metric;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.spring.initializr.web.project.RequestResourceUsage;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RequestResourceUsageMetrics}.
+ *
+ * @author Stephane Nicoll
+ */
+class RequestResourceUsageMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final RequestResourceUsageMetrics metrics = new RequestResourceUsageMetrics(
+			this.registry);
+
+	@Test
+	void recordUsage() {
+		this.metrics.onRequestResourceUsage(new RequestResourceUsage("/starter.zip",
+				"maven", "java", 2, 2_000_000_000L, 4096));
+		this.metrics.onRequestResourceUsage(new RequestResourceUsage("/starter.zip",
+				"maven", "java", 3, 1_000_000_000L, 1024));
+		DistributionSummary cpuTime = this.registry.get("initializr.requests.cpu")
+				.tags("endpoint", "/starter.zip", "build", "maven", "language", "java",
+						"dependencies", "1-3")
+				.summary();
+		assertThat(cpuTime.count()).isEqualTo(2);
+		assertThat(cpuTime.totalAmount()).isEqualTo(3.0);
+		DistributionSummary allocatedBytes = this.registry
+				.get("initializr.requests.allocation").tag("dependencies", "1-3")
+				.summary();
+		assertThat(allocatedBytes.count()).isEqualTo(2);
+		assertThat(allocatedBytes.totalAmount()).isEqualTo(5120.0);
+	}
+
+	@Test
+	void recordUsageWithDifferentTags() {
+		this.metrics.onRequestResourceUsage(new RequestResourceUsage("/starter.zip",
+				"gradle", "kotlin", 12, 1000, 1000));
+		this.metrics.onRequestResourceUsage(new RequestResourceUsage("/metadata/config",
+				RequestResourceUsage.NONE, RequestResourceUsage.NONE, 0, 1000, 1000));
+		assertThat(this.registry.get("initializr.requests.cpu").summaries()).hasSize(2);
+		assertThat(this.registry.get("initializr.requests.cpu")
+				.tags("build", "gradle", "language", "kotlin", "dependencies", "8-15")
+				.summary().count()).isEqualTo(1);
+		assertThat(
+				this.registry
+						.get("initializr.requests.cpu").tags("endpoint",
+								"/metadata/config", "build", "none", "dependencies", "0")
+						.summary().count()).isEqualTo(1);
+	}
+
+	@Test
+	void recordUsageWithUnavailableMeasurements() {
+		this.metrics.onRequestResourceUsage(
+				new RequestResourceUsage("/starter.zip", "maven", "java", 0, -1, -1));
+		assertThat(this.registry.get("initializr.requests.cpu").summary().count())
+				.isEqualTo(0);
+		assertThat(this.registry.get("initializr.requests.allocation").summary().count())
+				.isEqualTo(0);
+	}
+
+	@Test
+	void dependenciesBucket() {
+		assertThat(RequestResourceUsageMetrics.dependenciesBucket(0)).isEqualTo("0");
+		assertThat(RequestResourceUsageMetrics.dependenciesBucket(1)).isEqualTo("1-3");
+		assertThat(RequestResourceUsageMetrics.dependenciesBucket(3)).isEqualTo("1-3");
+		assertThat(RequestResourceUsageMetrics.dependenciesBucket(4)).isEqualTo("4-7");
+		assertThat(RequestResourceUsageMetrics.dependenciesBucket(15)).isEqualTo("8-15");
+		assertThat(RequestResourceUsageMetrics.dependenciesBucket(16)).isEqualTo("16+");
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LocalStatsSink}.
+ *
+ * @author Stephane Nicoll
+ */
+@ExtendWith(TempDirectory.class)
+class LocalStatsSinkTests {
+
+	private static final Instant NOW = Instant.parse("2019-01-15T10:23:45Z");
+
+	@Test
+	void publishWritesDocuments(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		try (LocalStatsSink sink = createSink(directory, NOW)) {
+			StatsSink.Result result = sink
+					.publish(Arrays.asList("{\"id\":1}", "{\"id\":2}"));
+			assertThat(result.getFailed()).isZero();
+			assertThat(result.getRetryable()).isEmpty();
+		}
+		assertThat(read(directory.resolve("stats-20190115T100000Z.ndjson.gz")))
+				.containsExactly("{\"id\":1}", "{\"id\":2}");
+	}
+
+	@Test
+	void publishRollsFileAfterInterval(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		try (LocalStatsSink sink = createSink(directory, NOW)) {
+			sink.publish(Collections.singletonList("{\"id\":1}"));
+		}
+		try (LocalStatsSink sink = createSink(directory, NOW.plus(Duration.ofHours(1)))) {
+			sink.publish(Collections.singletonList("{\"id\":2}"));
+		}
+		assertThat(read(directory.resolve("stats-20190115T100000Z.ndjson.gz")))
+				.containsExactly("{\"id\":1}");
+		assertThat(read(directory.resolve("stats-20190115T110000Z.ndjson.gz")))
+				.containsExactly("{\"id\":2}");
+	}
+
+	@Test
+	void publishAfterRestartUsesNewFile(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		try (LocalStatsSink sink = createSink(directory, NOW)) {
+			sink.publish(Collections.singletonList("{\"id\":1}"));
+		}
+		try (LocalStatsSink sink = createSink(directory,
+				NOW.plus(Duration.ofMinutes(10)))) {
+			sink.publish(Collections.singletonList("{\"id\":2}"));
+		}
+		assertThat(read(directory.resolve("stats-20190115T100000Z.ndjson.gz")))
+				.containsExactly("{\"id\":1}");
+		assertThat(read(directory.resolve("stats-20190115T100000Z-2.ndjson.gz")))
+				.containsExactly("{\"id\":2}");
+	}
+
+	@Test
+	void publishAfterCrashDoesNotAppendToIncompleteFile(
+			@TempDirectory.TempDir Path directory) throws IOException {
+		Path incomplete = directory.resolve("stats-20190115T100000Z.ndjson.gz");
+		LocalStatsSink crashed = createSink(directory, NOW);
+		crashed.publish(Collections.singletonList("{\"id\":1}"));
+		byte[] content = Files.readAllBytes(incomplete);
+		try (LocalStatsSink sink = createSink(directory, NOW)) {
+			sink.publish(Collections.singletonList("{\"id\":2}"));
+		}
+		assertThat(Files.readAllBytes(incomplete)).isEqualTo(content);
+		assertThat(read(directory.resolve("stats-20190115T100000Z-2.ndjson.gz")))
+				.containsExactly("{\"id\":2}");
+		crashed.close();
+	}
+
+	@Test
+	void publishCreatesDirectory(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		Path target = directory.resolve("stats");
+		try (LocalStatsSink sink = createSink(target, NOW)) {
+			sink.publish(Collections.singletonList("{\"id\":1}"));
+		}
+		assertThat(read(target.resolve("stats-20190115T100000Z.ndjson.gz")))
+				.containsExactly("{\"id\":1}");
+	}
+
+	private static LocalStatsSink createSink(Path directory, Instant now) {
+		return new LocalStatsSink(directory, Duration.ofHours(1),
+				Clock.fixed(now, ZoneOffset.UTC));
+	}
+
+	private static List<String> read(Path file) throws IOException {
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)),
+						StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.toList());
+		}
+	}
+
+}
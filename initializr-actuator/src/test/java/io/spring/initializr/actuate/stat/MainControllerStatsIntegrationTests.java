@@ -17,10 +17,12 @@
 package io.spring.initializr.actuate.stat;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.spring.initializr.actuate.event.ProjectRequestEventBus;
 import io.spring.initializr.actuate.stat.MainControllerStatsIntegrationTests.StatsMockController;
 import io.spring.initializr.web.AbstractFullStackInitializrIntegrationTests;
 import org.junit.jupiter.api.BeforeEach;
@@ -56,19 +58,25 @@ class MainControllerStatsIntegrationTests
 	@Autowired
 	private ProjectGenerationStatPublisher projectGenerationStatPublisher;
 
+	@Autowired
+	private ElasticStatsSink elasticStatsSink;
+
+	@Autowired
+	private ProjectRequestEventBus eventBus;
+
 	@BeforeEach
 	public void setup() {
 		this.statsMockController.stats.clear();
 		// Make sure our mock is going to be invoked with the stats
-		this.projectGenerationStatPublisher.updateRequestUrl(
-				URI.create("http://localhost:" + this.port + "/elastic/test/my-entity"));
+		this.elasticStatsSink.updateRequestUrl(URI.create(
+				"http://localhost:" + this.port + "/elastic/test/my-entity/_bulk"));
 	}
 
 	@Test
 	void simpleProject() {
 		downloadArchive("/starter.zip?groupId=com.foo&artifactId=bar&dependencies=web");
-		assertThat(this.statsMockController.stats).as("No stat got generated").hasSize(1);
-		StatsMockController.Content content = this.statsMockController.stats.get(0);
+		assertThat(stats()).as("No stat got generated").hasSize(1);
+		StatsMockController.Content content = stats().get(0);
 
 		JsonNode json = parseJson(content.json);
 		assertThat(json.get("groupId").textValue()).isEqualTo("com.foo");
@@ -81,8 +89,8 @@ class MainControllerStatsIntegrationTests
 	@Test
 	void authorizationHeaderIsSet() {
 		downloadArchive("/starter.zip");
-		assertThat(this.statsMockController.stats).as("No stat got generated").hasSize(1);
-		StatsMockController.Content content = this.statsMockController.stats.get(0);
+		assertThat(stats()).as("No stat got generated").hasSize(1);
+		StatsMockController.Content content = stats().get(0);
 
 		String authorization = content.authorization;
 		assertThat(authorization).as("Authorization header must be set").isNotNull();
@@ -96,8 +104,8 @@ class MainControllerStatsIntegrationTests
 	@Test
 	void requestIpNotSetByDefault() {
 		downloadArchive("/starter.zip?groupId=com.foo&artifactId=bar&dependencies=web");
-		assertThat(this.statsMockController.stats).as("No stat got generated").hasSize(1);
-		StatsMockController.Content content = this.statsMockController.stats.get(0);
+		assertThat(stats()).as("No stat got generated").hasSize(1);
+		StatsMockController.Content content = stats().get(0);
 
 		JsonNode json = parseJson(content.json);
 		assertThat(json.has("requestIp")).as("requestIp property should not be set")
@@ -109,8 +117,8 @@ class MainControllerStatsIntegrationTests
 		RequestEntity<?> request = RequestEntity.get(new URI(createUrl("/starter.zip")))
 				.header("X-FORWARDED-FOR", "10.0.0.123").build();
 		getRestTemplate().exchange(request, String.class);
-		assertThat(this.statsMockController.stats).as("No stat got generated").hasSize(1);
-		StatsMockController.Content content = this.statsMockController.stats.get(0);
+		assertThat(stats()).as("No stat got generated").hasSize(1);
+		StatsMockController.Content content = stats().get(0);
 
 		JsonNode json = parseJson(content.json);
 		assertThat(json.get("client").get("ip").textValue()).as("Wrong requestIp")
@@ -122,8 +130,8 @@ class MainControllerStatsIntegrationTests
 		RequestEntity<?> request = RequestEntity.get(new URI(createUrl("/starter.zip")))
 				.header("x-forwarded-for", "foo-bar").build();
 		getRestTemplate().exchange(request, String.class);
-		assertThat(this.statsMockController.stats).as("No stat got generated").hasSize(1);
-		StatsMockController.Content content = this.statsMockController.stats.get(0);
+		assertThat(stats()).as("No stat got generated").hasSize(1);
+		StatsMockController.Content content = stats().get(0);
 
 		JsonNode json = parseJson(content.json);
 		assertThat(json.has("requestIpv4"))
@@ -136,8 +144,8 @@ class MainControllerStatsIntegrationTests
 		RequestEntity<?> request = RequestEntity.get(new URI(createUrl("/starter.zip")))
 				.header("cf-ipcountry", "XX").build();
 		getRestTemplate().exchange(request, String.class);
-		assertThat(this.statsMockController.stats).as("No stat got generated").hasSize(1);
-		StatsMockController.Content content = this.statsMockController.stats.get(0);
+		assertThat(stats()).as("No stat got generated").hasSize(1);
+		StatsMockController.Content content = stats().get(0);
 
 		JsonNode json = parseJson(content.json);
 		assertThat(json.has("requestCountry"))
@@ -154,8 +162,8 @@ class MainControllerStatsIntegrationTests
 		catch (HttpClientErrorException ex) {
 			assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
 		}
-		assertThat(this.statsMockController.stats).as("No stat got generated").hasSize(1);
-		StatsMockController.Content content = this.statsMockController.stats.get(0);
+		assertThat(stats()).as("No stat got generated").hasSize(1);
+		StatsMockController.Content content = stats().get(0);
 
 		JsonNode json = parseJson(content.json);
 		assertThat(json.get("groupId").textValue()).isEqualTo("com.example");
@@ -170,11 +178,16 @@ class MainControllerStatsIntegrationTests
 
 	@Test
 	void errorPublishingStatsDoesNotBubbleUp() {
-		this.projectGenerationStatPublisher.updateRequestUrl(
-				URI.create("http://localhost:" + this.port + "/elastic-error"));
+		this.elasticStatsSink.updateRequestUrl(URI.create(
+				"http://localhost:" + this.port + "/elastic-error/test/my-entity/_bulk"));
 		downloadArchive("/starter.zip");
-		assertThat(this.statsMockController.stats).as("No stat should be available")
-				.isEmpty();
+		assertThat(stats()).as("No stat should be available").isEmpty();
+	}
+
+	private List<StatsMockController.Content> stats() {
+		assertThat(this.eventBus.awaitDispatch(Duration.ofSeconds(5))).isTrue();
+		this.projectGenerationStatPublisher.flush();
+		return this.statsMockController.stats;
 	}
 
 	@RestController
@@ -182,14 +195,16 @@ class MainControllerStatsIntegrationTests
 
 		private final List<Content> stats = new ArrayList<>();
 
-		@PostMapping("/elastic/test/my-entity")
+		@PostMapping("/elastic/test/my-entity/_bulk")
 		public void handleProjectRequestDocument(RequestEntity<String> input) {
 			String authorization = input.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-			Content content = new Content(authorization, input.getBody());
-			this.stats.add(content);
+			String[] lines = input.getBody().split("\n");
+			for (int i = 1; i < lines.length; i += 2) {
+				this.stats.add(new Content(authorization, lines[i]));
+			}
 		}
 
-		@PostMapping("/elastic-error/test/my-entity")
+		@PostMapping("/elastic-error/test/my-entity/_bulk")
 		public void handleExpectedError() {
 			throw new IllegalStateException("Expected exception");
 		}
@@ -16,6 +16,8 @@
 
 package io.spring.initializr.actuate.stat;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -35,4 +37,14 @@ class StatsPropertiesTests {
 		assertThat(this.properties.getElastic().getUri()).isEqualTo("http://example.com");
 	}
 
+	@Test
+	@Deprecated
+	void elasticBatchSettingsApplyToQueue() {
+		this.properties.getElastic().setBatchSize(42);
+		this.properties.getElastic().setFlushInterval(Duration.ofSeconds(2));
+		assertThat(this.properties.getQueue().getBatchSize()).isEqualTo(42);
+		assertThat(this.properties.getQueue().getFlushInterval())
+				.isEqualTo(Duration.ofSeconds(2));
+	}
+
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.actuate.stat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link StatsSpool}.
+ *
+ * @author Stephane Nicoll
+ */
+@ExtendWith(TempDirectory.class)
+class StatsSpoolTests {
+
+	@Test
+	void appendAndReplay(@TempDirectory.TempDir Path directory) throws IOException {
+		StatsSpool spool = new StatsSpool(directory, 1024, 4096);
+		assertThat(spool.isEmpty()).isTrue();
+		spool.append(Arrays.asList("{\"id\":1}", "{\"id\":2}"));
+		spool.append(Collections.singletonList("{\"id\":3}"));
+		assertThat(spool.isEmpty()).isFalse();
+		assertThat(spool.getSize()).isEqualTo(27);
+		List<List<String>> batches = new ArrayList<>();
+		assertThat(spool.replay(2, batches::add)).isTrue();
+		assertThat(batches).containsExactly(Arrays.asList("{\"id\":1}", "{\"id\":2}"),
+				Collections.singletonList("{\"id\":3}"));
+		assertThat(spool.isEmpty()).isTrue();
+		assertThat(spool.getSize()).isZero();
+		assertThat(segments(directory)).isEmpty();
+	}
+
+	@Test
+	void replayWithEmptySpool(@TempDirectory.TempDir Path directory) throws IOException {
+		StatsSpool spool = new StatsSpool(directory, 1024, 4096);
+		assertThat(spool.replay(10, (documents) -> true)).isFalse();
+	}
+
+	@Test
+	void appendStartsNewSegmentWhenSegmentIsFull(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		StatsSpool spool = new StatsSpool(directory, 10, 4096);
+		spool.append(Collections.singletonList("{\"id\":1}"));
+		spool.append(Collections.singletonList("{\"id\":2}"));
+		spool.append(Collections.singletonList("{\"id\":3}"));
+		assertThat(segments(directory)).hasSize(2);
+		List<String> replayed = new ArrayList<>();
+		assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		assertThat(replayed).containsExactly("{\"id\":1}", "{\"id\":2}");
+		assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		assertThat(replayed).containsExactly("{\"id\":1}", "{\"id\":2}", "{\"id\":3}");
+	}
+
+	@Test
+	void appendEvictsOldestSegmentsWhenSpoolIsFull(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		StatsSpool spool = new StatsSpool(directory, 18, 30);
+		assertThat(spool.append(Arrays.asList("{\"id\":1}", "{\"id\":2}"))).isZero();
+		assertThat(spool.append(Arrays.asList("{\"id\":3}", "{\"id\":4}"))).isEqualTo(2);
+		assertThat(spool.getSize()).isEqualTo(18);
+		List<String> replayed = new ArrayList<>();
+		spool.replay(10, replayed::addAll);
+		assertThat(replayed).containsExactly("{\"id\":3}", "{\"id\":4}");
+	}
+
+	@Test
+	void appendEvictsSingleSegmentLargerThanSpool(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		StatsSpool spool = new StatsSpool(directory, 1024, 20);
+		assertThat(spool.append(Collections.singletonList("{\"id\":1}"))).isZero();
+		assertThat(spool.append(Arrays.asList("{\"id\":2}", "{\"id\":3}"))).isEqualTo(3);
+		assertThat(spool.isEmpty()).isTrue();
+		assertThat(spool.getSize()).isZero();
+		assertThat(segments(directory)).isEmpty();
+		spool.append(Collections.singletonList("{\"id\":4}"));
+		List<String> replayed = new ArrayList<>();
+		assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		assertThat(replayed).containsExactly("{\"id\":4}");
+	}
+
+	@Test
+	void failedReplayKeepsRemainingDocuments(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		StatsSpool spool = new StatsSpool(directory, 1024, 4096);
+		spool.append(Arrays.asList("{\"id\":1}", "{\"id\":2}", "{\"id\":3}"));
+		List<String> replayed = new ArrayList<>();
+		assertThat(spool.replay(1,
+				(documents) -> replayed.isEmpty() && replayed.addAll(documents)))
+						.isFalse();
+		assertThat(replayed).containsExactly("{\"id\":1}");
+		assertThat(spool.getSize()).isEqualTo(18);
+		replayed.clear();
+		assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		assertThat(replayed).containsExactly("{\"id\":2}", "{\"id\":3}");
+	}
+
+	@Test
+	void appendDuringReplayIsKept(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		StatsSpool spool = new StatsSpool(directory, 1024, 4096);
+		spool.append(Collections.singletonList("{\"id\":1}"));
+		spool.replay(10, (documents) -> {
+			try {
+				spool.append(Collections.singletonList("{\"id\":2}"));
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return true;
+		});
+		List<String> replayed = new ArrayList<>();
+		assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		assertThat(replayed).containsExactly("{\"id\":2}");
+	}
+
+	@Test
+	void existingSegmentsAreReplayed(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		new StatsSpool(directory, 1024, 4096)
+				.append(Collections.singletonList("{\"id\":1}"));
+		StatsSpool spool = new StatsSpool(directory, 1024, 4096);
+		spool.append(Collections.singletonList("{\"id\":2}"));
+		assertThat(spool.getSize()).isEqualTo(18);
+		assertThat(segments(directory)).hasSize(2);
+		List<String> replayed = new ArrayList<>();
+		assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		assertThat(replayed).containsExactly("{\"id\":1}", "{\"id\":2}");
+	}
+
+	@Test
+	void appendAfterIncompleteDocumentUsesNewSegment(
+			@TempDirectory.TempDir Path directory) throws IOException {
+		Files.write(directory.resolve("segment-00000000000000000001.ndjson"),
+				"{\"id\":1}\n{\"id\"".getBytes(StandardCharsets.UTF_8));
+		StatsSpool spool = new StatsSpool(directory, 1024, 4096);
+		spool.append(Arrays.asList("{\"id\":2}", "{\"id\":3}"));
+		List<String> replayed = new ArrayList<>();
+		while (!spool.isEmpty()) {
+			assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		}
+		assertThat(replayed).containsExactly("{\"id\":1}", "{\"id\":2}", "{\"id\":3}");
+		assertThat(segments(directory)).isEmpty();
+	}
+
+	@Test
+	void existingSegmentsAreReplayedInSequenceOrder(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		Files.write(directory.resolve("segment-10.ndjson"),
+				"{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+		Files.write(directory.resolve("segment-9.ndjson"),
+				"{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+		StatsSpool spool = new StatsSpool(directory, 1024, 4096);
+		spool.append(Collections.singletonList("{\"id\":3}"));
+		List<String> replayed = new ArrayList<>();
+		while (!spool.isEmpty()) {
+			assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		}
+		assertThat(replayed).containsExactly("{\"id\":1}", "{\"id\":2}", "{\"id\":3}");
+	}
+
+	@Test
+	void filesWithInvalidSequenceAreIgnored(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		for (String name : Arrays.asList("segment-abc.ndjson", "segment-.ndjson",
+				"segment--1.ndjson", "segment-99999999999999999999.ndjson")) {
+			Files.write(directory.resolve(name),
+					"{\"id\":0}\n".getBytes(StandardCharsets.UTF_8));
+		}
+		StatsSpool spool = new StatsSpool(directory, 1024, 4096);
+		assertThat(spool.isEmpty()).isTrue();
+		assertThat(spool.getSize()).isZero();
+		spool.append(Collections.singletonList("{\"id\":1}"));
+		List<String> replayed = new ArrayList<>();
+		assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		assertThat(replayed).containsExactly("{\"id\":1}");
+		assertThat(segments(directory)).hasSize(4);
+	}
+
+	@Test
+	void incompleteDocumentIsIgnored(@TempDirectory.TempDir Path directory)
+			throws IOException {
+		Files.write(directory.resolve("segment-00000000000000000001.ndjson"),
+				"{\"id\":1}\n{\"id\"".getBytes(StandardCharsets.UTF_8));
+		StatsSpool spool = new StatsSpool(directory, 1024, 4096);
+		List<String> replayed = new ArrayList<>();
+		assertThat(spool.replay(10, replayed::addAll)).isTrue();
+		assertThat(replayed).containsExactly("{\"id\":1}");
+	}
+
+	private static Object[] segments(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.toArray();
+		}
+	}
+
+}
@@ -18,6 +18,7 @@ package io.spring.initializr.actuate.test;
 
 import java.util.Arrays;
 
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.search.Search;
 
@@ -43,6 +44,21 @@ public class MetricsAssert {
 		return this;
 	}
 
+	public MetricsAssert hasTaggedValue(long value, String metric, String tagKey,
+			String... tagValues) {
+		Arrays.asList(tagValues).forEach((tagValue) -> assertThat(
+				this.meterRegistry.get(metric).tag(tagKey, tagValue).counter().count())
+						.isEqualTo(value));
+		return this;
+	}
+
+	public MetricsAssert hasTotal(long value, String... metrics) {
+		Arrays.asList(metrics)
+				.forEach((metric) -> assertThat(this.meterRegistry.get(metric).counters()
+						.stream().mapToDouble(Counter::count).sum()).isEqualTo(value));
+		return this;
+	}
+
 	public MetricsAssert hasNoValue(String... metrics) {
 		Arrays.asList(metrics).forEach((metric) -> assertThat(
 				Search.in(this.meterRegistry).name((n) -> n.startsWith(metric)).counter())
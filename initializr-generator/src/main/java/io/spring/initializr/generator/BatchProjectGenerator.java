@@ -0,0 +1,243 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.spring.initializr.metadata.InitializrMetadata;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.Assert;
+import org.springframework.validation.DataBinder;
+
+/**
+ * Generate the content of many projects in one call. The same metadata is used for the
+ * whole batch and projects are generated in parallel using a {@link ForkJoinPool}.
+ * Templates and project resources are shared by all projects as they are cached by the
+ * {@link ProjectGenerator}.
+ *
+ * @author Stephane Nicoll
+ */
+public class BatchProjectGenerator {
+
+	private static final String DEFAULT_NAME = "project";
+
+	private final ProjectGenerator projectGenerator;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Create an instance using the {@linkplain ForkJoinPool#commonPool() common pool}.
+	 * @param projectGenerator the generator to use for each project
+	 */
+	public BatchProjectGenerator(ProjectGenerator projectGenerator) {
+		this(projectGenerator, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create an instance using the specified {@link ForkJoinPool}.
+	 * @param projectGenerator the generator to use for each project
+	 * @param pool the pool to use to generate projects
+	 */
+	public BatchProjectGenerator(ProjectGenerator projectGenerator, ForkJoinPool pool) {
+		Assert.notNull(projectGenerator, "ProjectGenerator must not be null");
+		Assert.notNull(pool, "ForkJoinPool must not be null");
+		this.projectGenerator = projectGenerator;
+		this.pool = pool;
+	}
+
+	/**
+	 * Create an initialized {@link ProjectRequest} from the specified attributes. Keys
+	 * are the same as the parameters of a regular generation request and multiple values
+	 * can be specified either as a list or as a comma-separated string.
+	 * @param attributes the attributes of the request
+	 * @param metadata the metadata to use to initialize the request
+	 * @return a new request
+	 * @throws InvalidProjectRequestException if an attribute is unknown or invalid
+	 */
+	public static ProjectRequest createRequest(Map<String, ?> attributes,
+			InitializrMetadata metadata) {
+		ProjectRequest request = new ProjectRequest();
+		request.initialize(metadata);
+		bind(request, attributes);
+		return request;
+	}
+
+	private static void bind(ProjectRequest request, Map<String, ?> attributes) {
+		DataBinder binder = new DataBinder(request);
+		binder.setConversionService(DefaultConversionService.getSharedInstance());
+		binder.setIgnoreUnknownFields(false);
+		try {
+			binder.bind(new MutablePropertyValues(attributes));
+		}
+		catch (BeansException ex) {
+			throw new InvalidProjectRequestException(
+					"Invalid project request " + attributes, ex);
+		}
+		if (binder.getBindingResult().hasErrors()) {
+			throw new InvalidProjectRequestException("Invalid project request "
+					+ attributes + ": " + binder.getBindingResult().getAllErrors());
+		}
+	}
+
+	/**
+	 * Generate the content of the specified requests.
+	 * @param requests the requests to handle
+	 * @return the result of each request, in the same order
+	 */
+	public List<Result> generate(List<ProjectRequest> requests) {
+		return generate(requests, this.projectGenerator.getMetadataProvider().get());
+	}
+
+	/**
+	 * Generate the content of the specified requests against the specified metadata.
+	 * @param requests the requests to handle
+	 * @param metadata the metadata to use to resolve the requests
+	 * @return the result of each request, in the same order
+	 */
+	public List<Result> generate(List<ProjectRequest> requests,
+			InitializrMetadata metadata) {
+		return generate(requests, (request) -> generate(request, metadata));
+	}
+
+	/**
+	 * Create and generate the requests defined by the specified attributes, using the
+	 * same metadata for the whole batch. A request whose attributes are invalid does not
+	 * prevent the others from being generated: it is reported as a failed {@link Result}.
+	 * @param attributes the attributes of each request, see
+	 * {@link #createRequest(Map, InitializrMetadata)}
+	 * @param metadata the metadata to use to initialize and resolve the requests
+	 * @return the result of each request, in the same order
+	 */
+	public List<Result> generateFromAttributes(List<? extends Map<String, ?>> attributes,
+			InitializrMetadata metadata) {
+		return generate(attributes, (item) -> {
+			ProjectRequest request = new ProjectRequest();
+			request.initialize(metadata);
+			try {
+				bind(request, item);
+			}
+			catch (InvalidProjectRequestException ex) {
+				return new Result(request, null, ex);
+			}
+			return generate(request, metadata);
+		});
+	}
+
+	private <T> List<Result> generate(List<T> items, Function<T, Result> generator) {
+		try {
+			return this.pool.submit(() -> items.parallelStream().map(generator)
+					.collect(Collectors.toList())).get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while generating projects", ex);
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("Failed to generate projects", ex.getCause());
+		}
+	}
+
+	private Result generate(ProjectRequest request, InitializrMetadata metadata) {
+		try {
+			return new Result(request,
+					this.projectGenerator.generateProjectContent(request, metadata),
+					null);
+		}
+		catch (RuntimeException ex) {
+			return new Result(request, null, ex);
+		}
+	}
+
+	/**
+	 * Return a unique name for each of the specified results, based on the artifact id of
+	 * the request. Names can safely be used as a single path segment: characters other
+	 * than letters, digits, {@code .}, {@code _} and {@code -} are replaced and names
+	 * that would clash are suffixed by a counter.
+	 * @param results the results to name
+	 * @return the names, in the same order
+	 */
+	public static List<String> uniqueNames(List<Result> results) {
+		Set<String> names = new HashSet<>();
+		return results.stream().map((result) -> {
+			String candidate = sanitizeName(result.getRequest().getArtifactId());
+			String name = candidate;
+			for (int i = 2; !names.add(name); i++) {
+				name = candidate + "-" + i;
+			}
+			return name;
+		}).collect(Collectors.toList());
+	}
+
+	// The artifact id is user input, make sure it cannot escape its parent directory
+	private static String sanitizeName(String artifactId) {
+		String name = (artifactId != null)
+				? artifactId.replaceAll("[^A-Za-z0-9._-]", "-").replaceAll("\\.{2,}", "-")
+				: "";
+		name = name.replaceAll("^[.-]+", "");
+		return (!name.isEmpty()) ? name : DEFAULT_NAME;
+	}
+
+	/**
+	 * The result of the generation of a project.
+	 */
+	public static final class Result {
+
+		private final ProjectRequest request;
+
+		private final ProjectContent content;
+
+		private final RuntimeException error;
+
+		Result(ProjectRequest request, ProjectContent content, RuntimeException error) {
+			this.request = request;
+			this.content = content;
+			this.error = error;
+		}
+
+		public ProjectRequest getRequest() {
+			return this.request;
+		}
+
+		/**
+		 * Return the content of the project.
+		 * @return the content or {@code null} if the generation failed
+		 */
+		public ProjectContent getContent() {
+			return this.content;
+		}
+
+		/**
+		 * Return the error that prevented the project to be generated.
+		 * @return the error or {@code null} if the generation succeeded
+		 */
+		public RuntimeException getError() {
+			return this.error;
+		}
+
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.spring.initializr.generator.BatchProjectGenerator.Result;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataBuilder;
+import io.spring.initializr.metadata.SimpleInitializrMetadataProvider;
+
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Offline entry point to generate many projects at once. Takes the metadata, as exposed
+ * by {@code /metadata/config}, a JSON array of requests and the directory where a
+ * directory per project should be written.
+ *
+ * @author Stephane Nicoll
+ * @see BatchProjectGenerator
+ */
+public final class BatchProjectGeneratorCommand {
+
+	private final PrintStream out;
+
+	private final PrintStream err;
+
+	BatchProjectGeneratorCommand(PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3) {
+			System.err.println("Usage: " + BatchProjectGeneratorCommand.class.getName()
+					+ " <metadata.json> <requests.json> <output-dir>");
+			System.exit(2);
+		}
+		int failures = new BatchProjectGeneratorCommand(System.out, System.err)
+				.run(new File(args[0]), new File(args[1]), new File(args[2]));
+		System.exit((failures != 0) ? 1 : 0);
+	}
+
+	/**
+	 * Generate the requests defined in the specified file.
+	 * @param metadataFile the metadata to use
+	 * @param requestsFile a JSON array of requests
+	 * @param outputDir the directory in which projects should be written
+	 * @return the number of requests that could not be generated
+	 * @throws IOException if a file cannot be read
+	 */
+	int run(File metadataFile, File requestsFile, File outputDir) throws IOException {
+		InitializrMetadata metadata = InitializrMetadataBuilder.create()
+				.withInitializrMetadata(new FileSystemResource(metadataFile)).build();
+		List<Map<String, Object>> attributes = new ObjectMapper().readValue(requestsFile,
+				new TypeReference<List<Map<String, Object>>>() {
+				});
+		List<Result> results = new BatchProjectGenerator(createProjectGenerator(metadata))
+				.generateFromAttributes(attributes, metadata);
+		List<String> names = BatchProjectGenerator.uniqueNames(results);
+		int failures = 0;
+		for (int i = 0; i < results.size(); i++) {
+			Result result = results.get(i);
+			if (result.getError() != null) {
+				failures++;
+				this.err.println(names.get(i) + ": " + result.getError().getMessage());
+			}
+			else if (!isInside(outputDir, new File(outputDir, names.get(i)))) {
+				failures++;
+				this.err.println(names.get(i) + ": is outside of " + outputDir);
+			}
+			else {
+				File dir = new File(outputDir, names.get(i));
+				dir.mkdirs();
+				try {
+					result.getContent().writeTo(dir);
+					this.out.println(names.get(i) + ": " + dir);
+				}
+				catch (IllegalStateException ex) {
+					failures++;
+					this.err.println(names.get(i) + ": " + ex.getMessage());
+				}
+			}
+		}
+		return failures;
+	}
+
+	private static boolean isInside(File parent, File file) {
+		Path root = parent.toPath().toAbsolutePath().normalize();
+		Path candidate = file.toPath().toAbsolutePath().normalize();
+		return !candidate.equals(root) && candidate.startsWith(root);
+	}
+
+	private static ProjectGenerator createProjectGenerator(InitializrMetadata metadata) {
+		ProjectGenerator generator = new ProjectGenerator();
+		generator.setMetadataProvider(new SimpleInitializrMetadataProvider(metadata));
+		generator.setRequestResolver(new ProjectRequestResolver(Collections.emptyList()));
+		generator.setProjectResourceLocator(new CachingProjectResourceLocator());
+		return generator;
+	}
+
+	// Outside of an application context, resources are not cached by Spring
+	private static class CachingProjectResourceLocator extends ProjectResourceLocator {
+
+		private final Map<String, byte[]> binaryResources = new ConcurrentHashMap<>();
+
+		private final Map<String, String> textResources = new ConcurrentHashMap<>();
+
+		@Override
+		public byte[] getBinaryResource(String location) {
+			return this.binaryResources.computeIfAbsent(location,
+					super::getBinaryResource);
+		}
+
+		@Override
+		public String getTextResource(String location) {
+			return this.textResources.computeIfAbsent(location, super::getTextResource);
+		}
+
+	}
+
+}
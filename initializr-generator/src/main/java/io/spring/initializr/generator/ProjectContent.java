@@ -0,0 +1,212 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.util.StreamUtils;
+
+/**
+ * The files and directories of a generated project, held in memory. Entries are sorted by
+ * path and a directory path ends with a {@code /}.
+ *
+ * @author Stephane Nicoll
+ * @see ProjectGenerator#generateProjectContent(ProjectRequest)
+ */
+public class ProjectContent {
+
+	private final Map<String, Entry> entries = new TreeMap<>();
+
+	/**
+	 * Add a directory and its parents.
+	 * @param path the path of the directory, relative to the root of the project
+	 */
+	public void addDirectory(String path) {
+		if (path.isEmpty()) {
+			return;
+		}
+		String directory = path.endsWith("/") ? path : path + "/";
+		int index = directory.indexOf('/');
+		while (index != -1) {
+			String candidate = directory.substring(0, index + 1);
+			this.entries.putIfAbsent(candidate, new Entry(candidate, null, false));
+			index = directory.indexOf('/', index + 1);
+		}
+	}
+
+	/**
+	 * Add a text file, encoded in {@code UTF-8}.
+	 * @param path the path of the file, relative to the root of the project
+	 * @param text the content of the file
+	 */
+	public void addFile(String path, String text) {
+		addFile(path, text.getBytes(StandardCharsets.UTF_8), false);
+	}
+
+	/**
+	 * Add a file. Its parent directories are added as well.
+	 * @param path the path of the file, relative to the root of the project
+	 * @param content the content of the file
+	 * @param executable whether the file should be executable
+	 */
+	public void addFile(String path, byte[] content, boolean executable) {
+		int index = path.lastIndexOf('/');
+		if (index != -1) {
+			addDirectory(path.substring(0, index + 1));
+		}
+		this.entries.put(path, new Entry(path, content, executable));
+	}
+
+	/**
+	 * Return the {@link Entry} with the specified path.
+	 * @param path the path of a file or of a directory, with a trailing {@code /}
+	 * @return the matching entry or {@code null}
+	 */
+	public Entry getEntry(String path) {
+		return this.entries.get(path);
+	}
+
+	/**
+	 * Return the entries of the project, sorted by path.
+	 * @return the entries
+	 */
+	public Collection<Entry> getEntries() {
+		return Collections.unmodifiableCollection(this.entries.values());
+	}
+
+	/**
+	 * Write the content of the project to the specified directory.
+	 * @param dir the root directory of the project
+	 * @throws IllegalStateException if an entry would be written outside of {@code dir}
+	 */
+	public void writeTo(File dir) {
+		Path root = dir.toPath().toAbsolutePath().normalize();
+		for (Entry entry : this.entries.values()) {
+			File target = new File(dir, entry.getPath());
+			if (!target.toPath().toAbsolutePath().normalize().startsWith(root)) {
+				throw new IllegalStateException(
+						"Entry '" + entry.getPath() + "' is outside of " + dir);
+			}
+			if (entry.isDirectory()) {
+				target.mkdirs();
+			}
+			else {
+				try (OutputStream stream = new FileOutputStream(target)) {
+					StreamUtils.copy(entry.content, stream);
+				}
+				catch (Exception ex) {
+					throw new IllegalStateException("Cannot write file " + target, ex);
+				}
+				if (entry.isExecutable()) {
+					target.setExecutable(true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A file or a directory of the project.
+	 */
+	public static final class Entry {
+
+		private final String path;
+
+		private final byte[] content;
+
+		private final boolean executable;
+
+		private Entry(String path, byte[] content, boolean executable) {
+			this.path = path;
+			this.content = content;
+			this.executable = executable;
+		}
+
+		/**
+		 * Return the path of this entry, relative to the root of the project.
+		 * @return the path
+		 */
+		public String getPath() {
+			return this.path;
+		}
+
+		public boolean isDirectory() {
+			return this.content == null;
+		}
+
+		public boolean isExecutable() {
+			return this.executable;
+		}
+
+		/**
+		 * Return the unix mode of this entry.
+		 * @return the mode
+		 */
+		public int getMode() {
+			return (isDirectory() || this.executable) ? 0755 : 0644;
+		}
+
+		/**
+		 * Return the content of this file.
+		 * @return the content or {@code null} if this entry is a directory
+		 */
+		public byte[] getContent() {
+			return this.content;
+		}
+
+		/**
+		 * Return the size of this file.
+		 * @return the size in bytes, or {@code 0} for a directory
+		 */
+		public long getSize() {
+			return (this.content != null) ? this.content.length : 0;
+		}
+
+		/**
+		 * Return the hex-encoded SHA-256 digest of the content of this file.
+		 * @return the digest or {@code null} if this entry is a directory
+		 */
+		public String getSha256() {
+			if (this.content == null) {
+				return null;
+			}
+			try {
+				byte[] digest = MessageDigest.getInstance("SHA-256").digest(this.content);
+				StringBuilder sb = new StringBuilder(digest.length * 2);
+				for (byte b : digest) {
+					sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+					sb.append(Character.forDigit(b & 0xf, 16));
+				}
+				return sb.toString();
+			}
+			catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException("SHA-256 is not available", ex);
+			}
+		}
+
+	}
+
+}
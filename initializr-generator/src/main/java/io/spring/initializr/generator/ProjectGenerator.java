@@ -22,6 +22,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -191,6 +192,45 @@ public class ProjectGenerator {
 		}
 	}
 
+	/**
+	 * Generate a project structure for the specified {@link ProjectRequest} without
+	 * publishing any event. Suitable to prepare a project ahead of an actual request, for
+	 * instance to populate a cache.
+	 * @param request the project request
+	 * @return the generated project structure
+	 * @see #generateProjectStructure(ProjectRequest)
+	 */
+	public File prepareProjectStructure(ProjectRequest request) {
+		Map<String, Object> model = resolveModel(request);
+		return generateProjectStructure(request, model);
+	}
+
+	/**
+	 * Resolve the specified {@link ProjectRequest} without generating anything, so that
+	 * an invalid request is rejected the same way as it would be on generation.
+	 * @param request the project request
+	 * @throws InvalidProjectRequestException if the request is invalid
+	 */
+	public void validateProjectRequest(ProjectRequest request) {
+		resolveModel(request);
+	}
+
+	/**
+	 * Resolve the specified {@link ProjectRequest} and publish the same event as if the
+	 * project had been generated. Suitable when the project is served from a cache.
+	 * @param request the project request
+	 */
+	public void notifyProjectGenerated(ProjectRequest request) {
+		try {
+			resolveModel(request);
+			publishProjectGeneratedEvent(request);
+		}
+		catch (InitializrException ex) {
+			publishProjectFailedEvent(request, ex);
+			throw ex;
+		}
+	}
+
 	/**
 	 * Generate a project structure for the specified {@link ProjectRequest} and resolved
 	 * model.
@@ -211,55 +251,93 @@ public class ProjectGenerator {
 		rootDir.delete();
 		rootDir.mkdirs();
 
+		generateProjectContent(request, model, false).writeTo(rootDir);
 		File dir = initializerProjectDir(rootDir, request);
+		generateGitIgnore(dir, request);
+		return rootDir;
+	}
+
+	/**
+	 * Generate the content of the project for the specified {@link ProjectRequest},
+	 * without writing anything to disk. The content is the same as the one of
+	 * {@link #generateProjectStructure(ProjectRequest)} unless the structure has been
+	 * customized.
+	 * @param request the project request
+	 * @return the content of the project
+	 */
+	public ProjectContent generateProjectContent(ProjectRequest request) {
+		Map<String, Object> model = resolveModel(request);
+		return generateProjectContent(request, model, true);
+	}
+
+	/**
+	 * Generate the content of the project for the specified {@link ProjectRequest},
+	 * resolved against the specified {@link InitializrMetadata}, without writing anything
+	 * to disk.
+	 * @param request the project request
+	 * @param metadata the metadata to use
+	 * @return the content of the project
+	 * @see #generateProjectContent(ProjectRequest)
+	 */
+	public ProjectContent generateProjectContent(ProjectRequest request,
+			InitializrMetadata metadata) {
+		Map<String, Object> model = resolveModel(request, metadata);
+		return generateProjectContent(request, model, true);
+	}
+
+	private ProjectContent generateProjectContent(ProjectRequest request,
+			Map<String, Object> model, boolean includeGitIgnore) {
+		ProjectContent content = new ProjectContent();
+		String dir = (request.getBaseDir() != null) ? request.getBaseDir() + "/" : "";
+		content.addDirectory(dir);
 
 		if (isGradleBuild(request)) {
 			String gradle = new String(doGenerateGradleBuild(model));
-			writeText(new File(dir, "build.gradle"), gradle);
+			content.addFile(dir + "build.gradle", gradle);
 			String settings = new String(doGenerateGradleSettings(model));
-			writeText(new File(dir, "settings.gradle"), settings);
-			writeGradleWrapper(dir, Version.safeParse(request.getBootVersion()));
+			content.addFile(dir + "settings.gradle", settings);
+			addGradleWrapper(content, dir, Version.safeParse(request.getBootVersion()));
 		}
 		else {
 			String pom = new String(doGenerateMavenPom(model));
-			writeText(new File(dir, "pom.xml"), pom);
-			writeMavenWrapper(dir);
+			content.addFile(dir + "pom.xml", pom);
+			addMavenWrapper(content, dir);
 		}
 
-		generateGitIgnore(dir, request);
+		if (includeGitIgnore) {
+			content.addFile(dir + ".gitignore", generateGitIgnore(request));
+		}
 
 		String applicationName = request.getApplicationName();
 		String language = request.getLanguage();
 
 		String codeLocation = language;
-		File src = new File(new File(dir, "src/main/" + codeLocation),
-				request.getPackageName().replace(".", "/"));
-		src.mkdirs();
+		String packagePath = request.getPackageName().replace(".", "/");
+		String src = dir + "src/main/" + codeLocation + "/" + packagePath + "/";
+		content.addDirectory(src);
 		String extension = ("kotlin".equals(language) ? "kt" : language);
-		write(new File(src, applicationName + "." + extension),
-				"Application." + extension, model);
+		content.addFile(src + applicationName + "." + extension,
+				this.templateRenderer.process("Application." + extension, model));
 
 		if ("war".equals(request.getPackaging())) {
 			String fileName = "ServletInitializer." + extension;
-			write(new File(src, fileName), fileName, model);
+			content.addFile(src + fileName,
+					this.templateRenderer.process(fileName, model));
 		}
 
-		File test = new File(new File(dir, "src/test/" + codeLocation),
-				request.getPackageName().replace(".", "/"));
-		test.mkdirs();
+		String test = dir + "src/test/" + codeLocation + "/" + packagePath + "/";
+		content.addDirectory(test);
 		setupTestModel(request, model);
-		write(new File(test, applicationName + "Tests." + extension),
-				"ApplicationTests." + extension, model);
+		content.addFile(test + applicationName + "Tests." + extension,
+				this.templateRenderer.process("ApplicationTests." + extension, model));
 
-		File resources = new File(dir, "src/main/resources");
-		resources.mkdirs();
-		writeText(new File(resources, "application.properties"), "");
+		content.addFile(dir + "src/main/resources/application.properties", "");
 
 		if (request.hasWebFacet()) {
-			new File(dir, "src/main/resources/templates").mkdirs();
-			new File(dir, "src/main/resources/static").mkdirs();
+			content.addDirectory(dir + "src/main/resources/templates");
+			content.addDirectory(dir + "src/main/resources/static");
 		}
-		return rootDir;
+		return content;
 	}
 
 	/**
@@ -275,7 +353,12 @@ public class ProjectGenerator {
 		return download;
 	}
 
-	private File getTemporaryDirectory() {
+	/**
+	 * Return the directory in which projects and their archives are generated, creating
+	 * it if necessary.
+	 * @return the temporary directory
+	 */
+	public File getTemporaryDirectory() {
 		if (this.temporaryDirectory == null) {
 			this.temporaryDirectory = new File(this.tmpdir, "initializr");
 			this.temporaryDirectory.mkdirs();
@@ -318,6 +401,10 @@ public class ProjectGenerator {
 	 * @param request the request to handle
 	 */
 	protected void generateGitIgnore(File dir, ProjectRequest request) {
+		writeText(new File(dir, ".gitignore"), generateGitIgnore(request));
+	}
+
+	private String generateGitIgnore(ProjectRequest request) {
 		Map<String, Object> model = new LinkedHashMap<>();
 		if (isMavenBuild(request)) {
 			model.put("build", "maven");
@@ -326,7 +413,7 @@ public class ProjectGenerator {
 		else {
 			model.put("build", "gradle");
 		}
-		write(new File(dir, ".gitignore"), "gitignore.tmpl", model);
+		return this.templateRenderer.process("gitignore.tmpl", model);
 	}
 
 	/**
@@ -336,9 +423,20 @@ public class ProjectGenerator {
 	 * @return a model for that request
 	 */
 	protected Map<String, Object> resolveModel(ProjectRequest originalRequest) {
+		return resolveModel(originalRequest, this.metadataProvider.get());
+	}
+
+	/**
+	 * Resolve the specified {@link ProjectRequest} against the specified
+	 * {@link InitializrMetadata} and return the model to use to generate the project.
+	 * @param originalRequest the request to handle
+	 * @param metadata the metadata to use
+	 * @return a model for that request
+	 */
+	protected Map<String, Object> resolveModel(ProjectRequest originalRequest,
+			InitializrMetadata metadata) {
 		Assert.notNull(originalRequest.getBootVersion(), "boot version must not be null");
 		Map<String, Object> model = new LinkedHashMap<>();
-		InitializrMetadata metadata = this.metadataProvider.get();
 
 		ProjectRequest request = this.requestResolver.resolve(originalRequest, metadata);
 
@@ -564,51 +662,43 @@ public class ProjectGenerator {
 		return this.templateRenderer.process("starter-settings.gradle", model).getBytes();
 	}
 
-	private void writeGradleWrapper(File dir, Version bootVersion) {
+	private void addGradleWrapper(ProjectContent content, String dir,
+			Version bootVersion) {
 		String gradlePrefix = (isGradle4Available(bootVersion)) ? "gradle4" : "gradle3";
-		writeTextResource(dir, "gradlew.bat", gradlePrefix + "/gradlew.bat");
-		writeTextResource(dir, "gradlew", gradlePrefix + "/gradlew");
-
-		File wrapperDir = new File(dir, "gradle/wrapper");
-		wrapperDir.mkdirs();
-		writeTextResource(wrapperDir, "gradle-wrapper.properties",
+		addTextResource(content, dir + "gradlew.bat", gradlePrefix + "/gradlew.bat");
+		addResource(content, dir + "gradlew", gradlePrefix + "/gradlew", false, true);
+		addTextResource(content, dir + "gradle/wrapper/gradle-wrapper.properties",
 				gradlePrefix + "/gradle/wrapper/gradle-wrapper.properties");
-		writeBinaryResource(wrapperDir, "gradle-wrapper.jar",
+		addBinaryResource(content, dir + "gradle/wrapper/gradle-wrapper.jar",
 				gradlePrefix + "/gradle/wrapper/gradle-wrapper.jar");
 	}
 
-	private void writeMavenWrapper(File dir) {
-		writeTextResource(dir, "mvnw.cmd", "maven/mvnw.cmd");
-		writeTextResource(dir, "mvnw", "maven/mvnw");
-
-		File wrapperDir = new File(dir, ".mvn/wrapper");
-		wrapperDir.mkdirs();
-		writeTextResource(wrapperDir, "maven-wrapper.properties",
+	private void addMavenWrapper(ProjectContent content, String dir) {
+		addTextResource(content, dir + "mvnw.cmd", "maven/mvnw.cmd");
+		addResource(content, dir + "mvnw", "maven/mvnw", false, true);
+		addTextResource(content, dir + ".mvn/wrapper/maven-wrapper.properties",
 				"maven/wrapper/maven-wrapper.properties");
-		writeBinaryResource(wrapperDir, "maven-wrapper.jar",
+		addBinaryResource(content, dir + ".mvn/wrapper/maven-wrapper.jar",
 				"maven/wrapper/maven-wrapper.jar");
 	}
 
-	private File writeBinaryResource(File dir, String name, String location) {
-		return doWriteProjectResource(dir, name, location, true);
+	private void addBinaryResource(ProjectContent content, String path, String location) {
+		addResource(content, path, location, true, false);
 	}
 
-	private File writeTextResource(File dir, String name, String location) {
-		return doWriteProjectResource(dir, name, location, false);
+	private void addTextResource(ProjectContent content, String path, String location) {
+		addResource(content, path, location, false, false);
 	}
 
-	private File doWriteProjectResource(File dir, String name, String location,
-			boolean binary) {
-		File target = new File(dir, name);
-		if (binary) {
-			writeBinary(target, this.projectResourceLocator
-					.getBinaryResource("classpath:project/" + location));
-		}
-		else {
-			writeText(target, this.projectResourceLocator
-					.getTextResource("classpath:project/" + location));
-		}
-		return target;
+	private void addResource(ProjectContent content, String path, String location,
+			boolean binary, boolean executable) {
+		byte[] resource = (binary)
+				? this.projectResourceLocator
+						.getBinaryResource("classpath:project/" + location)
+				: this.projectResourceLocator
+						.getTextResource("classpath:project/" + location)
+						.getBytes(StandardCharsets.UTF_8);
+		content.addFile(path, resource, executable);
 	}
 
 	private File initializerProjectDir(File rootDir, ProjectRequest request) {
@@ -636,15 +726,6 @@ public class ProjectGenerator {
 		}
 	}
 
-	private void writeBinary(File target, byte[] body) {
-		try (OutputStream stream = new FileOutputStream(target)) {
-			StreamUtils.copy(body, stream);
-		}
-		catch (Exception ex) {
-			throw new IllegalStateException("Cannot write file " + target, ex);
-		}
-	}
-
 	private void addTempFile(String group, File file) {
 		this.temporaryFiles.computeIfAbsent(group, (key) -> new ArrayList<>()).add(file);
 	}
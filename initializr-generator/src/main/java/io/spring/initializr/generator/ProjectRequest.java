@@ -26,6 +26,8 @@ import java.util.stream.Collectors;
 import io.spring.initializr.metadata.BillOfMaterials;
 import io.spring.initializr.metadata.DefaultMetadataElement;
 import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.DependencyCompatibilityMatrix;
+import io.spring.initializr.metadata.DependencyResolutionTable;
 import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.metadata.Repository;
 import io.spring.initializr.metadata.Type;
@@ -137,13 +139,16 @@ public class ProjectRequest extends BasicProjectRequest {
 		String actualBootVersion = (getBootVersion() != null) ? getBootVersion()
 				: metadata.getBootVersions().getDefault().getId();
 		Version requestedVersion = Version.parse(actualBootVersion);
+		DependencyCompatibilityMatrix compatibility = metadata
+				.getDependencyCompatibility();
+		DependencyResolutionTable resolution = metadata.getDependencyResolution();
 		this.resolvedDependencies = depIds.stream().map((it) -> {
-			Dependency dependency = metadata.getDependencies().get(it);
+			Dependency dependency = resolution.getDependency(it, requestedVersion);
 			if (dependency == null) {
 				throw new InvalidProjectRequestException(
 						"Unknown dependency '" + it + "' check project metadata");
 			}
-			return dependency.resolve(requestedVersion);
+			return dependency;
 		}).collect(Collectors.toList());
 		this.resolvedDependencies.forEach((it) -> {
 			it.getFacets().forEach((facet) -> {
@@ -151,13 +156,14 @@ public class ProjectRequest extends BasicProjectRequest {
 					this.facets.add(facet);
 				}
 			});
-			if (!it.match(requestedVersion)) {
+			if (!compatibility.isCompatible(it, requestedVersion)) {
 				throw new InvalidProjectRequestException(
 						"Dependency '" + it.getId() + "' is not compatible "
 								+ "with Spring Boot " + requestedVersion);
 			}
 			if (it.getBom() != null) {
-				resolveBom(metadata, it.getBom(), requestedVersion);
+				resolution.getBoms(it.getBom(), requestedVersion)
+						.forEach(this.boms::putIfAbsent);
 			}
 			if (it.getRepository() != null) {
 				String repositoryId = it.getRepository();
@@ -245,17 +251,6 @@ public class ProjectRequest extends BasicProjectRequest {
 		}
 	}
 
-	private void resolveBom(InitializrMetadata metadata, String bomId,
-			Version requestedVersion) {
-		if (!this.boms.containsKey(bomId)) {
-			BillOfMaterials bom = metadata.getConfiguration().getEnv().getBoms()
-					.get(bomId).resolve(requestedVersion);
-			bom.getAdditionalBoms()
-					.forEach((id) -> resolveBom(metadata, id, requestedVersion));
-			this.boms.put(bomId, bom);
-		}
-	}
-
 	/**
 	 * Update this request once it has been resolved with the specified
 	 * {@link InitializrMetadata}.
@@ -314,6 +309,43 @@ public class ProjectRequest extends BasicProjectRequest {
 		return this.facets.contains(facet);
 	}
 
+	/**
+	 * Return a fingerprint of the state of this request. Requests with the same
+	 * dependencies, Spring Boot version, build, language, packaging, Java version,
+	 * coordinates, names, base directory, BOMs, repositories and build properties have
+	 * the same fingerprint, regardless of the order in which dependencies were requested.
+	 * The fingerprint is stable across JVMs so it can be used as a cache key.
+	 * <p>
+	 * Should be called once the request has been {@link #resolve(InitializrMetadata)
+	 * resolved}, otherwise requested dependency ids are used as is.
+	 * <p>
+	 * The state of the metadata the request is resolved against is not part of the
+	 * fingerprint: use {@link #fingerprint(InitializrMetadata, String)} to identify the
+	 * project that is generated for the request.
+	 * @return a 128-bit fingerprint, as 32 hexadecimal characters
+	 */
+	public String fingerprint() {
+		return ProjectRequestFingerprint.of(this);
+	}
+
+	/**
+	 * Return a fingerprint of the state of this request and of the specified metadata.
+	 * Alongside the {@link #fingerprint() fingerprint of this request}, the default
+	 * Spring Boot version and the specified state of the metadata account for what is
+	 * applied when the request is resolved, so that this request does not have to be
+	 * resolved first.
+	 * @param metadata the metadata to use to resolve this request
+	 * @param metadataState an identifier of the state of the metadata, such as its
+	 * {@link InitializrMetadata#getRevision() revision} or a digest of its content
+	 * @return a fingerprint of this request for the specified metadata
+	 */
+	public String fingerprint(InitializrMetadata metadata, String metadataState) {
+		DefaultMetadataElement bootVersion = metadata.getBootVersions().getDefault();
+		return fingerprint() + "-"
+				+ ((bootVersion != null) ? bootVersion.getId() : "none") + "-"
+				+ metadataState;
+	}
+
 	@Override
 	public String toString() {
 		return "ProjectRequest [" + "parameters=" + this.parameters + ", "
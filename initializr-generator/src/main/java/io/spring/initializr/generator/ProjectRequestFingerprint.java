@@ -0,0 +1,239 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import io.spring.initializr.metadata.BillOfMaterials;
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.Repository;
+
+/**
+ * Compute the fingerprint of a {@link ProjectRequest}. The state of the request is
+ * written in a canonical binary form, with collections sorted, and hashed using the
+ * 128-bit x64 variant of MurmurHash3.
+ *
+ * @author Stephane Nicoll
+ * @see ProjectRequest#fingerprint()
+ */
+final class ProjectRequestFingerprint {
+
+	// Bump if the canonical form changes so that fingerprints do not collide
+	private static final int FORMAT_VERSION = 1;
+
+	private static final long C1 = 0x87c37b91114253d5L;
+
+	private static final long C2 = 0x4cf5ad432745937fL;
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+
+	private ProjectRequestFingerprint() {
+	}
+
+	static String of(ProjectRequest request) {
+		ProjectRequestFingerprint fingerprint = new ProjectRequestFingerprint();
+		fingerprint.writeInt(FORMAT_VERSION);
+		fingerprint.writeStrings(dependencyIds(request));
+		fingerprint.writeString(request.getBootVersion());
+		fingerprint.writeString(request.getType());
+		fingerprint.writeString(request.getBuild());
+		fingerprint.writeString(request.getLanguage());
+		fingerprint.writeString(request.getPackaging());
+		fingerprint.writeString(request.getJavaVersion());
+		fingerprint.writeString(request.getGroupId());
+		fingerprint.writeString(request.getArtifactId());
+		fingerprint.writeString(request.getVersion());
+		fingerprint.writeString(request.getName());
+		fingerprint.writeString(request.getDescription());
+		fingerprint.writeString(request.getApplicationName());
+		fingerprint.writeString(request.getPackageName());
+		fingerprint.writeString(request.getBaseDir());
+		fingerprint.writeBoms(request.getBoms());
+		fingerprint.writeRepositories(request.getRepositories());
+		fingerprint.writeProperties(request.getBuildProperties().getMaven());
+		fingerprint.writeProperties(request.getBuildProperties().getGradle());
+		Map<String, Supplier<String>> versions = new TreeMap<>();
+		request.getBuildProperties().getVersions()
+				.forEach((key, value) -> versions.put(key.toStandardFormat(), value));
+		fingerprint.writeProperties(versions);
+		return toHex(murmur3(fingerprint.out.toByteArray()));
+	}
+
+	private static List<String> dependencyIds(ProjectRequest request) {
+		List<String> ids = new ArrayList<>();
+		if (request.getResolvedDependencies() != null) {
+			for (Dependency dependency : request.getResolvedDependencies()) {
+				ids.add(dependency.getId());
+			}
+		}
+		else {
+			ids.addAll(request.getStyle());
+			ids.addAll(request.getDependencies());
+		}
+		ids.sort(null);
+		return ids;
+	}
+
+	private void writeBoms(Map<String, BillOfMaterials> boms) {
+		Map<String, BillOfMaterials> sortedBoms = new TreeMap<>(boms);
+		writeInt(sortedBoms.size());
+		sortedBoms.forEach((id, bom) -> {
+			writeString(id);
+			writeString(bom.getGroupId());
+			writeString(bom.getArtifactId());
+			writeString(bom.getVersion());
+			writeString((bom.getVersionProperty() != null)
+					? bom.getVersionProperty().toStandardFormat() : null);
+		});
+	}
+
+	private void writeRepositories(Map<String, Repository> repositories) {
+		Map<String, Repository> sortedRepositories = new TreeMap<>(repositories);
+		writeInt(sortedRepositories.size());
+		sortedRepositories.forEach((id, repository) -> {
+			writeString(id);
+			writeString((repository != null && repository.getUrl() != null)
+					? repository.getUrl().toString() : null);
+			writeInt((repository != null && repository.isSnapshotsEnabled()) ? 1 : 0);
+		});
+	}
+
+	private void writeProperties(Map<String, Supplier<String>> properties) {
+		writeInt(properties.size());
+		new TreeMap<>(properties).forEach((key, value) -> {
+			writeString(key);
+			writeString(value.get());
+		});
+	}
+
+	private void writeStrings(Collection<String> values) {
+		writeInt(values.size());
+		values.forEach(this::writeString);
+	}
+
+	// Strings are length-prefixed so that adjacent values cannot be confused and null
+	// is distinct from the empty string
+	private void writeString(String value) {
+		if (value == null) {
+			writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		this.out.write(bytes, 0, bytes.length);
+	}
+
+	private void writeInt(int value) {
+		this.out.write(value >>> 24);
+		this.out.write(value >>> 16);
+		this.out.write(value >>> 8);
+		this.out.write(value);
+	}
+
+	static long[] murmur3(byte[] data) {
+		long h1 = 0;
+		long h2 = 0;
+		int blocks = data.length / 16;
+		for (int i = 0; i < blocks; i++) {
+			long k1 = getLong(data, i * 16);
+			long k2 = getLong(data, i * 16 + 8);
+			h1 ^= mixK1(k1);
+			h1 = Long.rotateLeft(h1, 27);
+			h1 += h2;
+			h1 = h1 * 5 + 0x52dce729;
+			h2 ^= mixK2(k2);
+			h2 = Long.rotateLeft(h2, 31);
+			h2 += h1;
+			h2 = h2 * 5 + 0x38495ab5;
+		}
+		int tail = blocks * 16;
+		long k1 = 0;
+		long k2 = 0;
+		for (int i = data.length - tail - 1; i >= 0; i--) {
+			long value = data[tail + i] & 0xffL;
+			if (i >= 8) {
+				k2 |= value << ((i - 8) * 8);
+			}
+			else {
+				k1 |= value << (i * 8);
+			}
+		}
+		h1 ^= mixK1(k1);
+		h2 ^= mixK2(k2);
+		h1 ^= data.length;
+		h2 ^= data.length;
+		h1 += h2;
+		h2 += h1;
+		h1 = fmix(h1);
+		h2 = fmix(h2);
+		h1 += h2;
+		h2 += h1;
+		return new long[] { h1, h2 };
+	}
+
+	private static long getLong(byte[] data, int offset) {
+		long value = 0;
+		for (int i = 7; i >= 0; i--) {
+			value = (value << 8) | (data[offset + i] & 0xffL);
+		}
+		return value;
+	}
+
+	private static long mixK1(long k1) {
+		k1 *= C1;
+		k1 = Long.rotateLeft(k1, 31);
+		k1 *= C2;
+		return k1;
+	}
+
+	private static long mixK2(long k2) {
+		k2 *= C2;
+		k2 = Long.rotateLeft(k2, 33);
+		k2 *= C1;
+		return k2;
+	}
+
+	private static long fmix(long k) {
+		k ^= k >>> 33;
+		k *= 0xff51afd7ed558ccdL;
+		k ^= k >>> 33;
+		k *= 0xc4ceb9fe1a85ec53L;
+		k ^= k >>> 33;
+		return k;
+	}
+
+	// Same byte order as the reference implementation: h1 then h2, little-endian
+	static String toHex(long[] hash) {
+		StringBuilder sb = new StringBuilder(32);
+		for (long value : hash) {
+			for (int i = 0; i < 8; i++) {
+				int b = (int) (value >>> (i * 8)) & 0xff;
+				sb.append(Character.forDigit(b >>> 4, 16));
+				sb.append(Character.forDigit(b & 0xf, 16));
+			}
+		}
+		return sb.toString();
+	}
+
+}
@@ -27,6 +27,7 @@ import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionParser;
 import io.spring.initializr.util.VersionProperty;
 import io.spring.initializr.util.VersionRange;
+import io.spring.initializr.util.VersionRangeIndex;
 
 /**
  * Define a Bill Of Materials to be represented in the generated project if a dependency
@@ -53,6 +54,8 @@ public class BillOfMaterials {
 
 	private final List<Mapping> mappings = new ArrayList<>();
 
+	private volatile VersionRangeIndex<Mapping> mappingIndex;
+
 	public BillOfMaterials() {
 	}
 
@@ -152,7 +155,13 @@ public class BillOfMaterials {
 		this.repositories = repositories;
 	}
 
+	/**
+	 * Return the mappings of this BOM. The returned list may be modified, the resolution
+	 * index is rebuilt on the next resolution.
+	 * @return the mappings
+	 */
 	public List<Mapping> getMappings() {
+		this.mappingIndex = null;
 		return this.mappings;
 	}
 
@@ -166,14 +175,18 @@ public class BillOfMaterials {
 
 	public void updateVersionRange(VersionParser versionParser) {
 		this.mappings.forEach((it) -> {
-			try {
-				it.range = versionParser.parseRange(it.versionRange);
-			}
-			catch (InvalidVersionException ex) {
-				throw new InvalidInitializrMetadataException(
-						"Invalid version range " + it.versionRange + " for " + this, ex);
+			if (it.range == null || VersionParser.hasWildcard(it.versionRange)) {
+				try {
+					it.range = versionParser.parseRange(it.versionRange);
+				}
+				catch (InvalidVersionException ex) {
+					throw new InvalidInitializrMetadataException(
+							"Invalid version range " + it.versionRange + " for " + this,
+							ex);
+				}
 			}
 		});
+		this.mappingIndex = null;
 	}
 
 	/**
@@ -188,26 +201,39 @@ public class BillOfMaterials {
 			return this;
 		}
 
-		for (Mapping mapping : this.mappings) {
-			if (mapping.range.match(bootVersion)) {
-				BillOfMaterials resolvedBom = new BillOfMaterials(
-						(mapping.groupId != null) ? mapping.groupId : this.groupId,
-						(mapping.artifactId != null) ? mapping.artifactId
-								: this.artifactId,
-						mapping.version);
-				resolvedBom.setVersionProperty(this.versionProperty);
-				resolvedBom.setOrder(this.order);
-				resolvedBom.repositories.addAll(!mapping.repositories.isEmpty()
-						? mapping.repositories : this.repositories);
-				resolvedBom.additionalBoms.addAll(!mapping.additionalBoms.isEmpty()
-						? mapping.additionalBoms : this.additionalBoms);
-				return resolvedBom;
-			}
+		Mapping mapping = getMappingIndex().get(bootVersion);
+		if (mapping != null) {
+			return resolveMapping(mapping);
 		}
 		throw new IllegalStateException("No suitable mapping was found for " + this
 				+ " and version " + bootVersion);
 	}
 
+	// Only the lookup is cached, each resolution gets its own instance
+	private VersionRangeIndex<Mapping> getMappingIndex() {
+		VersionRangeIndex<Mapping> mappingIndex = this.mappingIndex;
+		if (mappingIndex == null) {
+			mappingIndex = VersionRangeIndex.of(this.mappings, (mapping) -> mapping.range,
+					(mapping) -> mapping);
+			this.mappingIndex = mappingIndex;
+		}
+		return mappingIndex;
+	}
+
+	private BillOfMaterials resolveMapping(Mapping mapping) {
+		BillOfMaterials resolvedBom = new BillOfMaterials(
+				(mapping.groupId != null) ? mapping.groupId : this.groupId,
+				(mapping.artifactId != null) ? mapping.artifactId : this.artifactId,
+				mapping.version);
+		resolvedBom.setVersionProperty(this.versionProperty);
+		resolvedBom.setOrder(this.order);
+		resolvedBom.repositories.addAll(!mapping.repositories.isEmpty()
+				? mapping.repositories : this.repositories);
+		resolvedBom.additionalBoms.addAll(!mapping.additionalBoms.isEmpty()
+				? mapping.additionalBoms : this.additionalBoms);
+		return resolvedBom;
+	}
+
 	@Override
 	public String toString() {
 		return "BillOfMaterials ["
@@ -288,6 +314,7 @@ public class BillOfMaterials {
 
 		public void setVersionRange(String versionRange) {
 			this.versionRange = versionRange;
+			this.range = null;
 		}
 
 		public String getGroupId() {
@@ -28,6 +28,7 @@ import io.spring.initializr.util.InvalidVersionException;
 import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionParser;
 import io.spring.initializr.util.VersionRange;
+import io.spring.initializr.util.VersionRangeIndex;
 
 import org.springframework.util.StringUtils;
 
@@ -120,6 +121,8 @@ public class Dependency extends MetadataElement implements Describable {
 
 	private List<Link> links = new ArrayList<>();
 
+	private volatile VersionRangeIndex<Mapping> mappingIndex;
+
 	public Dependency() {
 	}
 
@@ -218,7 +221,7 @@ public class Dependency extends MetadataElement implements Describable {
 	}
 
 	public void updateVersionRanges(VersionParser versionParser) {
-		if (this.versionRange != null) {
+		if (this.versionRange != null && !isResolvedRange(this.versionRange)) {
 			try {
 				this.range = versionParser.parseRange(this.versionRange);
 				this.versionRange = this.range.toRangeString();
@@ -232,14 +235,25 @@ public class Dependency extends MetadataElement implements Describable {
 			}
 		}
 		this.mappings.forEach((it) -> {
-			try {
-				it.range = versionParser.parseRange(it.versionRange);
-			}
-			catch (InvalidVersionException ex) {
-				throw new InvalidInitializrMetadataException(
-						"Invalid version range " + it.versionRange + " for " + this, ex);
+			if (it.range == null || VersionParser.hasWildcard(it.versionRange)) {
+				try {
+					it.range = versionParser.parseRange(it.versionRange);
+				}
+				catch (InvalidVersionException ex) {
+					throw new InvalidInitializrMetadataException(
+							"Invalid version range " + it.versionRange + " for " + this,
+							ex);
+				}
 			}
 		});
+		this.mappingIndex = null;
+	}
+
+	// The range has already been parsed from that text and does not need the latest
+	// versions to be resolved
+	private boolean isResolvedRange(String versionRange) {
+		return this.range != null && !VersionParser.hasWildcard(versionRange)
+				&& versionRange.equals(this.range.toRangeString());
 	}
 
 	/**
@@ -250,21 +264,33 @@ public class Dependency extends MetadataElement implements Describable {
 	 * @return this instance
 	 */
 	public Dependency resolve(Version bootVersion) {
-		for (Mapping mapping : this.mappings) {
-			if (mapping.range.match(bootVersion)) {
-				Dependency dependency = new Dependency(this);
-				dependency.groupId = (mapping.groupId != null) ? mapping.groupId
-						: this.groupId;
-				dependency.artifactId = (mapping.artifactId != null) ? mapping.artifactId
-						: this.artifactId;
-				dependency.version = (mapping.version != null) ? mapping.version
-						: this.version;
-				dependency.versionRequirement = mapping.range.toString();
-				dependency.mappings = null;
-				return dependency;
-			}
+		if (this.mappings == null || this.mappings.isEmpty()) {
+			return this;
 		}
-		return this;
+		Mapping mapping = getMappingIndex().get(bootVersion);
+		return (mapping != null) ? resolveMapping(mapping) : this;
+	}
+
+	// Only the lookup is cached, each resolution gets its own instance
+	private VersionRangeIndex<Mapping> getMappingIndex() {
+		VersionRangeIndex<Mapping> mappingIndex = this.mappingIndex;
+		if (mappingIndex == null) {
+			mappingIndex = VersionRangeIndex.of(this.mappings, Mapping::getRange,
+					(mapping) -> mapping);
+			this.mappingIndex = mappingIndex;
+		}
+		return mappingIndex;
+	}
+
+	private Dependency resolveMapping(Mapping mapping) {
+		Dependency dependency = new Dependency(this);
+		dependency.groupId = (mapping.groupId != null) ? mapping.groupId : this.groupId;
+		dependency.artifactId = (mapping.artifactId != null) ? mapping.artifactId
+				: this.artifactId;
+		dependency.version = (mapping.version != null) ? mapping.version : this.version;
+		dependency.versionRequirement = mapping.range.toString();
+		dependency.mappings = null;
+		return dependency;
 	}
 
 	/**
@@ -352,15 +378,19 @@ public class Dependency extends MetadataElement implements Describable {
 
 	/**
 	 * Return the dependency mapping if an attribute of the dependency differs according
-	 * to the Spring Boot version. If no mapping matches, default attributes are used.
+	 * to the Spring Boot version. If no mapping matches, default attributes are used. The
+	 * returned list may be modified, the resolution index is rebuilt on the next
+	 * resolution.
 	 * @return the dependency mappings
 	 */
 	public List<Mapping> getMappings() {
+		this.mappingIndex = null;
 		return this.mappings;
 	}
 
 	public void setMappings(List<Mapping> mappings) {
 		this.mappings = mappings;
+		this.mappingIndex = null;
 	}
 
 	@Override
@@ -550,6 +580,7 @@ public class Dependency extends MetadataElement implements Describable {
 
 		public void setVersionRange(String versionRange) {
 			this.versionRange = versionRange;
+			this.range = null;
 		}
 
 		public static Mapping create(String range, String groupId, String artifactId,
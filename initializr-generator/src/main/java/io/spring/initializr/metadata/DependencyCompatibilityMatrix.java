@@ -0,0 +1,141 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.metadata;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.spring.initializr.util.Version;
+import io.spring.initializr.util.VersionParser;
+
+/**
+ * Precomputed compatibility of the dependencies of an {@link InitializrMetadata} snapshot
+ * with each of its known Spring Boot versions. Each known version is mapped to a
+ * {@link BitSet} holding one bit per dependency so that checking compatibility does not
+ * require to evaluate version ranges. Versions that are not known fall back to
+ * {@link Dependency#match(Version)}.
+ * <p>
+ * Dependencies are identified by their id or one of their aliases, so that a
+ * {@link Dependency#resolve(Version) resolved} copy of a dependency can be checked as
+ * well.
+ *
+ * @author Stephane Nicoll
+ * @see InitializrMetadata#getDependencyCompatibility()
+ */
+public final class DependencyCompatibilityMatrix {
+
+	private final long revision;
+
+	private final List<Dependency> dependencies;
+
+	private final Map<String, Integer> indexes = new HashMap<>();
+
+	private final Map<Version, BitSet> compatibility = new HashMap<>();
+
+	private DependencyCompatibilityMatrix(long revision, List<Dependency> dependencies,
+			List<Version> bootVersions) {
+		this.revision = revision;
+		this.dependencies = dependencies;
+		for (int i = 0; i < dependencies.size(); i++) {
+			Dependency dependency = dependencies.get(i);
+			this.indexes.put(dependency.getId(), i);
+			for (String alias : dependency.getAliases()) {
+				this.indexes.put(alias, i);
+			}
+		}
+		for (Version bootVersion : bootVersions) {
+			BitSet bits = new BitSet(dependencies.size());
+			for (int i = 0; i < dependencies.size(); i++) {
+				if (dependencies.get(i).match(bootVersion)) {
+					bits.set(i);
+				}
+			}
+			this.compatibility.put(bootVersion, bits);
+		}
+	}
+
+	/**
+	 * Create a matrix for the current state of the specified metadata.
+	 * @param metadata the metadata
+	 * @return a new matrix
+	 */
+	public static DependencyCompatibilityMatrix of(InitializrMetadata metadata) {
+		long revision = metadata.getRevision();
+		List<Dependency> dependencies = new ArrayList<>(
+				metadata.getDependencies().getAll());
+		List<Version> bootVersions = new ArrayList<>();
+		for (DefaultMetadataElement bootVersion : metadata.getBootVersions()
+				.getContent()) {
+			Version version = VersionParser.DEFAULT.safeParse(bootVersion.getId());
+			if (version != null) {
+				bootVersions.add(version);
+			}
+		}
+		return new DependencyCompatibilityMatrix(revision, dependencies, bootVersions);
+	}
+
+	/**
+	 * Return the revision of the metadata this matrix has been computed from.
+	 * @return the metadata revision
+	 */
+	public long getRevision() {
+		return this.revision;
+	}
+
+	/**
+	 * Specify if the specified {@link Dependency} is compatible with the specified Spring
+	 * Boot version.
+	 * @param dependency the dependency to check
+	 * @param bootVersion the Spring Boot version
+	 * @return {@code true} if the dependency can be used with that version
+	 */
+	public boolean isCompatible(Dependency dependency, Version bootVersion) {
+		BitSet bits = this.compatibility.get(bootVersion);
+		Integer index = this.indexes.get(dependency.getId());
+		if (bits == null || index == null) {
+			return dependency.match(bootVersion);
+		}
+		return bits.get(index);
+	}
+
+	/**
+	 * Return the dependencies that are compatible with the specified Spring Boot version,
+	 * in the order they are defined.
+	 * @param bootVersion the Spring Boot version
+	 * @return the compatible dependencies
+	 */
+	public List<Dependency> getCompatibleDependencies(Version bootVersion) {
+		List<Dependency> result = new ArrayList<>();
+		BitSet bits = this.compatibility.get(bootVersion);
+		if (bits == null) {
+			for (Dependency dependency : this.dependencies) {
+				if (dependency.match(bootVersion)) {
+					result.add(dependency);
+				}
+			}
+			return result;
+		}
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			result.add(this.dependencies.get(i));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.spring.initializr.util.Version;
+import io.spring.initializr.util.VersionParser;
+
+/**
+ * The dependencies and BOMs of an {@link InitializrMetadata} snapshot, resolved against
+ * each of its known Spring Boot versions. Resolved instances are shared and must not be
+ * modified. Each BOM is available with the closure of its additional BOMs so that
+ * resolving a request only requires lookups. Versions that are not known are resolved on
+ * demand.
+ *
+ * @author Stephane Nicoll
+ * @see InitializrMetadata#getDependencyResolution()
+ */
+public final class DependencyResolutionTable {
+
+	private final long revision;
+
+	private final Map<String, Dependency> dependencies;
+
+	private final Map<String, BillOfMaterials> boms;
+
+	private final Map<Version, Resolution> resolutions = new HashMap<>();
+
+	private DependencyResolutionTable(long revision, Map<String, Dependency> dependencies,
+			Map<String, BillOfMaterials> boms, List<Version> bootVersions) {
+		this.revision = revision;
+		this.dependencies = dependencies;
+		this.boms = boms;
+		for (Version bootVersion : bootVersions) {
+			this.resolutions.put(bootVersion, new Resolution(bootVersion));
+		}
+	}
+
+	/**
+	 * Create a table for the current state of the specified metadata.
+	 * @param metadata the metadata
+	 * @return a new table
+	 */
+	public static DependencyResolutionTable of(InitializrMetadata metadata) {
+		long revision = metadata.getRevision();
+		Map<String, Dependency> dependencies = new HashMap<>();
+		for (Dependency dependency : metadata.getDependencies().getAll()) {
+			dependencies.put(dependency.getId(), dependency);
+			for (String alias : dependency.getAliases()) {
+				dependencies.put(alias, dependency);
+			}
+		}
+		Map<String, BillOfMaterials> boms = new HashMap<>(
+				metadata.getConfiguration().getEnv().getBoms());
+		List<Version> bootVersions = new ArrayList<>();
+		for (DefaultMetadataElement bootVersion : metadata.getBootVersions()
+				.getContent()) {
+			Version version = VersionParser.DEFAULT.safeParse(bootVersion.getId());
+			if (version != null) {
+				bootVersions.add(version);
+			}
+		}
+		return new DependencyResolutionTable(revision, dependencies, boms, bootVersions);
+	}
+
+	/**
+	 * Return the revision of the metadata this table has been computed from.
+	 * @return the metadata revision
+	 */
+	public long getRevision() {
+		return this.revision;
+	}
+
+	/**
+	 * Return the {@link Dependency} with the specified id or alias, resolved against the
+	 * specified Spring Boot version.
+	 * @param id the id or alias of the dependency
+	 * @param bootVersion the Spring Boot version
+	 * @return the resolved dependency or {@code null} if no such dependency exists
+	 */
+	public Dependency getDependency(String id, Version bootVersion) {
+		Resolution resolution = this.resolutions.get(bootVersion);
+		if (resolution != null) {
+			return resolution.dependencies.get(id);
+		}
+		Dependency dependency = this.dependencies.get(id);
+		return (dependency != null) ? dependency.resolve(bootVersion) : null;
+	}
+
+	/**
+	 * Return the BOM with the specified id and the BOMs it requires, resolved against the
+	 * specified Spring Boot version. Required BOMs come first, in the order they should
+	 * be added to a project.
+	 * @param id the id of the BOM
+	 * @param bootVersion the Spring Boot version
+	 * @return the resolved BOMs, keyed by id
+	 * @throws IllegalStateException if a BOM has no mapping for that version
+	 */
+	public Map<String, BillOfMaterials> getBoms(String id, Version bootVersion) {
+		Resolution resolution = this.resolutions.get(bootVersion);
+		if (resolution != null) {
+			Map<String, BillOfMaterials> boms = resolution.boms.get(id);
+			if (boms == null) {
+				boms = resolveBoms(id, bootVersion);
+				resolution.boms.put(id, boms);
+			}
+			return boms;
+		}
+		return resolveBoms(id, bootVersion);
+	}
+
+	private Map<String, BillOfMaterials> resolveBoms(String id, Version bootVersion) {
+		Map<String, BillOfMaterials> boms = new LinkedHashMap<>();
+		resolveBom(boms, id, bootVersion);
+		return Collections.unmodifiableMap(boms);
+	}
+
+	private void resolveBom(Map<String, BillOfMaterials> boms, String id,
+			Version bootVersion) {
+		if (!boms.containsKey(id)) {
+			BillOfMaterials bom = this.boms.get(id).resolve(bootVersion);
+			// Reserve the slot so that a cycle does not recurse forever
+			boms.put(id, null);
+			bom.getAdditionalBoms().forEach(
+					(additionalBom) -> resolveBom(boms, additionalBom, bootVersion));
+			boms.remove(id);
+			boms.put(id, bom);
+		}
+	}
+
+	private final class Resolution {
+
+		private final Map<String, Dependency> dependencies = new HashMap<>();
+
+		// BOMs are resolved on first use as a BOM may not be available for all versions
+		private final Map<String, Map<String, BillOfMaterials>> boms = new ConcurrentHashMap<>();
+
+		Resolution(Version bootVersion) {
+			// A dependency and its aliases share the same resolved instance
+			Map<Dependency, Dependency> resolved = new IdentityHashMap<>();
+			DependencyResolutionTable.this.dependencies
+					.forEach((id, dependency) -> this.dependencies.put(id,
+							resolved.computeIfAbsent(dependency,
+									(candidate) -> candidate.resolve(bootVersion))));
+		}
+
+	}
+
+}
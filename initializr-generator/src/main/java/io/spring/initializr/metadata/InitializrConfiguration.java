@@ -30,6 +30,7 @@ import io.spring.initializr.util.InvalidVersionException;
 import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionParser;
 import io.spring.initializr.util.VersionRange;
+import io.spring.initializr.util.VersionRangeIndex;
 
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.util.StringUtils;
@@ -385,16 +386,17 @@ public class InitializrConfiguration {
 			 */
 			private final List<Mapping> mappings = new ArrayList<>();
 
+			private volatile VersionRangeIndex<Mapping> mappingIndex;
+
 			/**
 			 * Resolve the kotlin version to use based on the Spring Boot version.
 			 * @param bootVersion the Spring Boot version
 			 * @return the kotlin version to use
 			 */
 			public String resolveKotlinVersion(Version bootVersion) {
-				for (Mapping mapping : this.mappings) {
-					if (mapping.range.match(bootVersion)) {
-						return mapping.version;
-					}
+				Mapping mapping = getMappingIndex().get(bootVersion);
+				if (mapping != null) {
+					return mapping.version;
 				}
 				if (this.defaultVersion == null) {
 					throw new InvalidInitializrMetadataException(
@@ -411,11 +413,18 @@ public class InitializrConfiguration {
 				this.defaultVersion = defaultVersion;
 			}
 
+			/**
+			 * Return the Kotlin version mappings. The returned list may be modified, the
+			 * resolution index is rebuilt on the next resolution.
+			 * @return the mappings
+			 */
 			public List<Mapping> getMappings() {
+				this.mappingIndex = null;
 				return this.mappings;
 			}
 
 			public void validate() {
+				this.mappingIndex = null;
 				VersionParser simpleParser = new VersionParser(Collections.emptyList());
 				this.mappings.forEach((m) -> {
 					if (m.versionRange == null) {
@@ -434,22 +443,36 @@ public class InitializrConfiguration {
 
 			public void updateVersionRange(VersionParser versionParser) {
 				this.mappings.forEach((it) -> {
-					try {
-						it.range = versionParser.parseRange(it.versionRange);
-					}
-					catch (InvalidVersionException ex) {
-						throw new InvalidInitializrMetadataException(
-								"Invalid version range " + it.versionRange + " for "
-										+ this,
-								ex);
+					if (it.range == null || VersionParser.hasWildcard(it.versionRange)) {
+						try {
+							it.range = versionParser.parseRange(it.versionRange);
+						}
+						catch (InvalidVersionException ex) {
+							throw new InvalidInitializrMetadataException(
+									"Invalid version range " + it.versionRange + " for "
+											+ this,
+									ex);
+						}
 					}
 				});
+				this.mappingIndex = null;
+			}
+
+			private VersionRangeIndex<Mapping> getMappingIndex() {
+				VersionRangeIndex<Mapping> mappingIndex = this.mappingIndex;
+				if (mappingIndex == null) {
+					mappingIndex = VersionRangeIndex.of(this.mappings,
+							(mapping) -> mapping.range, (mapping) -> mapping);
+					this.mappingIndex = mappingIndex;
+				}
+				return mappingIndex;
 			}
 
 			private void merge(Kotlin other) {
 				this.defaultVersion = other.defaultVersion;
 				this.mappings.clear();
 				this.mappings.addAll(other.mappings);
+				this.mappingIndex = null;
 			}
 
 			/**
@@ -476,6 +499,7 @@ public class InitializrConfiguration {
 
 				public void setVersionRange(String versionRange) {
 					this.versionRange = versionRange;
+					this.range = null;
 				}
 
 				public String getVersion() {
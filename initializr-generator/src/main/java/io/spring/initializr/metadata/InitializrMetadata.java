@@ -19,8 +19,10 @@ package io.spring.initializr.metadata;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.spring.initializr.util.Version;
 import io.spring.initializr.util.VersionParser;
 import io.spring.initializr.util.VersionProperty;
@@ -68,6 +70,14 @@ public class InitializrMetadata {
 	private final TextCapability packageName = new PackageCapability(this.groupId,
 			this.artifactId);
 
+	private final AtomicLong revision = new AtomicLong();
+
+	private volatile long revisionTimestamp = System.currentTimeMillis();
+
+	private volatile DependencyCompatibilityMatrix dependencyCompatibility;
+
+	private volatile DependencyResolutionTable dependencyResolution;
+
 	public InitializrMetadata() {
 		this(new InitializrConfiguration());
 	}
@@ -128,6 +138,65 @@ public class InitializrMetadata {
 		return this.packageName;
 	}
 
+	/**
+	 * Return the revision of this instance. The revision is incremented every time the
+	 * content of this instance is updated so that any state derived from it can be
+	 * invalidated.
+	 * <p>
+	 * Only {@link #merge(InitializrMetadata)}, {@link #validate()} and
+	 * {@link #updateSpringBootVersions(List)} update the revision: the content of the
+	 * capabilities can be modified directly but such changes are not tracked. Metadata
+	 * should therefore be treated as immutable once validated, or {@link #validate()
+	 * validated} again once modified.
+	 * @return the revision
+	 */
+	@JsonIgnore
+	public long getRevision() {
+		return this.revision.get();
+	}
+
+	/**
+	 * Return the time at which the current {@link #getRevision() revision} has been
+	 * created.
+	 * @return the timestamp of the revision, in milliseconds since the epoch
+	 */
+	@JsonIgnore
+	public long getRevisionTimestamp() {
+		return this.revisionTimestamp;
+	}
+
+	/**
+	 * Return the {@link DependencyCompatibilityMatrix} of the current revision of this
+	 * instance. The matrix is only computed again when the {@link #getRevision()
+	 * revision} changes.
+	 * @return the dependency compatibility matrix
+	 */
+	@JsonIgnore
+	public DependencyCompatibilityMatrix getDependencyCompatibility() {
+		DependencyCompatibilityMatrix matrix = this.dependencyCompatibility;
+		if (matrix == null || matrix.getRevision() != getRevision()) {
+			matrix = DependencyCompatibilityMatrix.of(this);
+			this.dependencyCompatibility = matrix;
+		}
+		return matrix;
+	}
+
+	/**
+	 * Return the {@link DependencyResolutionTable} of the current revision of this
+	 * instance. The table is only computed again when the {@link #getRevision() revision}
+	 * changes.
+	 * @return the dependency resolution table
+	 */
+	@JsonIgnore
+	public DependencyResolutionTable getDependencyResolution() {
+		DependencyResolutionTable table = this.dependencyResolution;
+		if (table == null || table.getRevision() != getRevision()) {
+			table = DependencyResolutionTable.of(this);
+			this.dependencyResolution = table;
+		}
+		return table;
+	}
+
 	/**
 	 * Merge this instance with the specified argument.
 	 * @param other the other instance
@@ -146,10 +215,12 @@ public class InitializrMetadata {
 		this.artifactId.merge(other.artifactId);
 		this.version.merge(other.version);
 		this.packageName.merge(other.packageName);
+		updateRevision();
 	}
 
 	/**
-	 * Validate the metadata.
+	 * Validate the metadata and update its {@link #getRevision() revision} so that any
+	 * change that has been applied to its content is taken into account.
 	 */
 	public void validate() {
 		this.configuration.validate();
@@ -205,6 +276,7 @@ public class InitializrMetadata {
 				}
 			}
 		}
+		updateRevision();
 	}
 
 	/**
@@ -221,6 +293,12 @@ public class InitializrMetadata {
 		this.configuration.getEnv().getBoms().values()
 				.forEach((it) -> it.updateVersionRange(parser));
 		this.configuration.getEnv().getKotlin().updateVersionRange(parser);
+		updateRevision();
+	}
+
+	private void updateRevision() {
+		this.revision.incrementAndGet();
+		this.revisionTimestamp = System.currentTimeMillis();
 	}
 
 	/**
@@ -21,6 +21,7 @@ import java.io.Reader;
 import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.samskivert.mustache.Mustache;
 import com.samskivert.mustache.Mustache.Compiler;
@@ -48,6 +49,10 @@ public class TemplateRenderer {
 
 	private final ConcurrentMap<String, Template> templateCaches = new ConcurrentReferenceHashMap<>();
 
+	private final AtomicLong cacheHits = new AtomicLong();
+
+	private final AtomicLong cacheMisses = new AtomicLong();
+
 	public TemplateRenderer() {
 		this(mustacheCompiler());
 	}
@@ -77,11 +82,48 @@ public class TemplateRenderer {
 
 	public Template getTemplate(String name) {
 		if (this.cache) {
+			Template template = this.templateCaches.get(name);
+			if (template != null) {
+				this.cacheHits.incrementAndGet();
+				return template;
+			}
+			this.cacheMisses.incrementAndGet();
 			return this.templateCaches.computeIfAbsent(name, this::loadTemplate);
 		}
 		return loadTemplate(name);
 	}
 
+	/**
+	 * Return the number of compiled templates that are cached.
+	 * @return the number of cached templates
+	 */
+	public int getCacheSize() {
+		return this.templateCaches.size();
+	}
+
+	/**
+	 * Return the number of times a cached template has been used.
+	 * @return the number of cache hits
+	 */
+	public long getCacheHits() {
+		return this.cacheHits.get();
+	}
+
+	/**
+	 * Return the number of times a template had to be compiled while caching is enabled.
+	 * @return the number of cache misses
+	 */
+	public long getCacheMisses() {
+		return this.cacheMisses.get();
+	}
+
+	/**
+	 * Remove all compiled templates from the cache.
+	 */
+	public void clearCache() {
+		this.templateCaches.clear();
+	}
+
 	protected Template loadTemplate(String name) {
 		try {
 			Reader template;
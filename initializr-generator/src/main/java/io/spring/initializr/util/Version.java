@@ -33,7 +33,10 @@ import org.springframework.util.StringUtils;
  * qualifier indicates a final release (a.k.a. GA)
  * <p>
  * The main purpose of parsing a version is to compare it with another version, see
- * {@link Comparable}.
+ * {@link Comparable}. To make that cheap, a version whose components fit in a
+ * {@code long} and whose qualifier is known keeps a sortable key that encodes the major,
+ * minor, patch, qualifier rank and qualifier version so that comparing two such versions
+ * is a single {@code long} comparison.
  *
  * @author Stephane Nicoll
  */
@@ -45,6 +48,21 @@ public final class Version implements Serializable, Comparable<Version> {
 	private static final VersionParser parser = new VersionParser(
 			Collections.emptyList());
 
+	// Sort key layout: major (13 bits), minor (12 bits), patch (16 bits), qualifier
+	// rank (2 bits) and qualifier version (19 bits). Keys are offset by one so that 0
+	// means the key has not been computed yet.
+	private static final int MAJOR_SHIFT = 49;
+
+	private static final int MINOR_SHIFT = 37;
+
+	private static final int PATCH_SHIFT = 21;
+
+	private static final int RANK_SHIFT = 19;
+
+	private static final long UNRESOLVED = 0;
+
+	private static final long UNSORTABLE = -1;
+
 	private final Integer major;
 
 	private final Integer minor;
@@ -53,10 +71,17 @@ public final class Version implements Serializable, Comparable<Version> {
 
 	private final Qualifier qualifier;
 
+	// Safe to compute once as the components, including the qualifier, are immutable
+	private final transient long sortKey;
+
 	// For Jackson
 	@SuppressWarnings("unused")
 	private Version() {
-		this(null, null, null, null);
+		this.major = null;
+		this.minor = null;
+		this.patch = null;
+		this.qualifier = null;
+		this.sortKey = UNRESOLVED;
 	}
 
 	public Version(Integer major, Integer minor, Integer patch, Qualifier qualifier) {
@@ -64,6 +89,7 @@ public final class Version implements Serializable, Comparable<Version> {
 		this.minor = minor;
 		this.patch = patch;
 		this.qualifier = qualifier;
+		this.sortKey = computeSortKey(major, minor, patch, qualifier);
 	}
 
 	public Integer getMajor() {
@@ -116,6 +142,11 @@ public final class Version implements Serializable, Comparable<Version> {
 		if (other == null) {
 			return 1;
 		}
+		long key = getSortKey();
+		long otherKey = other.getSortKey();
+		if (key != UNSORTABLE && otherKey != UNSORTABLE) {
+			return Long.compare(key, otherKey);
+		}
 		int majorDiff = safeCompare(this.major, other.major);
 		if (majorDiff != 0) {
 			return majorDiff;
@@ -131,6 +162,37 @@ public final class Version implements Serializable, Comparable<Version> {
 		return qualifierComparator.compare(this.qualifier, other.qualifier);
 	}
 
+	// Instances created by Jackson or deserialized do not have a precomputed key
+	private long getSortKey() {
+		long key = this.sortKey;
+		return (key != UNRESOLVED) ? key
+				: computeSortKey(this.major, this.minor, this.patch, this.qualifier);
+	}
+
+	private static long computeSortKey(Integer major, Integer minor, Integer patch,
+			Qualifier qualifier) {
+		int rank = VersionQualifierComparator.getQualifierRank(qualifier);
+		int qualifierVersion = (qualifier != null && qualifier.version != null)
+				? qualifier.version : 0;
+		if (rank < 0 || !fits(major, 13) || !fits(minor, 12) || !fits(patch, 16)
+				|| !fits(qualifierVersion, 19)) {
+			return UNSORTABLE;
+		}
+		long key = ((long) valueOf(major) << MAJOR_SHIFT)
+				| ((long) valueOf(minor) << MINOR_SHIFT)
+				| ((long) valueOf(patch) << PATCH_SHIFT) | ((long) rank << RANK_SHIFT)
+				| qualifierVersion;
+		return key + 1;
+	}
+
+	private static boolean fits(Integer value, int bits) {
+		return value == null || (value >= 0 && value < (1 << bits));
+	}
+
+	private static int valueOf(Integer value) {
+		return (value != null) ? value : 0;
+	}
+
 	private static int safeCompare(Integer first, Integer second) {
 		Integer firstIndex = (first != null) ? first : 0;
 		Integer secondIndex = (second != null) ? second : 0;
@@ -205,34 +267,32 @@ public final class Version implements Serializable, Comparable<Version> {
 	}
 
 	/**
-	 * A version qualifier.
+	 * A version qualifier. Qualifiers are immutable so that a {@link Version} can be
+	 * safely shared.
 	 */
 	public static class Qualifier implements Serializable {
 
+		private final String qualifier;
+
+		private final Integer version;
+
 		public Qualifier(String qualifier) {
-			this.qualifier = qualifier;
+			this(qualifier, null);
 		}
 
-		private String qualifier;
-
-		private Integer version;
+		public Qualifier(String qualifier, Integer version) {
+			this.qualifier = qualifier;
+			this.version = version;
+		}
 
 		public String getQualifier() {
 			return this.qualifier;
 		}
 
-		public void setQualifier(String qualifier) {
-			this.qualifier = qualifier;
-		}
-
 		public Integer getVersion() {
 			return this.version;
 		}
 
-		public void setVersion(Integer version) {
-			this.version = version;
-		}
-
 		@Override
 		public boolean equals(Object obj) {
 			if (this == obj) {
@@ -295,10 +355,12 @@ public final class Version implements Serializable, Comparable<Version> {
 		static final List<String> KNOWN_QUALIFIERS = Arrays.asList(MILESTONE, RC,
 				SNAPSHOT, RELEASE);
 
+		private static final Qualifier RELEASE_QUALIFIER = new Qualifier(RELEASE);
+
 		@Override
 		public int compare(Qualifier o1, Qualifier o2) {
-			Qualifier first = (o1 != null) ? o1 : new Qualifier(RELEASE);
-			Qualifier second = (o2 != null) ? o2 : new Qualifier(RELEASE);
+			Qualifier first = (o1 != null) ? o1 : RELEASE_QUALIFIER;
+			Qualifier second = (o2 != null) ? o2 : RELEASE_QUALIFIER;
 
 			int qualifier = compareQualifier(first, second);
 			return (qualifier != 0) ? qualifier : compareQualifierVersion(first, second);
@@ -324,6 +386,12 @@ public final class Version implements Serializable, Comparable<Version> {
 			}
 		}
 
+		// The rank of the qualifier in the sort order, or -1 if it is unknown
+		static int getQualifierRank(Qualifier qualifier) {
+			return (qualifier != null) ? getQualifierIndex(qualifier.qualifier)
+					: KNOWN_QUALIFIERS.size() - 1;
+		}
+
 		private static int getQualifierIndex(String qualifier) {
 			return (StringUtils.hasText(qualifier) ? KNOWN_QUALIFIERS.indexOf(qualifier)
 					: 0);
@@ -17,10 +17,15 @@
 package io.spring.initializr.util;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import io.spring.initializr.util.Version.Qualifier;
 
@@ -37,6 +42,11 @@ import org.springframework.util.StringUtils;
  * {@code 1.3.8.BUILD-SNAPSHOT} would be parsed as {@code 1.3.999.BUILD-SNAPSHOT} as the
  * parser doesn't know the latest {@code BUILD-SNAPSHOT} in the {@code 1.3.x} release
  * line.
+ * <p>
+ * Latest versions are indexed by major, minor and qualifier when the parser is created so
+ * that resolving a wildcard does not require to go through all of them. The most recently
+ * parsed versions are cached so that parsing the same text again returns the same
+ * {@link Version} instance. This is safe as {@link Version} is immutable.
  *
  * @author Stephane Nicoll
  */
@@ -48,16 +58,62 @@ public class VersionParser {
 	public static final VersionParser DEFAULT = new VersionParser(
 			Collections.emptyList());
 
-	private static final Pattern VERSION_REGEX = Pattern
-			.compile("^(\\d+)\\.(\\d+|x)\\.(\\d+|x)(?:\\.([^0-9]+)(\\d+)?)?$");
+	private static final int MAX_CACHED_VERSIONS = 256;
 
 	private static final Pattern RANGE_REGEX = Pattern
 			.compile("(\\(|\\[)(.*),(.*)(\\)|\\])");
 
-	private final List<Version> latestVersions;
+	// Marker for a key that matches more than one latest version
+	private static final Version AMBIGUOUS = new Version(null, null, null, null);
+
+	private final Map<LatestVersionKey, Version> latestVersions;
+
+	private final Map<String, Version> versions = new LinkedHashMap<String, Version>(16,
+			0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Version> eldest) {
+			return size() > MAX_CACHED_VERSIONS;
+		}
+
+	};
 
 	public VersionParser(List<Version> latestVersions) {
-		this.latestVersions = latestVersions;
+		this.latestVersions = indexLatestVersions(latestVersions);
+	}
+
+	private static Map<LatestVersionKey, Version> indexLatestVersions(
+			List<Version> latestVersions) {
+		Map<LatestVersionKey, Version> index = new HashMap<>();
+		for (Version version : latestVersions) {
+			if (version.getMajor() == null) {
+				continue;
+			}
+			Integer major = version.getMajor();
+			Integer minor = version.getMinor();
+			Qualifier qualifier = version.getQualifier();
+			// A key can only be registered once per version (e.g. no qualifier)
+			Set<LatestVersionKey> keys = new HashSet<>();
+			keys.add(new LatestVersionKey(major, minor, qualifier));
+			keys.add(new LatestVersionKey(major, minor, null));
+			keys.add(new LatestVersionKey(major, null, qualifier));
+			keys.add(new LatestVersionKey(major, null, null));
+			for (LatestVersionKey key : keys) {
+				index.merge(key, version, (previous, current) -> AMBIGUOUS);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Specify if the specified version or range text may contain a wildcard and therefore
+	 * depends on the latest versions the parser is configured with. Text for which this
+	 * method returns {@code false} is parsed the same way by any parser.
+	 * @param text the version or range text
+	 * @return {@code true} if the text may contain a wildcard
+	 */
+	public static boolean hasWildcard(String text) {
+		return text != null && text.indexOf('x') != -1;
 	}
 
 	/**
@@ -70,41 +126,140 @@ public class VersionParser {
 	 */
 	public Version parse(String text) {
 		Assert.notNull(text, "Text must not be null");
-		Matcher matcher = VERSION_REGEX.matcher(text.trim());
-		if (!matcher.matches()) {
-			throw new InvalidVersionException(
-					"Could not determine version based on '" + text + "': version format "
-							+ "is Minor.Major.Patch.Qualifier " + "(e.g. 1.0.5.RELEASE)");
+		synchronized (this.versions) {
+			Version version = this.versions.get(text);
+			if (version != null) {
+				return version;
+			}
 		}
-		Integer major = Integer.valueOf(matcher.group(1));
-		String minor = matcher.group(2);
-		String patch = matcher.group(3);
+		Version version = doParse(text);
+		synchronized (this.versions) {
+			this.versions.put(text, version);
+		}
+		return version;
+	}
+
+	/**
+	 * Parse the specified text in a single pass. Accepts the same input as
+	 * {@code (\d+)\.(\d+|x)\.(\d+|x)(?:\.([^0-9]+)(\d+)?)?} once the text has been
+	 * trimmed.
+	 * @param text the version text
+	 * @return the version
+	 */
+	private Version doParse(String text) {
+		int start = 0;
+		int end = text.length();
+		while (start < end && text.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		int majorEnd = digitsEnd(text, start, end);
+		if (majorEnd == start || !isDot(text, majorEnd, end)) {
+			throw invalidVersion(text);
+		}
+		int minorStart = majorEnd + 1;
+		int minorEnd = segmentEnd(text, minorStart, end);
+		if (minorEnd == minorStart || !isDot(text, minorEnd, end)) {
+			throw invalidVersion(text);
+		}
+		int patchStart = minorEnd + 1;
+		int patchEnd = segmentEnd(text, patchStart, end);
+		if (patchEnd == patchStart) {
+			throw invalidVersion(text);
+		}
+		int qualifierStart = end;
+		int qualifierEnd = end;
+		if (patchEnd < end) {
+			if (!isDot(text, patchEnd, end)) {
+				throw invalidVersion(text);
+			}
+			qualifierStart = patchEnd + 1;
+			qualifierEnd = qualifierStart;
+			while (qualifierEnd < end && !isDigit(text.charAt(qualifierEnd))) {
+				qualifierEnd++;
+			}
+			if (qualifierEnd == qualifierStart
+					|| digitsEnd(text, qualifierEnd, end) != end) {
+				throw invalidVersion(text);
+			}
+		}
+		Integer major = parseInt(text, start, majorEnd);
 		Qualifier qualifier = null;
-		String qualifierId = matcher.group(4);
-		if (StringUtils.hasText(qualifierId)) {
-			qualifier = new Version.Qualifier(qualifierId);
-			String o = matcher.group(5);
-			if (o != null) {
-				qualifier.setVersion(Integer.valueOf(o));
+		if (qualifierEnd > qualifierStart) {
+			String qualifierId = text.substring(qualifierStart, qualifierEnd);
+			if (StringUtils.hasText(qualifierId)) {
+				qualifier = new Version.Qualifier(qualifierId,
+						(qualifierEnd < end) ? parseInt(text, qualifierEnd, end) : null);
 			}
 		}
-		if ("x".equals(minor) || "x".equals(patch)) {
-			Integer minorInt = ("x".equals(minor) ? null : Integer.parseInt(minor));
+		boolean minorWildcard = isWildcard(text, minorStart, minorEnd);
+		boolean patchWildcard = isWildcard(text, patchStart, patchEnd);
+		if (minorWildcard || patchWildcard) {
+			Integer minorInt = (minorWildcard ? null
+					: parseInt(text, minorStart, minorEnd));
 			Version latest = findLatestVersion(major, minorInt, qualifier);
 			if (latest == null) {
-				return new Version(major,
-						("x".equals(minor) ? 999 : Integer.parseInt(minor)),
-						("x".equals(patch) ? 999 : Integer.parseInt(patch)), qualifier);
+				return new Version(major, (minorWildcard ? 999 : minorInt),
+						(patchWildcard ? 999 : parseInt(text, patchStart, patchEnd)),
+						qualifier);
 			}
 			return new Version(major, latest.getMinor(), latest.getPatch(),
 					latest.getQualifier());
 		}
 		else {
-			return new Version(major, Integer.parseInt(minor), Integer.parseInt(patch),
-					qualifier);
+			return new Version(major, parseInt(text, minorStart, minorEnd),
+					parseInt(text, patchStart, patchEnd), qualifier);
 		}
 	}
 
+	private static InvalidVersionException invalidVersion(String text) {
+		return new InvalidVersionException(
+				"Could not determine version based on '" + text + "': version format "
+						+ "is Minor.Major.Patch.Qualifier " + "(e.g. 1.0.5.RELEASE)");
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isDot(String text, int index, int end) {
+		return index < end && text.charAt(index) == '.';
+	}
+
+	private static boolean isWildcard(String text, int start, int end) {
+		return end == start + 1 && text.charAt(start) == 'x';
+	}
+
+	private static int digitsEnd(String text, int start, int end) {
+		int index = start;
+		while (index < end && isDigit(text.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+
+	// Minor and patch segments are either digits or the "x" wildcard
+	private static int segmentEnd(String text, int start, int end) {
+		if (start < end && text.charAt(start) == 'x') {
+			return start + 1;
+		}
+		return digitsEnd(text, start, end);
+	}
+
+	private static int parseInt(String text, int start, int end) {
+		if (end - start > 9) {
+			// May overflow, let the JDK handle it
+			return Integer.parseInt(text.substring(start, end));
+		}
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			value = value * 10 + (text.charAt(i) - '0');
+		}
+		return value;
+	}
+
 	/**
 	 * Parse safely the specified string representation of a {@link Version}.
 	 * <p>
@@ -147,19 +302,48 @@ public class VersionParser {
 
 	private Version findLatestVersion(Integer major, Integer minor,
 			Version.Qualifier qualifier) {
-		List<Version> matches = this.latestVersions.stream().filter((it) -> {
-			if (major != null && !major.equals(it.getMajor())) {
-				return false;
-			}
-			if (minor != null && !minor.equals(it.getMinor())) {
-				return false;
+		Version version = this.latestVersions
+				.get(new LatestVersionKey(major, minor, qualifier));
+		return (version != AMBIGUOUS) ? version : null;
+	}
+
+	/**
+	 * The major, minor and qualifier of a latest version, where {@code null} matches any
+	 * minor or qualifier.
+	 */
+	private static final class LatestVersionKey {
+
+		private final Integer major;
+
+		private final Integer minor;
+
+		private final Qualifier qualifier;
+
+		LatestVersionKey(Integer major, Integer minor, Qualifier qualifier) {
+			this.major = major;
+			this.minor = minor;
+			this.qualifier = qualifier;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
 			}
-			if (qualifier != null && !qualifier.equals(it.getQualifier())) {
+			if (obj == null || getClass() != obj.getClass()) {
 				return false;
 			}
-			return true;
-		}).collect(Collectors.toList());
-		return (matches.size() != 1) ? null : matches.get(0);
+			LatestVersionKey other = (LatestVersionKey) obj;
+			return this.major.equals(other.major)
+					&& Objects.equals(this.minor, other.minor)
+					&& Objects.equals(this.qualifier, other.qualifier);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.major, this.minor, this.qualifier);
+		}
+
 	}
 
 }
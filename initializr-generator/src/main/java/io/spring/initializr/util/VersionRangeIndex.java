@@ -0,0 +1,166 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An index of an ordered list of mappings, each having a {@link VersionRange}, that
+ * returns the value of the first mapping whose range matches a given {@link Version}.
+ * <p>
+ * The bounds of all ranges split the versions in a sorted list of intervals: each bound
+ * itself and the versions strictly between two consecutive bounds. The first matching
+ * mapping is the same for every version of such an interval so it is computed once when
+ * the index is created. Looking up a version is then a binary search on the bounds. The
+ * value of each mapping is computed once as well and shared by all lookups.
+ *
+ * @param <T> the type of the values
+ * @author Stephane Nicoll
+ */
+public final class VersionRangeIndex<T> {
+
+	private final int size;
+
+	private final Version[] bounds;
+
+	private final Object[] boundValues;
+
+	private final Object[] intervalValues;
+
+	private VersionRangeIndex(int size, Version[] bounds, Object[] boundValues,
+			Object[] intervalValues) {
+		this.size = size;
+		this.bounds = bounds;
+		this.boundValues = boundValues;
+		this.intervalValues = intervalValues;
+	}
+
+	/**
+	 * Create an index for the specified mappings.
+	 * @param mappings the mappings, in order of precedence
+	 * @param range a function that returns the range of a mapping
+	 * @param value a function that computes the value of a mapping
+	 * @param <M> the type of the mappings
+	 * @param <T> the type of the values
+	 * @return an index for these mappings
+	 */
+	public static <M, T> VersionRangeIndex<T> of(List<M> mappings,
+			Function<M, VersionRange> range, Function<M, T> value) {
+		List<VersionRange> ranges = new ArrayList<>(mappings.size());
+		List<T> values = new ArrayList<>(mappings.size());
+		for (M mapping : mappings) {
+			ranges.add(range.apply(mapping));
+			values.add(value.apply(mapping));
+		}
+		Version[] bounds = sortedBounds(ranges);
+		Object[] boundValues = new Object[bounds.length];
+		Object[] intervalValues = new Object[bounds.length + 1];
+		for (int i = 0; i < bounds.length; i++) {
+			boundValues[i] = firstMatch(ranges, values, bounds[i]);
+		}
+		for (int i = 0; i <= bounds.length; i++) {
+			Version lower = (i > 0) ? bounds[i - 1] : null;
+			Version higher = (i < bounds.length) ? bounds[i] : null;
+			intervalValues[i] = firstMatch(ranges, values, lower, higher);
+		}
+		return new VersionRangeIndex<>(mappings.size(), bounds, boundValues,
+				intervalValues);
+	}
+
+	/**
+	 * Return the number of mappings this index has been created with.
+	 * @return the number of mappings
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Return the value of the first mapping whose range matches the specified version.
+	 * @param version the version
+	 * @return the value of the matching mapping or {@code null} if none matches
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(Version version) {
+		int low = 0;
+		int high = this.bounds.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = this.bounds[middle].compareTo(version);
+			if (comparison < 0) {
+				low = middle + 1;
+			}
+			else if (comparison > 0) {
+				high = middle - 1;
+			}
+			else {
+				return (T) this.boundValues[middle];
+			}
+		}
+		return (T) this.intervalValues[low];
+	}
+
+	private static Version[] sortedBounds(List<VersionRange> ranges) {
+		List<Version> bounds = new ArrayList<>();
+		for (VersionRange range : ranges) {
+			bounds.add(range.getLowerVersion());
+			if (range.getHigherVersion() != null) {
+				bounds.add(range.getHigherVersion());
+			}
+		}
+		bounds.sort(Version::compareTo);
+		// Versions such as 1.2.0 and 1.2.0.RELEASE are the same bound
+		List<Version> distinctBounds = new ArrayList<>();
+		for (Version bound : bounds) {
+			if (distinctBounds.isEmpty() || distinctBounds.get(distinctBounds.size() - 1)
+					.compareTo(bound) != 0) {
+				distinctBounds.add(bound);
+			}
+		}
+		return distinctBounds.toArray(new Version[0]);
+	}
+
+	private static <T> T firstMatch(List<VersionRange> ranges, List<T> values,
+			Version version) {
+		for (int i = 0; i < ranges.size(); i++) {
+			if (ranges.get(i).match(version)) {
+				return values.get(i);
+			}
+		}
+		return null;
+	}
+
+	// Return the value of the first range that contains all versions strictly between
+	// the lower and higher bounds, where null means unbounded
+	private static <T> T firstMatch(List<VersionRange> ranges, List<T> values,
+			Version lower, Version higher) {
+		for (int i = 0; i < ranges.size(); i++) {
+			VersionRange range = ranges.get(i);
+			boolean lowerMatch = lower != null
+					&& range.getLowerVersion().compareTo(lower) <= 0;
+			boolean higherMatch = range.getHigherVersion() == null || (higher != null
+					&& range.getHigherVersion().compareTo(higher) >= 0);
+			if (lowerMatch && higherMatch) {
+				return values.get(i);
+			}
+		}
+		return null;
+	}
+
+}
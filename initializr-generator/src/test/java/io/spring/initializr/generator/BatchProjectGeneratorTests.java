@@ -0,0 +1,223 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.spring.initializr.generator.BatchProjectGenerator.Result;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.generator.ProjectAssert;
+import org.junit.jupiter.api.Test;
+import org.junitpioneer.jupiter.TempDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link BatchProjectGenerator}.
+ *
+ * @author Stephane Nicoll
+ */
+class BatchProjectGeneratorTests extends AbstractProjectGeneratorTests {
+
+	@Test
+	void createRequestWithCommaSeparatedDependencies() {
+		ProjectRequest request = createRequest(
+				attributes("dependencies", "web,security", "artifactId", "my-app"));
+		assertThat(request.getDependencies()).containsExactly("web", "security");
+		assertThat(request.getArtifactId()).isEqualTo("my-app");
+		assertThat(request.getGroupId()).isEqualTo("com.example");
+	}
+
+	@Test
+	void createRequestWithDependenciesList() {
+		ProjectRequest request = createRequest(
+				attributes("style", Arrays.asList("web", "security")));
+		assertThat(request.getStyle()).containsExactly("web", "security");
+	}
+
+	@Test
+	void createRequestWithUnknownAttribute() {
+		assertThatExceptionOfType(InvalidProjectRequestException.class)
+				.isThrownBy(() -> createRequest(attributes("unknown", "value")));
+	}
+
+	@Test
+	void generateKeepsOrderOfRequests() {
+		List<ProjectRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			requests.add(createRequest(attributes("artifactId", "app" + i, "dependencies",
+					(i % 2 == 0) ? "web" : "data-jpa")));
+		}
+		List<Result> results = new BatchProjectGenerator(this.projectGenerator,
+				new ForkJoinPool(4)).generate(requests);
+		assertThat(results).hasSize(20);
+		for (int i = 0; i < 20; i++) {
+			Result result = results.get(i);
+			assertThat(result.getRequest()).isSameAs(requests.get(i));
+			assertThat(result.getError()).isNull();
+			assertThat(new String(result.getContent().getEntry("pom.xml").getContent()))
+					.contains("<artifactId>app" + i + "</artifactId>");
+			assertThat(result.getContent().getEntry("src/main/resources/static/") != null)
+					.isEqualTo(i % 2 == 0);
+		}
+	}
+
+	@Test
+	void generateReportsFailedRequest() {
+		List<ProjectRequest> requests = Arrays.asList(
+				createRequest(attributes("dependencies", "web")),
+				createRequest(attributes("dependencies", "does-not-exist")));
+		List<Result> results = new BatchProjectGenerator(this.projectGenerator)
+				.generate(requests);
+		assertThat(results.get(0).getContent()).isNotNull();
+		assertThat(results.get(1).getContent()).isNull();
+		assertThat(results.get(1).getError())
+				.isInstanceOf(InvalidProjectRequestException.class);
+	}
+
+	@Test
+	void generateFromAttributesReportsInvalidRequest() {
+		InitializrMetadata metadata = this.projectGenerator.getMetadataProvider().get();
+		List<Result> results = new BatchProjectGenerator(this.projectGenerator)
+				.generateFromAttributes(Arrays.asList(attributes("artifactId", "first"),
+						attributes("unknown", "value"),
+						attributes("artifactId", "third")), metadata);
+		assertThat(results).hasSize(3);
+		assertThat(results.get(0).getContent()).isNotNull();
+		assertThat(results.get(1).getContent()).isNull();
+		assertThat(results.get(1).getError())
+				.isInstanceOf(InvalidProjectRequestException.class);
+		assertThat(results.get(2).getRequest().getArtifactId()).isEqualTo("third");
+		assertThat(results.get(2).getContent()).isNotNull();
+	}
+
+	@Test
+	void uniqueNames() {
+		List<Result> results = Arrays.asList(
+				new Result(createRequest(attributes("artifactId", "app")), null, null),
+				new Result(createRequest(attributes("artifactId", "app")), null, null),
+				new Result(createRequest(attributes("artifactId", "other")), null, null),
+				new Result(createRequest(attributes("artifactId", "app")), null, null));
+		assertThat(BatchProjectGenerator.uniqueNames(results)).containsExactly("app",
+				"app-2", "other", "app-3");
+	}
+
+	@Test
+	void uniqueNamesWithUnsafeArtifactIds() {
+		List<Result> results = Arrays.asList(
+				new Result(createRequest(attributes("artifactId", "../../etc/x")), null,
+						null),
+				new Result(createRequest(attributes("artifactId", "a\\b")), null, null),
+				new Result(createRequest(attributes("artifactId", "..")), null, null),
+				new Result(createRequest(attributes("artifactId", "")), null, null),
+				new Result(createRequest(attributes("artifactId", null)), null, null));
+		assertThat(BatchProjectGenerator.uniqueNames(results)).containsExactly("etc-x",
+				"a-b", "project", "project-2", "project-3");
+	}
+
+	@Test
+	void commandWithTraversalArtifactId(@TempDirectory.TempDir Path temp)
+			throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		File metadataFile = new File(temp.toFile(), "metadata.json");
+		objectMapper.writeValue(metadataFile,
+				this.projectGenerator.getMetadataProvider().get());
+		File requestsFile = new File(temp.toFile(), "requests.json");
+		objectMapper.writeValue(requestsFile,
+				Collections.singletonList(attributes("artifactId", "../escaped")));
+		File output = new File(temp.toFile(), "output");
+		int failures = new BatchProjectGeneratorCommand(
+				new PrintStream(new ByteArrayOutputStream()),
+				new PrintStream(new ByteArrayOutputStream())).run(metadataFile,
+						requestsFile, output);
+		assertThat(failures).isEqualTo(0);
+		assertThat(new File(temp.toFile(), "escaped")).doesNotExist();
+		new ProjectAssert(new File(output, "escaped")).isMavenProject();
+	}
+
+	@Test
+	void commandWithTraversalBaseDir(@TempDirectory.TempDir Path temp)
+			throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		File metadataFile = new File(temp.toFile(), "metadata.json");
+		objectMapper.writeValue(metadataFile,
+				this.projectGenerator.getMetadataProvider().get());
+		File requestsFile = new File(temp.toFile(), "requests.json");
+		objectMapper.writeValue(requestsFile, Collections.singletonList(
+				attributes("artifactId", "app", "baseDir", "../../escaped")));
+		File output = new File(temp.toFile(), "output");
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int failures = new BatchProjectGeneratorCommand(
+				new PrintStream(new ByteArrayOutputStream()), new PrintStream(err))
+						.run(metadataFile, requestsFile, output);
+		assertThat(failures).isEqualTo(1);
+		assertThat(err.toString()).startsWith("app: Entry '../");
+		assertThat(new File(temp.toFile(), "escaped")).doesNotExist();
+	}
+
+	@Test
+	void command(@TempDirectory.TempDir Path temp) throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		File metadataFile = new File(temp.toFile(), "metadata.json");
+		objectMapper.writeValue(metadataFile,
+				this.projectGenerator.getMetadataProvider().get());
+		File requestsFile = new File(temp.toFile(), "requests.json");
+		objectMapper.writeValue(requestsFile,
+				Arrays.asList(attributes("artifactId", "first", "dependencies", "web"),
+						attributes("artifactId", "second", "type", "gradle-project"),
+						attributes("artifactId", "third", "dependencies", "unknown")));
+		File output = new File(temp.toFile(), "output");
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int failures = new BatchProjectGeneratorCommand(
+				new PrintStream(new ByteArrayOutputStream()), new PrintStream(err))
+						.run(metadataFile, requestsFile, output);
+		assertThat(failures).isEqualTo(1);
+		assertThat(err.toString()).startsWith("third: ");
+		new ProjectAssert(new File(output, "first")).isMavenProject()
+				.hasExecutableFile("mvnw").pomAssert()
+				.hasSpringBootStarterDependency("web");
+		new ProjectAssert(new File(output, "second")).isGradleProject();
+		assertThat(new File(output, "third")).doesNotExist();
+	}
+
+	private ProjectRequest createRequest(Map<String, Object> attributes) {
+		InitializrMetadata metadata = this.projectGenerator.getMetadataProvider().get();
+		return BatchProjectGenerator.createRequest(attributes, metadata);
+	}
+
+	private static Map<String, Object> attributes(Object... keyValues) {
+		Map<String, Object> attributes = new HashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			attributes.put((String) keyValues[i], keyValues[i + 1]);
+		}
+		return Collections.unmodifiableMap(attributes);
+	}
+
+}
@@ -16,7 +16,14 @@
 
 package io.spring.initializr.generator;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
 
 import io.spring.initializr.metadata.BillOfMaterials;
 import io.spring.initializr.metadata.Dependency;
@@ -32,6 +39,10 @@ import org.springframework.core.io.ClassPathResource;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 /**
  * Tests for {@link ProjectGenerator}
@@ -81,6 +92,73 @@ class ProjectGeneratorTests extends AbstractProjectGeneratorTests {
 		verifyProjectSuccessfulEventFor(request);
 	}
 
+	@Test
+	void prepareProjectStructureDoesNotPublishEvent() {
+		ProjectRequest request = createProjectRequest("web");
+		new ProjectAssert(this.projectGenerator.prepareProjectStructure(request))
+				.isJavaProject().isMavenProject().pomAssert()
+				.hasSpringBootStarterDependency("web");
+		verifyNoMoreInteractions(this.eventPublisher);
+	}
+
+	@Test
+	void notifyProjectGeneratedResolvesRequestAndPublishesEvent() {
+		ProjectRequest request = createProjectRequest("web");
+		this.projectGenerator.notifyProjectGenerated(request);
+		assertThat(request.getResolvedDependencies()).extracting(Dependency::getId)
+				.contains("web");
+		verifyProjectSuccessfulEventFor(request);
+	}
+
+	@Test
+	void notifyProjectGeneratedWithInvalidRequestPublishesFailedEvent() {
+		ProjectRequest request = createProjectRequest("does-not-exist");
+		assertThatExceptionOfType(InvalidProjectRequestException.class)
+				.isThrownBy(() -> this.projectGenerator.notifyProjectGenerated(request));
+		verify(this.eventPublisher, times(1)).publishEvent(any(ProjectFailedEvent.class));
+	}
+
+	@Test
+	void projectContentMatchesProjectStructure() throws IOException {
+		ProjectRequest request = createProjectRequest("web");
+		request.setBaseDir("my-project");
+		ProjectContent content = this.projectGenerator.generateProjectContent(request);
+		ProjectRequest anotherRequest = createProjectRequest("web");
+		anotherRequest.setBaseDir("my-project");
+		Path dir = this.projectGenerator.generateProjectStructure(anotherRequest)
+				.toPath();
+		List<String> paths = new ArrayList<>();
+		try (Stream<Path> files = Files.walk(dir)) {
+			files.filter((path) -> !path.equals(dir)).forEach((path) -> paths
+					.add(dir.relativize(path).toString().replace(File.separatorChar, '/')
+							+ (Files.isDirectory(path) ? "/" : "")));
+		}
+		assertThat(content.getEntries()).extracting(ProjectContent.Entry::getPath)
+				.containsExactlyInAnyOrderElementsOf(paths);
+		for (ProjectContent.Entry entry : content.getEntries()) {
+			if (!entry.isDirectory()) {
+				assertThat(entry.getContent())
+						.isEqualTo(Files.readAllBytes(dir.resolve(entry.getPath())));
+			}
+		}
+		assertThat(content.getEntry("my-project/src/main/resources/static/")).isNotNull();
+		assertThat(content.getEntry("my-project/mvnw").getMode()).isEqualTo(0755);
+		assertThat(content.getEntry("my-project/pom.xml").getMode()).isEqualTo(0644);
+		assertThat(content.getEntry("my-project/pom.xml").getSha256()).hasSize(64);
+	}
+
+	@Test
+	void projectContentWithGradle() {
+		ProjectRequest request = createProjectRequest();
+		request.setType("gradle-project");
+		ProjectContent content = this.projectGenerator.generateProjectContent(request);
+		assertThat(content.getEntry("gradlew").isExecutable()).isTrue();
+		assertThat(content.getEntry("gradle/wrapper/gradle-wrapper.jar")).isNotNull();
+		assertThat(content.getEntry("settings.gradle")).isNotNull();
+		assertThat(content.getEntry("pom.xml")).isNull();
+		assertThat(content.getEntry("src/main/resources/static/")).isNull();
+	}
+
 	@Test
 	void noDependencyAddsRootStarter() {
 		ProjectRequest request = createProjectRequest();
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.generator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import io.spring.initializr.metadata.BillOfMaterials;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectRequestFingerprint}.
+ *
+ * @author Stephane Nicoll
+ */
+class ProjectRequestFingerprintTests {
+
+	@Test
+	void murmur3MatchesReferenceImplementation() {
+		assertThat(murmur3("")).isEqualTo("00000000000000000000000000000000");
+		assertThat(murmur3("hello")).isEqualTo("029bbd41b3a7d8cb191dae486a901e5b");
+		assertThat(murmur3("The quick brown fox jumps over the lazy dog"))
+				.isEqualTo("6c1b07bc7bbc4be347939ac4a93c437a");
+	}
+
+	@Test
+	void fingerprintIsStable() {
+		assertThat(createRequest().fingerprint())
+				.isEqualTo("21b5485f0b028cc39cfd3adc02cad3ff");
+	}
+
+	@Test
+	void fingerprintOfSameRequest() {
+		assertThat(createRequest().fingerprint())
+				.isEqualTo(createRequest().fingerprint());
+	}
+
+	@Test
+	void fingerprintIgnoresDependenciesOrder() {
+		ProjectRequest request = createRequest();
+		request.getDependencies().clear();
+		request.getDependencies().addAll(Arrays.asList("security", "web"));
+		assertThat(request.fingerprint()).isEqualTo(createRequest().fingerprint());
+	}
+
+	@Test
+	void fingerprintOfResolvedRequest() {
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("code", "web", "security").build();
+		ProjectRequest first = createResolvedRequest(metadata, "web", "security");
+		ProjectRequest second = createResolvedRequest(metadata, "security", "web");
+		assertThat(first.fingerprint()).hasSize(32).isEqualTo(second.fingerprint());
+		assertThat(createResolvedRequest(metadata, "web").fingerprint())
+				.isNotEqualTo(first.fingerprint());
+	}
+
+	@Test
+	void fingerprintWithMetadata() {
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		ProjectRequest request = createRequest();
+		assertThat(request.fingerprint(metadata, "42")).isEqualTo(request.fingerprint()
+				+ "-" + metadata.getBootVersions().getDefault().getId() + "-42");
+	}
+
+	@Test
+	void fingerprintWithMetadataIsDifferentForEachMetadataState() {
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		InitializrMetadata anotherMetadata = new InitializrMetadataTestBuilder()
+				.addBootVersion("2.0.3.RELEASE", true).build();
+		ProjectRequest request = createRequest();
+		Set<String> fingerprints = new HashSet<>();
+		fingerprints.add(request.fingerprint(metadata, "1"));
+		fingerprints.add(request.fingerprint(metadata, "2"));
+		fingerprints.add(request.fingerprint(anotherMetadata, "1"));
+		assertThat(fingerprints).hasSize(3);
+	}
+
+	@Test
+	void fingerprintWithMetadataWithoutDefaultBootVersion() {
+		InitializrMetadata metadata = new InitializrMetadataTestBuilder().build();
+		ProjectRequest request = createRequest();
+		assertThat(request.fingerprint(metadata, "1"))
+				.isEqualTo(request.fingerprint() + "-none-1");
+	}
+
+	@Test
+	void fingerprintIsDifferentForEachAttribute() {
+		Set<String> fingerprints = new HashSet<>();
+		fingerprints.add(createRequest().fingerprint());
+		assertUnique(fingerprints, (it) -> it.getDependencies().add("data-jpa"));
+		assertUnique(fingerprints, (it) -> it.setBootVersion("2.1.2.RELEASE"));
+		assertUnique(fingerprints, (it) -> it.setType("gradle-project"));
+		assertUnique(fingerprints, (it) -> it.setBuild("gradle"));
+		assertUnique(fingerprints, (it) -> it.setLanguage("kotlin"));
+		assertUnique(fingerprints, (it) -> it.setPackaging("war"));
+		assertUnique(fingerprints, (it) -> it.setJavaVersion("11"));
+		assertUnique(fingerprints, (it) -> it.setGroupId("com.acme"));
+		assertUnique(fingerprints, (it) -> it.setArtifactId("another"));
+		assertUnique(fingerprints, (it) -> it.setVersion("1.0.0"));
+		assertUnique(fingerprints, (it) -> it.setName("another"));
+		assertUnique(fingerprints, (it) -> it.setDescription("Another project"));
+		assertUnique(fingerprints, (it) -> it.setApplicationName("AnotherApplication"));
+		assertUnique(fingerprints, (it) -> it.setPackageName("com.acme"));
+		assertUnique(fingerprints, (it) -> it.setBaseDir("demo"));
+		assertUnique(fingerprints, (it) -> it.setBaseDir(""));
+		assertUnique(fingerprints, (it) -> it.getBoms().put("acme",
+				BillOfMaterials.create("com.acme", "acme-bom", "1.0.0")));
+		assertUnique(fingerprints, (it) -> it.getRepositories().put("acme", null));
+		assertUnique(fingerprints,
+				(it) -> it.getBuildProperties().getMaven().put("foo", () -> "bar"));
+		assertUnique(fingerprints,
+				(it) -> it.getBuildProperties().getGradle().put("foo", () -> "bar"));
+	}
+
+	@Test
+	void fingerprintDoesNotConfuseAdjacentValues() {
+		ProjectRequest first = createRequest();
+		first.setGroupId("com.example.demo");
+		first.setArtifactId("app");
+		ProjectRequest second = createRequest();
+		second.setGroupId("com.example");
+		second.setArtifactId("demo.app");
+		assertThat(first.fingerprint()).isNotEqualTo(second.fingerprint());
+	}
+
+	private static void assertUnique(Set<String> fingerprints,
+			Consumer<ProjectRequest> customizer) {
+		ProjectRequest request = createRequest();
+		customizer.accept(request);
+		assertThat(fingerprints.add(request.fingerprint())).isTrue();
+	}
+
+	private static String murmur3(String text) {
+		return ProjectRequestFingerprint.toHex(
+				ProjectRequestFingerprint.murmur3(text.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static ProjectRequest createResolvedRequest(InitializrMetadata metadata,
+			String... dependencies) {
+		ProjectRequest request = new ProjectRequest();
+		request.initialize(metadata);
+		request.getDependencies().addAll(Arrays.asList(dependencies));
+		request.resolve(metadata);
+		return request;
+	}
+
+	private static ProjectRequest createRequest() {
+		ProjectRequest request = new ProjectRequest();
+		request.getDependencies().addAll(Arrays.asList("web", "security"));
+		request.setBootVersion("2.1.1.RELEASE");
+		request.setType("maven-project");
+		request.setLanguage("java");
+		request.setPackaging("jar");
+		request.setJavaVersion("1.8");
+		request.setGroupId("com.example");
+		request.setArtifactId("demo");
+		request.setVersion("0.0.1-SNAPSHOT");
+		request.setName("demo");
+		request.setDescription("Demo project for Spring Boot");
+		request.setApplicationName("DemoApplication");
+		request.setPackageName("com.example.demo");
+		return request;
+	}
+
+}
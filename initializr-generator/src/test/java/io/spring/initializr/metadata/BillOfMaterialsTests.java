@@ -59,6 +59,30 @@ class BillOfMaterialsTests {
 		assertThat(resolved.getAdditionalBoms().get(0)).isEqualTo("bom-main");
 	}
 
+	@Test
+	void resolveReturnsNewInstance() {
+		BillOfMaterials bom = BillOfMaterials.create("com.example", "bom", "1.0.0");
+		bom.getMappings().add(Mapping.create("[1.2.0.RELEASE,1.3.0.M1)", "1.1.0"));
+		bom.validate();
+		BillOfMaterials resolved = bom.resolve(Version.parse("1.2.3.RELEASE"));
+		resolved.getRepositories().add("another");
+		assertThat(bom.resolve(Version.parse("1.2.3.RELEASE"))).isNotSameAs(resolved)
+				.satisfies((it) -> assertThat(it.getRepositories()).isEmpty());
+	}
+
+	@Test
+	void resolveAfterMappingsAreModified() {
+		BillOfMaterials bom = BillOfMaterials.create("com.example", "bom", "1.0.0");
+		bom.getMappings().add(Mapping.create("[1.2.0.RELEASE,1.3.0.M1)", "1.1.0"));
+		bom.validate();
+		assertThat(bom.resolve(Version.parse("1.2.3.RELEASE")).getVersion())
+				.isEqualTo("1.1.0");
+		bom.getMappings().set(0, Mapping.create("[1.2.0.RELEASE,1.3.0.M1)", "1.2.0"));
+		bom.validate();
+		assertThat(bom.resolve(Version.parse("1.2.3.RELEASE")).getVersion())
+				.isEqualTo("1.2.0");
+	}
+
 	@Test
 	void resolveSimpleRangeWithGroupIdArtifactId() {
 		BillOfMaterials bom = BillOfMaterials.create("com.example", "bom", "1.0.0");
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.metadata;
+
+import java.util.Collections;
+
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import io.spring.initializr.util.Version;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DependencyCompatibilityMatrix}.
+ *
+ * @author Stephane Nicoll
+ */
+class DependencyCompatibilityMatrixTests {
+
+	@Test
+	void compatibleDependenciesForKnownVersion() {
+		InitializrMetadata metadata = createMetadata();
+		DependencyCompatibilityMatrix matrix = metadata.getDependencyCompatibility();
+		assertThat(matrix.getCompatibleDependencies(Version.parse("2.0.3.RELEASE")))
+				.extracting(Dependency::getId).containsExactly("web", "legacy");
+		assertThat(matrix.getCompatibleDependencies(Version.parse("2.1.1.RELEASE")))
+				.extracting(Dependency::getId).containsExactly("web", "reactive");
+	}
+
+	@Test
+	void compatibleDependenciesForUnknownVersion() {
+		InitializrMetadata metadata = createMetadata();
+		DependencyCompatibilityMatrix matrix = metadata.getDependencyCompatibility();
+		assertThat(matrix.getCompatibleDependencies(Version.parse("2.1.5.RELEASE")))
+				.extracting(Dependency::getId).containsExactly("web", "reactive");
+	}
+
+	@Test
+	void isCompatibleWithKnownVersion() {
+		InitializrMetadata metadata = createMetadata();
+		DependencyCompatibilityMatrix matrix = metadata.getDependencyCompatibility();
+		Version version = Version.parse("2.0.3.RELEASE");
+		Dependency legacy = metadata.getDependencies().get("legacy");
+		assertThat(matrix.isCompatible(legacy, version)).isTrue();
+		assertThat(
+				matrix.isCompatible(metadata.getDependencies().get("reactive"), version))
+						.isFalse();
+		assertThat(matrix.isCompatible(legacy.resolve(version), version)).isTrue();
+	}
+
+	@Test
+	void isCompatibleWithUnknownDependency() {
+		DependencyCompatibilityMatrix matrix = createMetadata()
+				.getDependencyCompatibility();
+		Dependency dependency = Dependency.withId("another", "org.foo", "another");
+		dependency.setVersionRange("2.1.0.RELEASE");
+		dependency.resolve();
+		assertThat(matrix.isCompatible(dependency, Version.parse("2.0.3.RELEASE")))
+				.isFalse();
+		assertThat(matrix.isCompatible(dependency, Version.parse("2.1.1.RELEASE")))
+				.isTrue();
+	}
+
+	@Test
+	void matrixIsRecomputedWhenMetadataChanges() {
+		InitializrMetadata metadata = createMetadata();
+		DependencyCompatibilityMatrix matrix = metadata.getDependencyCompatibility();
+		assertThat(metadata.getDependencyCompatibility()).isSameAs(matrix);
+		metadata.updateSpringBootVersions(Collections
+				.singletonList(DefaultMetadataElement.create("2.1.5.RELEASE", true)));
+		assertThat(metadata.getDependencyCompatibility()).isNotSameAs(matrix);
+	}
+
+	private static InitializrMetadata createMetadata() {
+		Dependency web = Dependency.withId("web", "org.foo", "web");
+		Dependency legacy = Dependency.withId("legacy", "org.foo", "legacy");
+		legacy.setVersionRange("[2.0.0.RELEASE,2.1.0.RELEASE)");
+		Dependency reactive = Dependency.withId("reactive", "org.foo", "reactive");
+		reactive.setVersionRange("2.1.0.RELEASE");
+		return InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", web, legacy, reactive).build();
+	}
+
+}
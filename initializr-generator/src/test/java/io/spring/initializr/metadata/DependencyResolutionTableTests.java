@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.metadata;
+
+import java.util.Collections;
+
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import io.spring.initializr.util.Version;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link DependencyResolutionTable}.
+ *
+ * @author Stephane Nicoll
+ */
+class DependencyResolutionTableTests {
+
+	@Test
+	void getDependencyForKnownVersionIsShared() {
+		InitializrMetadata metadata = createMetadata();
+		DependencyResolutionTable table = metadata.getDependencyResolution();
+		Version version = Version.parse("2.0.3.RELEASE");
+		Dependency dependency = table.getDependency("web", version);
+		assertThat(dependency.getVersion()).isEqualTo("1.0.0");
+		assertThat(table.getDependency("web", version)).isSameAs(dependency);
+		assertThat(table.getDependency("the-web", version)).isSameAs(dependency);
+		assertThat(table.getDependency("unknown", version)).isNull();
+	}
+
+	@Test
+	void getDependencyForUnknownVersion() {
+		DependencyResolutionTable table = createMetadata().getDependencyResolution();
+		assertThat(
+				table.getDependency("web", Version.parse("2.1.5.RELEASE")).getVersion())
+						.isEqualTo("2.0.0");
+		assertThat(table.getDependency("unknown", Version.parse("2.1.5.RELEASE")))
+				.isNull();
+	}
+
+	@Test
+	void getBomsIncludesAdditionalBomsFirst() {
+		DependencyResolutionTable table = createMetadata().getDependencyResolution();
+		Version version = Version.parse("2.1.1.RELEASE");
+		assertThat(table.getBoms("foo-bom", version).keySet()).containsExactly("biz-bom",
+				"bar-bom", "foo-bom");
+		assertThat(table.getBoms("foo-bom", version).get("foo-bom").getVersion())
+				.isEqualTo("2.0");
+		assertThat(table.getBoms("foo-bom", version))
+				.isSameAs(table.getBoms("foo-bom", version));
+	}
+
+	@Test
+	void getBomsWithNoMappingForVersion() {
+		DependencyResolutionTable table = createMetadata().getDependencyResolution();
+		assertThatIllegalStateException().isThrownBy(
+				() -> table.getBoms("foo-bom", Version.parse("1.5.0.RELEASE")));
+	}
+
+	@Test
+	void tableIsRecomputedWhenMetadataChanges() {
+		InitializrMetadata metadata = createMetadata();
+		DependencyResolutionTable table = metadata.getDependencyResolution();
+		assertThat(metadata.getDependencyResolution()).isSameAs(table);
+		metadata.updateSpringBootVersions(Collections
+				.singletonList(DefaultMetadataElement.create("2.1.5.RELEASE", true)));
+		assertThat(metadata.getDependencyResolution()).isNotSameAs(table);
+	}
+
+	@Test
+	void tableIsRecomputedWhenModifiedMetadataIsValidated() {
+		InitializrMetadata metadata = createMetadata();
+		Version version = Version.parse("2.1.5.RELEASE");
+		assertThat(metadata.getDependencyResolution().getDependency("web", version)
+				.getVersion()).isEqualTo("2.0.0");
+		metadata.getDependencies().get("web").getMappings()
+				.add(Dependency.Mapping.create("2.1.0.RELEASE", null, null, "3.0.0"));
+		metadata.validate();
+		assertThat(metadata.getDependencyResolution().getDependency("web", version)
+				.getVersion()).isEqualTo("3.0.0");
+	}
+
+	private static InitializrMetadata createMetadata() {
+		Dependency web = Dependency.withId("web", "org.foo", "web", "2.0.0");
+		web.getAliases().add("the-web");
+		web.getMappings().add(Dependency.Mapping.create("[2.0.0.RELEASE,2.1.0.RELEASE)",
+				null, null, "1.0.0"));
+		BillOfMaterials foo = BillOfMaterials.create("org.foo", "foo-bom");
+		foo.getMappings().add(
+				BillOfMaterials.Mapping.create("[2.0.0.RELEASE,2.1.0.RELEASE)", "1.0"));
+		BillOfMaterials.Mapping mapping = BillOfMaterials.Mapping.create("2.1.0.RELEASE",
+				"2.0");
+		mapping.getAdditionalBoms().add("bar-bom");
+		foo.getMappings().add(mapping);
+		BillOfMaterials bar = BillOfMaterials.create("org.foo", "bar-bom", "1.0");
+		bar.getAdditionalBoms().add("biz-bom");
+		BillOfMaterials biz = BillOfMaterials.create("org.foo", "biz-bom", "1.0");
+		return InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", web).addBom("foo-bom", foo)
+				.addBom("bar-bom", bar).addBom("biz-bom", biz).build();
+	}
+
+}
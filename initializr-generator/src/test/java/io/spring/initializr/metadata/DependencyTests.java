@@ -190,6 +190,59 @@ class DependencyTests {
 				"org.springframework.boot", "spring-boot-starter-web", "0.3.0.RELEASE"); // default
 	}
 
+	@Test
+	void resolveMatchingVersionMappingReturnsNewInstance() {
+		Dependency dependency = Dependency.withId("web", null, null, "0.3.0.RELEASE");
+		dependency.getMappings().add(Dependency.Mapping
+				.create("[1.1.0.RELEASE, 1.2.0.RELEASE)", null, null, "0.1.0.RELEASE"));
+		dependency.resolve();
+		Dependency resolved = dependency.resolve(Version.parse("1.1.5.RELEASE"));
+		resolved.setVersion("9.9.9");
+		assertThat(dependency.resolve(Version.parse("1.1.7.RELEASE")))
+				.isNotSameAs(resolved).extracting(Dependency::getVersion)
+				.isEqualTo("0.1.0.RELEASE");
+	}
+
+	@Test
+	void resolveAfterMappingsAreModified() {
+		Dependency dependency = Dependency.withId("web", null, null, "0.3.0.RELEASE");
+		dependency.getMappings().add(Dependency.Mapping
+				.create("[1.1.0.RELEASE, 1.2.0.RELEASE)", null, null, "0.1.0.RELEASE"));
+		dependency.resolve();
+		assertThat(dependency.resolve(Version.parse("1.1.5.RELEASE")).getVersion())
+				.isEqualTo("0.1.0.RELEASE");
+		dependency.getMappings().set(0, Dependency.Mapping
+				.create("[1.1.0.RELEASE, 1.2.0.RELEASE)", null, null, "0.2.0.RELEASE"));
+		dependency.resolve();
+		assertThat(dependency.resolve(Version.parse("1.1.5.RELEASE")).getVersion())
+				.isEqualTo("0.2.0.RELEASE");
+		dependency.getMappings().get(0).setVersion("0.4.0.RELEASE");
+		assertThat(dependency.resolve(Version.parse("1.1.5.RELEASE")).getVersion())
+				.isEqualTo("0.4.0.RELEASE");
+		dependency.getMappings().add(Dependency.Mapping
+				.create("[1.2.0.RELEASE, 1.3.0.RELEASE)", null, null, "0.5.0.RELEASE"));
+		dependency.resolve();
+		assertThat(dependency.resolve(Version.parse("1.2.0.RELEASE")).getVersion())
+				.isEqualTo("0.5.0.RELEASE");
+	}
+
+	@Test
+	void resolveAfterMappingsAreReplaced() {
+		Dependency dependency = Dependency.withId("web", null, null, "0.3.0.RELEASE");
+		dependency.getMappings().add(Dependency.Mapping
+				.create("[1.1.0.RELEASE, 1.2.0.RELEASE)", null, null, "0.1.0.RELEASE"));
+		dependency.resolve();
+		assertThat(dependency.resolve(Version.parse("1.1.5.RELEASE")).getVersion())
+				.isEqualTo("0.1.0.RELEASE");
+		Dependency another = Dependency.withId("web", null, null, "0.3.0.RELEASE");
+		another.getMappings().add(Dependency.Mapping
+				.create("[1.1.0.RELEASE, 1.2.0.RELEASE)", null, null, "0.2.0.RELEASE"));
+		another.resolve();
+		dependency.setMappings(another.getMappings());
+		assertThat(dependency.resolve(Version.parse("1.1.5.RELEASE")).getVersion())
+				.isEqualTo("0.2.0.RELEASE");
+	}
+
 	@Test
 	void resolveMatchArtifactMapping() {
 		Dependency dependency = Dependency.withId("web", null, null, "0.3.0.RELEASE");
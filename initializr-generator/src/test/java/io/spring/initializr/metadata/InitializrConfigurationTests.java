@@ -211,6 +211,22 @@ class InitializrConfigurationTests {
 				.isEqualTo("1.2.3");
 	}
 
+	@Test
+	void resolveKotlinVersionAfterMappingIsReplaced() {
+		Kotlin kotlin = this.properties.getEnv().getKotlin();
+		kotlin.setDefaultVersion("1.2.3");
+		kotlin.getMappings()
+				.add(createKotlinVersionMapping("[1.4.0.RELEASE,1.5.0.RELEASE)", "1.5"));
+		kotlin.validate();
+		assertThat(kotlin.resolveKotlinVersion(Version.parse("1.4.2.RELEASE")))
+				.isEqualTo("1.5");
+		kotlin.getMappings().set(0,
+				createKotlinVersionMapping("[1.4.0.RELEASE,1.5.0.RELEASE)", "1.6"));
+		kotlin.validate();
+		assertThat(kotlin.resolveKotlinVersion(Version.parse("1.4.2.RELEASE")))
+				.isEqualTo("1.6");
+	}
+
 	private Kotlin.Mapping createKotlinVersionMapping(String versionRange,
 			String kotlinVersion) {
 		Kotlin.Mapping mapping = new Kotlin.Mapping();
@@ -25,6 +25,7 @@ import io.spring.initializr.metadata.BillOfMaterials.Mapping;
 import io.spring.initializr.metadata.InitializrConfiguration.Env.Kotlin;
 import io.spring.initializr.metadata.InitializrConfiguration.Env.Maven.ParentPom;
 import io.spring.initializr.util.Version;
+import io.spring.initializr.util.VersionRange;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -187,6 +188,77 @@ class InitializrMetadataTests {
 						.isEqualTo("1.2");
 	}
 
+	@Test
+	void updateSpringBootVersionsOnlyReparsesWildcardRanges() {
+		InitializrMetadata metadata = initializeMetadata();
+		Dependency[] dependencies = new Dependency[2000];
+		for (int i = 0; i < dependencies.length; i++) {
+			Dependency dependency = Dependency.withId("dep-" + i);
+			dependency.getMappings().add(Dependency.Mapping
+					.create("[1.2.0.RELEASE,1.3.0.RELEASE)", null, null, "1.0." + i));
+			dependency.getMappings().add(Dependency.Mapping.create("1.3.x.BUILD-SNAPSHOT",
+					null, null, "2.0." + i));
+			dependencies[i] = dependency;
+		}
+		addTestDependencyGroup(metadata, dependencies);
+		metadata.validate();
+		metadata.updateSpringBootVersions(Arrays.asList(
+				DefaultMetadataElement.create("1.3.6.BUILD-SNAPSHOT", "1.3.6", false)));
+		Dependency dependency = metadata.getDependencies().get("dep-1234");
+		VersionRange fixedRange = dependency.getMappings().get(0).getRange();
+		assertThat(dependency.getMappings().get(1).getRange().getLowerVersion())
+				.isEqualTo(Version.parse("1.3.6.BUILD-SNAPSHOT"));
+		metadata.updateSpringBootVersions(Arrays.asList(
+				DefaultMetadataElement.create("1.3.7.BUILD-SNAPSHOT", "1.3.7", false)));
+		assertThat(dependency.getMappings().get(0).getRange()).isSameAs(fixedRange);
+		assertThat(dependency.getMappings().get(1).getRange().getLowerVersion())
+				.isEqualTo(Version.parse("1.3.7.BUILD-SNAPSHOT"));
+		assertThat(dependency.resolve(Version.parse("1.3.7.BUILD-SNAPSHOT")).getVersion())
+				.isEqualTo("2.0.1234");
+	}
+
+	@Test
+	void updateSpringBootVersionsIncrementsRevision() {
+		InitializrMetadata metadata = initializeMetadata();
+		long revision = metadata.getRevision();
+		metadata.updateSpringBootVersions(Arrays
+				.asList(DefaultMetadataElement.create("2.1.0.RELEASE", "2.1.0", true)));
+		assertThat(metadata.getRevision()).isGreaterThan(revision);
+	}
+
+	@Test
+	void updateSpringBootVersionsUpdatesRevisionTimestamp() {
+		InitializrMetadata metadata = initializeMetadata();
+		long timestamp = metadata.getRevisionTimestamp();
+		metadata.updateSpringBootVersions(Arrays
+				.asList(DefaultMetadataElement.create("2.1.0.RELEASE", "2.1.0", true)));
+		assertThat(metadata.getRevisionTimestamp()).isGreaterThanOrEqualTo(timestamp);
+	}
+
+	@Test
+	void validateIncrementsRevision() {
+		InitializrMetadata metadata = initializeMetadata();
+		long revision = metadata.getRevision();
+		metadata.validate();
+		assertThat(metadata.getRevision()).isGreaterThan(revision);
+	}
+
+	@Test
+	void dependencyCompatibilityIsUpdatedOnceModifiedMetadataIsValidated() {
+		InitializrMetadata metadata = initializeMetadata();
+		Dependency dependency = Dependency.withId("foo", "org.acme", "foo");
+		addTestDependencyGroup(metadata, dependency);
+		metadata.validate();
+		Version bootVersion = Version.parse("1.5.0.RELEASE");
+		assertThat(metadata.getDependencyCompatibility().isCompatible(dependency,
+				bootVersion)).isTrue();
+		dependency.setVersionRange("2.0.0.RELEASE");
+		dependency.resolve();
+		metadata.validate();
+		assertThat(metadata.getDependencyCompatibility().isCompatible(dependency,
+				bootVersion)).isFalse();
+	}
+
 	@Test
 	void invalidParentMissingVersion() {
 		InitializrMetadata metadata = initializeMetadata();
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.util;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TemplateRenderer}.
+ *
+ * @author Stephane Nicoll
+ */
+class TemplateRendererTests {
+
+	private final TemplateRenderer renderer = new TemplateRenderer();
+
+	@Test
+	void cacheStatistics() {
+		this.renderer.process("gitignore.tmpl", Collections.emptyMap());
+		this.renderer.process("gitignore.tmpl", Collections.emptyMap());
+		this.renderer.process("gitignore.tmpl", Collections.emptyMap());
+		assertThat(this.renderer.getCacheSize()).isEqualTo(1);
+		assertThat(this.renderer.getCacheHits()).isEqualTo(2);
+		assertThat(this.renderer.getCacheMisses()).isEqualTo(1);
+	}
+
+	@Test
+	void cacheStatisticsWithCacheDisabled() {
+		this.renderer.setCache(false);
+		this.renderer.process("gitignore.tmpl", Collections.emptyMap());
+		assertThat(this.renderer.getCacheSize()).isEqualTo(0);
+		assertThat(this.renderer.getCacheHits()).isEqualTo(0);
+		assertThat(this.renderer.getCacheMisses()).isEqualTo(0);
+	}
+
+	@Test
+	void clearCache() {
+		this.renderer.process("gitignore.tmpl", Collections.emptyMap());
+		this.renderer.clearCache();
+		assertThat(this.renderer.getCacheSize()).isEqualTo(0);
+		this.renderer.process("gitignore.tmpl", Collections.emptyMap());
+		assertThat(this.renderer.getCacheMisses()).isEqualTo(2);
+	}
+
+}
@@ -58,6 +58,53 @@ class VersionParserTests {
 				.isThrownBy(() -> this.parser.parse("foo"));
 	}
 
+	@Test
+	void parseInvalidVersionMessage() {
+		assertThatExceptionOfType(InvalidVersionException.class)
+				.isThrownBy(() -> this.parser.parse("1.2.0.RC1a"))
+				.withMessage("Could not determine version based on '1.2.0.RC1a': "
+						+ "version format is Minor.Major.Patch.Qualifier "
+						+ "(e.g. 1.0.5.RELEASE)");
+	}
+
+	@Test
+	void parseInvalidVersionWithEmptyQualifier() {
+		assertThatExceptionOfType(InvalidVersionException.class)
+				.isThrownBy(() -> this.parser.parse("1.2.0."));
+	}
+
+	@Test
+	void parseInvalidVersionWithWildcardAndDigit() {
+		assertThatExceptionOfType(InvalidVersionException.class)
+				.isThrownBy(() -> this.parser.parse("1.x1.0"));
+	}
+
+	@Test
+	void parseReturnsSameInstanceForSameText() {
+		assertThat(this.parser.parse("1.2.0.RELEASE"))
+				.isSameAs(this.parser.parse("1.2.0.RELEASE"));
+	}
+
+	@Test
+	void parseKeepsRecentlyUsedVersionInCache() {
+		Version version = this.parser.parse("1.2.0.RELEASE");
+		for (int i = 0; i < 500; i++) {
+			this.parser.parse("2.0." + i);
+			assertThat(this.parser.parse("1.2.0.RELEASE")).isSameAs(version);
+		}
+	}
+
+	@Test
+	void parseEvictsLeastRecentlyUsedVersion() {
+		Version version = this.parser.parse("1.2.0.RELEASE");
+		for (int i = 0; i < 500; i++) {
+			this.parser.parse("2.0." + i);
+		}
+		Version another = this.parser.parse("1.2.0.RELEASE");
+		assertThat(another).isEqualTo(version);
+		assertThat(another).isNotSameAs(version);
+	}
+
 	@Test
 	void safeParseInvalidVersion() {
 		assertThat(this.parser.safeParse("foo")).isNull();
@@ -122,6 +169,32 @@ class VersionParserTests {
 		assertThat(this.parser.parse("1.2.x").toString()).isEqualTo("1.2.999");
 	}
 
+	@Test
+	void parseVariableVersionSeveralMatches() {
+		List<Version> currentVersions = Arrays.asList(this.parser.parse("1.3.8.RELEASE"),
+				this.parser.parse("1.3.9.BUILD-SNAPSHOT"));
+		this.parser = new VersionParser(currentVersions);
+		assertThat(this.parser.parse("1.3.x").toString()).isEqualTo("1.3.999");
+	}
+
+	@Test
+	void parseVariableVersionMatchWithoutQualifier() {
+		List<Version> currentVersions = Arrays.asList(this.parser.parse("1.3.8"),
+				this.parser.parse("1.4.2.RELEASE"));
+		this.parser = new VersionParser(currentVersions);
+		assertThat(this.parser.parse("1.3.x").toString()).isEqualTo("1.3.8");
+		assertThat(this.parser.parse("1.3.x.RELEASE").toString())
+				.isEqualTo("1.3.999.RELEASE");
+	}
+
+	@Test
+	void hasWildcard() {
+		assertThat(VersionParser.hasWildcard("1.3.x.RELEASE")).isTrue();
+		assertThat(VersionParser.hasWildcard("[1.2.0.RELEASE,1.3.x.RELEASE)")).isTrue();
+		assertThat(VersionParser.hasWildcard("[1.2.0.RELEASE,1.3.0.RELEASE)")).isFalse();
+		assertThat(VersionParser.hasWildcard(null)).isFalse();
+	}
+
 	@Test
 	void invalidRange() {
 		assertThatExceptionOfType(InvalidVersionException.class)
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link VersionRangeIndex}.
+ *
+ * @author Stephane Nicoll
+ */
+class VersionRangeIndexTests {
+
+	private static final String[] QUALIFIERS = { "", ".M1", ".M2", ".RC1",
+			".BUILD-SNAPSHOT", ".RELEASE" };
+
+	@Test
+	void getWithNoMapping() {
+		VersionRangeIndex<String> index = VersionRangeIndex.of(Collections.emptyList(),
+				VersionParser.DEFAULT::parseRange, (it) -> it);
+		assertThat(index.size()).isEqualTo(0);
+		assertThat(index.get(Version.parse("1.0.0.RELEASE"))).isNull();
+	}
+
+	@Test
+	void getUsesFirstMatchingMapping() {
+		VersionRangeIndex<String> index = VersionRangeIndex.of(
+				Arrays.asList("[1.0.0.RELEASE,2.0.0.RELEASE)", "1.5.0.RELEASE",
+						"(2.0.0.RELEASE,2.1.0.M1]"),
+				VersionParser.DEFAULT::parseRange, (it) -> it);
+		assertThat(index.size()).isEqualTo(3);
+		assertThat(index.get(Version.parse("0.9.0.RELEASE"))).isNull();
+		assertThat(index.get(Version.parse("1.0.0.RELEASE")))
+				.isEqualTo("[1.0.0.RELEASE,2.0.0.RELEASE)");
+		assertThat(index.get(Version.parse("1.9.9.RELEASE")))
+				.isEqualTo("[1.0.0.RELEASE,2.0.0.RELEASE)");
+		assertThat(index.get(Version.parse("2.0.0.RELEASE"))).isEqualTo("1.5.0.RELEASE");
+		assertThat(index.get(Version.parse("2.1.0.M1"))).isEqualTo("1.5.0.RELEASE");
+		assertThat(index.get(Version.parse("3.0.0.RELEASE"))).isEqualTo("1.5.0.RELEASE");
+	}
+
+	@Test
+	void getHandlesExclusiveBounds() {
+		VersionRangeIndex<String> index = VersionRangeIndex.of(
+				Arrays.asList("(1.0.0.RELEASE,2.0.0.RELEASE)", "[2.0.0.RELEASE,2.0.0]"),
+				VersionParser.DEFAULT::parseRange, (it) -> it);
+		assertThat(index.get(Version.parse("1.0.0.RELEASE"))).isNull();
+		assertThat(index.get(Version.parse("1.0.1.M1")))
+				.isEqualTo("(1.0.0.RELEASE,2.0.0.RELEASE)");
+		assertThat(index.get(Version.parse("2.0.0.BUILD-SNAPSHOT")))
+				.isEqualTo("(1.0.0.RELEASE,2.0.0.RELEASE)");
+		assertThat(index.get(Version.parse("2.0.0"))).isEqualTo("[2.0.0.RELEASE,2.0.0]");
+		assertThat(index.get(Version.parse("2.0.1.RELEASE"))).isNull();
+	}
+
+	@Test
+	void getIsConsistentWithLinearMatch() {
+		Random random = new Random(42);
+		for (int run = 0; run < 200; run++) {
+			List<VersionRange> ranges = new ArrayList<>();
+			int count = random.nextInt(8);
+			for (int i = 0; i < count; i++) {
+				ranges.add(randomRange(random));
+			}
+			VersionRangeIndex<VersionRange> index = VersionRangeIndex.of(ranges,
+					(it) -> it, (it) -> it);
+			for (int i = 0; i < 100; i++) {
+				Version version = randomVersion(random);
+				assertThat(index.get(version)).as("%s in %s", version, ranges)
+						.isSameAs(linearMatch(ranges, version));
+			}
+		}
+	}
+
+	private static VersionRange linearMatch(List<VersionRange> ranges, Version version) {
+		for (VersionRange range : ranges) {
+			if (range.match(version)) {
+				return range;
+			}
+		}
+		return null;
+	}
+
+	private static VersionRange randomRange(Random random) {
+		Version lower = randomVersion(random);
+		if (random.nextInt(4) == 0) {
+			return new VersionRange(lower);
+		}
+		Version higher = randomVersion(random);
+		if (lower.compareTo(higher) > 0) {
+			Version swap = lower;
+			lower = higher;
+			higher = swap;
+		}
+		return new VersionRange(lower, random.nextBoolean(), higher,
+				random.nextBoolean());
+	}
+
+	private static Version randomVersion(Random random) {
+		return Version.parse("2." + random.nextInt(3) + "." + random.nextInt(3)
+				+ QUALIFIERS[random.nextInt(QUALIFIERS.length)]);
+	}
+
+}
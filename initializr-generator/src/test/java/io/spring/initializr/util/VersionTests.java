@@ -16,6 +16,11 @@
 
 package io.spring.initializr.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Collections;
 
 import org.junit.jupiter.api.Test;
@@ -123,6 +128,58 @@ class VersionTests {
 		assertThat(parse("1.2.0.BUILD-SNAPSHOT")).isLessThan(parse("1.2.0.RELEASE"));
 	}
 
+	@Test
+	void compareUnknownQualifierWithKnownQualifier() {
+		assertThat(parse("1.2.0.Beta2")).isLessThan(parse("1.2.0.M1"));
+		assertThat(parse("1.2.0.RC1")).isGreaterThan(parse("1.2.0.Beta2"));
+	}
+
+	@Test
+	void compareNoQualifierWithRelease() {
+		assertThat(parse("1.2.0")).isEqualByComparingTo(parse("1.2.0.RELEASE"));
+		assertThat(parse("1.2.0")).isGreaterThan(parse("1.2.0.BUILD-SNAPSHOT"));
+	}
+
+	@Test
+	void compareLargeComponents() {
+		assertThat(parse("2019.0.0.RELEASE")).isGreaterThan(parse("2018.99.99.RELEASE"));
+		assertThat(parse("10000.0.0")).isGreaterThan(parse("9999.0.0"));
+		assertThat(parse("1.2.20190101")).isGreaterThan(parse("1.2.3"));
+		assertThat(parse("1.2.3.M20190101")).isGreaterThan(parse("1.2.3.M2"));
+		assertThat(parse("1.2.3.M20190101")).isLessThan(parse("1.2.3.RC1"));
+	}
+
+	@Test
+	void compareVersionWithQualifierVersion() {
+		Version version = new Version(1, 2, 0, new Version.Qualifier("RC", 2));
+		assertThat(version).isEqualTo(parse("1.2.0.RC2"));
+		assertThat(version).isEqualByComparingTo(parse("1.2.0.RC2"));
+		assertThat(version).isGreaterThan(parse("1.2.0.RC1"));
+		assertThat(version).isLessThan(parse("1.2.0.RC3"));
+	}
+
+	@Test
+	void compareDeserializedVersion() throws Exception {
+		Version version = parse("1.2.0.RC1");
+		Version copy = serializeAndDeserialize(version);
+		assertThat(copy).isEqualTo(version);
+		assertThat(copy).isEqualByComparingTo(version);
+		assertThat(copy).isLessThan(parse("1.2.0.RELEASE"));
+		assertThat(copy).isGreaterThan(parse("1.2.0.M3"));
+	}
+
+	private static Version serializeAndDeserialize(Version version)
+			throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+			stream.writeObject(version);
+		}
+		try (ObjectInputStream stream = new ObjectInputStream(
+				new ByteArrayInputStream(out.toByteArray()))) {
+			return (Version) stream.readObject();
+		}
+	}
+
 	private Version parse(String text) {
 		return this.parser.parse(text);
 	}
@@ -18,6 +18,7 @@ package io.spring.initializr.web.autoconfigure;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.cache.configuration.MutableConfiguration;
 import javax.cache.expiry.CreatedExpiryPolicy;
@@ -35,8 +36,19 @@ import io.spring.initializr.metadata.InitializrMetadataProvider;
 import io.spring.initializr.metadata.InitializrProperties;
 import io.spring.initializr.util.TemplateRenderer;
 import io.spring.initializr.web.project.MainController;
+import io.spring.initializr.web.project.PopularProjectRequests;
+import io.spring.initializr.web.project.ProjectArchiveCache;
+import io.spring.initializr.web.project.ProjectArchiveGenerator;
+import io.spring.initializr.web.project.ProjectArchivePrewarmer;
+import io.spring.initializr.web.project.ProjectArchiveProperties;
+import io.spring.initializr.web.project.ProjectGenerationMonitor;
+import io.spring.initializr.web.project.RequestResourceUsageInterceptor;
+import io.spring.initializr.web.project.RequestResourceUsageListener;
+import io.spring.initializr.web.project.ResourcePopularProjectRequests;
 import io.spring.initializr.web.support.DefaultDependencyMetadataProvider;
 import io.spring.initializr.web.support.DefaultInitializrMetadataProvider;
+import io.spring.initializr.web.support.InitializrWarmup;
+import io.spring.initializr.web.support.WarmupProperties;
 import io.spring.initializr.web.ui.UiController;
 
 import org.springframework.beans.factory.ObjectProvider;
@@ -44,6 +56,7 @@ import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
@@ -53,6 +66,7 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.resource.ResourceUrlProvider;
 
 /**
@@ -66,7 +80,8 @@ import org.springframework.web.servlet.resource.ResourceUrlProvider;
  * @author Stephane Nicoll
  */
 @Configuration
-@EnableConfigurationProperties(InitializrProperties.class)
+@EnableConfigurationProperties({ InitializrProperties.class,
+		ProjectArchiveProperties.class, WarmupProperties.class })
 @AutoConfigureAfter({ JacksonAutoConfiguration.class,
 		RestTemplateAutoConfiguration.class })
 public class InitializrAutoConfiguration {
@@ -124,6 +139,17 @@ public class InitializrAutoConfiguration {
 		return new DefaultDependencyMetadataProvider();
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "initializr.warmup", name = "enabled")
+	public InitializrWarmup initializrWarmup(ProjectGenerator projectGenerator,
+			InitializrMetadataProvider metadataProvider,
+			DependencyMetadataProvider dependencyMetadataProvider,
+			TemplateRenderer templateRenderer, WarmupProperties properties) {
+		return new InitializrWarmup(projectGenerator, metadataProvider,
+				dependencyMetadataProvider, templateRenderer, properties);
+	}
+
 	/**
 	 * Initializr web configuration.
 	 */
@@ -132,8 +158,14 @@ public class InitializrAutoConfiguration {
 	static class InitializrWebConfiguration {
 
 		@Bean
-		public InitializrWebConfig initializrWebConfig() {
-			return new InitializrWebConfig();
+		public InitializrWebConfig initializrWebConfig(
+				InitializrMetadataProvider metadataProvider,
+				ObjectProvider<RequestResourceUsageListener> resourceUsageListeners) {
+			List<RequestResourceUsageListener> listeners = resourceUsageListeners
+					.orderedStream().collect(Collectors.toList());
+			return new InitializrWebConfig((!listeners.isEmpty())
+					? new RequestResourceUsageInterceptor(metadataProvider, listeners)
+					: null);
 		}
 
 		@Bean
@@ -143,9 +175,61 @@ public class InitializrAutoConfiguration {
 				TemplateRenderer templateRenderer,
 				ResourceUrlProvider resourceUrlProvider,
 				ProjectGenerator projectGenerator,
-				DependencyMetadataProvider dependencyMetadataProvider) {
+				DependencyMetadataProvider dependencyMetadataProvider,
+				ObjectMapper objectMapper, ProjectArchiveGenerator archiveGenerator) {
 			return new MainController(metadataProvider, templateRenderer,
-					resourceUrlProvider, projectGenerator, dependencyMetadataProvider);
+					resourceUrlProvider, projectGenerator, dependencyMetadataProvider,
+					objectMapper, archiveGenerator);
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public ProjectArchiveCache projectArchiveCache(
+				ProjectArchiveProperties properties) {
+			return new ProjectArchiveCache(properties.getCache().getMaxSize().toBytes());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public ProjectGenerationMonitor projectGenerationMonitor(
+				ProjectArchiveProperties properties) {
+			ProjectArchiveProperties.Monitor monitor = properties.getMonitor();
+			return new ProjectGenerationMonitor(monitor.getSlowThreshold(),
+					monitor.getSlowGenerations());
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public ProjectArchiveGenerator projectArchiveGenerator(
+				ProjectGenerator projectGenerator, ProjectArchiveCache archiveCache,
+				ProjectGenerationMonitor generationMonitor) {
+			return new ProjectArchiveGenerator(projectGenerator, archiveCache,
+					generationMonitor);
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = "initializr.archives.prewarm", name = "enabled")
+		public ProjectArchivePrewarmer projectArchivePrewarmer(
+				ProjectArchiveGenerator archiveGenerator,
+				ProjectArchiveCache archiveCache,
+				InitializrMetadataProvider metadataProvider,
+				ProjectArchiveProperties properties, ObjectMapper objectMapper,
+				ObjectProvider<PopularProjectRequests> popularRequests) {
+			if (archiveCache.getMaxSize() <= 0) {
+				throw new IllegalStateException("Prewarming project archives requires "
+						+ "the archive cache, set 'initializr.archives.cache.max-size' "
+						+ "to a positive size or disable "
+						+ "'initializr.archives.prewarm.enabled'");
+			}
+			List<PopularProjectRequests> sources = new ArrayList<>();
+			Resource location = properties.getPrewarm().getLocation();
+			if (location != null) {
+				sources.add(new ResourcePopularProjectRequests(location, objectMapper));
+			}
+			popularRequests.orderedStream().forEach(sources::add);
+			return new ProjectArchivePrewarmer(archiveGenerator, metadataProvider,
+					sources, properties.getPrewarm());
 		}
 
 		@Bean
@@ -23,6 +23,7 @@ import javax.servlet.http.HttpServletRequest;
 
 import io.spring.initializr.util.Agent;
 import io.spring.initializr.util.Agent.AgentId;
+import io.spring.initializr.web.project.RequestResourceUsageInterceptor;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -30,7 +31,9 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.accept.ContentNegotiationStrategy;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.util.UrlPathHelper;
@@ -42,11 +45,40 @@ import org.springframework.web.util.UrlPathHelper;
  */
 public class InitializrWebConfig implements WebMvcConfigurer {
 
+	private final RequestResourceUsageInterceptor resourceUsageInterceptor;
+
+	public InitializrWebConfig() {
+		this(null);
+	}
+
+	/**
+	 * Create an instance that measures the resources used by each request.
+	 * @param resourceUsageInterceptor the interceptor to use or {@code null} to not
+	 * measure the resource usage of requests
+	 */
+	public InitializrWebConfig(RequestResourceUsageInterceptor resourceUsageInterceptor) {
+		this.resourceUsageInterceptor = resourceUsageInterceptor;
+	}
+
 	@Override
 	public void addViewControllers(ViewControllerRegistry registry) {
 		registry.addRedirectViewController("/info", "/actuator/info");
 	}
 
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		if (this.resourceUsageInterceptor != null) {
+			registry.addInterceptor(this.resourceUsageInterceptor);
+		}
+	}
+
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		if (this.resourceUsageInterceptor != null) {
+			configurer.registerCallableInterceptors(this.resourceUsageInterceptor);
+		}
+	}
+
 	@Override
 	public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
 		configurer
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2018 the original author or authors.
+ * Copyright 2012-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,13 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import io.spring.initializr.metadata.BillOfMaterials;
 import io.spring.initializr.metadata.Dependency;
 import io.spring.initializr.metadata.DependencyMetadata;
@@ -35,69 +35,101 @@ import io.spring.initializr.metadata.Repository;
  */
 public class DependencyMetadataV21JsonMapper implements DependencyMetadataJsonMapper {
 
-	private static final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
+	private static final JsonFactory jsonFactory = new JsonFactory();
 
 	@Override
 	public String write(DependencyMetadata metadata) {
-		ObjectNode json = nodeFactory.objectNode();
-		json.put("bootVersion", metadata.getBootVersion().toString());
-		json.set("dependencies",
-				mapNode(metadata.getDependencies().entrySet().stream()
-						.collect(Collectors.toMap(Map.Entry::getKey,
-								(entry) -> mapDependency(entry.getValue())))));
-		json.set("repositories",
-				mapNode(metadata.getRepositories().entrySet().stream()
-						.collect(Collectors.toMap(Map.Entry::getKey,
-								(entry) -> mapRepository(entry.getValue())))));
-		json.set("boms", mapNode(metadata.getBoms().entrySet().stream().collect(Collectors
-				.toMap(Map.Entry::getKey, (entry) -> mapBom(entry.getValue())))));
-		return json.toString();
+		StringWriter out = new StringWriter(4096);
+		try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+			generator.writeStartObject();
+			generator.writeStringField("bootVersion",
+					metadata.getBootVersion().toString());
+			generator.writeObjectFieldStart("dependencies");
+			for (Map.Entry<String, Dependency> entry : hashOrdered(
+					metadata.getDependencies()).entrySet()) {
+				generator.writeFieldName(entry.getKey());
+				writeDependency(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+			generator.writeObjectFieldStart("repositories");
+			for (Map.Entry<String, Repository> entry : hashOrdered(
+					metadata.getRepositories()).entrySet()) {
+				generator.writeFieldName(entry.getKey());
+				writeRepository(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+			generator.writeObjectFieldStart("boms");
+			for (Map.Entry<String, BillOfMaterials> entry : hashOrdered(
+					metadata.getBoms()).entrySet()) {
+				generator.writeFieldName(entry.getKey());
+				writeBom(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot write dependency metadata", ex);
+		}
+		return out.toString();
 	}
 
-	private static JsonNode mapDependency(Dependency dep) {
-		ObjectNode node = nodeFactory.objectNode();
-		node.put("groupId", dep.getGroupId());
-		node.put("artifactId", dep.getArtifactId());
+	private static void writeDependency(JsonGenerator generator, Dependency dep)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("groupId", dep.getGroupId());
+		generator.writeStringField("artifactId", dep.getArtifactId());
 		if (dep.getVersion() != null) {
-			node.put("version", dep.getVersion());
+			generator.writeStringField("version", dep.getVersion());
 		}
-		node.put("scope", dep.getScope());
+		generator.writeStringField("scope", dep.getScope());
 		if (dep.getBom() != null) {
-			node.put("bom", dep.getBom());
+			generator.writeStringField("bom", dep.getBom());
 		}
 		if (dep.getRepository() != null) {
-			node.put("repository", dep.getRepository());
+			generator.writeStringField("repository", dep.getRepository());
 		}
-		return node;
+		generator.writeEndObject();
 	}
 
-	private static JsonNode mapRepository(Repository repo) {
-		ObjectNode node = nodeFactory.objectNode();
-		node.put("name", repo.getName())
-				.put("url", (repo.getUrl() != null) ? repo.getUrl().toString() : null)
-				.put("snapshotEnabled", repo.isSnapshotsEnabled());
-		return node;
+	private static void writeRepository(JsonGenerator generator, Repository repo)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("name", repo.getName());
+		generator.writeStringField("url",
+				(repo.getUrl() != null) ? repo.getUrl().toString() : null);
+		generator.writeBooleanField("snapshotEnabled", repo.isSnapshotsEnabled());
+		generator.writeEndObject();
 	}
 
-	private static JsonNode mapBom(BillOfMaterials bom) {
-		ObjectNode node = nodeFactory.objectNode();
-		node.put("groupId", bom.getGroupId());
-		node.put("artifactId", bom.getArtifactId());
+	private static void writeBom(JsonGenerator generator, BillOfMaterials bom)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("groupId", bom.getGroupId());
+		generator.writeStringField("artifactId", bom.getArtifactId());
 		if (bom.getVersion() != null) {
-			node.put("version", bom.getVersion());
+			generator.writeStringField("version", bom.getVersion());
 		}
 		if (bom.getRepositories() != null) {
-			ArrayNode array = nodeFactory.arrayNode();
-			bom.getRepositories().forEach(array::add);
-			node.set("repositories", array);
+			generator.writeArrayFieldStart("repositories");
+			for (String repository : bom.getRepositories()) {
+				generator.writeString(repository);
+			}
+			generator.writeEndArray();
 		}
-		return node;
+		generator.writeEndObject();
 	}
 
-	private static JsonNode mapNode(Map<String, JsonNode> content) {
-		ObjectNode node = nodeFactory.objectNode();
-		content.forEach(node::set);
-		return node;
+	/**
+	 * Return the specified entries in the order in which they have always been rendered,
+	 * so that the output of this endpoint (and its entity tag) does not change.
+	 * @param content the content to order
+	 * @param <T> the type of the values
+	 * @return the content, in {@link HashMap} order
+	 */
+	private static <T> Map<String, T> hashOrdered(Map<String, T> content) {
+		Map<String, T> ordered = new HashMap<>();
+		content.forEach(ordered::put);
+		return ordered;
 	}
 
 }
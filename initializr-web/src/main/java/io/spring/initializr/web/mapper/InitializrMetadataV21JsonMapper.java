@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2018 the original author or authors.
+ * Copyright 2012-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,10 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
 import java.util.List;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.spring.initializr.metadata.Dependency;
 import io.spring.initializr.metadata.Type;
@@ -45,6 +47,29 @@ public class InitializrMetadataV21JsonMapper extends InitializrMetadataV2JsonMap
 	}
 
 	@Override
+	protected void links(JsonGenerator generator, List<Type> types, String appUrl)
+			throws IOException {
+		super.links(generator, types, appUrl);
+		link(generator, "dependencies", dependenciesUri(appUrl));
+	}
+
+	@Override
+	protected void dependency(JsonGenerator generator, Dependency dependency)
+			throws IOException {
+		generator.writeStartObject();
+		valueFields(generator, dependency);
+		if (dependency.getVersionRange() != null) {
+			generator.writeStringField("versionRange", dependency.getVersionRange());
+		}
+		if (dependency.getLinks() != null && !dependency.getLinks().isEmpty()) {
+			generator.writeFieldName("_links");
+			LinkMapper.writeLinks(generator, dependency.getLinks());
+		}
+		generator.writeEndObject();
+	}
+
+	@Override
+	@Deprecated
 	protected ObjectNode links(ObjectNode parent, List<Type> types, String appUrl) {
 		ObjectNode links = super.links(parent, types, appUrl);
 		links.set("dependencies", dependenciesLink(appUrl));
@@ -53,6 +78,7 @@ public class InitializrMetadataV21JsonMapper extends InitializrMetadataV2JsonMap
 	}
 
 	@Override
+	@Deprecated
 	protected ObjectNode mapDependency(Dependency dependency) {
 		ObjectNode content = mapValue(dependency);
 		if (dependency.getVersionRange() != null) {
@@ -64,13 +90,18 @@ public class InitializrMetadataV21JsonMapper extends InitializrMetadataV2JsonMap
 		return content;
 	}
 
+	@SuppressWarnings("deprecation")
 	private ObjectNode dependenciesLink(String appUrl) {
-		String uri = (appUrl != null) ? appUrl + "/dependencies" : "/dependencies";
-		UriTemplate uriTemplate = new UriTemplate(uri, this.dependenciesVariables);
 		ObjectNode result = nodeFactory().objectNode();
-		result.put("href", uriTemplate.toString());
+		result.put("href", dependenciesUri(appUrl));
 		result.put("templated", true);
 		return result;
 	}
 
+	private String dependenciesUri(String appUrl) {
+		String uri = (appUrl != null) ? appUrl + "/dependencies" : "/dependencies";
+		UriTemplate uriTemplate = new UriTemplate(uri, this.dependenciesVariables);
+		return uriTemplate.toString();
+	}
+
 }
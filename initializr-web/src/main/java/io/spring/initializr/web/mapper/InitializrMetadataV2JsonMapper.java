@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2018 the original author or authors.
+ * Copyright 2012-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,15 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -38,19 +44,29 @@ import io.spring.initializr.metadata.TypeCapability;
 import org.springframework.hateoas.TemplateVariable;
 import org.springframework.hateoas.TemplateVariables;
 import org.springframework.hateoas.UriTemplate;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
- * A {@link InitializrMetadataJsonMapper} handling the metadata format for v2.
+ * A {@link InitializrMetadataJsonMapper} handling the metadata format for v2. The content
+ * is written as it goes using a {@link JsonGenerator}, without building an intermediate
+ * tree.
+ * <p>
+ * Subclasses that still override one of the deprecated {@link ObjectNode} based hooks are
+ * rendered using a tree, as before, so that their customizations are honoured.
  *
  * @author Stephane Nicoll
  */
 public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMapper {
 
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
 	private static final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
 
 	private final TemplateVariables templateVariables;
 
+	private final boolean treeHooks;
+
 	public InitializrMetadataV2JsonMapper() {
 		this.templateVariables = new TemplateVariables(
 				new TemplateVariable("dependencies",
@@ -74,14 +90,204 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 						TemplateVariable.VariableType.REQUEST_PARAM),
 				new TemplateVariable("packageName",
 						TemplateVariable.VariableType.REQUEST_PARAM));
+		this.treeHooks = overridesTreeHooks(getClass());
 	}
 
-	protected JsonNodeFactory nodeFactory() {
-		return nodeFactory;
+	// Whether the specified type overrides one of the deprecated tree-based hooks
+	private static boolean overridesTreeHooks(Class<?> type) {
+		for (Method hook : InitializrMetadataV2JsonMapper.class.getDeclaredMethods()) {
+			if (hook.isAnnotationPresent(Deprecated.class)) {
+				Method method = ReflectionUtils.findMethod(type, hook.getName(),
+						hook.getParameterTypes());
+				Class<?> declaringClass = method.getDeclaringClass();
+				if (declaringClass != InitializrMetadataV2JsonMapper.class
+						&& declaringClass != InitializrMetadataV21JsonMapper.class) {
+					return true;
+				}
+			}
+		}
+		return false;
 	}
 
 	@Override
 	public String write(InitializrMetadata metadata, String appUrl) {
+		StringWriter out = new StringWriter(8192);
+		try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+			write(generator, metadata, appUrl);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot write metadata", ex);
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Write a json representation of the specified metadata using the specified
+	 * {@link JsonGenerator}.
+	 * @param generator the generator to use
+	 * @param metadata the initializr metadata
+	 * @param appUrl the app URL
+	 * @throws IOException if the content cannot be written
+	 */
+	public void write(JsonGenerator generator, InitializrMetadata metadata, String appUrl)
+			throws IOException {
+		if (this.treeHooks) {
+			generator.writeRawValue(writeTree(metadata, appUrl).toString());
+			return;
+		}
+		generator.writeStartObject();
+		generator.writeObjectFieldStart("_links");
+		links(generator, metadata.getTypes().getContent(), appUrl);
+		generator.writeEndObject();
+		dependencies(generator, metadata.getDependencies());
+		type(generator, metadata.getTypes());
+		singleSelect(generator, metadata.getPackagings());
+		singleSelect(generator, metadata.getJavaVersions());
+		singleSelect(generator, metadata.getLanguages());
+		singleSelect(generator, metadata.getBootVersions());
+		text(generator, metadata.getGroupId());
+		text(generator, metadata.getArtifactId());
+		text(generator, metadata.getVersion());
+		text(generator, metadata.getName());
+		text(generator, metadata.getDescription());
+		text(generator, metadata.getPackageName());
+		generator.writeEndObject();
+	}
+
+	protected void links(JsonGenerator generator, List<Type> types, String appUrl)
+			throws IOException {
+		for (Type type : types) {
+			link(generator, type.getId(), generateTemplatedUri(appUrl, type));
+		}
+	}
+
+	protected void link(JsonGenerator generator, String rel, String templatedUri)
+			throws IOException {
+		generator.writeObjectFieldStart(rel);
+		generator.writeStringField("href", templatedUri);
+		generator.writeBooleanField("templated", true);
+		generator.writeEndObject();
+	}
+
+	private String generateTemplatedUri(String appUrl, Type type) {
+		String uri = (appUrl != null) ? appUrl + type.getAction() : type.getAction();
+		uri = uri + "?type=" + type.getId();
+		UriTemplate uriTemplate = new UriTemplate(uri, this.templateVariables);
+		return uriTemplate.toString();
+	}
+
+	protected void dependencies(JsonGenerator generator,
+			DependenciesCapability capability) throws IOException {
+		generator.writeObjectFieldStart(capability.getId());
+		generator.writeStringField("type", capability.getType().getName());
+		generator.writeArrayFieldStart("values");
+		for (DependencyGroup group : capability.getContent()) {
+			dependencyGroup(generator, group);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	protected void type(JsonGenerator generator, TypeCapability capability)
+			throws IOException {
+		generator.writeObjectFieldStart("type");
+		generator.writeStringField("type", "action");
+		Type defaultType = capability.getDefault();
+		if (defaultType != null) {
+			generator.writeStringField("default", defaultType.getId());
+		}
+		generator.writeArrayFieldStart("values");
+		for (Type type : capability.getContent()) {
+			typeValue(generator, type);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	protected void singleSelect(JsonGenerator generator,
+			SingleSelectCapability capability) throws IOException {
+		generator.writeObjectFieldStart(capability.getId());
+		generator.writeStringField("type", capability.getType().getName());
+		DefaultMetadataElement defaultType = capability.getDefault();
+		if (defaultType != null) {
+			generator.writeStringField("default", defaultType.getId());
+		}
+		generator.writeArrayFieldStart("values");
+		for (DefaultMetadataElement element : capability.getContent()) {
+			value(generator, element);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	protected void text(JsonGenerator generator, TextCapability capability)
+			throws IOException {
+		generator.writeObjectFieldStart(capability.getId());
+		generator.writeStringField("type", capability.getType().getName());
+		String defaultValue = capability.getContent();
+		if (StringUtils.hasText(defaultValue)) {
+			generator.writeStringField("default", defaultValue);
+		}
+		generator.writeEndObject();
+	}
+
+	protected void dependencyGroup(JsonGenerator generator, DependencyGroup group)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("name", group.getName());
+		if ((group instanceof Describable)
+				&& ((Describable) group).getDescription() != null) {
+			generator.writeStringField("description",
+					((Describable) group).getDescription());
+		}
+		generator.writeArrayFieldStart("values");
+		for (Dependency dependency : group.getContent()) {
+			dependency(generator, dependency);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	protected void dependency(JsonGenerator generator, Dependency dependency)
+			throws IOException {
+		if (dependency.getVersionRange() == null) {
+			// only map the dependency if no versionRange is set
+			value(generator, dependency);
+		}
+	}
+
+	protected void typeValue(JsonGenerator generator, Type type) throws IOException {
+		generator.writeStartObject();
+		valueFields(generator, type);
+		generator.writeStringField("action", type.getAction());
+		generator.writeObjectFieldStart("tags");
+		for (Map.Entry<String, String> tag : type.getTags().entrySet()) {
+			generator.writeStringField(tag.getKey(), tag.getValue());
+		}
+		generator.writeEndObject();
+		generator.writeEndObject();
+	}
+
+	protected void value(JsonGenerator generator, MetadataElement value)
+			throws IOException {
+		generator.writeStartObject();
+		valueFields(generator, value);
+		generator.writeEndObject();
+	}
+
+	protected void valueFields(JsonGenerator generator, MetadataElement value)
+			throws IOException {
+		generator.writeStringField("id", value.getId());
+		generator.writeStringField("name", value.getName());
+		if ((value instanceof Describable)
+				&& ((Describable) value).getDescription() != null) {
+			generator.writeStringField("description",
+					((Describable) value).getDescription());
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	private ObjectNode writeTree(InitializrMetadata metadata, String appUrl) {
 		ObjectNode delegate = nodeFactory.objectNode();
 		links(delegate, metadata.getTypes().getContent(), appUrl);
 		dependencies(delegate, metadata.getDependencies());
@@ -96,9 +302,28 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		text(delegate, metadata.getName());
 		text(delegate, metadata.getDescription());
 		text(delegate, metadata.getPackageName());
-		return delegate.toString();
+		return delegate;
 	}
 
+	/**
+	 * Return the {@link JsonNodeFactory} used by the tree-based hooks.
+	 * @return the node factory
+	 * @deprecated as of 0.7.1 as the content is written using a {@link JsonGenerator}
+	 */
+	@Deprecated
+	protected JsonNodeFactory nodeFactory() {
+		return nodeFactory;
+	}
+
+	/**
+	 * Add the links of the specified types to the specified parent.
+	 * @param parent the node to add the links to
+	 * @param types the types
+	 * @param appUrl the app URL
+	 * @return the links
+	 * @deprecated as of 0.7.1 in favour of {@link #links(JsonGenerator, List, String)}
+	 */
+	@Deprecated
 	protected ObjectNode links(ObjectNode parent, List<Type> types, String appUrl) {
 		ObjectNode content = nodeFactory.objectNode();
 		types.forEach((it) -> content.set(it.getId(), link(appUrl, it)));
@@ -106,6 +331,14 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		return content;
 	}
 
+	/**
+	 * Map the link of the specified type.
+	 * @param appUrl the app URL
+	 * @param type the type
+	 * @return the link
+	 * @deprecated as of 0.7.1 in favour of {@link #link(JsonGenerator, String, String)}
+	 */
+	@Deprecated
 	protected ObjectNode link(String appUrl, Type type) {
 		ObjectNode result = nodeFactory.objectNode();
 		result.put("href", generateTemplatedUri(appUrl, type));
@@ -113,13 +346,14 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		return result;
 	}
 
-	private String generateTemplatedUri(String appUrl, Type type) {
-		String uri = (appUrl != null) ? appUrl + type.getAction() : type.getAction();
-		uri = uri + "?type=" + type.getId();
-		UriTemplate uriTemplate = new UriTemplate(uri, this.templateVariables);
-		return uriTemplate.toString();
-	}
-
+	/**
+	 * Add the specified dependencies capability to the specified parent.
+	 * @param parent the node to add the capability to
+	 * @param capability the capability
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #dependencies(JsonGenerator, DependenciesCapability)}
+	 */
+	@Deprecated
 	protected void dependencies(ObjectNode parent, DependenciesCapability capability) {
 		ObjectNode dependencies = nodeFactory.objectNode();
 		dependencies.put("type", capability.getType().getName());
@@ -130,6 +364,13 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		parent.set(capability.getId(), dependencies);
 	}
 
+	/**
+	 * Add the specified type capability to the specified parent.
+	 * @param parent the node to add the capability to
+	 * @param capability the capability
+	 * @deprecated as of 0.7.1 in favour of {@link #type(JsonGenerator, TypeCapability)}
+	 */
+	@Deprecated
 	protected void type(ObjectNode parent, TypeCapability capability) {
 		ObjectNode type = nodeFactory.objectNode();
 		type.put("type", "action");
@@ -144,6 +385,14 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		parent.set("type", type);
 	}
 
+	/**
+	 * Add the specified single select capability to the specified parent.
+	 * @param parent the node to add the capability to
+	 * @param capability the capability
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #singleSelect(JsonGenerator, SingleSelectCapability)}
+	 */
+	@Deprecated
 	protected void singleSelect(ObjectNode parent, SingleSelectCapability capability) {
 		ObjectNode single = nodeFactory.objectNode();
 		single.put("type", capability.getType().getName());
@@ -158,6 +407,13 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		parent.set(capability.getId(), single);
 	}
 
+	/**
+	 * Add the specified text capability to the specified parent.
+	 * @param parent the node to add the capability to
+	 * @param capability the capability
+	 * @deprecated as of 0.7.1 in favour of {@link #text(JsonGenerator, TextCapability)}
+	 */
+	@Deprecated
 	protected void text(ObjectNode parent, TextCapability capability) {
 		ObjectNode text = nodeFactory.objectNode();
 		text.put("type", capability.getType().getName());
@@ -168,6 +424,14 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		parent.set(capability.getId(), text);
 	}
 
+	/**
+	 * Map the specified dependency group.
+	 * @param group the group
+	 * @return the mapped group
+	 * @deprecated as of 0.7.1 in favour of
+	 * {@link #dependencyGroup(JsonGenerator, DependencyGroup)}
+	 */
+	@Deprecated
 	protected ObjectNode mapDependencyGroup(DependencyGroup group) {
 		ObjectNode result = nodeFactory.objectNode();
 		result.put("name", group.getName());
@@ -186,6 +450,13 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		return result;
 	}
 
+	/**
+	 * Map the specified dependency.
+	 * @param dependency the dependency
+	 * @return the mapped dependency or {@code null} if it should not be rendered
+	 * @deprecated as of 0.7.1 in favour of {@link #dependency(JsonGenerator, Dependency)}
+	 */
+	@Deprecated
 	protected ObjectNode mapDependency(Dependency dependency) {
 		if (dependency.getVersionRange() == null) {
 			// only map the dependency if no versionRange is set
@@ -194,6 +465,13 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		return null;
 	}
 
+	/**
+	 * Map the specified type.
+	 * @param type the type
+	 * @return the mapped type
+	 * @deprecated as of 0.7.1 in favour of {@link #typeValue(JsonGenerator, Type)}
+	 */
+	@Deprecated
 	protected ObjectNode mapType(Type type) {
 		ObjectNode result = mapValue(type);
 		result.put("action", type.getAction());
@@ -203,6 +481,13 @@ public class InitializrMetadataV2JsonMapper implements InitializrMetadataJsonMap
 		return result;
 	}
 
+	/**
+	 * Map the specified element.
+	 * @param value the element
+	 * @return the mapped element
+	 * @deprecated as of 0.7.1 in favour of {@link #value(JsonGenerator, MetadataElement)}
+	 */
+	@Deprecated
 	protected ObjectNode mapValue(MetadataElement value) {
 		ObjectNode result = nodeFactory.objectNode();
 		result.put("id", value.getId());
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2018 the original author or authors.
+ * Copyright 2012-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,13 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -46,10 +48,7 @@ public final class LinkMapper {
 	 */
 	public static ObjectNode mapLinks(List<Link> links) {
 		ObjectNode result = nodeFactory.objectNode();
-		Map<String, List<Link>> byRel = new LinkedHashMap<>();
-		links.forEach((it) -> byRel.computeIfAbsent(it.getRel(), (k) -> new ArrayList<>())
-				.add(it));
-		byRel.forEach((rel, l) -> {
+		groupByRel(links).forEach((rel, l) -> {
 			if (l.size() == 1) {
 				ObjectNode root = JsonNodeFactory.instance.objectNode();
 				mapLink(l.get(0), root);
@@ -68,6 +67,52 @@ public final class LinkMapper {
 		return result;
 	}
 
+	/**
+	 * Write a json representation of the specified links using the specified
+	 * {@link JsonGenerator}. Produces the same content as {@link #mapLinks(List)}.
+	 * @param generator the generator to use
+	 * @param links the links to write
+	 * @throws IOException if the links cannot be written
+	 */
+	public static void writeLinks(JsonGenerator generator, List<Link> links)
+			throws IOException {
+		generator.writeStartObject();
+		for (Map.Entry<String, List<Link>> entry : groupByRel(links).entrySet()) {
+			List<Link> l = entry.getValue();
+			if (l.size() == 1) {
+				generator.writeFieldName(entry.getKey());
+				writeLink(generator, l.get(0));
+			}
+			else {
+				generator.writeArrayFieldStart(entry.getKey());
+				for (Link link : l) {
+					writeLink(generator, link);
+				}
+				generator.writeEndArray();
+			}
+		}
+		generator.writeEndObject();
+	}
+
+	private static Map<String, List<Link>> groupByRel(List<Link> links) {
+		Map<String, List<Link>> byRel = new LinkedHashMap<>();
+		links.forEach((it) -> byRel.computeIfAbsent(it.getRel(), (k) -> new ArrayList<>())
+				.add(it));
+		return byRel;
+	}
+
+	private static void writeLink(JsonGenerator generator, Link link) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("href", link.getHref());
+		if (link.isTemplated()) {
+			generator.writeBooleanField("templated", true);
+		}
+		if (link.getDescription() != null) {
+			generator.writeStringField("title", link.getDescription());
+		}
+		generator.writeEndObject();
+	}
+
 	private static void mapLink(Link link, ObjectNode node) {
 		node.put("href", link.getHref());
 		if (link.isTemplated()) {
@@ -18,6 +18,7 @@ package io.spring.initializr.web.project;
 
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -121,6 +122,11 @@ public abstract class AbstractInitializrController {
 		if (isForceSsl()) {
 			builder.scheme("https");
 		}
+		// Host names are case insensitive
+		String host = builder.build().getHost();
+		if (host != null) {
+			builder.host(host.toLowerCase(Locale.ROOT));
+		}
 		return builder.build().toString();
 	}
 
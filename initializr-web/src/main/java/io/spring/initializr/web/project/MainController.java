@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2018 the original author or authors.
+ * Copyright 2012-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,20 +16,31 @@
 
 package io.spring.initializr.web.project;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import javax.servlet.http.HttpServletRequest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.samskivert.mustache.Mustache;
 import io.spring.initializr.generator.BasicProjectRequest;
+import io.spring.initializr.generator.BatchProjectGenerator;
+import io.spring.initializr.generator.BatchProjectGenerator.Result;
 import io.spring.initializr.generator.CommandLineHelpGenerator;
+import io.spring.initializr.generator.InvalidProjectRequestException;
+import io.spring.initializr.generator.ProjectContent;
 import io.spring.initializr.generator.ProjectGenerator;
 import io.spring.initializr.generator.ProjectRequest;
 import io.spring.initializr.metadata.DependencyMetadata;
@@ -45,25 +56,30 @@ import io.spring.initializr.web.mapper.InitializrMetadataJsonMapper;
 import io.spring.initializr.web.mapper.InitializrMetadataV21JsonMapper;
 import io.spring.initializr.web.mapper.InitializrMetadataV2JsonMapper;
 import io.spring.initializr.web.mapper.InitializrMetadataVersion;
-import org.apache.tools.ant.Project;
-import org.apache.tools.ant.taskdefs.Tar;
-import org.apache.tools.ant.taskdefs.Zip;
-import org.apache.tools.ant.types.TarFileSet;
-import org.apache.tools.ant.types.ZipFileSet;
+import io.spring.initializr.web.project.ProjectArchiveGenerator.ArchiveFormat;
+import io.spring.initializr.web.support.MetadataDelta;
+import io.spring.initializr.web.support.MetadataDocument;
+import io.spring.initializr.web.support.MetadataDocumentCache;
+import io.spring.initializr.web.support.MetadataHistory;
+import io.spring.initializr.web.support.MetadataSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.ResponseEntity.BodyBuilder;
 import org.springframework.stereotype.Controller;
-import org.springframework.util.DigestUtils;
-import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.ServletRequestParameterPropertyValues;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.resource.ResourceUrlProvider;
@@ -87,25 +103,113 @@ public class MainController extends AbstractInitializrController {
 	public static final MediaType HAL_JSON_CONTENT_TYPE = MediaType
 			.parseMediaType("application/hal+json");
 
+	/**
+	 * Header holding the revision of the metadata a response has been computed from.
+	 */
+	public static final String REVISION_HEADER = "X-Initializr-Revision";
+
+	/**
+	 * Header holding the comma-separated paths that a project diff removes.
+	 */
+	public static final String REMOVED_PATHS_HEADER = "X-Initializr-Removed-Paths";
+
+	/**
+	 * Name of the request attribute holding the {@link ProjectRequest} of the request.
+	 */
+	public static final String PROJECT_REQUEST_ATTRIBUTE = MainController.class.getName()
+			+ ".projectRequest";
+
+	/**
+	 * Suffix of the batch entry that describes why a request could not be generated.
+	 */
+	public static final String BATCH_ERROR_SUFFIX = ".error.txt";
+
+	private static final int MAX_BATCH_SIZE = 100;
+
+	private static final int MAX_CACHED_APP_URLS = 8;
+
+	private static final MediaType DIFF_CONTENT_TYPE = MediaType
+			.parseMediaType("text/x-diff;charset=UTF-8");
+
 	private final ProjectGenerator projectGenerator;
 
+	private final ProjectArchiveGenerator archiveGenerator;
+
+	private final BatchProjectGenerator batchProjectGenerator;
+
 	private final DependencyMetadataProvider dependencyMetadataProvider;
 
 	private final CommandLineHelpGenerator commandLineHelpGenerator;
 
+	private final ObjectMapper objectMapper;
+
+	private final MetadataDocumentCache documents = new MetadataDocumentCache();
+
+	private final MetadataHistory history = new MetadataHistory();
+
+	private final Set<String> cachedAppUrls = new HashSet<>();
+
+	/**
+	 * Create an instance using a default {@link ObjectMapper}.
+	 * @param metadataProvider the metadata provider
+	 * @param templateRenderer the template renderer
+	 * @param resourceUrlProvider the resource url provider
+	 * @param projectGenerator the project generator
+	 * @param dependencyMetadataProvider the dependency metadata provider
+	 * @deprecated as of 0.7.1 in favour of the constructor that takes the
+	 * {@link ObjectMapper} to use
+	 */
+	@Deprecated
 	public MainController(InitializrMetadataProvider metadataProvider,
 			TemplateRenderer templateRenderer, ResourceUrlProvider resourceUrlProvider,
 			ProjectGenerator projectGenerator,
 			DependencyMetadataProvider dependencyMetadataProvider) {
+		this(metadataProvider, templateRenderer, resourceUrlProvider, projectGenerator,
+				dependencyMetadataProvider, new ObjectMapper());
+	}
+
+	public MainController(InitializrMetadataProvider metadataProvider,
+			TemplateRenderer templateRenderer, ResourceUrlProvider resourceUrlProvider,
+			ProjectGenerator projectGenerator,
+			DependencyMetadataProvider dependencyMetadataProvider,
+			ObjectMapper objectMapper) {
+		this(metadataProvider, templateRenderer, resourceUrlProvider, projectGenerator,
+				dependencyMetadataProvider, objectMapper, new ProjectArchiveGenerator(
+						projectGenerator, new ProjectArchiveCache(0)));
+	}
+
+	public MainController(InitializrMetadataProvider metadataProvider,
+			TemplateRenderer templateRenderer, ResourceUrlProvider resourceUrlProvider,
+			ProjectGenerator projectGenerator,
+			DependencyMetadataProvider dependencyMetadataProvider,
+			ObjectMapper objectMapper, ProjectArchiveGenerator archiveGenerator) {
 		super(metadataProvider, resourceUrlProvider);
 		this.projectGenerator = projectGenerator;
+		this.archiveGenerator = archiveGenerator;
+		this.batchProjectGenerator = new BatchProjectGenerator(projectGenerator);
 		this.dependencyMetadataProvider = dependencyMetadataProvider;
 		this.commandLineHelpGenerator = new CommandLineHelpGenerator(templateRenderer);
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Return the {@link MetadataDocumentCache} that holds the documents served by this
+	 * controller.
+	 * @return the document cache
+	 */
+	public MetadataDocumentCache getDocumentCache() {
+		return this.documents;
 	}
 
 	@ModelAttribute
-	public BasicProjectRequest projectRequest(
-			@RequestHeader Map<String, String> headers) {
+	public BasicProjectRequest projectRequest(@RequestHeader Map<String, String> headers,
+			HttpServletRequest servletRequest) {
+		ProjectRequest request = createProjectRequest(headers);
+		servletRequest.setAttribute(PROJECT_REQUEST_ATTRIBUTE, request);
+		return request;
+	}
+
+	private ProjectRequest createProjectRequest(Map<String, String> headers) {
 		ProjectRequest request = new ProjectRequest();
 		request.getParameters().putAll(headers);
 		request.initialize(this.metadataProvider.get());
@@ -113,9 +217,13 @@ public class MainController extends AbstractInitializrController {
 	}
 
 	@RequestMapping(path = "/metadata/config", produces = "application/json")
-	@ResponseBody
-	public InitializrMetadata config() {
-		return this.metadataProvider.get();
+	public ResponseEntity<byte[]> config(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		InitializrMetadata metadata = this.metadataProvider.get();
+		MetadataDocument document = this.documents.get(metadata, "config",
+				() -> toJson(metadata));
+		return document.toResponseEntity(ResponseEntity.ok(), MediaType.APPLICATION_JSON,
+				acceptEncoding);
 	}
 
 	@RequestMapping("/metadata/client")
@@ -124,66 +232,128 @@ public class MainController extends AbstractInitializrController {
 	}
 
 	@RequestMapping(path = "/", produces = "text/plain")
-	public ResponseEntity<String> serviceCapabilitiesText(
-			@RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent) {
+	public ResponseEntity<byte[]> serviceCapabilitiesText(
+			@RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 		String appUrl = generateAppUrl();
 		InitializrMetadata metadata = this.metadataProvider.get();
+		AgentId agentId = determineCommandLineAgent(userAgent);
+		MetadataDocument document = getAppUrlDocument(metadata, "text:" + agentId, appUrl,
+				() -> generateCapabilities(agentId, metadata, appUrl));
+		return document.toResponseEntity(ResponseEntity.ok(), MediaType.TEXT_PLAIN,
+				acceptEncoding);
+	}
+
+	// The app URL is derived from the Host header of the request: only the documents
+	// of a bounded number of app URLs are cached so that arbitrary Host values do not
+	// evict the documents of the regular ones
+	private MetadataDocument getAppUrlDocument(InitializrMetadata metadata, String key,
+			String appUrl, Supplier<String> content) {
+		if (!isCacheableAppUrl(appUrl)) {
+			return MetadataDocument.of(content.get());
+		}
+		return this.documents.get(metadata, key + ":" + appUrl, content);
+	}
+
+	private boolean isCacheableAppUrl(String appUrl) {
+		synchronized (this.cachedAppUrls) {
+			if (this.cachedAppUrls.contains(appUrl)) {
+				return true;
+			}
+			if (this.cachedAppUrls.size() < MAX_CACHED_APP_URLS) {
+				this.cachedAppUrls.add(appUrl);
+				return true;
+			}
+			return false;
+		}
+	}
 
-		BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN);
+	private static AgentId determineCommandLineAgent(String userAgent) {
 		if (userAgent != null) {
 			Agent agent = Agent.fromUserAgent(userAgent);
-			if (agent != null) {
-				if (AgentId.CURL.equals(agent.getId())) {
-					String content = this.commandLineHelpGenerator
-							.generateCurlCapabilities(metadata, appUrl);
-					return builder.eTag(createUniqueId(content)).body(content);
-				}
-				if (AgentId.HTTPIE.equals(agent.getId())) {
-					String content = this.commandLineHelpGenerator
-							.generateHttpieCapabilities(metadata, appUrl);
-					return builder.eTag(createUniqueId(content)).body(content);
-				}
-				if (AgentId.SPRING_BOOT_CLI.equals(agent.getId())) {
-					String content = this.commandLineHelpGenerator
-							.generateSpringBootCliCapabilities(metadata, appUrl);
-					return builder.eTag(createUniqueId(content)).body(content);
-				}
+			if (agent != null && (AgentId.CURL.equals(agent.getId())
+					|| AgentId.HTTPIE.equals(agent.getId())
+					|| AgentId.SPRING_BOOT_CLI.equals(agent.getId()))) {
+				return agent.getId();
 			}
 		}
-		String content = this.commandLineHelpGenerator
-				.generateGenericCapabilities(metadata, appUrl);
-		return builder.eTag(createUniqueId(content)).body(content);
+		return null;
+	}
+
+	private String generateCapabilities(AgentId agentId, InitializrMetadata metadata,
+			String appUrl) {
+		if (AgentId.CURL.equals(agentId)) {
+			return this.commandLineHelpGenerator.generateCurlCapabilities(metadata,
+					appUrl);
+		}
+		if (AgentId.HTTPIE.equals(agentId)) {
+			return this.commandLineHelpGenerator.generateHttpieCapabilities(metadata,
+					appUrl);
+		}
+		if (AgentId.SPRING_BOOT_CLI.equals(agentId)) {
+			return this.commandLineHelpGenerator
+					.generateSpringBootCliCapabilities(metadata, appUrl);
+		}
+		return this.commandLineHelpGenerator.generateGenericCapabilities(metadata,
+				appUrl);
 	}
 
 	@RequestMapping(path = "/", produces = "application/hal+json")
-	public ResponseEntity<String> serviceCapabilitiesHal() {
+	public ResponseEntity<byte[]> serviceCapabilitiesHal(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 		return serviceCapabilitiesFor(InitializrMetadataVersion.V2_1,
-				HAL_JSON_CONTENT_TYPE);
+				HAL_JSON_CONTENT_TYPE, acceptEncoding);
 	}
 
 	@RequestMapping(path = "/", produces = { "application/vnd.initializr.v2.1+json",
 			"application/json" })
-	public ResponseEntity<String> serviceCapabilitiesV21() {
-		return serviceCapabilitiesFor(InitializrMetadataVersion.V2_1);
+	public ResponseEntity<byte[]> serviceCapabilitiesV21(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		return serviceCapabilitiesFor(InitializrMetadataVersion.V2_1, acceptEncoding);
 	}
 
 	@RequestMapping(path = "/", produces = "application/vnd.initializr.v2+json")
-	public ResponseEntity<String> serviceCapabilitiesV2() {
-		return serviceCapabilitiesFor(InitializrMetadataVersion.V2);
+	public ResponseEntity<byte[]> serviceCapabilitiesV2(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		return serviceCapabilitiesFor(InitializrMetadataVersion.V2, acceptEncoding);
 	}
 
-	private ResponseEntity<String> serviceCapabilitiesFor(
-			InitializrMetadataVersion version) {
-		return serviceCapabilitiesFor(version, version.getMediaType());
+	private ResponseEntity<byte[]> serviceCapabilitiesFor(
+			InitializrMetadataVersion version, String acceptEncoding) {
+		return serviceCapabilitiesFor(version, version.getMediaType(), acceptEncoding);
 	}
 
-	private ResponseEntity<String> serviceCapabilitiesFor(
-			InitializrMetadataVersion version, MediaType contentType) {
+	private ResponseEntity<byte[]> serviceCapabilitiesFor(
+			InitializrMetadataVersion version, MediaType contentType,
+			String acceptEncoding) {
 		String appUrl = generateAppUrl();
-		String content = getJsonMapper(version).write(this.metadataProvider.get(),
-				appUrl);
-		return ResponseEntity.ok().contentType(contentType).eTag(createUniqueId(content))
-				.cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS)).body(content);
+		InitializrMetadata metadata = this.metadataProvider.get();
+		MetadataSnapshot snapshot = this.history.update(metadata);
+		MetadataDocument document = getAppUrlDocument(metadata, "metadata:" + version,
+				appUrl, () -> getJsonMapper(version).write(metadata, appUrl));
+		return document.toResponseEntity(
+				ResponseEntity.ok().cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS))
+						.header(REVISION_HEADER, String.valueOf(snapshot.getRevision())),
+				contentType, acceptEncoding);
+	}
+
+	@RequestMapping(path = "/metadata/delta", produces = "application/json")
+	public ResponseEntity<byte[]> metadataDelta(@RequestParam long since,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		InitializrMetadata metadata = this.metadataProvider.get();
+		MetadataSnapshot current = this.history.update(metadata);
+		MetadataSnapshot previous = this.history.get(since);
+		MetadataDelta delta = (previous != null) ? current.since(previous) : null;
+		if (delta == null) {
+			// Revision expired or unknown, or changes that a delta cannot describe
+			return serviceCapabilitiesFor(InitializrMetadataVersion.V2_1, acceptEncoding);
+		}
+		MetadataDocument document = this.documents.get(metadata,
+				"delta:" + since + ":" + current.getRevision(), () -> toJson(delta));
+		return document.toResponseEntity(
+				ResponseEntity.ok().header(REVISION_HEADER,
+						String.valueOf(current.getRevision())),
+				MediaType.APPLICATION_JSON, acceptEncoding);
 	}
 
 	private static InitializrMetadataJsonMapper getJsonMapper(
@@ -198,22 +368,28 @@ public class MainController extends AbstractInitializrController {
 
 	@RequestMapping(path = "/dependencies", produces = {
 			"application/vnd.initializr.v2.1+json", "application/json" })
-	public ResponseEntity<String> dependenciesV21(
-			@RequestParam(required = false) String bootVersion) {
-		return dependenciesFor(InitializrMetadataVersion.V2_1, bootVersion);
+	public ResponseEntity<byte[]> dependenciesV21(
+			@RequestParam(required = false) String bootVersion,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		return dependenciesFor(InitializrMetadataVersion.V2_1, bootVersion,
+				acceptEncoding);
 	}
 
-	private ResponseEntity<String> dependenciesFor(InitializrMetadataVersion version,
-			String bootVersion) {
+	private ResponseEntity<byte[]> dependenciesFor(InitializrMetadataVersion version,
+			String bootVersion, String acceptEncoding) {
 		InitializrMetadata metadata = this.metadataProvider.get();
 		Version v = (bootVersion != null) ? Version.parse(bootVersion)
 				: Version.parse(metadata.getBootVersions().getDefault().getId());
-		DependencyMetadata dependencyMetadata = this.dependencyMetadataProvider
-				.get(metadata, v);
-		String content = new DependencyMetadataV21JsonMapper().write(dependencyMetadata);
-		return ResponseEntity.ok().contentType(version.getMediaType())
-				.eTag(createUniqueId(content))
-				.cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS)).body(content);
+		MetadataDocument document = this.documents.get(metadata, "dependencies:" + v,
+				() -> {
+					DependencyMetadata dependencyMetadata = this.dependencyMetadataProvider
+							.get(metadata, v);
+					return new DependencyMetadataV21JsonMapper()
+							.write(dependencyMetadata);
+				});
+		return document.toResponseEntity(
+				ResponseEntity.ok().cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS)),
+				version.getMediaType(), acceptEncoding);
 	}
 
 	@ModelAttribute("linkTo")
@@ -246,85 +422,262 @@ public class MainController extends AbstractInitializrController {
 
 	@RequestMapping(path = { "/pom", "/pom.xml" })
 	@ResponseBody
-	public ResponseEntity<byte[]> pom(BasicProjectRequest request) {
+	public ResponseEntity<byte[]> pom(BasicProjectRequest request,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 		request.setType("maven-build");
+		String eTag = generateETag((ProjectRequest) request, "pom");
+		if (isNotModified(ifNoneMatch, eTag)) {
+			return notModified(eTag);
+		}
 		byte[] mavenPom = this.projectGenerator
 				.generateMavenPom((ProjectRequest) request);
-		return createResponseEntity(mavenPom, "application/octet-stream", "pom.xml");
+		return createResponseEntity(mavenPom, "application/octet-stream", "pom.xml",
+				eTag);
 	}
 
 	@RequestMapping(path = { "/build", "/build.gradle" })
 	@ResponseBody
-	public ResponseEntity<byte[]> gradle(BasicProjectRequest request) {
+	public ResponseEntity<byte[]> gradle(BasicProjectRequest request,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 		request.setType("gradle-build");
+		String eTag = generateETag((ProjectRequest) request, "gradle");
+		if (isNotModified(ifNoneMatch, eTag)) {
+			return notModified(eTag);
+		}
 		byte[] gradleBuild = this.projectGenerator
 				.generateGradleBuild((ProjectRequest) request);
 		return createResponseEntity(gradleBuild, "application/octet-stream",
-				"build.gradle");
+				"build.gradle", eTag);
 	}
 
 	@RequestMapping("/starter.zip")
 	@ResponseBody
-	public ResponseEntity<byte[]> springZip(BasicProjectRequest basicRequest)
+	public ResponseEntity<byte[]> springZip(BasicProjectRequest basicRequest,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
 			throws IOException {
 		ProjectRequest request = (ProjectRequest) basicRequest;
-		File dir = this.projectGenerator.generateProjectStructure(request);
-
-		File download = this.projectGenerator.createDistributionFile(dir, ".zip");
-
-		String wrapperScript = getWrapperScript(request);
-		new File(dir, wrapperScript).setExecutable(true);
-		Zip zip = new Zip();
-		zip.setProject(new Project());
-		zip.setDefaultexcludes(false);
-		ZipFileSet set = new ZipFileSet();
-		set.setDir(dir);
-		set.setFileMode("755");
-		set.setIncludes(wrapperScript);
-		set.setDefaultexcludes(false);
-		zip.addFileset(set);
-		set = new ZipFileSet();
-		set.setDir(dir);
-		set.setIncludes("**,");
-		set.setExcludes(wrapperScript);
-		set.setDefaultexcludes(false);
-		zip.addFileset(set);
-		zip.setDestFile(download.getCanonicalFile());
-		zip.execute();
-		return upload(download, dir, generateFileName(request, "zip"), "application/zip");
+		String eTag = generateETag(request, "zip");
+		if (isNotModified(ifNoneMatch, eTag)) {
+			return notModified(eTag);
+		}
+		byte[] archive = this.archiveGenerator.generate(request, ArchiveFormat.ZIP);
+		return upload(archive, generateFileName(request, "zip"), "application/zip", eTag);
 	}
 
 	@RequestMapping(path = "/starter.tgz", produces = "application/x-compress")
 	@ResponseBody
-	public ResponseEntity<byte[]> springTgz(BasicProjectRequest basicRequest)
+	public ResponseEntity<byte[]> springTgz(BasicProjectRequest basicRequest,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+			throws IOException {
+		ProjectRequest request = (ProjectRequest) basicRequest;
+		String eTag = generateETag(request, "tgz");
+		if (isNotModified(ifNoneMatch, eTag)) {
+			return notModified(eTag);
+		}
+		byte[] archive = this.archiveGenerator.generate(request, ArchiveFormat.TGZ);
+		return upload(archive, generateFileName(request, "tar.gz"),
+				"application/x-compress", eTag);
+	}
+
+	@RequestMapping(path = "/starter.zip", method = RequestMethod.HEAD)
+	@ResponseBody
+	public ResponseEntity<byte[]> springZipHead(BasicProjectRequest basicRequest,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		ProjectRequest request = (ProjectRequest) basicRequest;
+		return head(request, generateETag(request, "zip"), ifNoneMatch,
+				generateFileName(request, "zip"), "application/zip");
+	}
+
+	@RequestMapping(path = "/starter.tgz", method = RequestMethod.HEAD, produces = "application/x-compress")
+	@ResponseBody
+	public ResponseEntity<byte[]> springTgzHead(BasicProjectRequest basicRequest,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		ProjectRequest request = (ProjectRequest) basicRequest;
+		return head(request, generateETag(request, "tgz"), ifNoneMatch,
+				generateFileName(request, "tar.gz"), "application/x-compress");
+	}
+
+	// Answered without generating the project, the size of the archive is not known.
+	// The request is resolved so that an invalid request is rejected as with GET
+	private ResponseEntity<byte[]> head(ProjectRequest request, String eTag,
+			String ifNoneMatch, String fileName, String contentType) {
+		if (isNotModified(ifNoneMatch, eTag)) {
+			return notModified(eTag);
+		}
+		this.projectGenerator.validateProjectRequest(request);
+		return createResponseEntity(null, contentType, fileName, eTag);
+	}
+
+	@RequestMapping(path = "/starter.manifest", produces = "application/json")
+	@ResponseBody
+	public ResponseEntity<String> springManifest(BasicProjectRequest basicRequest,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		ProjectRequest request = (ProjectRequest) basicRequest;
+		String eTag = generateETag(request, "manifest");
+		if (isNotModified(ifNoneMatch, eTag)) {
+			return notModified(eTag);
+		}
+		ProjectContent content = this.projectGenerator.generateProjectContent(request);
+		ObjectNode manifest = this.objectMapper.createObjectNode();
+		ArrayNode entries = manifest.putArray("entries");
+		for (ProjectContent.Entry entry : content.getEntries()) {
+			ObjectNode node = entries.addObject();
+			node.put("path", entry.getPath());
+			node.put("type", entry.isDirectory() ? "directory" : "file");
+			node.put("mode", Integer.toOctalString(entry.getMode()));
+			if (!entry.isDirectory()) {
+				node.put("size", entry.getSize());
+				node.put("sha256", entry.getSha256());
+			}
+		}
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(eTag)
+				.body(toJson(manifest));
+	}
+
+	@RequestMapping(path = "/starter.diff", produces = "text/x-diff")
+	@ResponseBody
+	public ResponseEntity<String> springDiff(BasicProjectRequest basicRequest,
+			HttpServletRequest servletRequest,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		ProjectRequest request = (ProjectRequest) basicRequest;
+		ProjectRequest original = createOriginalRequest(servletRequest);
+		String eTag = generateETag(request, original.fingerprint() + "-diff");
+		if (isNotModified(ifNoneMatch, eTag)) {
+			return notModified(eTag);
+		}
+		ProjectContentDiff diff = generateDiff(original, request);
+		return ResponseEntity.ok().contentType(DIFF_CONTENT_TYPE).eTag(eTag)
+				.body(diff.toUnifiedPatch());
+	}
+
+	@RequestMapping("/starter-diff.zip")
+	@ResponseBody
+	public ResponseEntity<byte[]> springDiffZip(BasicProjectRequest basicRequest,
+			HttpServletRequest servletRequest,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
 			throws IOException {
 		ProjectRequest request = (ProjectRequest) basicRequest;
-		File dir = this.projectGenerator.generateProjectStructure(request);
-
-		File download = this.projectGenerator.createDistributionFile(dir, ".tar.gz");
-
-		String wrapperScript = getWrapperScript(request);
-		new File(dir, wrapperScript).setExecutable(true);
-		Tar zip = new Tar();
-		zip.setProject(new Project());
-		zip.setDefaultexcludes(false);
-		TarFileSet set = zip.createTarFileSet();
-		set.setDir(dir);
-		set.setFileMode("755");
-		set.setIncludes(wrapperScript);
-		set.setDefaultexcludes(false);
-		set = zip.createTarFileSet();
-		set.setDir(dir);
-		set.setIncludes("**,");
-		set.setExcludes(wrapperScript);
-		set.setDefaultexcludes(false);
-		zip.setDestFile(download.getCanonicalFile());
-		Tar.TarCompressionMethod method = new Tar.TarCompressionMethod();
-		method.setValue("gzip");
-		zip.setCompression(method);
-		zip.execute();
-		return upload(download, dir, generateFileName(request, "tar.gz"),
-				"application/x-compress");
+		ProjectRequest original = createOriginalRequest(servletRequest);
+		String eTag = generateETag(request, original.fingerprint() + "-diff-zip");
+		if (isNotModified(ifNoneMatch, eTag)) {
+			return notModified(eTag);
+		}
+		ProjectContentDiff diff = generateDiff(original, request);
+		byte[] archive = ProjectArchiver.zip(diff.getChanges());
+		String contentDispositionValue = "attachment; filename=\""
+				+ generateFileName(request, "diff.zip") + "\"";
+		return ResponseEntity.ok().header("Content-Type", "application/zip")
+				.header("Content-Disposition", contentDispositionValue)
+				.header(REMOVED_PATHS_HEADER, String.join(",", diff.getRemovedPaths()))
+				.eTag(eTag).body(archive);
+	}
+
+	@RequestMapping(path = "/starter.batch", method = RequestMethod.POST, consumes = "application/json")
+	@ResponseBody
+	public ResponseEntity<byte[]> springBatch(
+			@RequestBody List<Map<String, Object>> attributes,
+			@RequestParam(defaultValue = "directories") String layout)
+			throws IOException {
+		if (attributes.isEmpty() || attributes.size() > MAX_BATCH_SIZE) {
+			throw new InvalidProjectRequestException(
+					"A batch must hold between 1 and " + MAX_BATCH_SIZE + " requests");
+		}
+		if (!"directories".equals(layout) && !"archives".equals(layout)) {
+			throw new InvalidProjectRequestException("Unknown batch layout '" + layout
+					+ "', check the documentation for the supported layouts");
+		}
+		List<Result> results = this.batchProjectGenerator
+				.generateFromAttributes(attributes, this.metadataProvider.get());
+		List<String> names = BatchProjectGenerator.uniqueNames(results);
+		ProjectContent batch = new ProjectContent();
+		int failures = 0;
+		for (int i = 0; i < results.size(); i++) {
+			Result result = results.get(i);
+			if (result.getError() != null) {
+				failures++;
+				batch.addFile(names.get(i) + BATCH_ERROR_SUFFIX,
+						result.getError().getMessage().getBytes(StandardCharsets.UTF_8),
+						false);
+			}
+			else if ("archives".equals(layout)) {
+				batch.addFile(names.get(i) + ".zip",
+						ProjectArchiver.zip(result.getContent()), false);
+			}
+			else {
+				for (ProjectContent.Entry entry : result.getContent().getEntries()) {
+					String path = names.get(i) + "/" + entry.getPath();
+					if (entry.isDirectory()) {
+						batch.addDirectory(path);
+					}
+					else {
+						batch.addFile(path, entry.getContent(), entry.isExecutable());
+					}
+				}
+			}
+		}
+		byte[] archive = ProjectArchiver.zip(batch);
+		log.info("Uploading: starter-batch.zip ({} bytes, {} projects, {} failed)",
+				archive.length, results.size(), failures);
+		return ResponseEntity.ok().header("Content-Type", "application/zip")
+				.header("Content-Disposition",
+						"attachment; filename=\"starter-batch.zip\"")
+				.body(archive);
+	}
+
+	// The original request is bound from the parameters prefixed with "from."
+	private ProjectRequest createOriginalRequest(HttpServletRequest servletRequest) {
+		ProjectRequest original = createProjectRequest(Collections.emptyMap());
+		WebDataBinder binder = new WebDataBinder(original, "from");
+		binder.setConversionService(DefaultConversionService.getSharedInstance());
+		binder.bind(
+				new ServletRequestParameterPropertyValues(servletRequest, "from", "."));
+		return original;
+	}
+
+	private ProjectContentDiff generateDiff(ProjectRequest original,
+			ProjectRequest request) {
+		return ProjectContentDiff.of(
+				this.projectGenerator.generateProjectContent(original),
+				this.projectGenerator.generateProjectContent(request));
+	}
+
+	// The request is fingerprinted before it is resolved so that no generation work is
+	// required. A digest of the metadata is used rather than its revision so that all
+	// nodes serving the same metadata agree. Archives are reproducible so the ETag is
+	// strong
+	private String generateETag(ProjectRequest request, String format) {
+		InitializrMetadata metadata = this.metadataProvider.get();
+		return "\"" + request.fingerprint(metadata, getMetadataDigest(metadata)) + "-"
+				+ format + "\"";
+	}
+
+	// Digest of the full metadata content, shared by all nodes serving the same metadata
+	private String getMetadataDigest(InitializrMetadata metadata) {
+		return this.documents.get(metadata, "config", () -> toJson(metadata)).getETag();
+	}
+
+	// If-None-Match uses the weak comparison function
+	private static boolean isNotModified(String ifNoneMatch, String eTag) {
+		if (!StringUtils.hasText(ifNoneMatch)) {
+			return false;
+		}
+		String opaqueTag = stripWeakIndicator(eTag);
+		for (String candidate : StringUtils
+				.commaDelimitedListToStringArray(ifNoneMatch)) {
+			String tag = stripWeakIndicator(candidate.trim());
+			if (tag.equals("*") || tag.equals(opaqueTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String stripWeakIndicator(String eTag) {
+		return (eTag.startsWith("W/") ? eTag.substring(2) : eTag);
+	}
+
+	private static <T> ResponseEntity<T> notModified(String eTag) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
 	}
 
 	private static String generateFileName(ProjectRequest request, String extension) {
@@ -337,34 +690,27 @@ public class MainController extends AbstractInitializrController {
 		}
 	}
 
-	private static String getWrapperScript(ProjectRequest request) {
-		String script = ("gradle".equals(request.getBuild()) ? "gradlew" : "mvnw");
-		return (request.getBaseDir() != null) ? request.getBaseDir() + "/" + script
-				: script;
-	}
-
-	private ResponseEntity<byte[]> upload(File download, File dir, String fileName,
-			String contentType) throws IOException {
-		byte[] bytes = StreamUtils.copyToByteArray(new FileInputStream(download));
-		log.info("Uploading: {} ({} bytes)", download, bytes.length);
-		ResponseEntity<byte[]> result = createResponseEntity(bytes, contentType,
-				fileName);
-		this.projectGenerator.cleanTempFiles(dir);
-		return result;
+	private ResponseEntity<byte[]> upload(byte[] archive, String fileName,
+			String contentType, String eTag) {
+		log.info("Uploading: {} ({} bytes)", fileName, archive.length);
+		return createResponseEntity(archive, contentType, fileName, eTag);
 	}
 
 	private ResponseEntity<byte[]> createResponseEntity(byte[] content,
-			String contentType, String fileName) {
+			String contentType, String fileName, String eTag) {
 		String contentDispositionValue = "attachment; filename=\"" + fileName + "\"";
 		return ResponseEntity.ok().header("Content-Type", contentType)
-				.header("Content-Disposition", contentDispositionValue).body(content);
+				.header("Content-Disposition", contentDispositionValue).eTag(eTag)
+				.body(content);
 	}
 
-	private String createUniqueId(String content) {
-		StringBuilder builder = new StringBuilder();
-		DigestUtils.appendMd5DigestAsHex(content.getBytes(StandardCharsets.UTF_8),
-				builder);
-		return builder.toString();
+	private String toJson(Object content) {
+		try {
+			return this.objectMapper.writeValueAsString(content);
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Cannot convert to JSON", ex);
+		}
 	}
 
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.util.List;
+import java.util.Map;
+
+import io.spring.initializr.generator.BatchProjectGenerator;
+
+/**
+ * Provide the project requests that are most likely to be requested, for instance to
+ * prepare their archives ahead of time.
+ *
+ * @author Stephane Nicoll
+ * @see ProjectArchivePrewarmer
+ */
+@FunctionalInterface
+public interface PopularProjectRequests {
+
+	/**
+	 * Return the attributes of the most popular project requests, from the most to the
+	 * least popular. Attributes that are not specified use the defaults of the metadata,
+	 * see
+	 * {@link BatchProjectGenerator#createRequest(Map, io.spring.initializr.metadata.InitializrMetadata)}
+	 * for the supported keys.
+	 * @param limit the maximum number of requests to return
+	 * @return the attributes of each request
+	 */
+	List<Map<String, Object>> getPopularRequests(int limit);
+
+}
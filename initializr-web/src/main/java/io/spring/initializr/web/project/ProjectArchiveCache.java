@@ -0,0 +1,179 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.spring.initializr.metadata.InitializrMetadata;
+
+/**
+ * Cache of generated archives. Archives are reproducible so an archive can be served
+ * again as long as the request and the metadata it has been generated from are the same.
+ * Entries are kept until the {@link InitializrMetadata#getRevision() revision} of the
+ * metadata changes. The total size of the archives is bounded, the least recently used
+ * one being evicted first.
+ *
+ * @author Stephane Nicoll
+ */
+public class ProjectArchiveCache {
+
+	private final long maxSize;
+
+	private final Map<String, byte[]> archives = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private InitializrMetadata metadata;
+
+	private long revision;
+
+	private long size;
+
+	/**
+	 * Create an instance.
+	 * @param maxSize the maximum number of bytes of all archives, {@code 0} to disable
+	 * caching
+	 */
+	public ProjectArchiveCache(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Return the archive with the specified key for the current snapshot of the specified
+	 * metadata.
+	 * @param metadata the metadata the archive is generated from
+	 * @param key the key of the archive
+	 * @return the archive or {@code null} if it is not cached
+	 */
+	public byte[] get(InitializrMetadata metadata, String key) {
+		byte[] archive;
+		synchronized (this.archives) {
+			invalidateIfNecessary(metadata);
+			archive = this.archives.get(key);
+		}
+		((archive != null) ? this.hits : this.misses).incrementAndGet();
+		return archive;
+	}
+
+	/**
+	 * Return whether an archive with the specified key is cached for the current snapshot
+	 * of the specified metadata. Does not affect statistics nor the eviction order.
+	 * @param metadata the metadata the archive is generated from
+	 * @param key the key of the archive
+	 * @return {@code true} if the archive is cached
+	 */
+	public boolean contains(InitializrMetadata metadata, String key) {
+		synchronized (this.archives) {
+			invalidateIfNecessary(metadata);
+			return this.archives.containsKey(key);
+		}
+	}
+
+	/**
+	 * Cache the specified archive. Archives that are larger than the maximum size are
+	 * ignored.
+	 * @param metadata the metadata the archive has been generated from
+	 * @param key the key of the archive
+	 * @param archive the content of the archive
+	 */
+	public void put(InitializrMetadata metadata, String key, byte[] archive) {
+		if (archive.length > this.maxSize) {
+			return;
+		}
+		synchronized (this.archives) {
+			invalidateIfNecessary(metadata);
+			byte[] previous = this.archives.put(key, archive);
+			this.size += archive.length - ((previous != null) ? previous.length : 0);
+			Iterator<byte[]> eldest = this.archives.values().iterator();
+			while (this.size > this.maxSize) {
+				this.size -= eldest.next().length;
+				eldest.remove();
+			}
+		}
+	}
+
+	// Must be called while holding the lock
+	private void invalidateIfNecessary(InitializrMetadata metadata) {
+		long currentRevision = metadata.getRevision();
+		if (this.metadata != metadata || this.revision != currentRevision) {
+			this.archives.clear();
+			this.size = 0;
+			this.metadata = metadata;
+			this.revision = currentRevision;
+		}
+	}
+
+	/**
+	 * Remove all archives.
+	 */
+	public void clear() {
+		synchronized (this.archives) {
+			this.archives.clear();
+			this.size = 0;
+		}
+	}
+
+	/**
+	 * Return the maximum number of bytes of all archives.
+	 * @return the maximum size, {@code 0} if caching is disabled
+	 */
+	public long getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Return the number of cached archives.
+	 * @return the number of entries
+	 */
+	public int getEntries() {
+		synchronized (this.archives) {
+			return this.archives.size();
+		}
+	}
+
+	/**
+	 * Return the total size of the cached archives.
+	 * @return the size in bytes
+	 */
+	public long getSize() {
+		synchronized (this.archives) {
+			return this.size;
+		}
+	}
+
+	/**
+	 * Return the number of times a cached archive has been returned.
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Return the number of times an archive was requested but was not cached.
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+}
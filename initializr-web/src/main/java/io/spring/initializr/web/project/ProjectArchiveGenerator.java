@@ -0,0 +1,178 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.File;
+import java.io.IOException;
+
+import io.spring.initializr.generator.ProjectGenerator;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.web.project.ProjectGenerationMonitor.Generation;
+
+/**
+ * Generate the archive of a project, using a {@link ProjectArchiveCache} to serve
+ * archives that have already been generated for the same request. Generations are
+ * recorded by a {@link ProjectGenerationMonitor}.
+ *
+ * @author Stephane Nicoll
+ */
+public class ProjectArchiveGenerator {
+
+	private final ProjectGenerator projectGenerator;
+
+	private final ProjectArchiveCache cache;
+
+	private final ProjectGenerationMonitor monitor;
+
+	public ProjectArchiveGenerator(ProjectGenerator projectGenerator,
+			ProjectArchiveCache cache) {
+		this(projectGenerator, cache, new ProjectGenerationMonitor());
+	}
+
+	public ProjectArchiveGenerator(ProjectGenerator projectGenerator,
+			ProjectArchiveCache cache, ProjectGenerationMonitor monitor) {
+		this.projectGenerator = projectGenerator;
+		this.cache = cache;
+		this.monitor = monitor;
+	}
+
+	/**
+	 * Generate the archive of the specified {@link ProjectRequest}. Events are published
+	 * as for any generated project, even if the archive is served from the cache.
+	 * @param request the project request
+	 * @param format the format of the archive
+	 * @return the content of the archive
+	 * @throws IOException if the archive cannot be written
+	 */
+	public byte[] generate(ProjectRequest request, ArchiveFormat format)
+			throws IOException {
+		Generation generation = this.monitor.start(request, format.getExtension());
+		try {
+			InitializrMetadata metadata = this.projectGenerator.getMetadataProvider()
+					.get();
+			String key = generateKey(request, metadata, format);
+			byte[] archive = this.cache.get(metadata, key);
+			generation.phase("cache");
+			if (archive != null) {
+				this.projectGenerator.notifyProjectGenerated(request);
+				generation.phase("notify");
+				return archive;
+			}
+			File dir = this.projectGenerator.generateProjectStructure(request);
+			generation.phase("generate");
+			archive = archive(request, dir, format);
+			generation.phase("archive");
+			this.cache.put(metadata, key, archive);
+			return archive;
+		}
+		finally {
+			generation.end();
+		}
+	}
+
+	/**
+	 * Generate the archive of the specified {@link ProjectRequest} and add it to the
+	 * cache, unless it is cached already. No event is published.
+	 * @param request the project request
+	 * @param format the format of the archive
+	 * @return {@code true} if the archive has been generated, {@code false} if it was
+	 * cached already
+	 * @throws IOException if the archive cannot be written
+	 */
+	public boolean prepare(ProjectRequest request, ArchiveFormat format)
+			throws IOException {
+		InitializrMetadata metadata = this.projectGenerator.getMetadataProvider().get();
+		String key = generateKey(request, metadata, format);
+		if (this.cache.contains(metadata, key)) {
+			return false;
+		}
+		byte[] archive = archive(request,
+				this.projectGenerator.prepareProjectStructure(request), format);
+		this.cache.put(metadata, key, archive);
+		return true;
+	}
+
+	// The request is fingerprinted before it is resolved, as for the ETag
+	static String generateKey(ProjectRequest request, InitializrMetadata metadata,
+			ArchiveFormat format) {
+		return request.fingerprint(metadata, String.valueOf(metadata.getRevision())) + "-"
+				+ format.getExtension();
+	}
+
+	private byte[] archive(ProjectRequest request, File dir, ArchiveFormat format)
+			throws IOException {
+		try {
+			return (format == ArchiveFormat.ZIP)
+					? ProjectArchiver.zip(dir, getWrapperScript(request))
+					: ProjectArchiver.tgz(dir, getWrapperScript(request));
+		}
+		finally {
+			this.projectGenerator.cleanTempFiles(dir);
+		}
+	}
+
+	private static String getWrapperScript(ProjectRequest request) {
+		String script = ("gradle".equals(request.getBuild()) ? "gradlew" : "mvnw");
+		return (request.getBaseDir() != null) ? request.getBaseDir() + "/" + script
+				: script;
+	}
+
+	/**
+	 * Return the {@link ProjectArchiveCache} used by this instance.
+	 * @return the archive cache
+	 */
+	public ProjectArchiveCache getCache() {
+		return this.cache;
+	}
+
+	/**
+	 * Return the {@link ProjectGenerationMonitor} used by this instance.
+	 * @return the generation monitor
+	 */
+	public ProjectGenerationMonitor getMonitor() {
+		return this.monitor;
+	}
+
+	/**
+	 * The supported archive formats.
+	 */
+	public enum ArchiveFormat {
+
+		/**
+		 * A zip archive.
+		 */
+		ZIP("zip"),
+
+		/**
+		 * A gzipped tar archive.
+		 */
+		TGZ("tar.gz");
+
+		private final String extension;
+
+		ArchiveFormat(String extension) {
+			this.extension = extension;
+		}
+
+		public String getExtension() {
+			return this.extension;
+		}
+
+	}
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.spring.initializr.generator.BatchProjectGenerator;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.web.project.ProjectArchiveGenerator.ArchiveFormat;
+import io.spring.initializr.web.project.ProjectArchiveProperties.Prewarm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Generate the archives of the most popular project requests in the background so that
+ * the first users of those requests are served from the {@link ProjectArchiveCache}. The
+ * default request of the metadata is always prewarmed first, followed by the requests of
+ * each {@link PopularProjectRequests} in order.
+ * <p>
+ * Prewarming runs on startup, on a low priority thread, and again every time the metadata
+ * changes. The instance is {@link #isWarm() warm} once the configured fraction of the
+ * requests have been handled on startup.
+ *
+ * @author Stephane Nicoll
+ */
+public class ProjectArchivePrewarmer implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(ProjectArchivePrewarmer.class);
+
+	private final ProjectArchiveGenerator archiveGenerator;
+
+	private final InitializrMetadataProvider metadataProvider;
+
+	private final List<PopularProjectRequests> popularRequests;
+
+	private final int maxRequests;
+
+	private final List<ArchiveFormat> formats;
+
+	private final double warmFraction;
+
+	private final long checkInterval;
+
+	private volatile int total;
+
+	private volatile int processed;
+
+	private volatile boolean warm;
+
+	private volatile InitializrMetadata metadata;
+
+	private volatile long revision;
+
+	private volatile Thread prewarmer;
+
+	public ProjectArchivePrewarmer(ProjectArchiveGenerator archiveGenerator,
+			InitializrMetadataProvider metadataProvider,
+			List<PopularProjectRequests> popularRequests, Prewarm properties) {
+		this.archiveGenerator = archiveGenerator;
+		this.metadataProvider = metadataProvider;
+		this.popularRequests = new ArrayList<>(popularRequests);
+		this.maxRequests = properties.getRequests();
+		this.formats = new ArrayList<>(properties.getFormats());
+		this.warmFraction = properties.getWarmFraction();
+		this.checkInterval = properties.getCheckInterval().toMillis();
+	}
+
+	/**
+	 * Generate the archives of the popular requests for the current metadata, unless they
+	 * are cached already.
+	 */
+	public void prewarm() {
+		InitializrMetadata currentMetadata = this.metadataProvider.get();
+		long currentRevision = currentMetadata.getRevision();
+		List<Map<String, Object>> requests = collectRequests(currentMetadata);
+		this.processed = 0;
+		this.total = requests.size() * this.formats.size();
+		long start = System.nanoTime();
+		int generated = 0;
+		for (Map<String, Object> attributes : requests) {
+			for (ArchiveFormat format : this.formats) {
+				if (Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				try {
+					ProjectRequest request = BatchProjectGenerator
+							.createRequest(attributes, currentMetadata);
+					if (this.archiveGenerator.prepare(request, format)) {
+						generated++;
+					}
+				}
+				catch (Exception ex) {
+					log.debug("Failed to prewarm " + format + " archive of " + attributes,
+							ex);
+				}
+				this.processed++;
+				if (this.processed >= Math.ceil(this.total * this.warmFraction)) {
+					this.warm = true;
+				}
+			}
+		}
+		this.warm = true;
+		this.metadata = currentMetadata;
+		this.revision = currentRevision;
+		log.info("Prewarmed {} project archive(s) in {}ms", generated,
+				(System.nanoTime() - start) / 1000000);
+	}
+
+	// Unique requests, identified by their fingerprint, starting with the default one
+	private List<Map<String, Object>> collectRequests(InitializrMetadata metadata) {
+		Map<String, Object> defaults = new LinkedHashMap<>();
+		metadata.defaults().forEach((key, value) -> {
+			if (value != null) {
+				defaults.put(key, value);
+			}
+		});
+		List<Map<String, Object>> candidates = new ArrayList<>();
+		candidates.add(defaults);
+		for (PopularProjectRequests source : this.popularRequests) {
+			try {
+				for (Map<String, Object> attributes : source
+						.getPopularRequests(this.maxRequests)) {
+					Map<String, Object> candidate = new LinkedHashMap<>(defaults);
+					candidate.putAll(attributes);
+					candidates.add(candidate);
+				}
+			}
+			catch (RuntimeException ex) {
+				log.warn("Failed to retrieve popular project requests from " + source,
+						ex);
+			}
+		}
+		Map<String, Map<String, Object>> requests = new LinkedHashMap<>();
+		for (Map<String, Object> candidate : candidates) {
+			if (requests.size() >= this.maxRequests) {
+				break;
+			}
+			try {
+				requests.putIfAbsent(BatchProjectGenerator
+						.createRequest(candidate, metadata).fingerprint(), candidate);
+			}
+			catch (RuntimeException ex) {
+				log.debug("Ignoring invalid popular project request " + candidate, ex);
+			}
+		}
+		return new ArrayList<>(requests.values());
+	}
+
+	@Override
+	public void start() {
+		Thread thread = new Thread(this::run, "initializr-prewarm");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		this.prewarmer = thread;
+		thread.start();
+	}
+
+	@Override
+	public void stop() {
+		Thread thread = this.prewarmer;
+		this.prewarmer = null;
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.prewarmer != null;
+	}
+
+	private void run() {
+		try {
+			prewarmIfNecessary();
+			while (!Thread.currentThread().isInterrupted()) {
+				Thread.sleep(this.checkInterval);
+				prewarmIfNecessary();
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void prewarmIfNecessary() {
+		try {
+			InitializrMetadata currentMetadata = this.metadataProvider.get();
+			if (currentMetadata != this.metadata
+					|| currentMetadata.getRevision() != this.revision) {
+				prewarm();
+			}
+		}
+		catch (RuntimeException ex) {
+			log.warn("Failed to prewarm project archives", ex);
+		}
+		finally {
+			// Never keep the instance out of service because of prewarming
+			this.warm = true;
+		}
+	}
+
+	/**
+	 * Return whether the configured fraction of the requests have been prewarmed on
+	 * startup.
+	 * @return {@code true} if the cache is warm
+	 */
+	public boolean isWarm() {
+		return this.warm;
+	}
+
+	/**
+	 * Return the fraction of the requests that must have been prewarmed on startup for
+	 * this instance to be {@link #isWarm() warm}.
+	 * @return the expected warm fraction
+	 */
+	public double getWarmFraction() {
+		return this.warmFraction;
+	}
+
+	/**
+	 * Return the number of archives to generate in the current or last run.
+	 * @return the total number of archives
+	 */
+	public int getTotal() {
+		return this.total;
+	}
+
+	/**
+	 * Return the number of archives that have been handled in the current or last run,
+	 * including the ones that could not be generated.
+	 * @return the number of processed archives
+	 */
+	public int getProcessed() {
+		return this.processed;
+	}
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.spring.initializr.web.project.ProjectArchiveGenerator.ArchiveFormat;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration of the generation of project archives.
+ *
+ * @author Stephane Nicoll
+ */
+@ConfigurationProperties("initializr.archives")
+public class ProjectArchiveProperties {
+
+	private final Cache cache = new Cache();
+
+	private final Prewarm prewarm = new Prewarm();
+
+	private final Monitor monitor = new Monitor();
+
+	public Cache getCache() {
+		return this.cache;
+	}
+
+	public Prewarm getPrewarm() {
+		return this.prewarm;
+	}
+
+	public Monitor getMonitor() {
+		return this.monitor;
+	}
+
+	/**
+	 * Archive cache configuration.
+	 */
+	public static class Cache {
+
+		/**
+		 * Maximum size of all cached archives. The cache is disabled by default, set a
+		 * positive size (e.g. 64MB) to enable it.
+		 */
+		private DataSize maxSize = DataSize.ofBytes(0);
+
+		public DataSize getMaxSize() {
+			return this.maxSize;
+		}
+
+		public void setMaxSize(DataSize maxSize) {
+			this.maxSize = maxSize;
+		}
+
+	}
+
+	/**
+	 * Archive cache prewarming configuration.
+	 */
+	public static class Prewarm {
+
+		/**
+		 * Whether to generate the archives of popular requests in the background on
+		 * startup and when the metadata changes. Requires the cache to be enabled, the
+		 * application fails to start otherwise.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Maximum number of requests to prewarm, including the default request.
+		 */
+		private int requests = 20;
+
+		/**
+		 * Formats of the archives to prewarm for each request.
+		 */
+		private List<ArchiveFormat> formats = new ArrayList<>(
+				Collections.singletonList(ArchiveFormat.ZIP));
+
+		/**
+		 * Location of a JSON array of popular request attributes, from the most to the
+		 * least popular.
+		 */
+		private Resource location;
+
+		/**
+		 * Fraction of the requests that must have been prewarmed on startup for the
+		 * instance to report that it is ready.
+		 */
+		private double warmFraction = 0.8;
+
+		/**
+		 * How often to check whether the metadata has changed and the cache has to be
+		 * prewarmed again.
+		 */
+		private Duration checkInterval = Duration.ofMinutes(1);
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getRequests() {
+			return this.requests;
+		}
+
+		public void setRequests(int requests) {
+			this.requests = requests;
+		}
+
+		public List<ArchiveFormat> getFormats() {
+			return this.formats;
+		}
+
+		public void setFormats(List<ArchiveFormat> formats) {
+			this.formats = formats;
+		}
+
+		public Resource getLocation() {
+			return this.location;
+		}
+
+		public void setLocation(Resource location) {
+			this.location = location;
+		}
+
+		public double getWarmFraction() {
+			return this.warmFraction;
+		}
+
+		public void setWarmFraction(double warmFraction) {
+			this.warmFraction = warmFraction;
+		}
+
+		public Duration getCheckInterval() {
+			return this.checkInterval;
+		}
+
+		public void setCheckInterval(Duration checkInterval) {
+			this.checkInterval = checkInterval;
+		}
+
+	}
+
+	/**
+	 * Archive generation monitoring configuration.
+	 */
+	public static class Monitor {
+
+		/**
+		 * Minimum duration of a generation for it to be recorded as slow.
+		 */
+		private Duration slowThreshold = Duration.ofSeconds(1);
+
+		/**
+		 * Maximum number of slow generations to retain, the oldest being discarded first.
+		 */
+		private int slowGenerations = 20;
+
+		public Duration getSlowThreshold() {
+			return this.slowThreshold;
+		}
+
+		public void setSlowThreshold(Duration slowThreshold) {
+			this.slowThreshold = slowThreshold;
+		}
+
+		public int getSlowGenerations() {
+			return this.slowGenerations;
+		}
+
+		public void setSlowGenerations(int slowGenerations) {
+			this.slowGenerations = slowGenerations;
+		}
+
+	}
+
+}
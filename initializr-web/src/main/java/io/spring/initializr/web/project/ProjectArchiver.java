@@ -0,0 +1,176 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import io.spring.initializr.generator.ProjectContent;
+import io.spring.initializr.generator.ProjectContent.Entry;
+import org.apache.tools.tar.TarEntry;
+import org.apache.tools.tar.TarOutputStream;
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipOutputStream;
+
+/**
+ * Create reproducible archives of a generated project. Entries are written sorted by
+ * path, with fixed timestamps, modes and ownership so that the same project structure
+ * always yields the same bytes.
+ *
+ * @author Stephane Nicoll
+ */
+public final class ProjectArchiver {
+
+	/**
+	 * Date and time of zip entries. Zip stores the local date and time, without a time
+	 * zone, so the same fields are written regardless of the time zone of the host.
+	 */
+	static final LocalDateTime ZIP_ENTRY_TIME = LocalDateTime.of(1980, 2, 1, 0, 0);
+
+	/**
+	 * Timestamp of tar entries, 1980-02-01T00:00:00Z.
+	 */
+	static final long TAR_ENTRY_TIME = 318211200000L;
+
+	private ProjectArchiver() {
+	}
+
+	/**
+	 * Create a zip archive of the content of the specified directory.
+	 * @param dir the directory to archive
+	 * @param executable the path, relative to {@code dir}, of a file that should be
+	 * executable or {@code null}
+	 * @return the content of the archive
+	 * @throws IOException if the directory cannot be read
+	 */
+	public static byte[] zip(File dir, String executable) throws IOException {
+		return zip(readContent(dir, executable));
+	}
+
+	/**
+	 * Create a zip archive of the specified {@link ProjectContent}.
+	 * @param content the content to archive
+	 * @return the content of the archive
+	 * @throws IOException if the archive cannot be written
+	 */
+	public static byte[] zip(ProjectContent content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long zipEntryTime = toZipTime(ZIP_ENTRY_TIME);
+		try (ZipOutputStream zip = new ZipOutputStream(out)) {
+			zip.setEncoding("UTF-8");
+			zip.setUseLanguageEncodingFlag(true);
+			for (Entry entry : content.getEntries()) {
+				ZipEntry zipEntry = new ZipEntry(entry.getPath());
+				zipEntry.setTime(zipEntryTime);
+				if (entry.isDirectory()) {
+					zipEntry.setUnixMode(UnixStat.DIR_FLAG | entry.getMode());
+					zipEntry.setMethod(ZipEntry.STORED);
+					zipEntry.setSize(0);
+					zipEntry.setCrc(0);
+					zip.putNextEntry(zipEntry);
+				}
+				else {
+					zipEntry.setUnixMode(UnixStat.FILE_FLAG | entry.getMode());
+					zip.putNextEntry(zipEntry);
+					zip.write(entry.getContent());
+				}
+				zip.closeEntry();
+			}
+		}
+		return out.toByteArray();
+	}
+
+	// The zip entry converts the instant back to fields using the current time zone
+	static long toZipTime(LocalDateTime dateTime) {
+		return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	/**
+	 * Create a gzipped tar archive of the content of the specified directory.
+	 * @param dir the directory to archive
+	 * @param executable the path, relative to {@code dir}, of a file that should be
+	 * executable or {@code null}
+	 * @return the content of the archive
+	 * @throws IOException if the directory cannot be read
+	 */
+	public static byte[] tgz(File dir, String executable) throws IOException {
+		return tgz(readContent(dir, executable));
+	}
+
+	/**
+	 * Create a gzipped tar archive of the specified {@link ProjectContent}.
+	 * @param content the content to archive
+	 * @return the content of the archive
+	 * @throws IOException if the archive cannot be written
+	 */
+	public static byte[] tgz(ProjectContent content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// The gzip header written by the JDK has no timestamp
+		try (TarOutputStream tar = new TarOutputStream(new GZIPOutputStream(out))) {
+			tar.setLongFileMode(TarOutputStream.LONGFILE_GNU);
+			for (Entry entry : content.getEntries()) {
+				TarEntry tarEntry = new TarEntry(entry.getPath(), true);
+				tarEntry.setModTime(TAR_ENTRY_TIME);
+				tarEntry.setMode(
+						(entry.isDirectory() ? UnixStat.DIR_FLAG : UnixStat.FILE_FLAG)
+								| entry.getMode());
+				tarEntry.setIds(0, 0);
+				tarEntry.setNames("", "");
+				tarEntry.setSize(entry.getSize());
+				tar.putNextEntry(tarEntry);
+				if (!entry.isDirectory()) {
+					tar.write(entry.getContent());
+				}
+				tar.closeEntry();
+			}
+		}
+		return out.toByteArray();
+	}
+
+	// Entries are sorted by path so the order of the file system does not matter
+	private static ProjectContent readContent(File dir, String executable)
+			throws IOException {
+		ProjectContent content = new ProjectContent();
+		Path root = dir.toPath();
+		try (Stream<Path> paths = Files.walk(root)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				if (path.equals(root)) {
+					continue;
+				}
+				String name = root.relativize(path).toString().replace(File.separatorChar,
+						'/');
+				if (Files.isDirectory(path)) {
+					content.addDirectory(name);
+				}
+				else {
+					content.addFile(name, Files.readAllBytes(path),
+							name.equals(executable));
+				}
+			}
+		}
+		return content;
+	}
+
+}
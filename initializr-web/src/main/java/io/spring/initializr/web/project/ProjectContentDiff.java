@@ -0,0 +1,327 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.spring.initializr.generator.ProjectContent;
+import io.spring.initializr.generator.ProjectContent.Entry;
+
+/**
+ * The differences between two {@link ProjectContent} instances, typically the project
+ * that was generated originally and the one that a new request would generate.
+ *
+ * @author Stephane Nicoll
+ */
+public final class ProjectContentDiff {
+
+	private static final int CONTEXT = 3;
+
+	private static final int EQUAL = 0;
+
+	private static final int DELETE = 1;
+
+	private static final int INSERT = 2;
+
+	// Larger files are replaced as a whole rather than diffed line by line
+	private static final long MAX_DIFF_CELLS = 4_000_000;
+
+	private final List<Entry> removed = new ArrayList<>();
+
+	private final List<Entry[]> modified = new ArrayList<>();
+
+	private final List<Entry> added = new ArrayList<>();
+
+	private ProjectContentDiff() {
+	}
+
+	/**
+	 * Compute the differences between the specified contents.
+	 * @param from the original content
+	 * @param to the new content
+	 * @return the differences
+	 */
+	public static ProjectContentDiff of(ProjectContent from, ProjectContent to) {
+		ProjectContentDiff diff = new ProjectContentDiff();
+		for (Entry entry : from.getEntries()) {
+			if (to.getEntry(entry.getPath()) == null) {
+				diff.removed.add(entry);
+			}
+		}
+		for (Entry entry : to.getEntries()) {
+			Entry original = from.getEntry(entry.getPath());
+			if (original == null) {
+				diff.added.add(entry);
+			}
+			else if (!entry.isDirectory()
+					&& (!Arrays.equals(original.getContent(), entry.getContent())
+							|| original.getMode() != entry.getMode())) {
+				diff.modified.add(new Entry[] { original, entry });
+			}
+		}
+		return diff;
+	}
+
+	/**
+	 * Return whether both contents are identical.
+	 * @return {@code true} if there is no difference
+	 */
+	public boolean isEmpty() {
+		return this.removed.isEmpty() && this.modified.isEmpty() && this.added.isEmpty();
+	}
+
+	/**
+	 * Return the paths that only exist in the original content.
+	 * @return the removed paths
+	 */
+	public List<String> getRemovedPaths() {
+		List<String> paths = new ArrayList<>();
+		this.removed.forEach((entry) -> paths.add(entry.getPath()));
+		return Collections.unmodifiableList(paths);
+	}
+
+	/**
+	 * Return the entries of the new content that have been added or modified.
+	 * @return a content with the added and modified entries only
+	 */
+	public ProjectContent getChanges() {
+		ProjectContent changes = new ProjectContent();
+		for (Entry entry : this.added) {
+			if (entry.isDirectory()) {
+				changes.addDirectory(entry.getPath());
+			}
+			else {
+				changes.addFile(entry.getPath(), entry.getContent(),
+						entry.isExecutable());
+			}
+		}
+		for (Entry[] entries : this.modified) {
+			changes.addFile(entries[1].getPath(), entries[1].getContent(),
+					entries[1].isExecutable());
+		}
+		return changes;
+	}
+
+	/**
+	 * Write the differences as a unified patch that can be applied to the original
+	 * project using {@code git apply}. Directories are not part of the patch.
+	 * @return the patch
+	 */
+	public String toUnifiedPatch() {
+		List<Entry[]> files = new ArrayList<>();
+		this.removed.stream().filter((entry) -> !entry.isDirectory())
+				.forEach((entry) -> files.add(new Entry[] { entry, null }));
+		files.addAll(this.modified);
+		this.added.stream().filter((entry) -> !entry.isDirectory())
+				.forEach((entry) -> files.add(new Entry[] { null, entry }));
+		files.sort((first, second) -> path(first).compareTo(path(second)));
+		StringBuilder patch = new StringBuilder();
+		for (Entry[] file : files) {
+			writeFile(patch, file[0], file[1]);
+		}
+		return patch.toString();
+	}
+
+	private static String path(Entry[] entries) {
+		return (entries[1] != null) ? entries[1].getPath() : entries[0].getPath();
+	}
+
+	private static void writeFile(StringBuilder patch, Entry from, Entry to) {
+		String path = (to != null) ? to.getPath() : from.getPath();
+		patch.append("diff --git a/").append(path).append(" b/").append(path)
+				.append('\n');
+		if (from == null) {
+			patch.append("new file mode 100").append(Integer.toOctalString(to.getMode()))
+					.append('\n');
+		}
+		else if (to == null) {
+			patch.append("deleted file mode 100")
+					.append(Integer.toOctalString(from.getMode())).append('\n');
+		}
+		else if (from.getMode() != to.getMode()) {
+			patch.append("old mode 100").append(Integer.toOctalString(from.getMode()))
+					.append('\n');
+			patch.append("new mode 100").append(Integer.toOctalString(to.getMode()))
+					.append('\n');
+			if (Arrays.equals(from.getContent(), to.getContent())) {
+				return;
+			}
+		}
+		String fromName = (from != null) ? "a/" + path : "/dev/null";
+		String toName = (to != null) ? "b/" + path : "/dev/null";
+		byte[] fromContent = (from != null) ? from.getContent() : new byte[0];
+		byte[] toContent = (to != null) ? to.getContent() : new byte[0];
+		if (isBinary(fromContent) || isBinary(toContent)) {
+			patch.append("Binary files ").append(fromName).append(" and ").append(toName)
+					.append(" differ\n");
+			return;
+		}
+		if (fromContent.length == 0 && toContent.length == 0) {
+			return;
+		}
+		patch.append("--- ").append(fromName).append('\n');
+		patch.append("+++ ").append(toName).append('\n');
+		writeHunks(patch, lines(fromContent), lines(toContent));
+	}
+
+	// Same heuristic as git: a NUL byte in the first 8000 bytes
+	private static boolean isBinary(byte[] content) {
+		for (int i = 0; i < Math.min(content.length, 8000); i++) {
+			if (content[i] == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Lines keep their line terminator so that a missing final newline is detected
+	private static List<String> lines(byte[] content) {
+		String text = new String(content, StandardCharsets.UTF_8);
+		List<String> lines = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				lines.add(text.substring(start, i + 1));
+				start = i + 1;
+			}
+		}
+		if (start < text.length()) {
+			lines.add(text.substring(start));
+		}
+		return lines;
+	}
+
+	private static void writeHunks(StringBuilder patch, List<String> a, List<String> b) {
+		List<int[]> edits = diff(a, b);
+		int index = 0;
+		while (index < edits.size()) {
+			if (edits.get(index)[0] == EQUAL) {
+				index++;
+				continue;
+			}
+			int start = Math.max(0, index - CONTEXT);
+			int end = index;
+			int lastChange = index;
+			while (end < edits.size() && end - lastChange <= 2 * CONTEXT) {
+				if (edits.get(end)[0] != EQUAL) {
+					lastChange = end;
+				}
+				end++;
+			}
+			end = Math.min(edits.size(), lastChange + CONTEXT + 1);
+			writeHunk(patch, a, b, edits.subList(start, end));
+			index = end;
+		}
+	}
+
+	private static void writeHunk(StringBuilder patch, List<String> a, List<String> b,
+			List<int[]> edits) {
+		int aStart = -1;
+		int bStart = -1;
+		int aCount = 0;
+		int bCount = 0;
+		StringBuilder lines = new StringBuilder();
+		for (int[] edit : edits) {
+			if (edit[0] != INSERT) {
+				aStart = (aStart != -1) ? aStart : edit[1];
+				aCount++;
+			}
+			if (edit[0] != DELETE) {
+				bStart = (bStart != -1) ? bStart : edit[2];
+				bCount++;
+			}
+			String line = (edit[0] == INSERT) ? b.get(edit[2]) : a.get(edit[1]);
+			lines.append((edit[0] == EQUAL) ? ' ' : (edit[0] == DELETE) ? '-' : '+')
+					.append(line);
+			if (!line.endsWith("\n")) {
+				lines.append("\n\\ No newline at end of file\n");
+			}
+		}
+		int[] first = edits.get(0);
+		patch.append("@@ -").append(range(aStart, aCount, first[1])).append(" +")
+				.append(range(bStart, bCount, first[2])).append(" @@\n").append(lines);
+	}
+
+	// An empty range refers to the line before the hunk
+	private static String range(int start, int count, int position) {
+		if (count == 0) {
+			return position + ",0";
+		}
+		return (count == 1) ? String.valueOf(start + 1) : (start + 1) + "," + count;
+	}
+
+	// Longest common subsequence of the lines that are not part of the common prefix or
+	// suffix. Each edit holds its type and the current index in both lists
+	private static List<int[]> diff(List<String> a, List<String> b) {
+		int prefix = 0;
+		while (prefix < a.size() && prefix < b.size()
+				&& a.get(prefix).equals(b.get(prefix))) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < a.size() - prefix && suffix < b.size() - prefix
+				&& a.get(a.size() - 1 - suffix).equals(b.get(b.size() - 1 - suffix))) {
+			suffix++;
+		}
+		int n = a.size() - prefix - suffix;
+		int m = b.size() - prefix - suffix;
+		List<int[]> edits = new ArrayList<>();
+		for (int i = 0; i < prefix; i++) {
+			edits.add(new int[] { EQUAL, i, i });
+		}
+		if ((long) n * m > MAX_DIFF_CELLS) {
+			for (int i = 0; i < n; i++) {
+				edits.add(new int[] { DELETE, prefix + i, prefix });
+			}
+			for (int j = 0; j < m; j++) {
+				edits.add(new int[] { INSERT, prefix + n, prefix + j });
+			}
+		}
+		else {
+			int[][] lcs = new int[n + 1][m + 1];
+			for (int i = n - 1; i >= 0; i--) {
+				for (int j = m - 1; j >= 0; j--) {
+					lcs[i][j] = a.get(prefix + i).equals(b.get(prefix + j))
+							? lcs[i + 1][j + 1] + 1
+							: Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+				}
+			}
+			int i = 0;
+			int j = 0;
+			while (i < n || j < m) {
+				if (i < n && j < m && a.get(prefix + i).equals(b.get(prefix + j))) {
+					edits.add(new int[] { EQUAL, prefix + i++, prefix + j++ });
+				}
+				else if (i < n && (j == m || lcs[i + 1][j] >= lcs[i][j + 1])) {
+					edits.add(new int[] { DELETE, prefix + i++, prefix + j });
+				}
+				else {
+					edits.add(new int[] { INSERT, prefix + i, prefix + j++ });
+				}
+			}
+		}
+		for (int k = 0; k < suffix; k++) {
+			edits.add(new int[] { EQUAL, a.size() - suffix + k, b.size() - suffix + k });
+		}
+		return edits;
+	}
+
+}
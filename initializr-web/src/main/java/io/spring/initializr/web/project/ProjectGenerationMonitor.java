@@ -0,0 +1,263 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.spring.initializr.generator.ProjectRequest;
+
+/**
+ * Monitor the generation of project archives: keep track of the generations that are in
+ * flight and retain the most recent ones that were slow, with the time spent in each of
+ * their phases.
+ *
+ * @author Stephane Nicoll
+ */
+public class ProjectGenerationMonitor {
+
+	private static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofSeconds(1);
+
+	private static final int DEFAULT_MAX_SLOW_GENERATIONS = 20;
+
+	private final long slowThreshold;
+
+	private final int maxSlowGenerations;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicLong completed = new AtomicLong();
+
+	private final Deque<SlowGeneration> slowGenerations = new ArrayDeque<>();
+
+	public ProjectGenerationMonitor() {
+		this(DEFAULT_SLOW_THRESHOLD, DEFAULT_MAX_SLOW_GENERATIONS);
+	}
+
+	/**
+	 * Create an instance.
+	 * @param slowThreshold the minimum duration of a generation for it to be recorded as
+	 * slow
+	 * @param maxSlowGenerations the maximum number of slow generations to retain
+	 */
+	public ProjectGenerationMonitor(Duration slowThreshold, int maxSlowGenerations) {
+		this.slowThreshold = slowThreshold.toNanos();
+		this.maxSlowGenerations = maxSlowGenerations;
+	}
+
+	/**
+	 * Start monitoring the generation of the specified request. The returned
+	 * {@link Generation} must be {@link Generation#end() ended} once the archive has been
+	 * generated, or has failed to.
+	 * @param request the project request
+	 * @param format the format of the archive
+	 * @return a handle to record the phases of the generation
+	 */
+	public Generation start(ProjectRequest request, String format) {
+		this.inFlight.incrementAndGet();
+		return new Generation(request, format);
+	}
+
+	/**
+	 * Return the number of generations that are in flight.
+	 * @return the number of in flight generations
+	 */
+	public int getInFlight() {
+		return this.inFlight.get();
+	}
+
+	/**
+	 * Return the number of generations that have completed, successfully or not.
+	 * @return the number of completed generations
+	 */
+	public long getCompleted() {
+		return this.completed.get();
+	}
+
+	/**
+	 * Return the slow generations that are retained, the most recent first.
+	 * @return the recent slow generations
+	 */
+	public List<SlowGeneration> getSlowGenerations() {
+		synchronized (this.slowGenerations) {
+			return new ArrayList<>(this.slowGenerations);
+		}
+	}
+
+	private void complete(Generation generation, long duration) {
+		this.inFlight.decrementAndGet();
+		this.completed.incrementAndGet();
+		if (duration < this.slowThreshold || this.maxSlowGenerations <= 0) {
+			return;
+		}
+		SlowGeneration slowGeneration = new SlowGeneration(generation, duration);
+		synchronized (this.slowGenerations) {
+			this.slowGenerations.addFirst(slowGeneration);
+			while (this.slowGenerations.size() > this.maxSlowGenerations) {
+				this.slowGenerations.removeLast();
+			}
+		}
+	}
+
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	/**
+	 * A generation that is being monitored. Not thread-safe, a generation is expected to
+	 * be handled by a single thread.
+	 */
+	public final class Generation {
+
+		private final ProjectRequest request;
+
+		private final String format;
+
+		private final long start;
+
+		private final Map<String, Long> phases = new LinkedHashMap<>();
+
+		private long lastPhase;
+
+		private boolean ended;
+
+		private Generation(ProjectRequest request, String format) {
+			this.request = request;
+			this.format = format;
+			this.start = System.nanoTime();
+			this.lastPhase = this.start;
+		}
+
+		/**
+		 * Record that the phase with the specified name has completed. Its duration is
+		 * the time elapsed since the previous phase completed, or since the generation
+		 * started.
+		 * @param name the name of the phase
+		 */
+		public void phase(String name) {
+			long now = System.nanoTime();
+			this.phases.merge(name, now - this.lastPhase, Long::sum);
+			this.lastPhase = now;
+		}
+
+		/**
+		 * Record that the generation has ended. Has no effect if the generation has ended
+		 * already.
+		 */
+		public void end() {
+			if (!this.ended) {
+				this.ended = true;
+				complete(this, System.nanoTime() - this.start);
+			}
+		}
+
+	}
+
+	/**
+	 * Description of a generation that was slow.
+	 */
+	public static final class SlowGeneration {
+
+		private final Instant timestamp;
+
+		private final String type;
+
+		private final String language;
+
+		private final String bootVersion;
+
+		private final int dependencies;
+
+		private final String format;
+
+		private final long duration;
+
+		private final Map<String, Long> phases;
+
+		private SlowGeneration(Generation generation, long duration) {
+			ProjectRequest request = generation.request;
+			this.timestamp = Instant.now();
+			this.type = request.getType();
+			this.language = request.getLanguage();
+			this.bootVersion = request.getBootVersion();
+			this.dependencies = request.getStyle().size()
+					+ request.getDependencies().size();
+			this.format = generation.format;
+			this.duration = toMillis(duration);
+			Map<String, Long> phases = new LinkedHashMap<>();
+			generation.phases.forEach((name, time) -> phases.put(name, toMillis(time)));
+			this.phases = Collections.unmodifiableMap(phases);
+		}
+
+		public Instant getTimestamp() {
+			return this.timestamp;
+		}
+
+		public String getType() {
+			return this.type;
+		}
+
+		public String getLanguage() {
+			return this.language;
+		}
+
+		public String getBootVersion() {
+			return this.bootVersion;
+		}
+
+		/**
+		 * Return the number of dependencies that were requested.
+		 * @return the number of dependencies
+		 */
+		public int getDependencies() {
+			return this.dependencies;
+		}
+
+		public String getFormat() {
+			return this.format;
+		}
+
+		/**
+		 * Return the total duration of the generation.
+		 * @return the duration in milliseconds
+		 */
+		public long getDuration() {
+			return this.duration;
+		}
+
+		/**
+		 * Return the duration of each phase of the generation, in the order they
+		 * completed.
+		 * @return the duration of each phase in milliseconds
+		 */
+		public Map<String, Long> getPhases() {
+			return this.phases;
+		}
+
+	}
+
+}
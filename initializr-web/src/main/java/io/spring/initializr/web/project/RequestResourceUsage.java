@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+/**
+ * The resources that have been used to handle a request.
+ *
+ * @author Stephane Nicoll
+ * @see RequestResourceUsageListener
+ */
+public final class RequestResourceUsage {
+
+	/**
+	 * The value of an attribute that does not apply to a request, i.e. the build system
+	 * of a request that does not generate a project.
+	 */
+	public static final String NONE = "none";
+
+	/**
+	 * The value of an attribute that is not defined by the metadata, i.e. a language that
+	 * is not supported.
+	 */
+	public static final String OTHER = "other";
+
+	private final String endpoint;
+
+	private final String build;
+
+	private final String language;
+
+	private final int dependencies;
+
+	private final long cpuTime;
+
+	private final long allocatedBytes;
+
+	/**
+	 * Create an instance.
+	 * @param endpoint the pattern of the endpoint that handled the request
+	 * @param build the build system of the project, {@value #OTHER} or {@value #NONE}
+	 * @param language the language of the project, {@value #OTHER} or {@value #NONE}
+	 * @param dependencies the number of requested dependencies
+	 * @param cpuTime the CPU time in nanoseconds or {@code -1} if not available
+	 * @param allocatedBytes the allocated bytes or {@code -1} if not available
+	 */
+	public RequestResourceUsage(String endpoint, String build, String language,
+			int dependencies, long cpuTime, long allocatedBytes) {
+		this.endpoint = endpoint;
+		this.build = build;
+		this.language = language;
+		this.dependencies = dependencies;
+		this.cpuTime = cpuTime;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public String getEndpoint() {
+		return this.endpoint;
+	}
+
+	public String getBuild() {
+		return this.build;
+	}
+
+	public String getLanguage() {
+		return this.language;
+	}
+
+	public int getDependencies() {
+		return this.dependencies;
+	}
+
+	/**
+	 * Return the CPU time that the threads handling the request have used.
+	 * @return the CPU time in nanoseconds or {@code -1} if the JVM does not support
+	 * measuring it
+	 */
+	public long getCpuTime() {
+		return this.cpuTime;
+	}
+
+	/**
+	 * Return the number of bytes that the threads handling the request have allocated on
+	 * the heap.
+	 * @return the allocated bytes or {@code -1} if the JVM does not support measuring it
+	 */
+	public long getAllocatedBytes() {
+		return this.allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "RequestResourceUsage [endpoint=" + this.endpoint + ", build=" + this.build
+				+ ", language=" + this.language + ", dependencies=" + this.dependencies
+				+ ", cpuTime=" + this.cpuTime + ", allocatedBytes=" + this.allocatedBytes
+				+ "]";
+	}
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import io.spring.initializr.generator.BasicProjectRequest;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.metadata.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Measure the CPU time and the heap allocations of the threads that handle a request and
+ * notify {@link RequestResourceUsageListener listeners} once the request has completed.
+ * <p>
+ * Each thread is sampled when it starts and stops working on the request, so that the
+ * time spent waiting, for instance for the client to read the response, is not accounted
+ * for. {@link Callable} handlers are sampled on the thread that executes them as well so
+ * that the usage of a request that is handled asynchronously is complete.
+ * <p>
+ * For handlers that generate a project, the {@link ProjectRequest} of the request is used
+ * to describe the build system, the language and the number of dependencies of the
+ * project. A build system or a language that is not part of the metadata is described as
+ * {@value RequestResourceUsage#OTHER}.
+ *
+ * @author Stephane Nicoll
+ * @see MainController#PROJECT_REQUEST_ATTRIBUTE
+ */
+public class RequestResourceUsageInterceptor
+		implements AsyncHandlerInterceptor, CallableProcessingInterceptor {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(RequestResourceUsageInterceptor.class);
+
+	private static final String USAGE_ATTRIBUTE = RequestResourceUsageInterceptor.class
+			.getName() + ".usage";
+
+	private static final String HANDLER_SAMPLE_ATTRIBUTE = RequestResourceUsageInterceptor.class
+			.getName() + ".handlerSample";
+
+	private static final String CALLABLE_SAMPLE_ATTRIBUTE = RequestResourceUsageInterceptor.class
+			.getName() + ".callableSample";
+
+	private static final String UNKNOWN_ENDPOINT = "unknown";
+
+	private final InitializrMetadataProvider metadataProvider;
+
+	private final List<RequestResourceUsageListener> listeners;
+
+	private final ThreadMXBean threadMXBean;
+
+	private final boolean cpuTimeSupported;
+
+	private final boolean allocatedBytesSupported;
+
+	public RequestResourceUsageInterceptor(InitializrMetadataProvider metadataProvider,
+			List<RequestResourceUsageListener> listeners) {
+		this(metadataProvider, listeners, ManagementFactory.getThreadMXBean());
+	}
+
+	RequestResourceUsageInterceptor(InitializrMetadataProvider metadataProvider,
+			List<RequestResourceUsageListener> listeners, ThreadMXBean threadMXBean) {
+		this.metadataProvider = metadataProvider;
+		this.listeners = new ArrayList<>(listeners);
+		this.threadMXBean = threadMXBean;
+		this.cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported()
+				&& threadMXBean.isThreadCpuTimeEnabled();
+		this.allocatedBytesSupported = isAllocatedBytesSupported(threadMXBean);
+	}
+
+	private static boolean isAllocatedBytesSupported(ThreadMXBean threadMXBean) {
+		if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+			return bean.isThreadAllocatedMemorySupported()
+					&& bean.isThreadAllocatedMemoryEnabled();
+		}
+		return false;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		if (request.getAttribute(USAGE_ATTRIBUTE) == null) {
+			request.setAttribute(USAGE_ATTRIBUTE, new Usage());
+		}
+		request.setAttribute(HANDLER_SAMPLE_ATTRIBUTE, sample());
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request,
+			HttpServletResponse response, Object handler) {
+		// The request thread is released, the request is completed on another dispatch
+		accumulate(request.getAttribute(USAGE_ATTRIBUTE),
+				request.getAttribute(HANDLER_SAMPLE_ATTRIBUTE));
+		request.removeAttribute(HANDLER_SAMPLE_ATTRIBUTE);
+	}
+
+	@Override
+	public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+		request.setAttribute(CALLABLE_SAMPLE_ATTRIBUTE, sample(),
+				RequestAttributes.SCOPE_REQUEST);
+	}
+
+	@Override
+	public <T> void postProcess(NativeWebRequest request, Callable<T> task,
+			Object concurrentResult) {
+		accumulate(request.getAttribute(USAGE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST),
+				request.getAttribute(CALLABLE_SAMPLE_ATTRIBUTE,
+						RequestAttributes.SCOPE_REQUEST));
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+			Object handler, Exception ex) {
+		Object usage = request.getAttribute(USAGE_ATTRIBUTE);
+		if (!(usage instanceof Usage)) {
+			return;
+		}
+		accumulate(usage, request.getAttribute(HANDLER_SAMPLE_ATTRIBUTE));
+		RequestResourceUsage resourceUsage = describe(request, handler, (Usage) usage);
+		for (RequestResourceUsageListener listener : this.listeners) {
+			try {
+				listener.onRequestResourceUsage(resourceUsage);
+			}
+			catch (Exception failure) {
+				log.warn("Failed to notify " + listener + " of " + resourceUsage,
+						failure);
+			}
+		}
+	}
+
+	private RequestResourceUsage describe(HttpServletRequest request, Object handler,
+			Usage usage) {
+		Object pattern = request
+				.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String endpoint = (pattern != null) ? pattern.toString() : UNKNOWN_ENDPOINT;
+		long cpuTime = (this.cpuTimeSupported) ? usage.cpuTime.get() : -1;
+		long allocatedBytes = (this.allocatedBytesSupported) ? usage.allocatedBytes.get()
+				: -1;
+		Object attribute = request.getAttribute(MainController.PROJECT_REQUEST_ATTRIBUTE);
+		if (!(attribute instanceof ProjectRequest) || !isProjectGeneration(handler)) {
+			return new RequestResourceUsage(endpoint, RequestResourceUsage.NONE,
+					RequestResourceUsage.NONE, 0, cpuTime, allocatedBytes);
+		}
+		ProjectRequest projectRequest = (ProjectRequest) attribute;
+		InitializrMetadata metadata = this.metadataProvider.get();
+		return new RequestResourceUsage(endpoint, getBuild(projectRequest, metadata),
+				getLanguage(projectRequest, metadata),
+				projectRequest.getStyle().size()
+						+ projectRequest.getDependencies().size(),
+				cpuTime, allocatedBytes);
+	}
+
+	// The project request is exposed for every handler, only those that bind it
+	// generate a project
+	private boolean isProjectGeneration(Object handler) {
+		if (handler instanceof HandlerMethod) {
+			for (MethodParameter parameter : ((HandlerMethod) handler)
+					.getMethodParameters()) {
+				if (BasicProjectRequest.class
+						.isAssignableFrom(parameter.getParameterType())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// The build is only set once the request has been resolved
+	private String getBuild(ProjectRequest request, InitializrMetadata metadata) {
+		String build = request.getBuild();
+		if (build == null) {
+			Type type = (request.getType() != null)
+					? metadata.getTypes().get(request.getType()) : null;
+			build = (type != null) ? type.getTags().get("build") : null;
+		}
+		if (build == null) {
+			return RequestResourceUsage.NONE;
+		}
+		for (Type type : metadata.getTypes().getContent()) {
+			if (build.equals(type.getTags().get("build"))) {
+				return build;
+			}
+		}
+		return RequestResourceUsage.OTHER;
+	}
+
+	private String getLanguage(ProjectRequest request, InitializrMetadata metadata) {
+		String language = request.getLanguage();
+		if (language == null) {
+			return RequestResourceUsage.NONE;
+		}
+		return (metadata.getLanguages().get(language) != null) ? language
+				: RequestResourceUsage.OTHER;
+	}
+
+	private long[] sample() {
+		long cpuTime = (this.cpuTimeSupported)
+				? this.threadMXBean.getCurrentThreadCpuTime() : 0;
+		long allocatedBytes = (this.allocatedBytesSupported)
+				? ((com.sun.management.ThreadMXBean) this.threadMXBean)
+						.getThreadAllocatedBytes(Thread.currentThread().getId())
+				: 0;
+		return new long[] { cpuTime, allocatedBytes };
+	}
+
+	private void accumulate(Object usage, Object start) {
+		if (usage instanceof Usage && start instanceof long[]) {
+			long[] startSample = (long[]) start;
+			long[] endSample = sample();
+			((Usage) usage).cpuTime.addAndGet(endSample[0] - startSample[0]);
+			((Usage) usage).allocatedBytes.addAndGet(endSample[1] - startSample[1]);
+		}
+	}
+
+	/**
+	 * The resources used by the threads that have handled a request so far.
+	 */
+	private static final class Usage {
+
+		private final AtomicLong cpuTime = new AtomicLong();
+
+		private final AtomicLong allocatedBytes = new AtomicLong();
+
+	}
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+/**
+ * Listener notified of the {@link RequestResourceUsage resources} that have been used to
+ * handle a request.
+ *
+ * @author Stephane Nicoll
+ * @see RequestResourceUsageInterceptor
+ */
+@FunctionalInterface
+public interface RequestResourceUsageListener {
+
+	/**
+	 * Handle the resources that have been used to handle a request. Invoked on the thread
+	 * that completes the request so implementations should be fast.
+	 * @param usage the resource usage of the request
+	 */
+	void onRequestResourceUsage(RequestResourceUsage usage);
+
+}
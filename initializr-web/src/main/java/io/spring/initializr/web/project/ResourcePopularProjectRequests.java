@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * {@link PopularProjectRequests} read from a JSON {@link Resource} holding an array of
+ * request attributes, from the most to the least popular. The resource is read every time
+ * the requests are retrieved so that it can be updated without a restart.
+ *
+ * @author Stephane Nicoll
+ */
+public class ResourcePopularProjectRequests implements PopularProjectRequests {
+
+	private static final TypeReference<List<Map<String, Object>>> REQUESTS_TYPE = new TypeReference<List<Map<String, Object>>>() {
+	};
+
+	private final Resource resource;
+
+	private final ObjectMapper objectMapper;
+
+	public ResourcePopularProjectRequests(Resource resource, ObjectMapper objectMapper) {
+		this.resource = resource;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public List<Map<String, Object>> getPopularRequests(int limit) {
+		try (InputStream in = this.resource.getInputStream()) {
+			List<Map<String, Object>> requests = this.objectMapper.readValue(in,
+					REQUESTS_TYPE);
+			return (requests.size() > limit) ? requests.subList(0, limit) : requests;
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(
+					"Failed to read popular project requests from " + this.resource, ex);
+		}
+	}
+
+}
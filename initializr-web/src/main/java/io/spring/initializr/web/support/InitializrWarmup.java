@@ -0,0 +1,272 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import io.spring.initializr.generator.BatchProjectGenerator;
+import io.spring.initializr.generator.CommandLineHelpGenerator;
+import io.spring.initializr.generator.ProjectGenerator;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.DependencyMetadataProvider;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.InitializrMetadataProvider;
+import io.spring.initializr.metadata.Type;
+import io.spring.initializr.util.TemplateRenderer;
+import io.spring.initializr.util.Version;
+import io.spring.initializr.web.mapper.DependencyMetadataV21JsonMapper;
+import io.spring.initializr.web.mapper.InitializrMetadataV21JsonMapper;
+import io.spring.initializr.web.mapper.InitializrMetadataV2JsonMapper;
+import io.spring.initializr.web.project.ProjectArchiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Warm up the JVM on startup so that the first actual requests do not run interpreted
+ * code. Synthetic projects of every type and language, with various sets of dependencies,
+ * are generated and archived, and the metadata documents and command line help are
+ * rendered, until the time of an iteration is stable or the time budget is exhausted. No
+ * event is published so that statistics are not affected.
+ *
+ * @author Stephane Nicoll
+ */
+public class InitializrWarmup implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory.getLogger(InitializrWarmup.class);
+
+	private static final String APP_URL = "http://localhost:8080";
+
+	private static final int MAX_DEPENDENCIES = 3;
+
+	private final ProjectGenerator projectGenerator;
+
+	private final InitializrMetadataProvider metadataProvider;
+
+	private final DependencyMetadataProvider dependencyMetadataProvider;
+
+	private final CommandLineHelpGenerator commandLineHelpGenerator;
+
+	private final long timeBudget;
+
+	private final int minIterations;
+
+	private final long[] window;
+
+	private final double tolerance;
+
+	private volatile int iterations;
+
+	private volatile boolean stable;
+
+	private volatile boolean complete;
+
+	private volatile Thread warmer;
+
+	public InitializrWarmup(ProjectGenerator projectGenerator,
+			InitializrMetadataProvider metadataProvider,
+			DependencyMetadataProvider dependencyMetadataProvider,
+			TemplateRenderer templateRenderer, WarmupProperties properties) {
+		this.projectGenerator = projectGenerator;
+		this.metadataProvider = metadataProvider;
+		this.dependencyMetadataProvider = dependencyMetadataProvider;
+		this.commandLineHelpGenerator = new CommandLineHelpGenerator(templateRenderer);
+		this.timeBudget = properties.getTimeBudget().toNanos();
+		this.minIterations = properties.getMinIterations();
+		this.window = new long[Math.max(2, properties.getWindow())];
+		this.tolerance = properties.getTolerance();
+	}
+
+	/**
+	 * Run the warmup in the calling thread.
+	 */
+	public void warmup() {
+		long start = System.nanoTime();
+		try {
+			InitializrMetadata metadata = this.metadataProvider.get();
+			Version bootVersion = getDefaultBootVersion(metadata);
+			if (bootVersion == null) {
+				log.info(
+						"Skipping warmup as the default Spring Boot version is not valid");
+				return;
+			}
+			List<Map<String, Object>> requests = createRequests(metadata, bootVersion);
+			while (!this.stable && System.nanoTime() - start < this.timeBudget
+					&& !Thread.currentThread().isInterrupted()) {
+				long iterationStart = System.nanoTime();
+				iterate(metadata, bootVersion, requests);
+				recordIteration(System.nanoTime() - iterationStart);
+			}
+			log.info("Warmup completed in {}ms after {} iteration(s), iteration time {}",
+					(System.nanoTime() - start) / 1000000, this.iterations,
+					(this.stable) ? "stable" : "not stable");
+		}
+		catch (RuntimeException ex) {
+			log.warn("Warmup failed after " + this.iterations + " iteration(s)", ex);
+		}
+		finally {
+			this.complete = true;
+		}
+	}
+
+	private static Version getDefaultBootVersion(InitializrMetadata metadata) {
+		DefaultMetadataElement bootVersion = metadata.getBootVersions().getDefault();
+		return (bootVersion != null) ? Version.safeParse(bootVersion.getId()) : null;
+	}
+
+	// A project for each type and language, each with a different set of dependencies
+	private List<Map<String, Object>> createRequests(InitializrMetadata metadata,
+			Version bootVersion) {
+		List<String> dependencies = metadata.getDependencies().getAll().stream()
+				.filter((dependency) -> dependency.match(bootVersion))
+				.map(Dependency::getId).collect(Collectors.toList());
+		List<Map<String, Object>> requests = new ArrayList<>();
+		int offset = 0;
+		for (Type type : metadata.getTypes().getContent()) {
+			for (DefaultMetadataElement language : metadata.getLanguages().getContent()) {
+				Map<String, Object> request = new LinkedHashMap<>();
+				request.put("type", type.getId());
+				request.put("language", language.getId());
+				int size = (dependencies.isEmpty()) ? 0
+						: requests.size() % (MAX_DEPENDENCIES + 1);
+				List<String> style = new ArrayList<>();
+				for (int i = 0; i < size; i++) {
+					style.add(dependencies.get(offset++ % dependencies.size()));
+				}
+				request.put("style", style);
+				requests.add(request);
+			}
+		}
+		return requests;
+	}
+
+	// Requests that cannot be generated are removed so that they are not tried again
+	private void iterate(InitializrMetadata metadata, Version bootVersion,
+			List<Map<String, Object>> requests) {
+		Iterator<Map<String, Object>> it = requests.iterator();
+		int index = 0;
+		while (it.hasNext()) {
+			Map<String, Object> attributes = it.next();
+			try {
+				generateArchive(BatchProjectGenerator.createRequest(attributes, metadata),
+						index++ % 2 == 0);
+			}
+			catch (Exception ex) {
+				log.debug("Removing warmup request " + attributes, ex);
+				it.remove();
+			}
+		}
+		new InitializrMetadataV21JsonMapper().write(metadata, APP_URL);
+		new InitializrMetadataV2JsonMapper().write(metadata, APP_URL);
+		new DependencyMetadataV21JsonMapper()
+				.write(this.dependencyMetadataProvider.get(metadata, bootVersion));
+		this.commandLineHelpGenerator.generateGenericCapabilities(metadata, APP_URL);
+		this.commandLineHelpGenerator.generateCurlCapabilities(metadata, APP_URL);
+		this.commandLineHelpGenerator.generateHttpieCapabilities(metadata, APP_URL);
+		this.commandLineHelpGenerator.generateSpringBootCliCapabilities(metadata,
+				APP_URL);
+	}
+
+	private void generateArchive(ProjectRequest request, boolean zip) throws IOException {
+		File dir = this.projectGenerator.prepareProjectStructure(request);
+		try {
+			if (zip) {
+				ProjectArchiver.zip(dir, null);
+			}
+			else {
+				ProjectArchiver.tgz(dir, null);
+			}
+		}
+		finally {
+			this.projectGenerator.cleanTempFiles(dir);
+		}
+	}
+
+	// Stable once the durations of the last iterations are within the tolerance
+	private void recordIteration(long duration) {
+		this.window[this.iterations % this.window.length] = duration;
+		this.iterations++;
+		if (this.iterations < Math.max(this.minIterations, this.window.length)) {
+			return;
+		}
+		long min = Long.MAX_VALUE;
+		long max = 0;
+		for (long candidate : this.window) {
+			min = Math.min(min, candidate);
+			max = Math.max(max, candidate);
+		}
+		this.stable = (max - min) <= this.tolerance * min;
+	}
+
+	@Override
+	public void start() {
+		Thread thread = new Thread(this::warmup, "initializr-warmup");
+		thread.setDaemon(true);
+		this.warmer = thread;
+		thread.start();
+	}
+
+	@Override
+	public void stop() {
+		Thread thread = this.warmer;
+		this.warmer = null;
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.warmer != null;
+	}
+
+	/**
+	 * Return whether the warmup has completed, either because the iteration time is
+	 * stable or because the time budget is exhausted.
+	 * @return {@code true} if the warmup has completed
+	 */
+	public boolean isComplete() {
+		return this.complete;
+	}
+
+	/**
+	 * Return whether the iteration time was stable when the warmup completed.
+	 * @return {@code true} if the iteration time is stable
+	 */
+	public boolean isStable() {
+		return this.stable;
+	}
+
+	/**
+	 * Return the number of iterations that have been run so far.
+	 * @return the number of iterations
+	 */
+	public int getIterations() {
+		return this.iterations;
+	}
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.spring.initializr.metadata.DefaultMetadataElement;
+
+/**
+ * The changes between two {@link MetadataSnapshot snapshots} of the metadata.
+ *
+ * @author Stephane Nicoll
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MetadataDelta {
+
+	private final long since;
+
+	private final long revision;
+
+	private final List<DependencyItem> addedDependencies;
+
+	private final List<DependencyItem> changedDependencies;
+
+	private final List<String> removedDependencies;
+
+	private final Map<String, String> versionRanges;
+
+	private final List<DefaultMetadataElement> bootVersions;
+
+	public MetadataDelta(long since, long revision,
+			List<DependencyItem> addedDependencies,
+			List<DependencyItem> changedDependencies, List<String> removedDependencies,
+			Map<String, String> versionRanges,
+			List<DefaultMetadataElement> bootVersions) {
+		this.since = since;
+		this.revision = revision;
+		this.addedDependencies = addedDependencies;
+		this.changedDependencies = changedDependencies;
+		this.removedDependencies = removedDependencies;
+		this.versionRanges = versionRanges;
+		this.bootVersions = bootVersions;
+	}
+
+	/**
+	 * Return the revision of the client the changes apply to.
+	 * @return the revision the changes are computed from
+	 */
+	public long getSince() {
+		return this.since;
+	}
+
+	/**
+	 * Return the revision of the metadata once the changes have been applied.
+	 * @return the current revision
+	 */
+	public long getRevision() {
+		return this.revision;
+	}
+
+	public List<DependencyItem> getAddedDependencies() {
+		return this.addedDependencies;
+	}
+
+	/**
+	 * Return the dependencies whose name, description or group has changed. Each entry
+	 * holds the complete dependency, including its version range.
+	 * @return the changed dependencies
+	 */
+	public List<DependencyItem> getChangedDependencies() {
+		return this.changedDependencies;
+	}
+
+	public List<String> getRemovedDependencies() {
+		return this.removedDependencies;
+	}
+
+	/**
+	 * Return the new version range of the dependencies whose range has changed, mapped by
+	 * dependency id. A {@code null} range indicates that the dependency is no longer
+	 * restricted.
+	 * @return the changed version ranges
+	 */
+	public Map<String, String> getVersionRanges() {
+		return this.versionRanges;
+	}
+
+	/**
+	 * Return the complete list of Spring Boot versions, or {@code null} if they have not
+	 * changed.
+	 * @return the Spring Boot versions or {@code null}
+	 */
+	public List<DefaultMetadataElement> getBootVersions() {
+		return this.bootVersions;
+	}
+
+	/**
+	 * A dependency entry.
+	 */
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	public static final class DependencyItem {
+
+		private final String id;
+
+		private final String name;
+
+		private final String description;
+
+		private final String group;
+
+		private final String versionRange;
+
+		public DependencyItem(String id, String name, String description, String group,
+				String versionRange) {
+			this.id = id;
+			this.name = name;
+			this.description = description;
+			this.group = group;
+			this.versionRange = versionRange;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public String getDescription() {
+			return this.description;
+		}
+
+		public String getGroup() {
+			return this.group;
+		}
+
+		public String getVersionRange() {
+			return this.versionRange;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			DependencyItem other = (DependencyItem) obj;
+			return Objects.equals(this.id, other.id)
+					&& Objects.equals(this.name, other.name)
+					&& Objects.equals(this.description, other.description)
+					&& Objects.equals(this.group, other.group)
+					&& Objects.equals(this.versionRange, other.versionRange);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.id, this.name, this.description, this.group,
+					this.versionRange);
+		}
+
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity.BodyBuilder;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A serialized metadata document. Keeps the {@code UTF-8} representation of the content
+ * as well as a gzip-encoded copy, compressed once at the highest compression level, that
+ * can be served as is to clients that accept it.
+ *
+ * @author Stephane Nicoll
+ */
+public final class MetadataDocument {
+
+	private static final String GZIP = "gzip";
+
+	private final byte[] content;
+
+	private final byte[] gzipContent;
+
+	private final String eTag;
+
+	private MetadataDocument(byte[] content, byte[] gzipContent, String eTag) {
+		this.content = content;
+		this.gzipContent = gzipContent;
+		this.eTag = eTag;
+	}
+
+	/**
+	 * Create a {@link MetadataDocument} for the specified content.
+	 * @param content the serialized content
+	 * @return a new document
+	 */
+	public static MetadataDocument of(String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		StringBuilder eTag = new StringBuilder();
+		DigestUtils.appendMd5DigestAsHex(bytes, eTag);
+		return new MetadataDocument(bytes, gzip(bytes), eTag.toString());
+	}
+
+	/**
+	 * Return the raw content of the document.
+	 * @return the content, encoded in {@code UTF-8}
+	 */
+	public byte[] getContent() {
+		return this.content;
+	}
+
+	/**
+	 * Return the gzip-encoded content of the document.
+	 * @return the compressed content
+	 */
+	public byte[] getGzipContent() {
+		return this.gzipContent;
+	}
+
+	/**
+	 * Return a unique identifier of the content of the document.
+	 * @return the entity tag of the document
+	 */
+	public String getETag() {
+		return this.eTag;
+	}
+
+	/**
+	 * Create a {@link ResponseEntity} for this document, using the pre-compressed content
+	 * if the specified {@code Accept-Encoding} header value allows it.
+	 * @param builder the builder to use
+	 * @param contentType the content type of the document
+	 * @param acceptEncoding the {@code Accept-Encoding} header or {@code null}
+	 * @return the response entity
+	 */
+	public ResponseEntity<byte[]> toResponseEntity(BodyBuilder builder,
+			MediaType contentType, String acceptEncoding) {
+		builder.contentType(new MediaType(contentType, StandardCharsets.UTF_8))
+				.varyBy(HttpHeaders.ACCEPT_ENCODING);
+		if (acceptsGzip(acceptEncoding)) {
+			return builder.eTag(this.eTag + "-" + GZIP)
+					.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(this.gzipContent);
+		}
+		return builder.eTag(this.eTag).body(this.content);
+	}
+
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (!StringUtils.hasText(acceptEncoding)) {
+			return false;
+		}
+		boolean wildcard = false;
+		for (String candidate : StringUtils
+				.commaDelimitedListToStringArray(acceptEncoding)) {
+			String[] elements = StringUtils.delimitedListToStringArray(candidate, ";");
+			String coding = elements[0].trim();
+			if (GZIP.equalsIgnoreCase(coding) || "x-gzip".equalsIgnoreCase(coding)) {
+				return !hasZeroQuality(elements);
+			}
+			if ("*".equals(coding)) {
+				wildcard = !hasZeroQuality(elements);
+			}
+		}
+		return wildcard;
+	}
+
+	private static boolean hasZeroQuality(String[] elements) {
+		for (int i = 1; i < elements.length; i++) {
+			String parameter = elements[i].trim();
+			if (parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2)) <= 0;
+				}
+				catch (NumberFormatException ex) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static byte[] gzip(byte[] content) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4);
+		try (OutputStream gzip = new BestCompressionGzipOutputStream(out)) {
+			gzip.write(content);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot compress content", ex);
+		}
+		return out.toByteArray();
+	}
+
+	private static class BestCompressionGzipOutputStream extends GZIPOutputStream {
+
+		BestCompressionGzipOutputStream(OutputStream out) throws IOException {
+			super(out);
+			this.def.setLevel(Deflater.BEST_COMPRESSION);
+		}
+
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.spring.initializr.metadata.InitializrMetadata;
+
+/**
+ * Cache of {@link MetadataDocument documents} derived from an {@link InitializrMetadata}
+ * instance. Documents are computed once per snapshot of the metadata, that is until its
+ * {@link InitializrMetadata#getRevision() revision} changes. The number of documents is
+ * bounded, the least recently used one being evicted first.
+ *
+ * @author Stephane Nicoll
+ */
+public class MetadataDocumentCache {
+
+	private static final int DEFAULT_MAX_ENTRIES = 64;
+
+	private final Map<String, MetadataDocument> documents;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private InitializrMetadata metadata;
+
+	private long revision;
+
+	public MetadataDocumentCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	public MetadataDocumentCache(int maxEntries) {
+		this.documents = new LinkedHashMap<String, MetadataDocument>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, MetadataDocument> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Return the document with the specified key for the current snapshot of the
+	 * specified metadata, serializing it using the specified {@code content} if
+	 * necessary.
+	 * @param metadata the metadata the document is derived from
+	 * @param key the key of the document
+	 * @param content the serialized content of the document
+	 * @return the document
+	 */
+	public MetadataDocument get(InitializrMetadata metadata, String key,
+			Supplier<String> content) {
+		long currentRevision = metadata.getRevision();
+		synchronized (this.documents) {
+			if (this.metadata != metadata || this.revision != currentRevision) {
+				this.documents.clear();
+				this.metadata = metadata;
+				this.revision = currentRevision;
+			}
+			MetadataDocument document = this.documents.get(key);
+			if (document != null) {
+				this.hits.incrementAndGet();
+				return document;
+			}
+		}
+		this.misses.incrementAndGet();
+		MetadataDocument document = MetadataDocument.of(content.get());
+		synchronized (this.documents) {
+			if (this.metadata == metadata && this.revision == currentRevision) {
+				this.documents.put(key, document);
+			}
+		}
+		return document;
+	}
+
+	/**
+	 * Return the number of documents in the cache.
+	 * @return the number of cached documents
+	 */
+	public int size() {
+		synchronized (this.documents) {
+			return this.documents.size();
+		}
+	}
+
+	/**
+	 * Remove all documents from the cache.
+	 */
+	public void clear() {
+		synchronized (this.documents) {
+			this.documents.clear();
+		}
+	}
+
+	/**
+	 * Return the number of times a cached document has been returned.
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Return the number of times a document had to be serialized.
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+}
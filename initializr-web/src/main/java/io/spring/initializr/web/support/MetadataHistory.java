@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.spring.initializr.metadata.InitializrMetadata;
+
+/**
+ * Retain the most recent {@link MetadataSnapshot snapshots} of the metadata so that
+ * clients can request the changes since the revision they know about. A new revision is
+ * only assigned when the tracked content actually changes so that a higher revision
+ * always denotes a more recent content.
+ * <p>
+ * Revisions are seeded with the time at which the history was created so that they keep
+ * increasing across restarts. A revision that an instance has not retained is unknown and
+ * the client has to start over.
+ *
+ * @author Stephane Nicoll
+ */
+public class MetadataHistory {
+
+	private static final int DEFAULT_MAX_SNAPSHOTS = 16;
+
+	private final int maxSnapshots;
+
+	private final Deque<MetadataSnapshot> snapshots = new ArrayDeque<>();
+
+	private long nextRevision;
+
+	private InitializrMetadata metadata;
+
+	private long metadataRevision;
+
+	public MetadataHistory() {
+		this(DEFAULT_MAX_SNAPSHOTS, System.currentTimeMillis());
+	}
+
+	public MetadataHistory(int maxSnapshots, long initialRevision) {
+		this.maxSnapshots = maxSnapshots;
+		this.nextRevision = initialRevision;
+	}
+
+	/**
+	 * Return the snapshot of the current state of the specified metadata, recording a new
+	 * revision if it has changed since the last invocation.
+	 * @param metadata the metadata
+	 * @return the current snapshot
+	 */
+	public synchronized MetadataSnapshot update(InitializrMetadata metadata) {
+		MetadataSnapshot current = this.snapshots.peekLast();
+		if (current != null && this.metadata == metadata
+				&& this.metadataRevision == metadata.getRevision()) {
+			return current;
+		}
+		this.metadata = metadata;
+		this.metadataRevision = metadata.getRevision();
+		MetadataSnapshot snapshot = MetadataSnapshot.of(this.nextRevision, metadata);
+		if (current != null && current.hasSameContent(snapshot)) {
+			return current;
+		}
+		this.nextRevision++;
+		this.snapshots.addLast(snapshot);
+		if (this.snapshots.size() > this.maxSnapshots) {
+			this.snapshots.removeFirst();
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Return the retained snapshot with the specified revision.
+	 * @param revision the revision of a snapshot
+	 * @return the snapshot or {@code null} if no such revision is retained
+	 */
+	public synchronized MetadataSnapshot get(long revision) {
+		for (MetadataSnapshot snapshot : this.snapshots) {
+			if (snapshot.getRevision() == revision) {
+				return snapshot;
+			}
+		}
+		return null;
+	}
+
+}
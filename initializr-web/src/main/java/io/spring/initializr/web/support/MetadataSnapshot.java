@@ -0,0 +1,210 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.DependencyGroup;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.Link;
+import io.spring.initializr.web.support.MetadataDelta.DependencyItem;
+
+/**
+ * An immutable view of the parts of an {@link InitializrMetadata} that clients track
+ * incrementally, identified by a revision. Revisions are assigned by the
+ * {@link MetadataHistory} in increasing order and a digest of the content is used to find
+ * out whether anything has changed.
+ *
+ * @author Stephane Nicoll
+ * @see MetadataHistory
+ */
+public final class MetadataSnapshot {
+
+	private final long revision;
+
+	private final byte[] digest;
+
+	private final byte[] untrackedDigest;
+
+	private final Map<String, DependencyItem> dependencies;
+
+	private final List<DefaultMetadataElement> bootVersions;
+
+	private MetadataSnapshot(long revision, byte[] digest, byte[] untrackedDigest,
+			Map<String, DependencyItem> dependencies,
+			List<DefaultMetadataElement> bootVersions) {
+		this.revision = revision;
+		this.digest = digest;
+		this.untrackedDigest = untrackedDigest;
+		this.dependencies = dependencies;
+		this.bootVersions = bootVersions;
+	}
+
+	/**
+	 * Create a snapshot of the specified metadata.
+	 * @param revision the revision of the snapshot
+	 * @param metadata the metadata
+	 * @return a snapshot of the current state of the metadata
+	 */
+	public static MetadataSnapshot of(long revision, InitializrMetadata metadata) {
+		Map<String, DependencyItem> dependencies = new LinkedHashMap<>();
+		MessageDigest untrackedDigest = createDigest();
+		for (DependencyGroup group : metadata.getDependencies().getContent()) {
+			for (Dependency dependency : group.getContent()) {
+				dependencies.put(dependency.getId(),
+						new DependencyItem(dependency.getId(), dependency.getName(),
+								dependency.getDescription(), group.getName(),
+								dependency.getVersionRange()));
+				for (Link link : dependency.getLinks()) {
+					update(untrackedDigest, dependency.getId(), link.getRel(),
+							link.getHref(), link.getDescription(),
+							String.valueOf(link.isTemplated()));
+				}
+			}
+		}
+		List<DefaultMetadataElement> bootVersions = new ArrayList<>();
+		for (DefaultMetadataElement bootVersion : metadata.getBootVersions()
+				.getContent()) {
+			bootVersions.add(DefaultMetadataElement.create(bootVersion.getId(),
+					bootVersion.getName(), bootVersion.isDefault()));
+		}
+		byte[] untracked = untrackedDigest.digest();
+		return new MetadataSnapshot(revision,
+				computeDigest(dependencies, bootVersions, untracked), untracked,
+				Collections.unmodifiableMap(dependencies),
+				Collections.unmodifiableList(bootVersions));
+	}
+
+	// A digest of the content that does not depend on the JVM
+	private static byte[] computeDigest(Map<String, DependencyItem> dependencies,
+			List<DefaultMetadataElement> bootVersions, byte[] untrackedDigest) {
+		MessageDigest digest = createDigest();
+		for (DependencyItem item : dependencies.values()) {
+			update(digest, "dependency", item.getId(), item.getName(),
+					item.getDescription(), item.getGroup(), item.getVersionRange());
+		}
+		for (DefaultMetadataElement bootVersion : bootVersions) {
+			update(digest, "bootVersion", bootVersion.getId(), bootVersion.getName(),
+					String.valueOf(bootVersion.isDefault()));
+		}
+		digest.update(untrackedDigest);
+		return digest.digest();
+	}
+
+	private static void update(MessageDigest digest, String... values) {
+		for (String value : values) {
+			if (value != null) {
+				digest.update(value.getBytes(StandardCharsets.UTF_8));
+			}
+			// Separate values so that ("ab", null) and ("a", "b") differ
+			digest.update((byte) ((value != null) ? 0 : 1));
+		}
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 is not available", ex);
+		}
+	}
+
+	public long getRevision() {
+		return this.revision;
+	}
+
+	/**
+	 * Specify if this snapshot has the same content as the specified snapshot, regardless
+	 * of their revision.
+	 * @param other the snapshot to compare to
+	 * @return {@code true} if both snapshots hold the same content
+	 */
+	public boolean hasSameContent(MetadataSnapshot other) {
+		return MessageDigest.isEqual(this.digest, other.digest);
+	}
+
+	/**
+	 * Return the changes that occurred since the specified {@code previous} snapshot.
+	 * Changes that a delta cannot describe, such as the links of a dependency, require
+	 * the client to start over, in which case {@code null} is returned.
+	 * @param previous the snapshot the client has
+	 * @return the delta between {@code previous} and this snapshot, or {@code null} if
+	 * the changes cannot be described incrementally
+	 */
+	public MetadataDelta since(MetadataSnapshot previous) {
+		if (!MessageDigest.isEqual(this.untrackedDigest, previous.untrackedDigest)) {
+			return null;
+		}
+		List<DependencyItem> added = new ArrayList<>();
+		List<DependencyItem> changed = new ArrayList<>();
+		Map<String, String> versionRanges = new LinkedHashMap<>();
+		this.dependencies.forEach((id, item) -> {
+			DependencyItem previousItem = previous.dependencies.get(id);
+			if (previousItem == null) {
+				added.add(item);
+			}
+			else if (!Objects.equals(item.getName(), previousItem.getName())
+					|| !Objects.equals(item.getDescription(),
+							previousItem.getDescription())
+					|| !Objects.equals(item.getGroup(), previousItem.getGroup())) {
+				changed.add(item);
+			}
+			else if (!Objects.equals(item.getVersionRange(),
+					previousItem.getVersionRange())) {
+				versionRanges.put(id, item.getVersionRange());
+			}
+		});
+		List<String> removed = new ArrayList<>();
+		for (String id : previous.dependencies.keySet()) {
+			if (!this.dependencies.containsKey(id)) {
+				removed.add(id);
+			}
+		}
+		List<DefaultMetadataElement> bootVersions = (sameBootVersions(previous)) ? null
+				: this.bootVersions;
+		return new MetadataDelta(previous.revision, this.revision, added, changed,
+				removed, versionRanges, bootVersions);
+	}
+
+	private boolean sameBootVersions(MetadataSnapshot other) {
+		if (this.bootVersions.size() != other.bootVersions.size()) {
+			return false;
+		}
+		for (int i = 0; i < this.bootVersions.size(); i++) {
+			DefaultMetadataElement version = this.bootVersions.get(i);
+			DefaultMetadataElement otherVersion = other.bootVersions.get(i);
+			if (!Objects.equals(version.getId(), otherVersion.getId())
+					|| !Objects.equals(version.getName(), otherVersion.getName())
+					|| version.isDefault() != otherVersion.isDefault()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
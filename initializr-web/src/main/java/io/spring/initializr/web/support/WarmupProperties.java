@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the {@link InitializrWarmup}.
+ *
+ * @author Stephane Nicoll
+ */
+@ConfigurationProperties("initializr.warmup")
+public class WarmupProperties {
+
+	/**
+	 * Whether to warm up the JVM on startup by generating synthetic projects and
+	 * documents.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Maximum time to spend warming up.
+	 */
+	private Duration timeBudget = Duration.ofSeconds(30);
+
+	/**
+	 * Minimum number of warmup iterations.
+	 */
+	private int minIterations = 10;
+
+	/**
+	 * Number of consecutive iterations whose durations are compared to decide whether the
+	 * warmup is complete.
+	 */
+	private int window = 5;
+
+	/**
+	 * Maximum relative difference between the slowest and the fastest iteration of the
+	 * window for the iteration time to be considered stable.
+	 */
+	private double tolerance = 0.1;
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getTimeBudget() {
+		return this.timeBudget;
+	}
+
+	public void setTimeBudget(Duration timeBudget) {
+		this.timeBudget = timeBudget;
+	}
+
+	public int getMinIterations() {
+		return this.minIterations;
+	}
+
+	public void setMinIterations(int minIterations) {
+		this.minIterations = minIterations;
+	}
+
+	public int getWindow() {
+		return this.window;
+	}
+
+	public void setWindow(int window) {
+		this.window = window;
+	}
+
+	public double getTolerance() {
+		return this.tolerance;
+	}
+
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+}
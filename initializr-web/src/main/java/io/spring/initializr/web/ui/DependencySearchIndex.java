@@ -0,0 +1,271 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.ui;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.DependencyGroup;
+import io.spring.initializr.metadata.InitializrMetadata;
+
+/**
+ * An in-memory inverted index of the dependencies of an {@link InitializrMetadata}
+ * snapshot. The id, name, description, keywords and aliases of each dependency are
+ * indexed. A search term matches a token exactly or as a prefix. If it does not match
+ * anything that way, longer terms are allowed a small number of typos. Every term of the
+ * query must match for a dependency to be selected.
+ *
+ * @author Stephane Nicoll
+ */
+public final class DependencySearchIndex {
+
+	private static final int ID_BOOST = 3;
+
+	private static final int NAME_BOOST = 3;
+
+	private static final int ALIAS_BOOST = 2;
+
+	private static final int KEYWORD_BOOST = 2;
+
+	private static final int DESCRIPTION_BOOST = 1;
+
+	private static final int EXACT_MATCH = 3;
+
+	private static final int PREFIX_MATCH = 2;
+
+	private static final int FUZZY_MATCH = 1;
+
+	private final InitializrMetadata metadata;
+
+	private final long revision;
+
+	private final List<Entry> entries = new ArrayList<>();
+
+	private final NavigableMap<String, Map<Integer, Integer>> tokens = new TreeMap<>();
+
+	private DependencySearchIndex(InitializrMetadata metadata) {
+		this.metadata = metadata;
+		this.revision = metadata.getRevision();
+		for (DependencyGroup group : metadata.getDependencies().getContent()) {
+			for (Dependency dependency : group.getContent()) {
+				int index = this.entries.size();
+				this.entries.add(new Entry(group.getName(), dependency));
+				add(index, dependency.getId(), ID_BOOST);
+				add(index, dependency.getName(), NAME_BOOST);
+				add(index, dependency.getDescription(), DESCRIPTION_BOOST);
+				dependency.getKeywords().forEach((it) -> add(index, it, KEYWORD_BOOST));
+				dependency.getAliases().forEach((it) -> add(index, it, ALIAS_BOOST));
+			}
+		}
+	}
+
+	/**
+	 * Create an index for the current state of the specified metadata.
+	 * @param metadata the metadata to index
+	 * @return a new index
+	 */
+	public static DependencySearchIndex of(InitializrMetadata metadata) {
+		return new DependencySearchIndex(metadata);
+	}
+
+	/**
+	 * Specify if this index reflects the current state of the specified metadata.
+	 * @param metadata the metadata to check
+	 * @return {@code true} if this index is up-to-date for that metadata
+	 */
+	public boolean isCurrent(InitializrMetadata metadata) {
+		return this.metadata == metadata && this.revision == metadata.getRevision();
+	}
+
+	/**
+	 * Search the dependencies matching the specified query. Results are ordered by
+	 * relevance and then by {@link Dependency#getWeight() weight}.
+	 * @param query the query
+	 * @param filter a filter the dependencies must match
+	 * @param maxResults the maximum number of results
+	 * @return the best matches, at most {@code maxResults}
+	 */
+	public List<Entry> search(String query, Predicate<Dependency> filter,
+			int maxResults) {
+		Map<Integer, Integer> scores = null;
+		for (String term : tokenize(query)) {
+			Map<Integer, Integer> termScores = match(term);
+			if (scores == null) {
+				scores = termScores;
+			}
+			else {
+				Map<Integer, Integer> previous = scores;
+				scores = new HashMap<>();
+				for (Map.Entry<Integer, Integer> score : termScores.entrySet()) {
+					Integer previousScore = previous.get(score.getKey());
+					if (previousScore != null) {
+						scores.put(score.getKey(), previousScore + score.getValue());
+					}
+				}
+			}
+			if (scores.isEmpty()) {
+				break;
+			}
+		}
+		if (scores == null) {
+			return new ArrayList<>();
+		}
+		Map<Integer, Integer> candidates = scores;
+		List<Integer> matches = new ArrayList<>();
+		candidates.forEach((index, score) -> {
+			if (filter.test(this.entries.get(index).getDependency())) {
+				matches.add(index);
+			}
+		});
+		matches.sort(Comparator
+				.comparing((Integer index) -> candidates.get(index),
+						Comparator.reverseOrder())
+				.thenComparing(
+						(index) -> this.entries.get(index).getDependency().getWeight(),
+						Comparator.reverseOrder())
+				.thenComparing(Comparator.naturalOrder()));
+		List<Entry> result = new ArrayList<>();
+		for (int i = 0; i < matches.size() && i < maxResults; i++) {
+			result.add(this.entries.get(matches.get(i)));
+		}
+		return result;
+	}
+
+	private Map<Integer, Integer> match(String term) {
+		Map<Integer, Integer> scores = new HashMap<>();
+		for (Map.Entry<String, Map<Integer, Integer>> token : this.tokens
+				.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+			int quality = (token.getKey().length() == term.length()) ? EXACT_MATCH
+					: PREFIX_MATCH;
+			score(scores, token.getValue(), quality);
+		}
+		int maxEdits = maxEdits(term);
+		if (scores.isEmpty() && maxEdits > 0) {
+			for (Map.Entry<String, Map<Integer, Integer>> token : this.tokens
+					.entrySet()) {
+				if (isWithinDistance(term, token.getKey(), maxEdits)) {
+					score(scores, token.getValue(), FUZZY_MATCH);
+				}
+			}
+		}
+		return scores;
+	}
+
+	private static void score(Map<Integer, Integer> scores,
+			Map<Integer, Integer> postings, int quality) {
+		postings.forEach(
+				(index, boost) -> scores.merge(index, boost * quality, Math::max));
+	}
+
+	private static int maxEdits(String term) {
+		if (term.length() >= 8) {
+			return 2;
+		}
+		return (term.length() >= 4) ? 1 : 0;
+	}
+
+	private void add(int index, String text, int boost) {
+		for (String token : tokenize(text)) {
+			this.tokens.computeIfAbsent(token, (key) -> new LinkedHashMap<>())
+					.merge(index, boost, Math::max);
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		for (String token : text.toLowerCase(Locale.ENGLISH).split("[^\\p{L}\\p{N}]+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * Specify if the Levenshtein distance between the specified strings is at most
+	 * {@code maxEdits}, giving up as soon as it is not.
+	 * @param source the source string
+	 * @param target the target string
+	 * @param maxEdits the maximum number of edits
+	 * @return {@code true} if {@code source} can be turned into {@code target} with at
+	 * most {@code maxEdits} edits
+	 */
+	static boolean isWithinDistance(String source, String target, int maxEdits) {
+		if (Math.abs(source.length() - target.length()) > maxEdits) {
+			return false;
+		}
+		int[] previous = new int[target.length() + 1];
+		int[] current = new int[target.length() + 1];
+		for (int j = 0; j <= target.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= source.length(); i++) {
+			current[0] = i;
+			int rowMin = current[0];
+			for (int j = 1; j <= target.length(); j++) {
+				int cost = (source.charAt(i - 1) == target.charAt(j - 1)) ? 0 : 1;
+				current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+						previous[j - 1] + cost);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > maxEdits) {
+				return false;
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[target.length()] <= maxEdits;
+	}
+
+	/**
+	 * An indexed dependency.
+	 */
+	public static final class Entry {
+
+		private final String group;
+
+		private final Dependency dependency;
+
+		Entry(String group, Dependency dependency) {
+			this.group = group;
+			this.dependency = dependency;
+		}
+
+		public String getGroup() {
+			return this.group;
+		}
+
+		public Dependency getDependency() {
+			return this.dependency;
+		}
+
+	}
+
+}
@@ -24,18 +24,26 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.DependencyCompatibilityMatrix;
 import io.spring.initializr.metadata.DependencyGroup;
+import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 import io.spring.initializr.util.Version;
+import io.spring.initializr.web.support.MetadataDocument;
+import io.spring.initializr.web.support.MetadataDocumentCache;
+import io.spring.initializr.web.ui.DependencySearchIndex.Entry;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * UI specific controller providing dedicated endpoints for the Web UI.
@@ -45,36 +53,91 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class UiController {
 
+	private static final int DEFAULT_SEARCH_SIZE = 10;
+
+	private static final int MAX_SEARCH_SIZE = 100;
+
 	protected final InitializrMetadataProvider metadataProvider;
 
+	private final MetadataDocumentCache documents = new MetadataDocumentCache();
+
+	private volatile DependencySearchIndex searchIndex;
+
 	public UiController(InitializrMetadataProvider metadataProvider) {
 		this.metadataProvider = metadataProvider;
 	}
 
+	/**
+	 * Return the {@link MetadataDocumentCache} that holds the documents served by this
+	 * controller.
+	 * @return the document cache
+	 */
+	public MetadataDocumentCache getDocumentCache() {
+		return this.documents;
+	}
+
 	@GetMapping(path = "/ui/dependencies", produces = "application/json")
-	public ResponseEntity<String> dependencies(
-			@RequestParam(required = false) String version) {
-		List<DependencyGroup> dependencyGroups = this.metadataProvider.get()
-				.getDependencies().getContent();
-		List<DependencyItem> content = new ArrayList<>();
+	public ResponseEntity<byte[]> dependencies(
+			@RequestParam(required = false) String version,
+			@RequestParam(required = false) String q,
+			@RequestParam(defaultValue = "" + DEFAULT_SEARCH_SIZE) int size,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		InitializrMetadata metadata = this.metadataProvider.get();
 		Version requestedVersion = (StringUtils.isEmpty(version) ? null
 				: Version.parse(version));
-		dependencyGroups.forEach((group) -> group.getContent().forEach((dependency) -> {
-			if (requestedVersion != null && dependency.getVersionRange() != null) {
-				if (dependency.match(requestedVersion)) {
-					content.add(new DependencyItem(group.getName(), dependency));
-				}
+		if (StringUtils.hasText(q)) {
+			if (size <= 0) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Invalid size '" + size + "', must be positive");
 			}
-			else {
-				content.add(new DependencyItem(group.getName(), dependency));
+			DependencyCompatibilityMatrix compatibility = metadata
+					.getDependencyCompatibility();
+			List<Entry> matches = getSearchIndex(
+					metadata)
+							.search(q,
+									(dependency) -> isCompatible(compatibility,
+											dependency, requestedVersion),
+									Math.min(size, MAX_SEARCH_SIZE));
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8)
+					.body(writeDependencies(matches).getBytes(StandardCharsets.UTF_8));
+		}
+		MetadataDocument document = this.documents.get(metadata,
+				String.valueOf(requestedVersion),
+				() -> writeDependencies(metadata, requestedVersion));
+		return document.toResponseEntity(ResponseEntity.ok(), MediaType.APPLICATION_JSON,
+				acceptEncoding);
+	}
+
+	private DependencySearchIndex getSearchIndex(InitializrMetadata metadata) {
+		DependencySearchIndex index = this.searchIndex;
+		if (index == null || !index.isCurrent(metadata)) {
+			index = DependencySearchIndex.of(metadata);
+			this.searchIndex = index;
+		}
+		return index;
+	}
+
+	private static boolean isCompatible(DependencyCompatibilityMatrix compatibility,
+			Dependency dependency, Version requestedVersion) {
+		return requestedVersion == null
+				|| compatibility.isCompatible(dependency, requestedVersion);
+	}
+
+	private static String writeDependencies(InitializrMetadata metadata,
+			Version requestedVersion) {
+		List<DependencyGroup> dependencyGroups = metadata.getDependencies().getContent();
+		DependencyCompatibilityMatrix compatibility = metadata
+				.getDependencyCompatibility();
+		List<Entry> content = new ArrayList<>();
+		dependencyGroups.forEach((group) -> group.getContent().forEach((dependency) -> {
+			if (isCompatible(compatibility, dependency, requestedVersion)) {
+				content.add(new Entry(group.getName(), dependency));
 			}
 		}));
-		String json = writeDependencies(content);
-		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
-				.eTag(createUniqueId(json)).body(json);
+		return writeDependencies(content);
 	}
 
-	private static String writeDependencies(List<DependencyItem> items) {
+	private static String writeDependencies(List<Entry> items) {
 		ObjectNode json = JsonNodeFactory.instance.objectNode();
 		ArrayNode maps = JsonNodeFactory.instance.arrayNode();
 		items.forEach((dependency) -> maps.add(mapDependency(dependency)));
@@ -82,12 +145,12 @@ public class UiController {
 		return json.toString();
 	}
 
-	private static ObjectNode mapDependency(DependencyItem item) {
+	private static ObjectNode mapDependency(Entry item) {
 		ObjectNode node = JsonNodeFactory.instance.objectNode();
-		Dependency dependency = item.dependency;
+		Dependency dependency = item.getDependency();
 		node.put("id", dependency.getId());
 		node.put("name", dependency.getName());
-		node.put("group", item.group);
+		node.put("group", item.getGroup());
 		if (dependency.getDescription() != null) {
 			node.put("description", dependency.getDescription());
 		}
@@ -103,24 +166,4 @@ public class UiController {
 		return node;
 	}
 
-	private String createUniqueId(String content) {
-		StringBuilder builder = new StringBuilder();
-		DigestUtils.appendMd5DigestAsHex(content.getBytes(StandardCharsets.UTF_8),
-				builder);
-		return builder.toString();
-	}
-
-	private static class DependencyItem {
-
-		private final String group;
-
-		private final Dependency dependency;
-
-		DependencyItem(String group, Dependency dependency) {
-			this.group = group;
-			this.dependency = dependency;
-		}
-
-	}
-
 }
@@ -23,6 +23,13 @@ import io.spring.initializr.metadata.DependencyMetadataProvider;
 import io.spring.initializr.metadata.InitializrMetadataProvider;
 import io.spring.initializr.util.TemplateRenderer;
 import io.spring.initializr.web.project.MainController;
+import io.spring.initializr.web.project.ProjectArchiveCache;
+import io.spring.initializr.web.project.ProjectArchiveGenerator;
+import io.spring.initializr.web.project.ProjectArchivePrewarmer;
+import io.spring.initializr.web.project.ProjectGenerationMonitor;
+import io.spring.initializr.web.project.RequestResourceUsageInterceptor;
+import io.spring.initializr.web.project.RequestResourceUsageListener;
+import io.spring.initializr.web.support.InitializrWarmup;
 import io.spring.initializr.web.ui.UiController;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -185,6 +192,92 @@ class InitializrAutoConfigurationTests {
 		});
 	}
 
+	@Test
+	void webConfigurationWithoutResourceUsageListenerDoesNotMeasureRequests() {
+		webContextRunner()
+				.run((context) -> assertThat(context.getBean(InitializrWebConfig.class))
+						.extracting("resourceUsageInterceptor").containsNull());
+	}
+
+	@Test
+	void webConfigurationWithResourceUsageListenerMeasuresRequests() {
+		webContextRunner().withUserConfiguration(ResourceUsageListenerConfiguration.class)
+				.run((context) -> assertThat(context.getBean(InitializrWebConfig.class))
+						.extracting("resourceUsageInterceptor")
+						.hasOnlyElementsOfType(RequestResourceUsageInterceptor.class));
+	}
+
+	@Test
+	void autoConfigDoesNotRegisterWarmupByDefault() {
+		this.contextRunner.run(
+				(context) -> assertThat(context).doesNotHaveBean(InitializrWarmup.class));
+	}
+
+	@Test
+	void autoConfigWithWarmupEnabledRegistersWarmup() {
+		this.contextRunner
+				.withPropertyValues("initializr.warmup.enabled=true",
+						"initializr.warmup.time-budget=0")
+				.run((context) -> assertThat(context)
+						.hasSingleBean(InitializrWarmup.class));
+	}
+
+	@Test
+	void webConfigurationRegistersProjectArchiveCache() {
+		webContextRunner().withPropertyValues("initializr.archives.cache.max-size=1MB")
+				.run((context) -> {
+					assertThat(context).hasSingleBean(ProjectArchiveGenerator.class);
+					assertThat(context).hasSingleBean(ProjectArchiveCache.class);
+					assertThat(context).hasSingleBean(ProjectGenerationMonitor.class);
+					assertThat(
+							context.getBean(ProjectArchiveGenerator.class).getMonitor())
+									.isSameAs(context
+											.getBean(ProjectGenerationMonitor.class));
+					assertThat(context).doesNotHaveBean(ProjectArchivePrewarmer.class);
+					context.getBean(ProjectArchiveCache.class).put(
+							context.getBean(InitializrMetadataProvider.class).get(),
+							"test", new byte[1024 * 1024 + 1]);
+					assertThat(context.getBean(ProjectArchiveCache.class).getEntries())
+							.isEqualTo(0);
+				});
+	}
+
+	@Test
+	void webConfigurationDisablesProjectArchiveCacheByDefault() {
+		webContextRunner().run((context) -> {
+			ProjectArchiveCache cache = context.getBean(ProjectArchiveCache.class);
+			cache.put(context.getBean(InitializrMetadataProvider.class).get(), "test",
+					new byte[1]);
+			assertThat(cache.getEntries()).isEqualTo(0);
+		});
+	}
+
+	@Test
+	void webConfigurationWithPrewarmEnabledRegistersProjectArchivePrewarmer() {
+		webContextRunner()
+				.withPropertyValues("initializr.archives.prewarm.enabled=true",
+						"initializr.archives.cache.max-size=1MB")
+				.run((context) -> assertThat(context)
+						.hasSingleBean(ProjectArchivePrewarmer.class));
+	}
+
+	@Test
+	void webConfigurationWithPrewarmEnabledAndCacheDisabledFails() {
+		webContextRunner().withPropertyValues("initializr.archives.prewarm.enabled=true")
+				.run((context) -> {
+					assertThat(context).hasFailed();
+					assertThat(context.getStartupFailure()).hasStackTraceContaining(
+							"initializr.archives.cache.max-size");
+				});
+	}
+
+	private WebApplicationContextRunner webContextRunner() {
+		return new WebApplicationContextRunner().withConfiguration(AutoConfigurations.of(
+				RestTemplateAutoConfiguration.class, JacksonAutoConfiguration.class,
+				HttpMessageConvertersAutoConfiguration.class,
+				WebMvcAutoConfiguration.class, InitializrAutoConfiguration.class));
+	}
+
 	@Test
 	void webConfigurationConditionalOnWebApplication() {
 		this.contextRunner.run((context) -> {
@@ -281,4 +374,14 @@ class InitializrAutoConfigurationTests {
 
 	}
 
+	@Configuration
+	static class ResourceUsageListenerConfiguration {
+
+		@Bean
+		public RequestResourceUsageListener resourceUsageListener() {
+			return mock(RequestResourceUsageListener.class);
+		}
+
+	}
+
 }
@@ -17,15 +17,22 @@
 package io.spring.initializr.web.mapper;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.spring.initializr.metadata.Dependency;
 import io.spring.initializr.metadata.InitializrMetadata;
 import io.spring.initializr.metadata.Link;
+import io.spring.initializr.metadata.MetadataElement;
 import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -76,6 +83,84 @@ class InitializrMetadataJsonMapperTests {
 		assertThat(second).isGreaterThan(0);
 	}
 
+	@Test
+	void writeMatchesTreeRepresentation() throws IOException {
+		Dependency dependency = Dependency.withId("foo", "com.example", "foo");
+		dependency.setDescription("Some \"quoted\"\tdescription\n\u00e9");
+		dependency.setVersionRange("2.0.0.RELEASE");
+		dependency.getLinks().add(Link.create("guide", "https://example.com/how-to"));
+		dependency.getLinks()
+				.add(Link.create("guide", "https://example.com/{bootVersion}", true));
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", dependency).build();
+		String json = this.jsonMapper.write(metadata, "http://server:8080/my-app");
+		assertThat(objectMapper.readTree(json).toString()).isEqualTo(json);
+	}
+
+	@Test
+	void writeV2MatchesTreeBasedOutput() throws IOException {
+		String json = new InitializrMetadataV2JsonMapper().write(createTestMetadata(),
+				"http://server:8080/my-app");
+		assertThat(json).isEqualTo(readFixture("test-metadata-2.0.0.json"));
+	}
+
+	@Test
+	void writeV21MatchesTreeBasedOutput() throws IOException {
+		String json = this.jsonMapper.write(createTestMetadata(),
+				"http://server:8080/my-app");
+		assertThat(json).isEqualTo(readFixture("test-metadata-2.1.0.json"));
+	}
+
+	@Test
+	void writeWithDeprecatedHookOverrideMatchesTreeBasedOutput() throws IOException {
+		InitializrMetadataJsonMapper mapper = new InitializrMetadataV21JsonMapper() {
+
+			@Override
+			@Deprecated
+			protected ObjectNode mapDependency(Dependency dependency) {
+				return super.mapDependency(dependency);
+			}
+
+		};
+		String json = mapper.write(createTestMetadata(), "http://server:8080/my-app");
+		assertThat(json).isEqualTo(readFixture("test-metadata-2.1.0.json"));
+	}
+
+	@Test
+	void writeWithDeprecatedHookOverrideIsHonoured() throws IOException {
+		InitializrMetadataJsonMapper mapper = new InitializrMetadataV2JsonMapper() {
+
+			@Override
+			@Deprecated
+			protected ObjectNode mapValue(MetadataElement value) {
+				return super.mapValue(value).put("custom", true);
+			}
+
+		};
+		JsonNode result = objectMapper.readTree(mapper.write(createTestMetadata(), null));
+		assertThat(result.path("javaVersion").path("values").get(0).get("custom")
+				.booleanValue()).isTrue();
+	}
+
+	private static InitializrMetadata createTestMetadata() {
+		Dependency dependency = Dependency.withId("foo", "com.example", "foo");
+		dependency.setDescription("Some \"quoted\"\tdescription\n\u00e9");
+		dependency.setVersionRange("2.0.0.RELEASE");
+		dependency.getLinks().add(Link.create("guide", "https://example.com/how-to"));
+		dependency.getLinks()
+				.add(Link.create("guide", "https://example.com/{bootVersion}", true));
+		dependency.getLinks().add(Link.create("reference", "https://example.com/doc"));
+		return InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", dependency).build();
+	}
+
+	private static String readFixture(String name) throws IOException {
+		try (InputStream in = new ClassPathResource("metadata/mapper/" + name)
+				.getInputStream()) {
+			return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+		}
+	}
+
 	private Object get(JsonNode result, String path) {
 		String[] nodes = path.split("\\.");
 		for (int i = 0; i < nodes.length - 1; i++) {
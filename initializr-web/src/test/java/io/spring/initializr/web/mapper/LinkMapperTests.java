@@ -16,9 +16,13 @@
 
 package io.spring.initializr.web.mapper;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.spring.initializr.metadata.Link;
@@ -97,4 +101,17 @@ class LinkMapperTests {
 		assertThat(json.indexOf("first")).isLessThan(json.indexOf("second"));
 	}
 
+	@Test
+	void writeLinksMatchesMapLinks() throws IOException {
+		List<Link> links = new ArrayList<>();
+		links.add(Link.create("first", "https://example.com", "some description"));
+		links.add(Link.create("second", "https://example.com/{bootVersion}", true));
+		links.add(Link.create("first", "https://example.com/2"));
+		StringWriter out = new StringWriter();
+		try (JsonGenerator generator = new JsonFactory().createGenerator(out)) {
+			LinkMapper.writeLinks(generator, links);
+		}
+		assertThat(out.toString()).isEqualTo(LinkMapper.mapLinks(links).toString());
+	}
+
 }
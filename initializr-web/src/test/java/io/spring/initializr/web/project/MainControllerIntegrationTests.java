@@ -16,24 +16,45 @@
 
 package io.spring.initializr.web.project;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import io.spring.initializr.metadata.Dependency;
 import io.spring.initializr.web.AbstractInitializrControllerIntegrationTests;
 import io.spring.initializr.web.AbstractInitializrIntegrationTests;
 import io.spring.initializr.web.mapper.InitializrMetadataVersion;
+import io.spring.initializr.web.support.MetadataDocumentCache;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpClientErrorException;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -46,6 +67,9 @@ import static org.assertj.core.api.Assertions.fail;
 class MainControllerIntegrationTests
 		extends AbstractInitializrControllerIntegrationTests {
 
+	@Autowired
+	private MainController mainController;
+
 	@Test
 	void simpleZipProject() {
 		downloadZip("/starter.zip?style=web&style=jpa").isJavaProject()
@@ -122,6 +146,345 @@ class MainControllerIntegrationTests
 				.isJavaWarProject().isGradleProject();
 	}
 
+	@Test
+	void zipProjectIsReproducible() {
+		byte[] first = downloadArchive("/starter.zip?style=web");
+		byte[] second = downloadArchive("/starter.zip?style=web");
+		assertThat(first).isEqualTo(second);
+	}
+
+	@Test
+	void tgzProjectIsReproducible() {
+		byte[] first = downloadArchive("/starter.tgz?style=web");
+		byte[] second = downloadArchive("/starter.tgz?style=web");
+		assertThat(first).isEqualTo(second);
+	}
+
+	@Test
+	void zipProjectIsReproducibleAcrossTimeZones() {
+		assertReproducibleAcrossTimeZones("/starter.zip?style=web");
+	}
+
+	@Test
+	void tgzProjectIsReproducibleAcrossTimeZones() {
+		assertReproducibleAcrossTimeZones("/starter.tgz?style=web");
+	}
+
+	private void assertReproducibleAcrossTimeZones(String context) {
+		TimeZone timeZone = TimeZone.getDefault();
+		try {
+			TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+			byte[] first = downloadArchive(context);
+			TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+			assertThat(downloadArchive(context)).isEqualTo(first);
+		}
+		finally {
+			TimeZone.setDefault(timeZone);
+		}
+	}
+
+	@Test
+	void zipProjectHasStrongETag() {
+		ResponseEntity<byte[]> response = getRestTemplate()
+				.getForEntity(createUrl("/starter.zip?style=web"), byte[].class);
+		String eTag = response.getHeaders().getETag();
+		assertThat(eTag).startsWith("\"").endsWith("-zip\"");
+		assertThat(getETag("/starter.zip?dependencies=web")).isEqualTo(eTag);
+		assertThat(getETag("/starter.zip?style=web&javaVersion=11")).isNotEqualTo(eTag);
+		assertThat(getETag("/starter.tgz?style=web")).isNotEqualTo(eTag);
+	}
+
+	@Test
+	void zipProjectWithMatchingETag() {
+		assertNotModified("/starter.zip?style=web");
+	}
+
+	@Test
+	void tgzProjectWithMatchingETag() {
+		assertNotModified("/starter.tgz?style=web");
+	}
+
+	@Test
+	void pomWithMatchingETag() {
+		assertNotModified("/pom.xml?style=web");
+	}
+
+	@Test
+	void gradleBuildWithMatchingETag() {
+		assertNotModified("/build.gradle?style=web");
+	}
+
+	@Test
+	void zipProjectWithNonMatchingETag() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch("\"another\"");
+		ResponseEntity<byte[]> response = getRestTemplate().exchange(
+				createUrl("/starter.zip?style=web"), HttpMethod.GET,
+				new HttpEntity<Void>(headers), byte[].class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		zipProjectAssert(response.getBody()).isJavaProject();
+	}
+
+	@Test
+	void headZipProject() {
+		String eTag = getETag("/starter.zip?style=web");
+		HttpHeaders headers = getRestTemplate()
+				.headForHeaders(createUrl("/starter.zip?style=web"));
+		assertThat(headers.getETag()).isEqualTo(eTag);
+		assertThat(headers.getContentType())
+				.isEqualTo(MediaType.valueOf("application/zip"));
+		assertThat(headers.getFirst("Content-Disposition"))
+				.isEqualTo("attachment; filename=\"demo.zip\"");
+	}
+
+	@Test
+	void headTgzProject() {
+		String eTag = getETag("/starter.tgz?style=web");
+		HttpHeaders headers = getRestTemplate()
+				.headForHeaders(createUrl("/starter.tgz?style=web"));
+		assertThat(headers.getETag()).isEqualTo(eTag);
+	}
+
+	@Test
+	void headZipProjectWithInvalidDependency() {
+		try {
+			getRestTemplate().headForHeaders(createUrl("/starter.zip?style=foo:bar"));
+			fail("Should have failed");
+		}
+		catch (HttpClientErrorException ex) {
+			assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		}
+	}
+
+	@Test
+	void headTgzProjectWithInvalidType() {
+		try {
+			getRestTemplate().headForHeaders(createUrl("/starter.tgz?type=foo"));
+			fail("Should have failed");
+		}
+		catch (HttpClientErrorException ex) {
+			assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		}
+	}
+
+	@Test
+	void headZipProjectWithMatchingETag() {
+		String eTag = getETag("/starter.zip?style=web");
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(eTag);
+		ResponseEntity<Void> response = getRestTemplate().exchange(
+				createUrl("/starter.zip?style=web"), HttpMethod.HEAD,
+				new HttpEntity<Void>(headers), Void.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+	}
+
+	@Test
+	void manifestMatchesZipProject() throws Exception {
+		String context = "?style=web&baseDir=demo";
+		ResponseEntity<String> response = getRestTemplate()
+				.getForEntity(createUrl("/starter.manifest" + context), String.class);
+		assertThat(response.getHeaders().getETag()).endsWith("-manifest\"");
+		JSONArray entries = new JSONObject(response.getBody()).getJSONArray("entries");
+		Map<String, JSONObject> manifest = new LinkedHashMap<>();
+		for (int i = 0; i < entries.length(); i++) {
+			JSONObject entry = entries.getJSONObject(i);
+			manifest.put(entry.getString("path"), entry);
+		}
+		assertThat(manifest.get("demo/").getString("type")).isEqualTo("directory");
+		assertThat(manifest.get("demo/mvnw").getString("mode")).isEqualTo("755");
+		assertThat(manifest.get("demo/pom.xml").getString("mode")).isEqualTo("644");
+		assertThat(manifest).containsKey("demo/src/main/resources/static/");
+		byte[] archive = downloadArchive("/starter.zip" + context);
+		List<String> paths = new ArrayList<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+			ZipEntry zipEntry;
+			while ((zipEntry = zip.getNextEntry()) != null) {
+				paths.add(zipEntry.getName());
+				if (!zipEntry.isDirectory()) {
+					byte[] content = StreamUtils.copyToByteArray(zip);
+					JSONObject entry = manifest.get(zipEntry.getName());
+					assertThat(entry.getLong("size")).isEqualTo(content.length);
+					assertThat(entry.getString("sha256")).isEqualTo(sha256(content));
+				}
+			}
+		}
+		assertThat(manifest.keySet()).containsExactlyInAnyOrderElementsOf(paths);
+	}
+
+	@Test
+	void manifestWithMatchingETag() {
+		assertNotModified("/starter.manifest?style=web");
+	}
+
+	@Test
+	void diffProject() {
+		ResponseEntity<String> response = getRestTemplate().getForEntity(
+				createUrl(
+						"/starter.diff?dependencies=web,security&from.dependencies=web"),
+				String.class);
+		assertThat(response.getHeaders().getContentType()
+				.isCompatibleWith(MediaType.valueOf("text/x-diff"))).isTrue();
+		assertThat(response.getHeaders().getETag()).endsWith("-diff\"");
+		assertThat(response.getBody()).startsWith("diff --git a/pom.xml b/pom.xml\n")
+				.contains("+\t\t\t<artifactId>spring-boot-starter-security</artifactId>")
+				.doesNotContain("mvnw").doesNotContain("DemoApplication");
+	}
+
+	@Test
+	void diffProjectWithIdenticalRequests() {
+		String body = getRestTemplate().getForObject(
+				createUrl("/starter.diff?dependencies=web&from.dependencies=web"),
+				String.class);
+		assertThat(body).isNull();
+	}
+
+	@Test
+	void diffProjectWithMatchingETag() {
+		assertNotModified("/starter.diff?dependencies=web&from.dependencies=data-jpa");
+	}
+
+	@Test
+	void diffZipProject() throws IOException {
+		ResponseEntity<byte[]> response = getRestTemplate().getForEntity(
+				createUrl("/starter-diff.zip?style=web&from.style=data-jpa"),
+				byte[].class);
+		assertThat(response.getHeaders().getFirst(MainController.REMOVED_PATHS_HEADER))
+				.isEmpty();
+		List<String> paths = new ArrayList<>();
+		try (ZipInputStream zip = new ZipInputStream(
+				new ByteArrayInputStream(response.getBody()))) {
+			ZipEntry zipEntry;
+			while ((zipEntry = zip.getNextEntry()) != null) {
+				paths.add(zipEntry.getName());
+			}
+		}
+		assertThat(paths).containsExactly("pom.xml", "src/", "src/main/",
+				"src/main/resources/", "src/main/resources/static/",
+				"src/main/resources/templates/");
+	}
+
+	@Test
+	void diffZipProjectWithRemovedPaths() {
+		ResponseEntity<byte[]> response = getRestTemplate().getForEntity(
+				createUrl("/starter-diff.zip?style=data-jpa&from.style=web"),
+				byte[].class);
+		assertThat(response.getHeaders().getFirst(MainController.REMOVED_PATHS_HEADER))
+				.isEqualTo("src/main/resources/static/,src/main/resources/templates/");
+	}
+
+	@Test
+	void batchProject() throws IOException {
+		ResponseEntity<byte[]> response = postBatch("/starter.batch",
+				"[{\"style\":\"web\"},"
+						+ "{\"type\":\"gradle-project\",\"dependencies\":\"data-jpa\"}]");
+		assertThat(response.getHeaders().getContentType())
+				.isEqualTo(MediaType.parseMediaType("application/zip"));
+		List<String> paths = zipEntries(response.getBody());
+		assertThat(paths).contains("demo/pom.xml", "demo/mvnw",
+				"demo/src/main/resources/static/", "demo-2/build.gradle",
+				"demo-2/gradlew");
+		assertThat(paths).doesNotContain("demo-2/src/main/resources/static/");
+	}
+
+	@Test
+	void batchProjectWithArchivesLayout() throws IOException {
+		ResponseEntity<byte[]> response = postBatch("/starter.batch?layout=archives",
+				"[{\"artifactId\":\"first\"},{\"artifactId\":\"second\"}]");
+		assertThat(zipEntries(response.getBody())).containsExactly("first.zip",
+				"second.zip");
+	}
+
+	@Test
+	void batchProjectWithInvalidRequest() throws IOException {
+		ResponseEntity<byte[]> response = postBatch("/starter.batch",
+				"[{\"artifactId\":\"first\",\"style\":\"web\"},"
+						+ "{\"artifactId\":\"second\",\"style\":\"foo:bar\"},"
+						+ "{\"artifactId\":\"third\"}]");
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		Map<String, String> errors = zipErrors(response.getBody());
+		assertThat(errors).containsOnlyKeys("second" + MainController.BATCH_ERROR_SUFFIX);
+		assertThat(errors.get("second" + MainController.BATCH_ERROR_SUFFIX))
+				.isEqualTo("Unknown dependency 'foo:bar' check project metadata");
+		List<String> paths = zipEntries(response.getBody());
+		assertThat(paths).contains("first/pom.xml", "third/pom.xml");
+		assertThat(paths).noneMatch((path) -> path.startsWith("second/"));
+	}
+
+	@Test
+	void batchProjectWithUnknownAttribute() throws IOException {
+		ResponseEntity<byte[]> response = postBatch("/starter.batch?layout=archives",
+				"[{\"artifactId\":\"first\"},{\"unknown\":\"web\"}]");
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(zipEntries(response.getBody())).containsOnly("first.zip",
+				"demo" + MainController.BATCH_ERROR_SUFFIX);
+	}
+
+	@Test
+	void batchProjectWithTraversalArtifactId() throws IOException {
+		ResponseEntity<byte[]> response = postBatch("/starter.batch?layout=archives",
+				"[{\"artifactId\":\"../../etc/x\"},{\"artifactId\":\"..\"}]");
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(zipEntries(response.getBody())).containsOnly("etc-x.zip",
+				"project.zip");
+	}
+
+	private ResponseEntity<byte[]> postBatch(String context, String body) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		return getRestTemplate().postForEntity(createUrl(context),
+				new HttpEntity<>(body, headers), byte[].class);
+	}
+
+	private static List<String> zipEntries(byte[] archive) throws IOException {
+		List<String> paths = new ArrayList<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+			ZipEntry zipEntry;
+			while ((zipEntry = zip.getNextEntry()) != null) {
+				paths.add(zipEntry.getName());
+			}
+		}
+		return paths;
+	}
+
+	private static Map<String, String> zipErrors(byte[] archive) throws IOException {
+		Map<String, String> errors = new LinkedHashMap<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+			ZipEntry zipEntry;
+			while ((zipEntry = zip.getNextEntry()) != null) {
+				if (zipEntry.getName().endsWith(MainController.BATCH_ERROR_SUFFIX)) {
+					errors.put(zipEntry.getName(),
+							StreamUtils.copyToString(zip, StandardCharsets.UTF_8));
+				}
+			}
+		}
+		return errors;
+	}
+
+	private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+
+	private String getETag(String context) {
+		return getRestTemplate().getForEntity(createUrl(context), byte[].class)
+				.getHeaders().getETag();
+	}
+
+	private void assertNotModified(String context) {
+		String eTag = getETag(context);
+		assertThat(eTag).isNotNull();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(Arrays.asList("\"another\"", eTag));
+		ResponseEntity<byte[]> response = getRestTemplate().exchange(createUrl(context),
+				HttpMethod.GET, new HttpEntity<Void>(headers), byte[].class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+		assertThat(response.getBody()).isNull();
+	}
+
 	@Test
 	void downloadCli() throws Exception {
 		assertSpringCliRedirect("/spring", "zip");
@@ -189,6 +552,49 @@ class MainControllerIntegrationTests
 		validateCurrentMetadata(response.getBody());
 	}
 
+	@Test
+	void metadataWithGzipAcceptEncoding() throws IOException {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Collections.singletonList(CURRENT_METADATA_MEDIA_TYPE));
+		headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		ResponseEntity<byte[]> response = getRestTemplate().exchange(createUrl("/"),
+				HttpMethod.GET, new HttpEntity<Void>(headers), byte[].class);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+				.isEqualTo("gzip");
+		assertThat(response.getHeaders().getETag()).isNotNull();
+		try (GZIPInputStream in = new GZIPInputStream(
+				new ByteArrayInputStream(response.getBody()))) {
+			validateCurrentMetadata(StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void metadataDeltaWithCurrentRevision() throws JSONException {
+		ResponseEntity<String> response = invokeHome(null,
+				"application/vnd.initializr.v2.1+json");
+		String revision = response.getHeaders().getFirst(MainController.REVISION_HEADER);
+		assertThat(revision).isNotNull();
+		ResponseEntity<String> delta = getRestTemplate().getForEntity(
+				createUrl("/metadata/delta?since=" + revision), String.class);
+		validateContentType(delta, MediaType.APPLICATION_JSON);
+		JSONObject json = new JSONObject(delta.getBody());
+		assertThat(json.getLong("revision")).isEqualTo(Long.valueOf(revision));
+		assertThat(json.getJSONArray("addedDependencies").length()).isEqualTo(0);
+		assertThat(json.getJSONArray("removedDependencies").length()).isEqualTo(0);
+		assertThat(json.getJSONArray("changedDependencies").length()).isEqualTo(0);
+		assertThat(json.has("bootVersions")).isFalse();
+	}
+
+	@Test
+	void metadataDeltaWithUnknownRevision() {
+		ResponseEntity<String> response = getRestTemplate()
+				.getForEntity(createUrl("/metadata/delta?since=42"), String.class);
+		validateContentType(response, CURRENT_METADATA_MEDIA_TYPE);
+		assertThat(response.getHeaders().getFirst(MainController.REVISION_HEADER))
+				.isNotNull();
+		validateCurrentMetadata(response.getBody());
+	}
+
 	@Test
 	void metadataWithSeveralAcceptHeader() {
 		ResponseEntity<String> response = invokeHome(null,
@@ -431,6 +837,35 @@ class MainControllerIntegrationTests
 		assertThat(body).doesNotContain("GoogleAnalyticsObject");
 	}
 
+	@Test
+	void metadataWithHostHeaderUsesNormalizedAppUrl() {
+		String body = getMetadataForHost("Start.EXAMPLE.com");
+		assertThat(body).contains("http://start.example.com/starter.zip");
+	}
+
+	@Test
+	void metadataWithManyHostHeadersCachesBoundedNumberOfAppUrls() {
+		for (int i = 0; i < 20; i++) {
+			getMetadataForHost("host-" + i + ".example.com");
+		}
+		MetadataDocumentCache cache = this.mainController.getDocumentCache();
+		long requests = cache.getHits() + cache.getMisses();
+		String body = getMetadataForHost("another.example.com");
+		assertThat(body).contains("http://another.example.com/starter.zip");
+		assertThat(cache.getHits() + cache.getMisses()).isEqualTo(requests);
+	}
+
+	private String getMetadataForHost(String host) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(
+				Collections.singletonList(InitializrMetadataVersion.V2_1.getMediaType()));
+		headers.set(HttpHeaders.HOST, host);
+		ResponseEntity<String> response = getRestTemplate().exchange(createUrl("/"),
+				HttpMethod.GET, new HttpEntity<Void>(headers), String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		return response.getBody();
+	}
+
 	private String getMetadataJson() {
 		return getMetadataJson(null);
 	}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.util.Collections;
+
+import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectArchiveCache}.
+ *
+ * @author Stephane Nicoll
+ */
+class ProjectArchiveCacheTests {
+
+	private final ProjectArchiveCache cache = new ProjectArchiveCache(10);
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().build();
+
+	@Test
+	void archiveIsCached() {
+		byte[] archive = new byte[] { 1, 2, 3 };
+		this.cache.put(this.metadata, "test", archive);
+		assertThat(this.cache.get(this.metadata, "test")).isSameAs(archive);
+		assertThat(this.cache.contains(this.metadata, "test")).isTrue();
+		assertThat(this.cache.getEntries()).isEqualTo(1);
+		assertThat(this.cache.getSize()).isEqualTo(3);
+	}
+
+	@Test
+	void hitsAndMisses() {
+		this.cache.put(this.metadata, "test", new byte[1]);
+		this.cache.get(this.metadata, "test");
+		this.cache.get(this.metadata, "test");
+		this.cache.get(this.metadata, "another");
+		this.cache.contains(this.metadata, "another");
+		assertThat(this.cache.getHits()).isEqualTo(2);
+		assertThat(this.cache.getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	void archiveIsInvalidatedWhenMetadataIsUpdated() {
+		this.cache.put(this.metadata, "test", new byte[1]);
+		this.metadata.updateSpringBootVersions(Collections.singletonList(
+				DefaultMetadataElement.create("2.1.0.RELEASE", "2.1.0", true)));
+		assertThat(this.cache.get(this.metadata, "test")).isNull();
+		assertThat(this.cache.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	void archiveIsInvalidatedForAnotherMetadata() {
+		this.cache.put(this.metadata, "test", new byte[1]);
+		InitializrMetadata anotherMetadata = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		assertThat(this.cache.get(anotherMetadata, "test")).isNull();
+		assertThat(this.cache.getEntries()).isEqualTo(0);
+	}
+
+	@Test
+	void leastRecentlyUsedArchiveIsEvicted() {
+		this.cache.put(this.metadata, "one", new byte[4]);
+		this.cache.put(this.metadata, "two", new byte[4]);
+		this.cache.get(this.metadata, "one");
+		this.cache.put(this.metadata, "three", new byte[4]);
+		assertThat(this.cache.contains(this.metadata, "one")).isTrue();
+		assertThat(this.cache.contains(this.metadata, "two")).isFalse();
+		assertThat(this.cache.contains(this.metadata, "three")).isTrue();
+		assertThat(this.cache.getSize()).isEqualTo(8);
+	}
+
+	@Test
+	void replacedArchiveUpdatesSize() {
+		this.cache.put(this.metadata, "test", new byte[4]);
+		this.cache.put(this.metadata, "test", new byte[2]);
+		assertThat(this.cache.getEntries()).isEqualTo(1);
+		assertThat(this.cache.getSize()).isEqualTo(2);
+	}
+
+	@Test
+	void archiveLargerThanMaxSizeIsNotCached() {
+		this.cache.put(this.metadata, "test", new byte[11]);
+		assertThat(this.cache.contains(this.metadata, "test")).isFalse();
+		assertThat(this.cache.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	void cacheWithMaxSizeOfZeroIsDisabled() {
+		ProjectArchiveCache disabled = new ProjectArchiveCache(0);
+		disabled.put(this.metadata, "test", new byte[1]);
+		assertThat(disabled.getEntries()).isEqualTo(0);
+	}
+
+	@Test
+	void clear() {
+		this.cache.put(this.metadata, "test", new byte[1]);
+		this.cache.clear();
+		assertThat(this.cache.getEntries()).isEqualTo(0);
+		assertThat(this.cache.getSize()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import io.spring.initializr.generator.AbstractProjectGeneratorTests;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.web.project.ProjectArchiveGenerator.ArchiveFormat;
+import io.spring.initializr.web.project.ProjectArchiveProperties.Prewarm;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * Tests for {@link ProjectArchivePrewarmer}.
+ *
+ * @author Stephane Nicoll
+ */
+class ProjectArchivePrewarmerTests extends AbstractProjectGeneratorTests {
+
+	private final ProjectArchiveCache cache = new ProjectArchiveCache(Long.MAX_VALUE);
+
+	private final Prewarm properties = new Prewarm();
+
+	@Test
+	void defaultRequestIsPrewarmed() {
+		ProjectArchivePrewarmer prewarmer = createPrewarmer();
+		assertThat(prewarmer.isWarm()).isFalse();
+		prewarmer.prewarm();
+		assertThat(prewarmer.isWarm()).isTrue();
+		assertThat(prewarmer.getTotal()).isEqualTo(1);
+		assertThat(prewarmer.getProcessed()).isEqualTo(1);
+		assertThat(this.cache.contains(getMetadata(),
+				key(createProjectRequest(), ArchiveFormat.ZIP))).isTrue();
+		verifyNoMoreInteractions(this.eventPublisher);
+	}
+
+	@Test
+	void popularRequestsArePrewarmedInOrder() {
+		ProjectArchivePrewarmer prewarmer = createPrewarmer(
+				requests(style("web"), style("web", "security")),
+				requests(style("security", "web"), style("data-jpa")));
+		prewarmer.prewarm();
+		assertThat(prewarmer.getTotal()).isEqualTo(4);
+		assertThat(this.cache.getEntries()).isEqualTo(4);
+		assertThat(this.cache.contains(getMetadata(),
+				key(createProjectRequest("data-jpa"), ArchiveFormat.ZIP))).isTrue();
+	}
+
+	@Test
+	void numberOfRequestsIsLimited() {
+		this.properties.setRequests(2);
+		ProjectArchivePrewarmer prewarmer = createPrewarmer(
+				requests(style("web"), style("security")));
+		prewarmer.prewarm();
+		assertThat(prewarmer.getTotal()).isEqualTo(2);
+		assertThat(this.cache.contains(getMetadata(),
+				key(createProjectRequest("security"), ArchiveFormat.ZIP))).isFalse();
+	}
+
+	@Test
+	void invalidRequestIsIgnored() {
+		ProjectArchivePrewarmer prewarmer = createPrewarmer(requests(
+				style("does-not-exist"), Collections.singletonMap("unknown", "test")));
+		prewarmer.prewarm();
+		assertThat(prewarmer.getTotal()).isEqualTo(2);
+		assertThat(prewarmer.getProcessed()).isEqualTo(2);
+		assertThat(this.cache.getEntries()).isEqualTo(1);
+	}
+
+	@Test
+	void failingSourceIsIgnored() {
+		ProjectArchivePrewarmer prewarmer = createPrewarmer((limit) -> {
+			throw new IllegalStateException("test");
+		});
+		prewarmer.prewarm();
+		assertThat(prewarmer.getTotal()).isEqualTo(1);
+		assertThat(prewarmer.isWarm()).isTrue();
+	}
+
+	@Test
+	void requestIsPrewarmedForEachFormat() {
+		this.properties.setFormats(Arrays.asList(ArchiveFormat.ZIP, ArchiveFormat.TGZ));
+		ProjectArchivePrewarmer prewarmer = createPrewarmer();
+		prewarmer.prewarm();
+		assertThat(prewarmer.getTotal()).isEqualTo(2);
+		ProjectRequest request = createProjectRequest();
+		assertThat(this.cache.contains(getMetadata(), key(request, ArchiveFormat.ZIP)))
+				.isTrue();
+		assertThat(this.cache.contains(getMetadata(), key(request, ArchiveFormat.TGZ)))
+				.isTrue();
+	}
+
+	@Test
+	void prewarmedArchiveIsServedAndPublishesEvent() throws Exception {
+		ProjectArchiveGenerator archiveGenerator = new ProjectArchiveGenerator(
+				this.projectGenerator, this.cache);
+		createPrewarmer().prewarm();
+		ProjectRequest request = createProjectRequest();
+		byte[] archive = archiveGenerator.generate(request, ArchiveFormat.ZIP);
+		assertThat(this.cache.getHits()).isEqualTo(1);
+		assertThat(archive).isEqualTo(
+				archiveGenerator.generate(createProjectRequest(), ArchiveFormat.ZIP));
+		verifyProjectSuccessfulEventFor(request);
+	}
+
+	@Test
+	void prewarmedArchiveMatchesGeneratedArchive() throws Exception {
+		ProjectArchiveCache anotherCache = new ProjectArchiveCache(0);
+		byte[] generated = new ProjectArchiveGenerator(this.projectGenerator,
+				anotherCache).generate(createProjectRequest("web"), ArchiveFormat.ZIP);
+		createPrewarmer(requests(style("web"))).prewarm();
+		assertThat(this.cache.get(getMetadata(),
+				key(createProjectRequest("web"), ArchiveFormat.ZIP)))
+						.isEqualTo(generated);
+	}
+
+	@Test
+	void archiveKeyChangesWithDefaultBootVersion() {
+		ProjectRequest request = createProjectRequest();
+		String key = key(request, ArchiveFormat.ZIP);
+		getMetadata().updateSpringBootVersions(Collections
+				.singletonList(DefaultMetadataElement.create("2.1.2.RELEASE", true)));
+		assertThat(key(request, ArchiveFormat.ZIP)).isNotEqualTo(key);
+	}
+
+	private String key(ProjectRequest request, ArchiveFormat format) {
+		return ProjectArchiveGenerator.generateKey(request, getMetadata(), format);
+	}
+
+	private ProjectArchivePrewarmer createPrewarmer(
+			PopularProjectRequests... popularRequests) {
+		return new ProjectArchivePrewarmer(
+				new ProjectArchiveGenerator(this.projectGenerator, this.cache),
+				this.projectGenerator.getMetadataProvider(),
+				Arrays.asList(popularRequests), this.properties);
+	}
+
+	private InitializrMetadata getMetadata() {
+		return this.projectGenerator.getMetadataProvider().get();
+	}
+
+	@SafeVarargs
+	private static PopularProjectRequests requests(Map<String, Object>... requests) {
+		return (limit) -> Arrays.asList(requests);
+	}
+
+	private static Map<String, Object> style(String... dependencies) {
+		List<String> style = Arrays.asList(dependencies);
+		return Collections.singletonMap("style", style);
+	}
+
+}
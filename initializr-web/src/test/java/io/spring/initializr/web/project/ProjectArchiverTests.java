@@ -0,0 +1,156 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.tools.tar.TarEntry;
+import org.apache.tools.tar.TarInputStream;
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectArchiver}.
+ *
+ * @author Stephane Nicoll
+ */
+@ExtendWith(TempDirectory.class)
+class ProjectArchiverTests {
+
+	private File dir;
+
+	private File target;
+
+	@BeforeEach
+	void createProject(@TempDirectory.TempDir Path temp) throws IOException {
+		this.dir = new File(temp.toFile(), "project");
+		this.target = new File(temp.toFile(), "archive");
+		write("demo/src/main/java/Demo.java", "class Demo {}");
+		write("demo/pom.xml", "<project/>");
+		write("demo/mvnw", "#!/bin/sh");
+		new File(this.dir, "demo/src/main/resources/static").mkdirs();
+	}
+
+	@Test
+	void zipIsReproducible() throws IOException {
+		byte[] first = ProjectArchiver.zip(this.dir, "demo/mvnw");
+		touch("demo/pom.xml");
+		assertThat(ProjectArchiver.zip(this.dir, "demo/mvnw")).isEqualTo(first);
+	}
+
+	@Test
+	void zipIsReproducibleAcrossTimeZones() throws IOException {
+		TimeZone timeZone = TimeZone.getDefault();
+		try {
+			TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+			byte[] first = ProjectArchiver.zip(this.dir, "demo/mvnw");
+			TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+			assertThat(ProjectArchiver.zip(this.dir, "demo/mvnw")).isEqualTo(first);
+			TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+			assertThat(ProjectArchiver.zip(this.dir, "demo/mvnw")).isEqualTo(first);
+		}
+		finally {
+			TimeZone.setDefault(timeZone);
+		}
+	}
+
+	@Test
+	void zipEntries() throws IOException {
+		Files.write(this.target.toPath(), ProjectArchiver.zip(this.dir, "demo/mvnw"));
+		List<String> names = new ArrayList<>();
+		try (ZipFile zip = new ZipFile(this.target)) {
+			for (ZipEntry entry : Collections.list(zip.getEntries())) {
+				names.add(entry.getName());
+				assertThat(entry.getTime()).isEqualTo(
+						ProjectArchiver.toZipTime(ProjectArchiver.ZIP_ENTRY_TIME));
+			}
+			assertThat(zip.getEntry("demo/mvnw").getUnixMode())
+					.isEqualTo(UnixStat.FILE_FLAG | 0755);
+			assertThat(zip.getEntry("demo/pom.xml").getUnixMode())
+					.isEqualTo(UnixStat.FILE_FLAG | 0644);
+			ZipEntry staticDir = zip.getEntry("demo/src/main/resources/static/");
+			assertThat(staticDir.isDirectory()).isTrue();
+			assertThat(staticDir.getUnixMode()).isEqualTo(UnixStat.DIR_FLAG | 0755);
+		}
+		assertThat(names).containsExactly("demo/", "demo/mvnw", "demo/pom.xml",
+				"demo/src/", "demo/src/main/", "demo/src/main/java/",
+				"demo/src/main/java/Demo.java", "demo/src/main/resources/",
+				"demo/src/main/resources/static/");
+	}
+
+	@Test
+	void tgzIsReproducible() throws IOException {
+		byte[] first = ProjectArchiver.tgz(this.dir, "demo/mvnw");
+		touch("demo/pom.xml");
+		assertThat(ProjectArchiver.tgz(this.dir, "demo/mvnw")).isEqualTo(first);
+	}
+
+	@Test
+	void tgzEntries() throws IOException {
+		byte[] archive = ProjectArchiver.tgz(this.dir, "demo/mvnw");
+		List<String> names = new ArrayList<>();
+		try (TarInputStream tar = new TarInputStream(
+				new GZIPInputStream(new ByteArrayInputStream(archive)))) {
+			TarEntry entry;
+			while ((entry = tar.getNextEntry()) != null) {
+				names.add(entry.getName());
+				assertThat(entry.getModTime().getTime())
+						.isEqualTo(ProjectArchiver.TAR_ENTRY_TIME);
+				assertThat(entry.getUserName()).isEmpty();
+				assertThat(entry.getLongUserId()).isEqualTo(0L);
+				if (entry.getName().equals("demo/mvnw")) {
+					assertThat(entry.getMode()).isEqualTo(UnixStat.FILE_FLAG | 0755);
+				}
+				else if (entry.getName().equals("demo/pom.xml")) {
+					assertThat(entry.getMode()).isEqualTo(UnixStat.FILE_FLAG | 0644);
+				}
+			}
+		}
+		assertThat(names).containsExactly("demo/", "demo/mvnw", "demo/pom.xml",
+				"demo/src/", "demo/src/main/", "demo/src/main/java/",
+				"demo/src/main/java/Demo.java", "demo/src/main/resources/",
+				"demo/src/main/resources/static/");
+	}
+
+	private void write(String path, String content) throws IOException {
+		File file = new File(this.dir, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void touch(String path) {
+		new File(this.dir, path).setLastModified(System.currentTimeMillis() + 60000);
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import io.spring.initializr.generator.ProjectContent;
+import io.spring.initializr.generator.ProjectContent.Entry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectContentDiff}.
+ *
+ * @author Stephane Nicoll
+ */
+class ProjectContentDiffTests {
+
+	@Test
+	void identicalContents() {
+		ProjectContentDiff diff = ProjectContentDiff.of(createContent(), createContent());
+		assertThat(diff.isEmpty()).isTrue();
+		assertThat(diff.toUnifiedPatch()).isEmpty();
+		assertThat(diff.getChanges().getEntries()).isEmpty();
+	}
+
+	@Test
+	void changesOnlyHoldAddedAndModifiedEntries() {
+		ProjectContent to = createContent();
+		to.addFile("demo/pom.xml", "<project>\n<dependency/>\n</project>\n");
+		to.addDirectory("demo/src/main/resources/static");
+		ProjectContent from = createContent();
+		from.addFile("demo/HELP.md", "help");
+		ProjectContentDiff diff = ProjectContentDiff.of(from, to);
+		assertThat(diff.getChanges().getEntries()).extracting(Entry::getPath)
+				.containsExactly("demo/", "demo/pom.xml", "demo/src/", "demo/src/main/",
+						"demo/src/main/resources/", "demo/src/main/resources/static/");
+		assertThat(diff.getRemovedPaths()).containsExactly("demo/HELP.md");
+	}
+
+	@Test
+	void modifiedFile() {
+		ProjectContent from = new ProjectContent();
+		from.addFile("pom.xml", "a\nb\nc\nd\ne\nf\ng\nh\ni\nj\n");
+		ProjectContent to = new ProjectContent();
+		to.addFile("pom.xml", "a\nb\nc\nd\nE\nf\ng\nh\ni\nj\nk\n");
+		assertThat(ProjectContentDiff.of(from, to).toUnifiedPatch()).isEqualTo(
+				"diff --git a/pom.xml b/pom.xml\n" + "--- a/pom.xml\n" + "+++ b/pom.xml\n"
+						+ "@@ -2,9 +2,10 @@\n" + " b\n" + " c\n" + " d\n" + "-e\n"
+						+ "+E\n" + " f\n" + " g\n" + " h\n" + " i\n" + " j\n" + "+k\n");
+	}
+
+	@Test
+	void modifiedFileWithDistantChanges() {
+		ProjectContent from = new ProjectContent();
+		from.addFile("pom.xml", "1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n");
+		ProjectContent to = new ProjectContent();
+		to.addFile("pom.xml", "0\n1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n");
+		assertThat(ProjectContentDiff.of(from, to).toUnifiedPatch()).isEqualTo(
+				"diff --git a/pom.xml b/pom.xml\n" + "--- a/pom.xml\n" + "+++ b/pom.xml\n"
+						+ "@@ -1,3 +1,4 @@\n" + "+0\n" + " 1\n" + " 2\n" + " 3\n"
+						+ "@@ -9,4 +10,3 @@\n" + " 9\n" + " 10\n" + " 11\n" + "-12\n");
+	}
+
+	@Test
+	void modifiedFileWithoutFinalNewLine() {
+		ProjectContent from = new ProjectContent();
+		from.addFile("test.txt", "a\nb");
+		ProjectContent to = new ProjectContent();
+		to.addFile("test.txt", "a\nc");
+		assertThat(ProjectContentDiff.of(from, to).toUnifiedPatch())
+				.isEqualTo("diff --git a/test.txt b/test.txt\n" + "--- a/test.txt\n"
+						+ "+++ b/test.txt\n" + "@@ -1,2 +1,2 @@\n" + " a\n" + "-b\n"
+						+ "\\ No newline at end of file\n" + "+c\n"
+						+ "\\ No newline at end of file\n");
+	}
+
+	@Test
+	void addedAndRemovedFiles() {
+		ProjectContent from = new ProjectContent();
+		from.addFile("old.txt", "old\n");
+		from.addFile("empty.txt", "");
+		ProjectContent to = new ProjectContent();
+		to.addFile("new.txt", "new\nfile\n");
+		assertThat(ProjectContentDiff.of(from, to).toUnifiedPatch()).isEqualTo(
+				"diff --git a/empty.txt b/empty.txt\n" + "deleted file mode 100644\n"
+						+ "diff --git a/new.txt b/new.txt\n" + "new file mode 100644\n"
+						+ "--- /dev/null\n" + "+++ b/new.txt\n" + "@@ -0,0 +1,2 @@\n"
+						+ "+new\n" + "+file\n" + "diff --git a/old.txt b/old.txt\n"
+						+ "deleted file mode 100644\n" + "--- a/old.txt\n"
+						+ "+++ /dev/null\n" + "@@ -1 +0,0 @@\n" + "-old\n");
+	}
+
+	@Test
+	void modifiedBinaryFile() {
+		ProjectContent from = new ProjectContent();
+		from.addFile("wrapper.jar", new byte[] { 1, 0, 2 }, false);
+		ProjectContent to = new ProjectContent();
+		to.addFile("wrapper.jar", new byte[] { 1, 0, 3 }, false);
+		assertThat(ProjectContentDiff.of(from, to).toUnifiedPatch())
+				.isEqualTo("diff --git a/wrapper.jar b/wrapper.jar\n"
+						+ "Binary files a/wrapper.jar and b/wrapper.jar differ\n");
+	}
+
+	@Test
+	void modifiedMode() {
+		ProjectContent from = new ProjectContent();
+		from.addFile("mvnw", new byte[] { 'a' }, false);
+		ProjectContent to = new ProjectContent();
+		to.addFile("mvnw", new byte[] { 'a' }, true);
+		assertThat(ProjectContentDiff.of(from, to).toUnifiedPatch()).isEqualTo(
+				"diff --git a/mvnw b/mvnw\n" + "old mode 100644\n" + "new mode 100755\n");
+	}
+
+	private static ProjectContent createContent() {
+		ProjectContent content = new ProjectContent();
+		content.addFile("demo/pom.xml", "<project>\n</project>\n");
+		content.addFile("demo/mvnw", new byte[] { 'a' }, true);
+		content.addFile("demo/.mvn/wrapper/maven-wrapper.jar", new byte[] { 0, 1 },
+				false);
+		return content;
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.web.project.ProjectGenerationMonitor.Generation;
+import io.spring.initializr.web.project.ProjectGenerationMonitor.SlowGeneration;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProjectGenerationMonitor}.
+ *
+ * @author Stephane Nicoll
+ */
+class ProjectGenerationMonitorTests {
+
+	@Test
+	void inFlightGenerations() {
+		ProjectGenerationMonitor monitor = new ProjectGenerationMonitor();
+		Generation first = monitor.start(createRequest(), "zip");
+		Generation second = monitor.start(createRequest(), "zip");
+		assertThat(monitor.getInFlight()).isEqualTo(2);
+		first.end();
+		assertThat(monitor.getInFlight()).isEqualTo(1);
+		assertThat(monitor.getCompleted()).isEqualTo(1);
+		second.end();
+		second.end();
+		assertThat(monitor.getInFlight()).isEqualTo(0);
+		assertThat(monitor.getCompleted()).isEqualTo(2);
+	}
+
+	@Test
+	void fastGenerationIsNotRetained() {
+		ProjectGenerationMonitor monitor = new ProjectGenerationMonitor(
+				Duration.ofHours(1), 10);
+		monitor.start(createRequest(), "zip").end();
+		assertThat(monitor.getSlowGenerations()).isEmpty();
+	}
+
+	@Test
+	void slowGenerationIsRetainedWithPhases() {
+		ProjectGenerationMonitor monitor = new ProjectGenerationMonitor(Duration.ZERO,
+				10);
+		ProjectRequest request = createRequest();
+		request.setDependencies(Collections.singletonList("web"));
+		Generation generation = monitor.start(request, "tar.gz");
+		generation.phase("generate");
+		generation.phase("archive");
+		generation.end();
+		List<SlowGeneration> slowGenerations = monitor.getSlowGenerations();
+		assertThat(slowGenerations).hasSize(1);
+		SlowGeneration slowGeneration = slowGenerations.get(0);
+		assertThat(slowGeneration.getType()).isEqualTo("maven-project");
+		assertThat(slowGeneration.getLanguage()).isEqualTo("java");
+		assertThat(slowGeneration.getDependencies()).isEqualTo(1);
+		assertThat(slowGeneration.getFormat()).isEqualTo("tar.gz");
+		assertThat(slowGeneration.getTimestamp()).isNotNull();
+		assertThat(slowGeneration.getPhases()).containsOnlyKeys("generate", "archive");
+	}
+
+	@Test
+	void slowGenerationsAreBounded() {
+		ProjectGenerationMonitor monitor = new ProjectGenerationMonitor(Duration.ZERO, 2);
+		monitor.start(createRequest(), "one").end();
+		monitor.start(createRequest(), "two").end();
+		monitor.start(createRequest(), "three").end();
+		assertThat(monitor.getSlowGenerations()).extracting(SlowGeneration::getFormat)
+				.containsExactly("three", "two");
+	}
+
+	private static ProjectRequest createRequest() {
+		ProjectRequest request = new ProjectRequest();
+		request.setType("maven-project");
+		request.setLanguage("java");
+		return request;
+	}
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.project;
+
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import io.spring.initializr.generator.BasicProjectRequest;
+import io.spring.initializr.generator.ProjectRequest;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.SimpleInitializrMetadataProvider;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link RequestResourceUsageInterceptor}.
+ *
+ * @author Stephane Nicoll
+ */
+class RequestResourceUsageInterceptorTests {
+
+	private static final int ALLOCATION_SIZE = 1024 * 1024;
+
+	private final InitializrMetadata metadata = InitializrMetadataTestBuilder
+			.withDefaults().build();
+
+	private final List<RequestResourceUsage> usages = new ArrayList<>();
+
+	private final RequestResourceUsageInterceptor interceptor = new RequestResourceUsageInterceptor(
+			new SimpleInitializrMetadataProvider(this.metadata),
+			Collections.singletonList(this.usages::add));
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+	private volatile byte[] allocation;
+
+	@Test
+	void usageOfRequestWithoutProjectRequest() {
+		this.request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+				"/metadata/config");
+		this.interceptor.preHandle(this.request, this.response, null);
+		allocate();
+		this.interceptor.afterCompletion(this.request, this.response, null, null);
+		assertThat(this.usages).hasSize(1);
+		RequestResourceUsage usage = this.usages.get(0);
+		assertThat(usage.getEndpoint()).isEqualTo("/metadata/config");
+		assertThat(usage.getBuild()).isEqualTo(RequestResourceUsage.NONE);
+		assertThat(usage.getLanguage()).isEqualTo(RequestResourceUsage.NONE);
+		assertThat(usage.getDependencies()).isEqualTo(0);
+		assertThat(usage.getCpuTime()).isGreaterThanOrEqualTo(0);
+		assertThat(usage.getAllocatedBytes()).isGreaterThanOrEqualTo(ALLOCATION_SIZE);
+	}
+
+	@Test
+	void usageOfRequestWithProjectRequest() {
+		ProjectRequest projectRequest = createProjectRequest();
+		projectRequest.setType("gradle-project");
+		projectRequest.setStyle(Collections.singletonList("web"));
+		projectRequest.setDependencies(Arrays.asList("security", "data-jpa"));
+		RequestResourceUsage usage = handle(projectRequest, "generate");
+		assertThat(usage.getEndpoint()).isEqualTo("unknown");
+		assertThat(usage.getBuild()).isEqualTo("gradle");
+		assertThat(usage.getLanguage()).isEqualTo("java");
+		assertThat(usage.getDependencies()).isEqualTo(3);
+	}
+
+	@Test
+	void usageOfRequestWithUnknownLanguage() {
+		ProjectRequest projectRequest = createProjectRequest();
+		projectRequest.setLanguage("does-not-exist");
+		RequestResourceUsage usage = handle(projectRequest, "generate");
+		assertThat(usage.getBuild()).isEqualTo("maven");
+		assertThat(usage.getLanguage()).isEqualTo(RequestResourceUsage.OTHER);
+	}
+
+	@Test
+	void usageOfRequestWithUnknownBuild() {
+		ProjectRequest projectRequest = createProjectRequest();
+		projectRequest.setBuild("does-not-exist");
+		RequestResourceUsage usage = handle(projectRequest, "generate");
+		assertThat(usage.getBuild()).isEqualTo(RequestResourceUsage.OTHER);
+		assertThat(usage.getLanguage()).isEqualTo("java");
+	}
+
+	@Test
+	void usageOfRequestThatDoesNotGenerateProject() {
+		RequestResourceUsage usage = handle(createProjectRequest(), "metadata");
+		assertThat(usage.getBuild()).isEqualTo(RequestResourceUsage.NONE);
+		assertThat(usage.getLanguage()).isEqualTo(RequestResourceUsage.NONE);
+		assertThat(usage.getDependencies()).isEqualTo(0);
+	}
+
+	@Test
+	void usageOfRequestWithoutHandlerMethod() {
+		this.request.setAttribute(MainController.PROJECT_REQUEST_ATTRIBUTE,
+				createProjectRequest());
+		this.interceptor.preHandle(this.request, this.response, null);
+		this.interceptor.afterCompletion(this.request, this.response, null, null);
+		assertThat(this.usages.get(0).getLanguage()).isEqualTo(RequestResourceUsage.NONE);
+	}
+
+	@Test
+	void usageOfRequestIncludesCallableThread() throws Exception {
+		this.interceptor.preHandle(this.request, this.response, null);
+		this.interceptor.afterConcurrentHandlingStarted(this.request, this.response,
+				null);
+		ServletWebRequest webRequest = new ServletWebRequest(this.request);
+		Callable<Object> task = () -> null;
+		Thread thread = new Thread(() -> {
+			this.interceptor.preProcess(webRequest, task);
+			allocate();
+			this.interceptor.postProcess(webRequest, task, null);
+		});
+		thread.start();
+		thread.join();
+		this.interceptor.preHandle(this.request, this.response, null);
+		this.interceptor.afterCompletion(this.request, this.response, null, null);
+		assertThat(this.usages).hasSize(1);
+		assertThat(this.usages.get(0).getAllocatedBytes())
+				.isGreaterThanOrEqualTo(ALLOCATION_SIZE);
+	}
+
+	@Test
+	void usageWhenThreadMXBeanDoesNotSupportMeasurements() {
+		RequestResourceUsageInterceptor interceptor = new RequestResourceUsageInterceptor(
+				new SimpleInitializrMetadataProvider(this.metadata),
+				Collections.singletonList(this.usages::add), mock(ThreadMXBean.class));
+		interceptor.preHandle(this.request, this.response, null);
+		interceptor.afterCompletion(this.request, this.response, null, null);
+		assertThat(this.usages.get(0).getCpuTime()).isEqualTo(-1);
+		assertThat(this.usages.get(0).getAllocatedBytes()).isEqualTo(-1);
+	}
+
+	@Test
+	void failingListenerDoesNotPreventOtherListeners() {
+		RequestResourceUsageInterceptor interceptor = new RequestResourceUsageInterceptor(
+				new SimpleInitializrMetadataProvider(this.metadata),
+				Arrays.asList((usage) -> {
+					throw new IllegalStateException("test");
+				}, this.usages::add));
+		interceptor.preHandle(this.request, this.response, null);
+		interceptor.afterCompletion(this.request, this.response, null, null);
+		assertThat(this.usages).hasSize(1);
+	}
+
+	@Test
+	void requestThatWasNotHandledIsIgnored() {
+		this.interceptor.afterCompletion(this.request, this.response, null, null);
+		assertThat(this.usages).isEmpty();
+	}
+
+	private ProjectRequest createProjectRequest() {
+		ProjectRequest projectRequest = new ProjectRequest();
+		projectRequest.initialize(this.metadata);
+		return projectRequest;
+	}
+
+	private RequestResourceUsage handle(ProjectRequest projectRequest,
+			String methodName) {
+		HandlerMethod handler = new HandlerMethod(new TestController(), ReflectionUtils
+				.findMethod(TestController.class, methodName, (Class<?>[]) null));
+		this.request.setAttribute(MainController.PROJECT_REQUEST_ATTRIBUTE,
+				projectRequest);
+		this.interceptor.preHandle(this.request, this.response, handler);
+		this.interceptor.afterCompletion(this.request, this.response, handler, null);
+		assertThat(this.usages).hasSize(1);
+		return this.usages.get(0);
+	}
+
+	private void allocate() {
+		this.allocation = new byte[ALLOCATION_SIZE];
+	}
+
+	static class TestController {
+
+		public void generate(BasicProjectRequest request) {
+		}
+
+		public void metadata() {
+		}
+
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.spring.initializr.generator.AbstractProjectGeneratorTests;
+import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.util.TemplateRenderer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * Tests for {@link InitializrWarmup}.
+ *
+ * @author Stephane Nicoll
+ */
+class InitializrWarmupTests extends AbstractProjectGeneratorTests {
+
+	private final WarmupProperties properties = new WarmupProperties();
+
+	@Test
+	void warmupStopsWhenIterationTimeIsStable() {
+		this.properties.setMinIterations(3);
+		this.properties.setWindow(2);
+		this.properties.setTolerance(1000);
+		InitializrWarmup warmup = createWarmup();
+		assertThat(warmup.isComplete()).isFalse();
+		warmup.warmup();
+		assertThat(warmup.isComplete()).isTrue();
+		assertThat(warmup.isStable()).isTrue();
+		assertThat(warmup.getIterations()).isEqualTo(3);
+	}
+
+	@Test
+	void warmupStopsWhenTimeBudgetIsExhausted() {
+		this.properties.setTimeBudget(Duration.ZERO);
+		InitializrWarmup warmup = createWarmup();
+		warmup.warmup();
+		assertThat(warmup.isComplete()).isTrue();
+		assertThat(warmup.isStable()).isFalse();
+		assertThat(warmup.getIterations()).isEqualTo(0);
+	}
+
+	@Test
+	void warmupDoesNotPublishEvents() {
+		this.properties.setMinIterations(1);
+		this.properties.setWindow(2);
+		this.properties.setTolerance(1000);
+		createWarmup().warmup();
+		verifyNoMoreInteractions(this.eventPublisher);
+	}
+
+	@Test
+	void warmupIsSkippedWithInvalidDefaultBootVersion() {
+		List<DefaultMetadataElement> bootVersions = this.projectGenerator
+				.getMetadataProvider().get().getBootVersions().getContent();
+		bootVersions.clear();
+		bootVersions.add(DefaultMetadataElement.create("not-a-version", true));
+		InitializrWarmup warmup = createWarmup();
+		warmup.warmup();
+		assertThat(warmup.isComplete()).isTrue();
+		assertThat(warmup.getIterations()).isEqualTo(0);
+	}
+
+	private InitializrWarmup createWarmup() {
+		return new InitializrWarmup(this.projectGenerator,
+				this.projectGenerator.getMetadataProvider(),
+				new DefaultDependencyMetadataProvider(), new TemplateRenderer(),
+				this.properties);
+	}
+
+}
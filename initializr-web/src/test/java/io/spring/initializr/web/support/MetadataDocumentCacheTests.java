@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MetadataDocumentCache}.
+ *
+ * @author Stephane Nicoll
+ */
+class MetadataDocumentCacheTests {
+
+	private final MetadataDocumentCache cache = new MetadataDocumentCache(2);
+
+	private final AtomicInteger invocations = new AtomicInteger();
+
+	@Test
+	void documentIsComputedOnce() {
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		MetadataDocument document = this.cache.get(metadata, "test", this::content);
+		assertThat(this.cache.get(metadata, "test", this::content)).isSameAs(document);
+		assertThat(this.invocations).hasValue(1);
+	}
+
+	@Test
+	void hitsAndMissesAreCounted() {
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		this.cache.get(metadata, "test", this::content);
+		this.cache.get(metadata, "test", this::content);
+		this.cache.get(metadata, "test", this::content);
+		assertThat(this.cache.getHits()).isEqualTo(2);
+		assertThat(this.cache.getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	void documentIsRecomputedWhenMetadataIsUpdated() {
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		MetadataDocument document = this.cache.get(metadata, "test", this::content);
+		metadata.updateSpringBootVersions(Collections.singletonList(
+				DefaultMetadataElement.create("2.1.0.RELEASE", "2.1.0", true)));
+		assertThat(this.cache.get(metadata, "test", this::content)).isNotSameAs(document);
+		assertThat(this.invocations).hasValue(2);
+	}
+
+	@Test
+	void documentIsRecomputedForAnotherMetadata() {
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		InitializrMetadata anotherMetadata = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		this.cache.get(metadata, "test", this::content);
+		this.cache.get(anotherMetadata, "test", this::content);
+		assertThat(this.invocations).hasValue(2);
+		assertThat(this.cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	void leastRecentlyUsedDocumentIsEvicted() {
+		InitializrMetadata metadata = InitializrMetadataTestBuilder.withDefaults()
+				.build();
+		this.cache.get(metadata, "one", this::content);
+		this.cache.get(metadata, "two", this::content);
+		this.cache.get(metadata, "one", this::content);
+		this.cache.get(metadata, "three", this::content);
+		assertThat(this.cache.size()).isEqualTo(2);
+		this.cache.get(metadata, "one", this::content);
+		assertThat(this.invocations).hasValue(3);
+		this.cache.get(metadata, "two", this::content);
+		assertThat(this.invocations).hasValue(4);
+	}
+
+	private String content() {
+		return "content-" + this.invocations.incrementAndGet();
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MetadataDocument}.
+ *
+ * @author Stephane Nicoll
+ */
+class MetadataDocumentTests {
+
+	@Test
+	void gzipContentMatchesContent() throws IOException {
+		MetadataDocument document = MetadataDocument.of("{\"test\": \"àéè\"}");
+		assertThat(gunzip(document.getGzipContent())).isEqualTo(document.getContent());
+		assertThat(new String(document.getContent(), StandardCharsets.UTF_8))
+				.isEqualTo("{\"test\": \"àéè\"}");
+	}
+
+	@Test
+	void sameContentHasSameETag() {
+		assertThat(MetadataDocument.of("test").getETag())
+				.isEqualTo(MetadataDocument.of("test").getETag());
+		assertThat(MetadataDocument.of("test").getETag())
+				.isNotEqualTo(MetadataDocument.of("test2").getETag());
+	}
+
+	@Test
+	void responseEntityWithoutAcceptEncoding() {
+		MetadataDocument document = MetadataDocument.of("test");
+		ResponseEntity<byte[]> entity = document.toResponseEntity(ResponseEntity.ok(),
+				MediaType.APPLICATION_JSON, null);
+		assertThat(entity.getBody()).isSameAs(document.getContent());
+		assertThat(entity.getHeaders().getContentType())
+				.isEqualTo(MediaType.APPLICATION_JSON_UTF8);
+		assertThat(entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(entity.getHeaders().getETag())
+				.isEqualTo("\"" + document.getETag() + "\"");
+		assertThat(entity.getHeaders().getVary())
+				.containsExactly(HttpHeaders.ACCEPT_ENCODING);
+	}
+
+	@Test
+	void responseEntityWithGzipAcceptEncoding() {
+		MetadataDocument document = MetadataDocument.of("test");
+		ResponseEntity<byte[]> entity = document.toResponseEntity(ResponseEntity.ok(),
+				MediaType.APPLICATION_JSON, "gzip, deflate");
+		assertThat(entity.getBody()).isSameAs(document.getGzipContent());
+		assertThat(entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+				.isEqualTo("gzip");
+		assertThat(entity.getHeaders().getETag())
+				.isEqualTo("\"" + document.getETag() + "-gzip\"");
+	}
+
+	@Test
+	void acceptsGzip() {
+		assertThat(MetadataDocument.acceptsGzip("gzip")).isTrue();
+		assertThat(MetadataDocument.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+		assertThat(MetadataDocument.acceptsGzip("x-gzip")).isTrue();
+		assertThat(MetadataDocument.acceptsGzip("*")).isTrue();
+	}
+
+	@Test
+	void doesNotAcceptGzip() {
+		assertThat(MetadataDocument.acceptsGzip(null)).isFalse();
+		assertThat(MetadataDocument.acceptsGzip("")).isFalse();
+		assertThat(MetadataDocument.acceptsGzip("deflate, br")).isFalse();
+		assertThat(MetadataDocument.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(MetadataDocument.acceptsGzip("*, gzip;q=0.0")).isFalse();
+		assertThat(MetadataDocument.acceptsGzip("identity, *;q=0")).isFalse();
+	}
+
+	private static byte[] gunzip(byte[] content) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(
+				new ByteArrayInputStream(content))) {
+			return StreamUtils.copyToByteArray(in);
+		}
+	}
+
+}
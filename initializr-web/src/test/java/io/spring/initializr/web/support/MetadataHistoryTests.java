@@ -0,0 +1,178 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.metadata.Link;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import io.spring.initializr.web.support.MetadataDelta.DependencyItem;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link MetadataHistory}.
+ *
+ * @author Stephane Nicoll
+ */
+class MetadataHistoryTests {
+
+	private final MetadataHistory history = new MetadataHistory(2, 100);
+
+	@Test
+	void firstRevisionIsInitialRevision() {
+		MetadataSnapshot snapshot = this.history.update(createMetadata());
+		assertThat(snapshot.getRevision()).isEqualTo(100);
+		assertThat(this.history.get(100)).isSameAs(snapshot);
+	}
+
+	@Test
+	void revisionIncreasesWhenContentChanges() {
+		MetadataSnapshot first = this.history.update(createMetadata());
+		MetadataSnapshot second = this.history
+				.update(createMetadata(Dependency.withId("web", "org.foo", "web")));
+		assertThat(second.getRevision()).isGreaterThan(first.getRevision());
+	}
+
+	@Test
+	void updateWithSameContentKeepsRevision() {
+		InitializrMetadata metadata = createMetadata();
+		MetadataSnapshot snapshot = this.history.update(metadata);
+		metadata.updateSpringBootVersions(
+				new ArrayList<>(metadata.getBootVersions().getContent()));
+		assertThat(this.history.update(metadata)).isSameAs(snapshot);
+		assertThat(this.history.update(createMetadata())).isSameAs(snapshot);
+	}
+
+	@Test
+	void deltaWithBootVersionsChange() {
+		InitializrMetadata metadata = createMetadata();
+		MetadataSnapshot previous = this.history.update(metadata);
+		metadata.updateSpringBootVersions(
+				Arrays.asList(DefaultMetadataElement.create("2.1.1.RELEASE", true),
+						DefaultMetadataElement.create("2.1.0.RELEASE", false)));
+		MetadataSnapshot current = this.history.update(metadata);
+		assertThat(current.getRevision()).isNotEqualTo(previous.getRevision());
+		MetadataDelta delta = current.since(previous);
+		assertThat(delta.getSince()).isEqualTo(previous.getRevision());
+		assertThat(delta.getRevision()).isEqualTo(current.getRevision());
+		assertThat(delta.getAddedDependencies()).isEmpty();
+		assertThat(delta.getRemovedDependencies()).isEmpty();
+		assertThat(delta.getVersionRanges()).isEmpty();
+		assertThat(delta.getBootVersions()).extracting(DefaultMetadataElement::getId)
+				.containsExactly("2.1.1.RELEASE", "2.1.0.RELEASE");
+	}
+
+	@Test
+	void deltaWithDependenciesChanges() {
+		MetadataSnapshot previous = this.history.update(createMetadata());
+		Dependency web = Dependency.withId("web", "org.foo", "web");
+		web.setVersionRange("2.1.0.RELEASE");
+		Dependency security = Dependency.withId("security", "org.foo", "security");
+		InitializrMetadata metadata = createMetadata(web, security);
+		MetadataSnapshot current = this.history.update(metadata);
+		MetadataDelta delta = current.since(previous);
+		assertThat(delta.getAddedDependencies()).containsExactly(
+				new DependencyItem("security", "security", null, "test", null));
+		assertThat(delta.getChangedDependencies()).isEmpty();
+		assertThat(delta.getRemovedDependencies()).containsExactly("data-jpa");
+		assertThat(delta.getVersionRanges())
+				.containsExactly(entry("web", "2.1.0.RELEASE"));
+		assertThat(delta.getBootVersions()).isNull();
+	}
+
+	@Test
+	void expiredRevisionIsNotRetained() {
+		InitializrMetadata metadata = createMetadata();
+		long first = this.history.update(metadata).getRevision();
+		long[] revisions = new long[2];
+		for (int i = 0; i < 2; i++) {
+			metadata.updateSpringBootVersions(Arrays.asList(
+					DefaultMetadataElement.create("2.1." + i + ".RELEASE", true)));
+			revisions[i] = this.history.update(metadata).getRevision();
+		}
+		assertThat(this.history.get(first)).isNull();
+		assertThat(this.history.get(revisions[0])).isNotNull();
+		assertThat(this.history.get(revisions[1])).isNotNull();
+	}
+
+	@Test
+	void contentBackToPreviousStateGetsNewRevision() {
+		InitializrMetadata metadata = createMetadata();
+		long first = this.history.update(metadata).getRevision();
+		List<DefaultMetadataElement> bootVersions = new ArrayList<>(
+				metadata.getBootVersions().getContent());
+		metadata.updateSpringBootVersions(
+				Arrays.asList(DefaultMetadataElement.create("2.1.0.RELEASE", true)));
+		long second = this.history.update(metadata).getRevision();
+		metadata.updateSpringBootVersions(bootVersions);
+		MetadataSnapshot current = this.history.update(metadata);
+		assertThat(current.getRevision()).isGreaterThan(second);
+		assertThat(current.since(this.history.get(second)).getBootVersions())
+				.extracting(DefaultMetadataElement::getId)
+				.containsExactlyElementsOf(bootVersions.stream()
+						.map(DefaultMetadataElement::getId).collect(Collectors.toList()));
+		assertThat(first).isLessThan(second);
+	}
+
+	@Test
+	void deltaWithChangedDependency() {
+		MetadataSnapshot previous = this.history.update(createMetadata());
+		Dependency web = Dependency.withId("web", "org.foo", "web");
+		web.setName("Web");
+		web.setDescription("Web applications");
+		MetadataSnapshot current = this.history.update(createMetadata(web,
+				Dependency.withId("data-jpa", "org.foo", "data-jpa")));
+		assertThat(current.getRevision()).isGreaterThan(previous.getRevision());
+		MetadataDelta delta = current.since(previous);
+		assertThat(delta.getChangedDependencies()).containsExactly(
+				new DependencyItem("web", "Web", "Web applications", "test", null));
+		assertThat(delta.getAddedDependencies()).isEmpty();
+		assertThat(delta.getRemovedDependencies()).isEmpty();
+		assertThat(delta.getVersionRanges()).isEmpty();
+	}
+
+	@Test
+	void deltaWithChangedLinksIsNotAvailable() {
+		MetadataSnapshot previous = this.history.update(createMetadata());
+		Dependency web = Dependency.withId("web", "org.foo", "web");
+		web.getLinks().add(Link.create("guide", "https://example.com/guide"));
+		MetadataSnapshot current = this.history.update(createMetadata(web,
+				Dependency.withId("data-jpa", "org.foo", "data-jpa")));
+		assertThat(current.getRevision()).isGreaterThan(previous.getRevision());
+		assertThat(current.since(previous)).isNull();
+	}
+
+	private static InitializrMetadata createMetadata() {
+		return createMetadata(Dependency.withId("web", "org.foo", "web"),
+				Dependency.withId("data-jpa", "org.foo", "data-jpa"));
+	}
+
+	private static InitializrMetadata createMetadata(Dependency... dependencies) {
+		return InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("test", dependencies).build();
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.initializr.web.ui;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.spring.initializr.metadata.DefaultMetadataElement;
+import io.spring.initializr.metadata.Dependency;
+import io.spring.initializr.metadata.InitializrMetadata;
+import io.spring.initializr.test.metadata.InitializrMetadataTestBuilder;
+import io.spring.initializr.web.ui.DependencySearchIndex.Entry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DependencySearchIndex}.
+ *
+ * @author Stephane Nicoll
+ */
+class DependencySearchIndexTests {
+
+	@Test
+	void searchByPrefix() {
+		DependencySearchIndex index = DependencySearchIndex.of(createMetadata());
+		assertThat(ids(index.search("sec", (it) -> true, 10)))
+				.containsExactly("security");
+	}
+
+	@Test
+	void searchByKeyword() {
+		DependencySearchIndex index = DependencySearchIndex.of(createMetadata());
+		assertThat(ids(index.search("orm", (it) -> true, 10)))
+				.containsExactly("data-jpa");
+	}
+
+	@Test
+	void searchByAlias() {
+		DependencySearchIndex index = DependencySearchIndex.of(createMetadata());
+		assertThat(ids(index.search("mvc", (it) -> true, 10))).containsExactly("web");
+	}
+
+	@Test
+	void searchWithTypoIsOnlyUsedWithoutExactOrPrefixMatch() {
+		DependencySearchIndex index = DependencySearchIndex.of(createMetadata());
+		assertThat(ids(index.search("webf", (it) -> true, 10)))
+				.containsExactly("webflux");
+	}
+
+	@Test
+	void searchWithTypo() {
+		DependencySearchIndex index = DependencySearchIndex.of(createMetadata());
+		assertThat(ids(index.search("secrity", (it) -> true, 10)))
+				.containsExactly("security");
+	}
+
+	@Test
+	void searchRequiresAllTerms() {
+		DependencySearchIndex index = DependencySearchIndex.of(createMetadata());
+		assertThat(ids(index.search("data web", (it) -> true, 10))).isEmpty();
+		assertThat(ids(index.search("data jpa", (it) -> true, 10)))
+				.containsExactly("data-jpa");
+	}
+
+	@Test
+	void searchRanksExactMatchFirst() {
+		DependencySearchIndex index = DependencySearchIndex.of(createMetadata());
+		assertThat(ids(index.search("web", (it) -> true, 10))).containsExactly("web",
+				"websocket", "webflux");
+	}
+
+	@Test
+	void searchUsesWeightForSameRelevance() {
+		DependencySearchIndex index = DependencySearchIndex.of(createMetadata());
+		assertThat(ids(index.search("we", (it) -> true, 10))).containsExactly("websocket",
+				"web", "webflux");
+	}
+
+	@Test
+	void searchAppliesFilterAndLimit() {
+		DependencySearchIndex index = DependencySearchIndex.of(createMetadata());
+		assertThat(ids(index.search("web", (it) -> !it.getId().equals("websocket"), 2)))
+				.containsExactly("web", "webflux");
+	}
+
+	@Test
+	void indexIsCurrentUntilMetadataChanges() {
+		InitializrMetadata metadata = createMetadata();
+		DependencySearchIndex index = DependencySearchIndex.of(metadata);
+		assertThat(index.isCurrent(metadata)).isTrue();
+		assertThat(index.isCurrent(createMetadata())).isFalse();
+		metadata.updateSpringBootVersions(Collections
+				.singletonList(DefaultMetadataElement.create("2.1.0.RELEASE", true)));
+		assertThat(index.isCurrent(metadata)).isFalse();
+	}
+
+	@Test
+	void isWithinDistance() {
+		assertThat(DependencySearchIndex.isWithinDistance("kafka", "kafka", 0)).isTrue();
+		assertThat(DependencySearchIndex.isWithinDistance("kafak", "kafka", 1)).isFalse();
+		assertThat(DependencySearchIndex.isWithinDistance("kafak", "kafka", 2)).isTrue();
+		assertThat(DependencySearchIndex.isWithinDistance("kafk", "kafka", 1)).isTrue();
+		assertThat(DependencySearchIndex.isWithinDistance("kaf", "kafka", 1)).isFalse();
+	}
+
+	private static List<String> ids(List<Entry> entries) {
+		return entries.stream().map((it) -> it.getDependency().getId())
+				.collect(Collectors.toList());
+	}
+
+	private static InitializrMetadata createMetadata() {
+		Dependency web = Dependency.withId("web", "org.foo", "web");
+		web.setName("Web");
+		web.setDescription("Full-stack web development");
+		web.getAliases().add("mvc");
+		Dependency webflux = Dependency.withId("webflux", "org.foo", "webflux");
+		webflux.setDescription("Reactive web applications");
+		Dependency websocket = Dependency.withId("websocket", "org.foo", "websocket");
+		websocket.setDescription("Servlet web applications with WebSocket");
+		websocket.setWeight(50);
+		Dependency security = Dependency.withId("security", "org.foo", "security");
+		Dependency jpa = Dependency.withId("data-jpa", "org.foo", "data-jpa");
+		jpa.getKeywords().add("orm");
+		return InitializrMetadataTestBuilder.withDefaults()
+				.addDependencyGroup("web", web, webflux, websocket)
+				.addDependencyGroup("other", security, jpa).build();
+	}
+
+}
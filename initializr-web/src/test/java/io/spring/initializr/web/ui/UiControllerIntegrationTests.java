@@ -17,15 +17,21 @@
 package io.spring.initializr.web.ui;
 
 import io.spring.initializr.web.AbstractInitializrControllerIntegrationTests;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
 /**
  * @author Stephane Nicoll
@@ -48,6 +54,61 @@ class UiControllerIntegrationTests extends AbstractInitializrControllerIntegrati
 		validateDependenciesOutput("1.1.2", response.getBody());
 	}
 
+	@Test
+	void dependenciesWithQuery() throws JSONException {
+		ResponseEntity<String> response = execute("/ui/dependencies?q=thefoo",
+				String.class, null);
+		validateContentType(response, MediaType.APPLICATION_JSON);
+		JSONArray dependencies = new JSONObject(response.getBody())
+				.getJSONArray("dependencies");
+		assertThat(dependencies.length()).isEqualTo(1);
+		assertThat(dependencies.getJSONObject(0).getString("id"))
+				.isEqualTo("org.acme:foo");
+	}
+
+	@Test
+	void dependenciesWithQueryAndSize() throws JSONException {
+		ResponseEntity<String> response = execute("/ui/dependencies?q=b&size=2",
+				String.class, null);
+		JSONArray dependencies = new JSONObject(response.getBody())
+				.getJSONArray("dependencies");
+		assertThat(dependencies.length()).isEqualTo(2);
+		assertThat(dependencies.getJSONObject(0).getString("id"))
+				.isEqualTo("org.acme:bar");
+		assertThat(dependencies.getJSONObject(1).getString("id"))
+				.isEqualTo("org.acme:biz");
+	}
+
+	@Test
+	void dependenciesWithQueryAndLargeSize() throws JSONException {
+		ResponseEntity<String> response = execute(
+				"/ui/dependencies?q=b&size=" + Integer.MAX_VALUE, String.class, null);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		JSONArray dependencies = new JSONObject(response.getBody())
+				.getJSONArray("dependencies");
+		assertThat(dependencies.length()).isGreaterThanOrEqualTo(2);
+	}
+
+	@Test
+	void dependenciesWithQueryAndZeroSize() {
+		assertBadRequest("/ui/dependencies?q=b&size=0");
+	}
+
+	@Test
+	void dependenciesWithQueryAndNegativeSize() {
+		assertBadRequest("/ui/dependencies?q=b&size=-1");
+	}
+
+	private void assertBadRequest(String path) {
+		try {
+			execute(path, String.class, null);
+			fail("Should have failed");
+		}
+		catch (HttpClientErrorException ex) {
+			assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		}
+	}
+
 	protected void validateDependenciesOutput(String version, String actual)
 			throws JSONException {
 		JSONObject expected = readJsonFrom(